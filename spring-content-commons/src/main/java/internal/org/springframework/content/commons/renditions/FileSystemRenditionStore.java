@@ -0,0 +1,175 @@
+package internal.org.springframework.content.commons.renditions;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.content.commons.renditions.CachedRendition;
+import org.springframework.content.commons.renditions.RenditionCacheStore;
+import org.springframework.content.commons.repository.StoreAccessException;
+import org.springframework.util.Assert;
+
+/**
+ * Keeps cached renditions as files in a directory, one per cache key.  The <code>/</code> separated segments of a key
+ * are subdirectories, so the renditions of a source share a directory that is removed with them.  Renditions are
+ * written to a temporary file and moved into place once complete, so a partly written rendition is never read.  Reads
+ * touch the file so that {@link #trim(long, long)} removes the least recently used renditions first.
+ */
+public class FileSystemRenditionStore implements RenditionCacheStore {
+
+	private static final String TEMP_SUFFIX = ".tmp";
+	// a directory emptied by another thread may be removed between creating it and creating the file in it
+	private static final int CREATE_ATTEMPTS = 3;
+
+	private final File directory;
+
+	public FileSystemRenditionStore(File directory) {
+		Assert.notNull(directory, "directory must not be null");
+
+		this.directory = directory;
+	}
+
+	@Override
+	public void setContent(CachedRendition rendition, InputStream content) {
+		File target = file(rendition);
+		File temp = null;
+		try {
+			temp = createTemp(target);
+			Files.copy(content, temp.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			rendition.setContentLength(target.length());
+		} catch (IOException e) {
+			if (temp != null) {
+				temp.delete();
+				removeEmpty(target.getParentFile());
+			}
+			throw new StoreAccessException(String.format("Unable to cache rendition %s", rendition.getId()), e);
+		}
+	}
+
+	@Override
+	public void unsetContent(CachedRendition rendition) {
+		File file = file(rendition);
+		if (file.exists() && !file.delete()) {
+			throw new StoreAccessException(String.format("Unable to remove cached rendition %s", rendition.getId()));
+		}
+		removeEmpty(file.getParentFile());
+		rendition.setContentLength(null);
+	}
+
+	@Override
+	public InputStream getContent(CachedRendition rendition) {
+		File file = file(rendition);
+		try {
+			InputStream content = new FileInputStream(file);
+			file.setLastModified(System.currentTimeMillis());
+			return content;
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	@Override
+	public int unsetContents(String prefix, String retain) {
+		Assert.hasText(prefix, "prefix must not be empty");
+
+		int slash = prefix.lastIndexOf('/');
+		File parent = slash == -1 ? directory : new File(directory, prefix.substring(0, slash));
+		int removed = 0;
+		for (File file : files(parent)) {
+			String id = id(file);
+			if (id.startsWith(prefix) && (retain == null || !id.startsWith(retain)) && delete(file)) {
+				removed++;
+			}
+		}
+		removeEmpty(parent);
+		return removed;
+	}
+
+	@Override
+	public int trim(long maxBytes, long maxAge) {
+		List<File> files = files(directory);
+		Map<File, Long> used = new HashMap<>();
+		long total = 0;
+		for (File file : files) {
+			used.put(file, file.lastModified());
+			total += file.length();
+		}
+		files.sort(Comparator.comparing(used::get));
+
+		long cutoff = maxAge > 0 ? System.currentTimeMillis() - maxAge : Long.MIN_VALUE;
+		int removed = 0;
+		for (File file : files) {
+			if (used.get(file) >= cutoff && (maxBytes <= 0 || total <= maxBytes)) {
+				break;
+			}
+			long length = file.length();
+			if (delete(file)) {
+				total -= length;
+				removed++;
+				removeEmpty(file.getParentFile());
+			}
+		}
+		return removed;
+	}
+
+	private File createTemp(File target) throws IOException {
+		for (int attempt = 1; ; attempt++) {
+			File parent = target.getParentFile();
+			if (!parent.isDirectory() && !parent.mkdirs() && !parent.isDirectory()) {
+				throw new IOException(String.format("Unable to create rendition cache directory %s", parent));
+			}
+			try {
+				return Files.createTempFile(parent.toPath(), target.getName(), TEMP_SUFFIX).toFile();
+			} catch (NoSuchFileException e) {
+				if (attempt == CREATE_ATTEMPTS) {
+					throw e;
+				}
+			}
+		}
+	}
+
+	// the renditions, and any temporary files left by writes that never completed, under parent
+	private List<File> files(File parent) {
+		if (!parent.isDirectory()) {
+			return new ArrayList<>();
+		}
+		try (Stream<Path> paths = Files.walk(parent.toPath())) {
+			return paths.filter(Files::isRegularFile).map(Path::toFile).collect(Collectors.toList());
+		} catch (IOException | RuntimeException e) {
+			throw new StoreAccessException(String.format("Unable to list cached renditions in %s", parent), e);
+		}
+	}
+
+	private String id(File file) {
+		return directory.toPath().relativize(file.toPath()).toString().replace(File.separatorChar, '/');
+	}
+
+	private static boolean delete(File file) {
+		return file.delete() || !file.exists();
+	}
+
+	// removes the now empty directories of a source, up to but not including the cache directory itself
+	private void removeEmpty(File dir) {
+		while (dir != null && !dir.equals(directory) && dir.toPath().startsWith(directory.toPath()) && dir.delete()) {
+			dir = dir.getParentFile();
+		}
+	}
+
+	private File file(CachedRendition rendition) {
+		Assert.notNull(rendition.getId(), "rendition id must not be null");
+		return new File(directory, rendition.getId());
+	}
+}
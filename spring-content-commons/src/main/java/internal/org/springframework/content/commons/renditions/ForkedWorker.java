@@ -0,0 +1,170 @@
+package internal.org.springframework.content.commons.renditions;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.springframework.content.commons.repository.StoreAccessException;
+
+/**
+ * A forked JVM running a {@link RenditionWorker}, as seen from the application.  Not thread safe, a worker converts
+ * one rendition at a time.
+ */
+public class ForkedWorker {
+
+	private final Process process;
+	private final DataOutputStream in;
+	private final DataInputStream out;
+	private final ExecutorService writer;
+
+	private int conversions = 0;
+	private long usedHeap = 0;
+	private long maxHeap = Long.MAX_VALUE;
+	private volatile boolean killed = false;
+
+	public ForkedWorker(List<String> command) throws IOException {
+		this.process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+		this.in = new DataOutputStream(new BufferedOutputStream(process.getOutputStream()));
+		this.out = new DataInputStream(new BufferedInputStream(process.getInputStream()));
+		this.writer = Executors.newSingleThreadExecutor((runnable) -> {
+			Thread thread = new Thread(runnable, "rendition-worker-writer");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Converts <code>content</code> with the worker's instance of <code>providerClass</code>.  The rendition is read
+	 * from the worker into a temporary file, deleted when the returned stream is closed, so that the worker is free for
+	 * the next conversion.
+	 *
+	 * @throws StoreAccessException if the provider fails, after which the worker can be used again
+	 * @throws IOException if the worker cannot be talked to, after which it must be destroyed
+	 */
+	public InputStream convert(String providerClass, InputStream content, String toMimeType) throws IOException {
+		conversions++;
+		// the request is written while the response is read, as the worker may respond before reading all the content
+		Future<?> request = writer.submit(() -> {
+			try {
+				in.writeUTF(providerClass);
+				in.writeUTF(toMimeType);
+				WorkerProtocol.writeChunks(content, in);
+				in.flush();
+			} catch (IOException | RuntimeException e) {
+				destroy();
+				throw e;
+			}
+			return null;
+		});
+
+		InputStream rendition;
+		try {
+			rendition = response(providerClass, toMimeType);
+		} catch (IOException | RuntimeException e) {
+			request.cancel(true);
+			throw e;
+		}
+		try {
+			request.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			close(rendition);
+			throw new IOException("Interrupted writing to rendition worker", e);
+		} catch (ExecutionException e) {
+			close(rendition);
+			throw new IOException("Error writing to rendition worker", e.getCause());
+		}
+		return rendition;
+	}
+
+	private InputStream response(String providerClass, String toMimeType) throws IOException {
+		byte status = out.readByte();
+		InputStream rendition = null;
+		String error = null;
+		if (status == WorkerProtocol.FAILED) {
+			error = out.readUTF();
+		} else if (status == WorkerProtocol.OK) {
+			Path file = Files.createTempFile("rendition-", ".tmp");
+			try {
+				try (OutputStream spool = Files.newOutputStream(file)) {
+					WorkerProtocol.ChunkedInputStream chunks = new WorkerProtocol.ChunkedInputStream(out);
+					byte[] buffer = new byte[64 * 1024];
+					int read;
+					while ((read = chunks.read(buffer, 0, buffer.length)) != -1) {
+						spool.write(buffer, 0, read);
+					}
+				}
+				if (out.readByte() == WorkerProtocol.FAILED) {
+					error = out.readUTF();
+					Files.deleteIfExists(file);
+				} else {
+					rendition = Files.newInputStream(file, StandardOpenOption.DELETE_ON_CLOSE);
+				}
+			} catch (IOException e) {
+				Files.deleteIfExists(file);
+				throw e;
+			}
+		}
+		usedHeap = out.readLong();
+		maxHeap = out.readLong();
+
+		if (error != null) {
+			throw new StoreAccessException(String.format("Rendition worker failed converting to %s with %s: %s", toMimeType, providerClass, error));
+		}
+		return rendition;
+	}
+
+	public int getConversions() {
+		return conversions;
+	}
+
+	/**
+	 * Returns the fraction of its maximum heap the worker was using after its last conversion.
+	 */
+	public double getHeapUsage() {
+		return (double) usedHeap / maxHeap;
+	}
+
+	public boolean isAlive() {
+		return process.isAlive();
+	}
+
+	public boolean isKilled() {
+		return killed;
+	}
+
+	/**
+	 * Kills the worker, failing any conversion it is running.
+	 */
+	public void kill() {
+		killed = true;
+		destroy();
+	}
+
+	public void destroy() {
+		process.destroyForcibly();
+		writer.shutdownNow();
+	}
+
+	private static void close(InputStream rendition) {
+		if (rendition != null) {
+			try {
+				rendition.close();
+			} catch (IOException e) {
+				// ignore
+			}
+		}
+	}
+}
@@ -0,0 +1,208 @@
+package internal.org.springframework.content.commons.renditions;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import org.springframework.content.commons.renditions.RenditionProvider;
+
+/**
+ * Indexes rendition providers by the mime type they consume and plans conversions through them.
+ *
+ * A plan is the cheapest chain of at most {@link #MAX_STEPS} providers that converts one mime type to another, for
+ * example Word to HTML and then HTML to PDF, where the cost of a chain is the sum of the costs its providers give for
+ * the conversions they make.  Plans found are cached for each pair of mime types, ignoring case, and the least recently
+ * used are dropped once {@link #MAX_PLANS} are cached.  Pairs with no plan are not cached, so arbitrary mime types
+ * requested by clients do not fill the cache.
+ *
+ * A provider is used for content whose mime type, ignoring any parameters, is the one it consumes.  It produces each of
+ * the mime types it lists exactly, and, as the last step of a plan, any others of the same types it says it can
+ * produce, such as those with parameters.
+ */
+class RenditionRegistry {
+
+	static final int MAX_STEPS = 4;
+	static final int MAX_PLANS = 256;
+
+	private final Map<String, List<RenditionProvider>> providers = new HashMap<>();
+	private final Map<String, Plan> plans = Collections.synchronizedMap(new LinkedHashMap<String, Plan>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Plan> eldest) {
+			return size() > MAX_PLANS;
+		}
+	});
+
+	RenditionRegistry(List<RenditionProvider> providers) {
+		for (RenditionProvider provider : providers) {
+			this.providers.computeIfAbsent(normalize(provider.consumes()), (type) -> new ArrayList<>()).add(provider);
+		}
+	}
+
+	/**
+	 * Returns the cheapest plan for converting <code>fromMimeType</code> content to <code>toMimeType</code>, or null
+	 * if there is none.
+	 */
+	Plan plan(String fromMimeType, String toMimeType) {
+		if (fromMimeType == null || toMimeType == null) {
+			return null;
+		}
+		String from = normalize(fromMimeType);
+		String key = from + "\n" + toMimeType.trim().toLowerCase(Locale.ENGLISH);
+		Plan plan = plans.get(key);
+		if (plan == null) {
+			plan = search(from, toMimeType.trim());
+			if (plan != null) {
+				plans.put(key, plan);
+			}
+		}
+		return plan;
+	}
+
+	/**
+	 * Returns every mime type <code>fromMimeType</code> content can be converted to.
+	 */
+	Set<String> conversions(String fromMimeType) {
+		Set<String> conversions = new LinkedHashSet<>();
+		Set<String> visited = new HashSet<>();
+		List<String> frontier = Collections.singletonList(normalize(fromMimeType));
+		for (int step = 0; step < MAX_STEPS && !frontier.isEmpty(); step++) {
+			List<String> next = new ArrayList<>();
+			for (String type : frontier) {
+				if (!visited.add(type)) {
+					continue;
+				}
+				for (RenditionProvider provider : providers.getOrDefault(type, Collections.emptyList())) {
+					for (String produced : provider.produces()) {
+						conversions.add(produced);
+						next.add(normalize(produced));
+					}
+				}
+			}
+			frontier = next;
+		}
+		return conversions;
+	}
+
+	// a cheapest-first search over mime types, with providers as the edges between them
+	private Plan search(String from, String to) {
+		PriorityQueue<Plan> candidates = new PriorityQueue<>((a, b) -> Long.compare(a.cost, b.cost));
+		candidates.add(new Plan(Collections.emptyList(), 0));
+		Map<String, Long> cheapest = new HashMap<>();
+		cheapest.put(from, 0L);
+		String toType = normalize(to);
+
+		while (!candidates.isEmpty()) {
+			Plan plan = candidates.poll();
+			String type = plan.steps.isEmpty() ? from : normalize(plan.last().toMimeType);
+			if (!plan.steps.isEmpty() && plan.last().toMimeType.equalsIgnoreCase(to)) {
+				return plan;
+			}
+			if (plan.steps.size() >= MAX_STEPS || plan.cost > cheapest.getOrDefault(type, Long.MAX_VALUE)) {
+				continue;
+			}
+			for (RenditionProvider provider : providers.getOrDefault(type, Collections.emptyList())) {
+				for (String produced : provider.produces()) {
+					String next = normalize(produced);
+					boolean target = produced.equalsIgnoreCase(to) || (next.equals(toType) && provider.canProduce(to));
+					long cost = plan.cost + Math.max(0, provider.cost(target ? to : produced));
+					if (!target && cost >= cheapest.getOrDefault(next, Long.MAX_VALUE)) {
+						continue;
+					}
+					if (!target) {
+						cheapest.put(next, cost);
+					}
+					List<Step> steps = new ArrayList<>(plan.steps);
+					steps.add(new Step(provider, target ? to : produced));
+					candidates.add(new Plan(steps, cost));
+				}
+			}
+		}
+		return null;
+	}
+
+	static String normalize(String mimeType) {
+		int parameters = mimeType.indexOf(';');
+		String type = parameters >= 0 ? mimeType.substring(0, parameters) : mimeType;
+		return type.trim().toLowerCase(Locale.ENGLISH);
+	}
+
+	interface Converter {
+		InputStream convert(RenditionProvider provider, InputStream content, String toMimeType);
+	}
+
+	static class Step {
+		final RenditionProvider provider;
+		final String toMimeType;
+
+		Step(RenditionProvider provider, String toMimeType) {
+			this.provider = provider;
+			this.toMimeType = toMimeType;
+		}
+	}
+
+	static class Plan {
+		final List<Step> steps;
+		final long cost;
+
+		Plan(List<Step> steps, long cost) {
+			this.steps = Collections.unmodifiableList(steps);
+			this.cost = cost;
+		}
+
+		Step last() {
+			return steps.get(steps.size() - 1);
+		}
+
+		/**
+		 * Runs the content through each provider of the plan in turn.  Returns null if any of them does.
+		 */
+		InputStream convert(InputStream content) {
+			return convert(content, (provider, from, toMimeType) -> provider.convert(from, toMimeType));
+		}
+
+		/**
+		 * Runs the content through each provider of the plan in turn, calling them with <code>converter</code>.  The
+		 * intermediate renditions are closed if a later provider returns null or fails; <code>content</code> is left
+		 * to the caller.
+		 */
+		InputStream convert(InputStream content, Converter converter) {
+			InputStream rendition = content;
+			for (Step step : steps) {
+				InputStream next;
+				try {
+					next = converter.convert(step.provider, rendition, step.toMimeType);
+				} catch (RuntimeException e) {
+					closeIntermediate(rendition, content);
+					throw e;
+				}
+				if (next == null) {
+					closeIntermediate(rendition, content);
+					return null;
+				}
+				rendition = next;
+			}
+			return rendition;
+		}
+
+		private static void closeIntermediate(InputStream rendition, InputStream content) {
+			if (rendition == content) {
+				return;
+			}
+			try {
+				rendition.close();
+			} catch (IOException e) {
+				// ignore
+			}
+		}
+	}
+}
@@ -1,11 +1,10 @@
 package internal.org.springframework.content.commons.renditions;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -15,8 +14,11 @@ import org.apache.commons.logging.LogFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.content.commons.annotations.MimeType;
 import org.springframework.content.commons.renditions.Renderable;
+import org.springframework.content.commons.renditions.RenditionCache;
 import org.springframework.content.commons.renditions.RenditionProvider;
+import org.springframework.content.commons.renditions.RenditionScheduler;
 import org.springframework.content.commons.renditions.RenditionService;
+import org.springframework.content.commons.renditions.RenditionUnavailableException;
 import org.springframework.content.commons.repository.StoreExtension;
 import org.springframework.content.commons.repository.StoreInvoker;
 import org.springframework.content.commons.utils.BeanUtils;
@@ -26,6 +28,9 @@ public class RenditionServiceImpl implements RenditionService, StoreExtension {
 	private static final Log LOGGER = LogFactory.getLog(RenditionServiceImpl.class);
 
 	private List<RenditionProvider> providers = new ArrayList<RenditionProvider>();
+	private volatile RenditionRegistry registry;
+	private RenditionCache cache;
+	private RenditionScheduler scheduler;
 
 	public RenditionServiceImpl() {
 	}
@@ -35,37 +40,42 @@ public class RenditionServiceImpl implements RenditionService, StoreExtension {
 		for (RenditionProvider provider : providers) {
 			this.providers.add(provider);
 		}
+		this.registry = null;
+	}
+
+	/**
+	 * Sets the cache renditions are read from, and kept in, by <code>getRendition</code>.
+	 */
+	@Autowired(required=false)
+	public void setRenditionCache(RenditionCache cache) {
+		this.cache = cache;
+	}
+
+	/**
+	 * Sets the scheduler the conversions of <code>getRendition</code> are run on.
+	 */
+	@Autowired(required=false)
+	public void setRenditionScheduler(RenditionScheduler scheduler) {
+		this.scheduler = scheduler;
 	}
 
 	@Override
     public boolean canConvert(String fromMimeType, String toMimeType) {
-		for (RenditionProvider provider : providers) {
-			if (fromMimeType.startsWith(provider.consumes()) && Arrays.asList(provider.produces()).contains(toMimeType)) {
-				return true;
-			}
-		}
-		return false;
+		return getRegistry().plan(fromMimeType, toMimeType) != null;
 	}
 
 	@Override
 	public String[] conversions(String fromMimeType) {
-		Set<String> conversions = new HashSet<>();
-		for (RenditionProvider provider : providers) {
-			if (provider.consumes().equals(fromMimeType)) {
-				conversions.addAll(Arrays.asList(provider.produces()));
-			}
-		}
-		return conversions.toArray(new String[] {});
+		return getRegistry().conversions(fromMimeType).toArray(new String[] {});
 	}
 
 	@Override
 	public InputStream convert(String fromMimeType, InputStream fromInputSource, String toMimeType) {
-		for (RenditionProvider provider : providers) {
-			if (provider.consumes().equals(fromMimeType) && Arrays.asList(provider.produces()).contains(toMimeType)) {
-				return provider.convert(fromInputSource, toMimeType);
-			}
+		RenditionRegistry.Plan plan = getRegistry().plan(fromMimeType, toMimeType);
+		if (plan == null) {
+			return null;
 		}
-		return null;
+		return plan.convert(fromInputSource);
 	}
 
 	@Override
@@ -92,14 +102,57 @@ public class RenditionServiceImpl implements RenditionService, StoreExtension {
 		String toMimeType = (String) invocation.getArguments()[1];
 		
 		if (this.canConvert(fromMimeType, toMimeType)) {
-			InputStream content = null;
 			try {
-				content = invoker.invokeGetContent();
-				return (InputStream) this.convert(fromMimeType, content, toMimeType);
+				if (cache != null) {
+					final String from = fromMimeType;
+					return cache.getRendition(invocation.getArguments()[0], toMimeType, () -> convert(from, invoker, toMimeType));
+				}
+				return convert(fromMimeType, invoker, toMimeType);
+			} catch (RenditionUnavailableException e) {
+				throw e;
 			} catch (Exception e) {
 				LOGGER.error(String.format("Failed to get rendition from %s to %s", fromMimeType, toMimeType	), e);
 			}
 		} 
 		return null;
 	}
+
+	private InputStream convert(String fromMimeType, StoreInvoker invoker, String toMimeType) {
+		if (scheduler == null) {
+			InputStream content = invoker.invokeGetContent();
+			return (InputStream) this.convert(fromMimeType, content, toMimeType);
+		}
+		RenditionRegistry.Plan plan = getRegistry().plan(fromMimeType, toMimeType);
+		if (plan == null) {
+			return null;
+		}
+		// the content is fetched on the calling thread, which may be bound to a transaction the worker is not
+		InputStream content = invoker.invokeGetContent();
+		try {
+			return scheduler.execute(() -> plan.convert(content, scheduler::convert));
+		} catch (RenditionUnavailableException e) {
+			closeQuietly(content);
+			throw e;
+		}
+	}
+
+	private static void closeQuietly(InputStream content) {
+		if (content != null) {
+			try {
+				content.close();
+			} catch (IOException e) {
+				// ignore
+			}
+		}
+	}
+
+	// built on first use, once the providers have been set
+	private RenditionRegistry getRegistry() {
+		RenditionRegistry registry = this.registry;
+		if (registry == null) {
+			registry = new RenditionRegistry(new ArrayList<>(providers));
+			this.registry = registry;
+		}
+		return registry;
+	}
 }
@@ -0,0 +1,101 @@
+package internal.org.springframework.content.commons.renditions;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.content.commons.renditions.RenditionProvider;
+
+/**
+ * The main class of the JVMs forked by a {@link org.springframework.content.commons.renditions.RenditionWorkerPool}.
+ * Reads requests from stdin and writes responses to stdout, one conversion at a time, until stdin is closed.
+ * Providers are created with their no argument constructors and kept for later conversions.
+ */
+public final class RenditionWorker {
+
+	private final DataInputStream in;
+	private final DataOutputStream out;
+	private final Map<String, RenditionProvider> providers = new HashMap<>();
+
+	RenditionWorker(DataInputStream in, DataOutputStream out) {
+		this.in = in;
+		this.out = out;
+	}
+
+	public static void main(String[] args) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(FileDescriptor.in)));
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out)));
+		// stdout carries the responses, so anything else printed goes to stderr
+		System.setOut(System.err);
+
+		new RenditionWorker(in, out).run();
+	}
+
+	void run() throws IOException {
+		while (true) {
+			String providerClass;
+			try {
+				providerClass = in.readUTF();
+			} catch (EOFException e) {
+				return;
+			}
+			String toMimeType = in.readUTF();
+			convert(providerClass, toMimeType);
+			out.flush();
+		}
+	}
+
+	private void convert(String providerClass, String toMimeType) throws IOException {
+		WorkerProtocol.ChunkedInputStream content = new WorkerProtocol.ChunkedInputStream(in);
+		InputStream rendition = null;
+		String error = null;
+		try {
+			rendition = provider(providerClass).convert(content, toMimeType);
+		} catch (Throwable t) {
+			error = WorkerProtocol.message(t);
+		}
+
+		// the rendition may still be reading the content, so the rest of it is skipped once the rendition is written
+		if (error != null) {
+			out.writeByte(WorkerProtocol.FAILED);
+			out.writeUTF(error);
+		} else if (rendition == null) {
+			out.writeByte(WorkerProtocol.NONE);
+		} else {
+			out.writeByte(WorkerProtocol.OK);
+			try {
+				WorkerProtocol.writeChunks(rendition, out);
+				out.writeByte(WorkerProtocol.OK);
+			} catch (IOException e) {
+				out.writeInt(0);
+				out.writeByte(WorkerProtocol.FAILED);
+				out.writeUTF(WorkerProtocol.message(e));
+			} finally {
+				rendition.close();
+			}
+		}
+		content.drain();
+
+		Runtime runtime = Runtime.getRuntime();
+		out.writeLong(runtime.totalMemory() - runtime.freeMemory());
+		out.writeLong(runtime.maxMemory());
+	}
+
+	private RenditionProvider provider(String providerClass) throws ReflectiveOperationException {
+		RenditionProvider provider = providers.get(providerClass);
+		if (provider == null) {
+			provider = (RenditionProvider) Class.forName(providerClass).newInstance();
+			providers.put(providerClass, provider);
+		}
+		return provider;
+	}
+}
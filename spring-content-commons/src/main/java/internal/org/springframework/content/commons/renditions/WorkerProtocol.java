@@ -0,0 +1,103 @@
+package internal.org.springframework.content.commons.renditions;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * The protocol spoken over the pipes between the application and a {@link RenditionWorker}.
+ *
+ * A request is the provider's class name and the mime type to convert to, as modified UTF-8 strings, then the content
+ * as chunks, each its length as an int followed by its bytes, ending with a chunk of length 0.  A response is a status:
+ * {@link #NONE} when the provider returned null, {@link #FAILED} followed by a message, or {@link #OK} followed by the
+ * rendition as chunks and then {@link #OK}, or {@link #FAILED} and a message when the rendition could not be read.  Each
+ * response ends with the worker's used and maximum heap, as longs.
+ */
+final class WorkerProtocol {
+
+	static final byte OK = 0;
+	static final byte NONE = 1;
+	static final byte FAILED = 2;
+
+	private static final int CHUNK_SIZE = 64 * 1024;
+
+	private WorkerProtocol() {
+	}
+
+	static void writeChunks(InputStream from, DataOutputStream to) throws IOException {
+		byte[] buffer = new byte[CHUNK_SIZE];
+		int read;
+		while ((read = from.read(buffer)) != -1) {
+			if (read > 0) {
+				to.writeInt(read);
+				to.write(buffer, 0, read);
+			}
+		}
+		to.writeInt(0);
+	}
+
+	static String message(Throwable t) {
+		return t.getMessage() != null ? t.getClass().getName() + ": " + t.getMessage() : t.getClass().getName();
+	}
+
+	/**
+	 * Reads the chunks of one request or response.  Closing it does not close the pipe.
+	 */
+	static class ChunkedInputStream extends InputStream {
+
+		private final DataInputStream in;
+		private int remaining = 0;
+		private boolean done = false;
+
+		ChunkedInputStream(DataInputStream in) {
+			this.in = in;
+		}
+
+		@Override
+		public int read() throws IOException {
+			byte[] b = new byte[1];
+			return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (len == 0) {
+				return 0;
+			}
+			if (remaining == 0 && !next()) {
+				return -1;
+			}
+			int read = in.read(b, off, Math.min(len, remaining));
+			if (read == -1) {
+				throw new IOException("Pipe closed mid-chunk");
+			}
+			remaining -= read;
+			return read;
+		}
+
+		/**
+		 * Skips whatever of the chunks has not been read.
+		 */
+		void drain() throws IOException {
+			byte[] buffer = new byte[CHUNK_SIZE];
+			while (read(buffer, 0, buffer.length) != -1) {
+			}
+		}
+
+		@Override
+		public void close() {
+		}
+
+		private boolean next() throws IOException {
+			if (done) {
+				return false;
+			}
+			remaining = in.readInt();
+			if (remaining == 0) {
+				done = true;
+			}
+			return !done;
+		}
+	}
+}
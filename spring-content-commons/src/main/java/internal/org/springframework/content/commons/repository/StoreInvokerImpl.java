@@ -16,6 +16,8 @@ public class StoreInvokerImpl implements StoreInvoker {
 
 	private static final Log LOGGER = LogFactory.getLog(StoreInvokerImpl.class);
 
+	private Class<?> storeInterface = null;
+
 	private Class<?> domainClass = null;
 
 	private Class<? extends Serializable> contentIdClass = null;
@@ -26,6 +28,12 @@ public class StoreInvokerImpl implements StoreInvoker {
 
 
 	public StoreInvokerImpl(Class<?> domainClass, Class<? extends Serializable> contentIdClass, MethodInvocation invocation) {
+		this(null, domainClass, contentIdClass, invocation);
+	}
+
+	public StoreInvokerImpl(Class<?> storeInterface, Class<?> domainClass, Class<? extends Serializable> contentIdClass, MethodInvocation invocation) {
+		this.storeInterface = storeInterface;
+
 		Assert.notNull(domainClass, "domainClass must not be null");
 		this.domainClass = domainClass;
 
@@ -43,6 +51,11 @@ public class StoreInvokerImpl implements StoreInvoker {
 		}
 	}
 
+	@Override
+	public Class<?> getStoreInterface() {
+		return storeInterface;
+	}
+
 	@Override
 	public Class<?> getDomainClass() {
 		return domainClass;
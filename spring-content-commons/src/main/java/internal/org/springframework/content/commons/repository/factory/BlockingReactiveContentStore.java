@@ -0,0 +1,89 @@
+package internal.org.springframework.content.commons.repository.factory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+
+import org.springframework.content.commons.repository.ContentStore;
+import org.springframework.content.commons.repository.ReactiveContentStore;
+import org.springframework.content.commons.repository.StoreAccessException;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * A blocking view of a {@link ReactiveContentStore}, published as the store of its events so that listeners can read
+ * and write content as they do for a {@link ContentStore}.  Every method blocks the calling thread until the reactive
+ * store completes, so it must not be called on a thread that the reactive store itself relies on.
+ */
+final class BlockingReactiveContentStore implements ContentStore<Object, Serializable> {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+	private static final int PREFETCH = 4;
+
+	private final ReactiveContentStore<Object, Serializable> store;
+
+	BlockingReactiveContentStore(ReactiveContentStore<Object, Serializable> store) {
+		this.store = store;
+	}
+
+	@Override
+	public void setContent(Object property, InputStream content) {
+		store.setContent(property, Flux.<ByteBuffer>generate((sink) -> {
+			byte[] buffer = new byte[BUFFER_SIZE];
+			try {
+				int read = content.read(buffer);
+				if (read == -1) {
+					sink.complete();
+				} else {
+					sink.next(ByteBuffer.wrap(buffer, 0, read));
+				}
+			} catch (IOException ioe) {
+				sink.error(new StoreAccessException("Unexpected error reading content", ioe));
+			}
+		})).block();
+	}
+
+	@Override
+	public void unsetContent(Object property) {
+		store.unsetContent(property).block();
+	}
+
+	/**
+	 * Returns the content as a stream that requests buffers from the reactive store as it is read, or
+	 * <code>null</code> if there is none.
+	 */
+	@Override
+	public InputStream getContent(Object property) {
+		Iterator<ByteBuffer> buffers = store.getContent(property).toIterable(PREFETCH).iterator();
+		if (!buffers.hasNext()) {
+			return null;
+		}
+		return new InputStream() {
+			private ByteBuffer current = buffers.next();
+
+			@Override
+			public int read() throws IOException {
+				byte[] b = new byte[1];
+				return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+			}
+
+			@Override
+			public int read(byte[] b, int off, int len) throws IOException {
+				if (len == 0) {
+					return 0;
+				}
+				while (current != null && !current.hasRemaining()) {
+					current = buffers.hasNext() ? buffers.next() : null;
+				}
+				if (current == null) {
+					return -1;
+				}
+				int count = Math.min(len, current.remaining());
+				current.get(b, off, count);
+				return count;
+			}
+		};
+	}
+}
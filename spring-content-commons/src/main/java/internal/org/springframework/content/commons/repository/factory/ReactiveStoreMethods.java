@@ -0,0 +1,109 @@
+package internal.org.springframework.content.commons.repository.factory;
+
+import java.io.Serializable;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+
+import org.springframework.content.commons.repository.ContentStore;
+import org.springframework.content.commons.repository.ReactiveContentStore;
+import org.springframework.content.commons.repository.events.SpooledContent;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The {@link ReactiveContentStore} methods known to {@link StoreMethodInterceptor}.  Kept apart from the interceptor
+ * so that reactor is only loaded when it is on the classpath.
+ */
+final class ReactiveStoreMethods {
+
+	static final boolean PRESENT = ClassUtils.isPresent("reactor.core.publisher.Flux", ReactiveStoreMethods.class.getClassLoader());
+
+	private static Method getContentMethod;
+	private static Method setContentMethod;
+	private static Method unsetContentMethod;
+
+	static {
+		if (PRESENT) {
+			getContentMethod = ReflectionUtils.findMethod(ReactiveContentStore.class, "getContent", Object.class);
+			Assert.notNull(getContentMethod);
+			setContentMethod = ReflectionUtils.findMethod(ReactiveContentStore.class, "setContent", Object.class, Flux.class);
+			Assert.notNull(setContentMethod);
+			unsetContentMethod = ReflectionUtils.findMethod(ReactiveContentStore.class, "unsetContent", Object.class);
+			Assert.notNull(unsetContentMethod);
+		}
+	}
+
+	private ReactiveStoreMethods() {
+	}
+
+	static boolean isGetContent(Method method) {
+		return PRESENT && getContentMethod.equals(method);
+	}
+
+	static boolean isSetContent(Method method) {
+		return PRESENT && setContentMethod.equals(method);
+	}
+
+	static boolean isUnsetContent(Method method) {
+		return PRESENT && unsetContentMethod.equals(method);
+	}
+
+	static boolean isStoreMethod(Method method) {
+		return isGetContent(method) || isSetContent(method) || isUnsetContent(method);
+	}
+
+	/**
+	 * Returns a blocking view of <code>store</code> to publish its events with, or <code>null</code> if it is not a
+	 * reactive store.
+	 */
+	@SuppressWarnings("unchecked")
+	static ContentStore<Object, Serializable> blocking(Object store) {
+		if (PRESENT && store instanceof ReactiveContentStore) {
+			return new BlockingReactiveContentStore((ReactiveContentStore<Object, Serializable>) store);
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the result of a reactive store method that runs <code>callback</code> when it completes successfully.
+	 */
+	static Object onComplete(Object result, Runnable callback) {
+		if (result instanceof Mono) {
+			return ((Mono<?>) result).doOnSuccess((value) -> callback.run());
+		} else if (result instanceof Flux) {
+			return ((Flux<?>) result).doOnComplete(callback);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the result of a reactive store method that runs <code>callback</code> however it terminates.
+	 */
+	static Object doFinally(Object result, Runnable callback) {
+		if (result instanceof Mono) {
+			return ((Mono<?>) result).doFinally((signal) -> callback.run());
+		} else if (result instanceof Flux) {
+			return ((Flux<?>) result).doFinally((signal) -> callback.run());
+		}
+		callback.run();
+		return result;
+	}
+
+	/**
+	 * Returns content for a reactive <code>setContent</code> that copies the buffers into <code>spool</code> as they
+	 * are consumed.
+	 */
+	@SuppressWarnings("unchecked")
+	static Object tee(Object content, SpooledContent spool) {
+		if (content instanceof Flux) {
+			return ((Flux<ByteBuffer>) content)
+					.doOnNext(spool::write)
+					.doOnComplete(spool::complete);
+		}
+		return content;
+	}
+}
@@ -3,11 +3,19 @@ package internal.org.springframework.content.commons.repository.factory;
 import java.io.InputStream;
 import java.io.Serializable;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.content.commons.repository.AsyncContentStore;
+import org.springframework.content.commons.repository.BatchContentStore;
+import org.springframework.content.commons.repository.RangedContentStore;
 import org.springframework.content.commons.repository.StoreAccessException;
 import org.springframework.content.commons.repository.StoreEvent;
 import org.springframework.content.commons.repository.StoreExtension;
@@ -19,6 +27,7 @@ import org.springframework.content.commons.repository.events.AfterUnsetContentEv
 import org.springframework.content.commons.repository.events.BeforeGetContentEvent;
 import org.springframework.content.commons.repository.events.BeforeSetContentEvent;
 import org.springframework.content.commons.repository.events.BeforeUnsetContentEvent;
+import org.springframework.content.commons.repository.events.SpooledContent;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.util.Assert;
 import org.springframework.util.ReflectionUtils;
@@ -35,6 +44,13 @@ public class StoreMethodInterceptor implements MethodInterceptor {
 	private static Method setContentMethod; 
 	private static Method unsetContentMethod;
 	private static Method getResourceMethod;
+	private static Method getContentRangeMethod;
+	private static Method setContentsMethod;
+	private static Method unsetContentsMethod;
+	private static Method getContentAsyncMethod; 
+	private static Method setContentAsyncMethod; 
+	private static Method unsetContentAsyncMethod;
+    private Class<?> storeInterface = null;
     private Class<?> domainClass = null;
     private Class<? extends Serializable> contentIdClass = null;
 	
@@ -47,45 +63,77 @@ public class StoreMethodInterceptor implements MethodInterceptor {
 		Assert.notNull(unsetContentMethod);
 		getResourceMethod = ReflectionUtils.findMethod(Store.class, "getResource", Serializable.class);
 		Assert.notNull(getResourceMethod);
+		getContentRangeMethod = ReflectionUtils.findMethod(RangedContentStore.class, "getContent", Object.class, long.class, long.class);
+		Assert.notNull(getContentRangeMethod);
+		setContentsMethod = ReflectionUtils.findMethod(BatchContentStore.class, "setContents", Map.class);
+		Assert.notNull(setContentsMethod);
+		unsetContentsMethod = ReflectionUtils.findMethod(BatchContentStore.class, "unsetContents", Collection.class);
+		Assert.notNull(unsetContentsMethod);
+		getContentAsyncMethod = ReflectionUtils.findMethod(AsyncContentStore.class, "getContentAsync", Object.class);
+		Assert.notNull(getContentAsyncMethod);
+		setContentAsyncMethod = ReflectionUtils.findMethod(AsyncContentStore.class, "setContentAsync", Object.class, InputStream.class);
+		Assert.notNull(setContentAsyncMethod);
+		unsetContentAsyncMethod = ReflectionUtils.findMethod(AsyncContentStore.class, "unsetContentAsync", Object.class);
+		Assert.notNull(unsetContentAsyncMethod);
 	}
 	
 	public StoreMethodInterceptor(ContentStore<Object, Serializable> store, Class<?> domainClass, Class<? extends Serializable> contentIdClass, Map<Method,StoreExtension> extensions, ApplicationEventPublisher publisher) {
+		this(store, null, domainClass, contentIdClass, extensions, publisher);
+	}
+
+	public StoreMethodInterceptor(ContentStore<Object, Serializable> store, Class<?> storeInterface, Class<?> domainClass, Class<? extends Serializable> contentIdClass, Map<Method,StoreExtension> extensions, ApplicationEventPublisher publisher) {
 		if (extensions == null) {
 			extensions = Collections.<Method, StoreExtension>emptyMap();
 		}
 		this.store = store;
+        this.storeInterface = storeInterface;
         this.domainClass = domainClass;
         this.contentIdClass = contentIdClass;
 		this.extensions = extensions;
 		this.publisher = publisher;
 	}
 	
+	/**
+	 * Returns the store to publish the events of <code>target</code> with: the target itself when it is a
+	 * {@link ContentStore}, a blocking view of it when it is a reactive store, and otherwise <code>null</code>.
+	 */
+	@SuppressWarnings("unchecked")
+	public static ContentStore<Object, Serializable> eventStore(Object target) {
+		if (target instanceof ContentStore) {
+			return (ContentStore<Object, Serializable>) target;
+		}
+		return ReactiveStoreMethods.blocking(target);
+	}
+
 	@Override
 	public Object invoke(MethodInvocation invocation) throws Throwable {
 		Method method = invocation.getMethod();
 		StoreExtension extension = extensions.get(method);
 		if (extension != null) {
-			return extension.invoke(invocation, new StoreInvokerImpl(domainClass, contentIdClass, invocation));
+			return extension.invoke(invocation, new StoreInvokerImpl(storeInterface, domainClass, contentIdClass, invocation));
 		} else {
 			if (!isStoreMethod(invocation)) {
 				throw new StoreAccessException(String.format("No implementation found for %s", method.getName()));
 			}
 		}
+
+		if (setContentsMethod.equals(method) || unsetContentsMethod.equals(method)) {
+			return invokeBatch(invocation);
+		}
 		
 		StoreEvent before = null;
 		StoreEvent after = null;
 		
-		if (getContentMethod.equals(invocation.getMethod())) {
+		if (getContentMethod.equals(invocation.getMethod()) || getContentRangeMethod.equals(invocation.getMethod()) || getContentAsyncMethod.equals(invocation.getMethod()) || ReactiveStoreMethods.isGetContent(invocation.getMethod())) {
 			if (invocation.getArguments().length > 0) {
 				before = new BeforeGetContentEvent(invocation.getArguments()[0], store);
 				after = new AfterGetContentEvent(invocation.getArguments()[0], store);
 			}
-		} else if (setContentMethod.equals(invocation.getMethod())) {
+		} else if (setContentMethod.equals(invocation.getMethod()) || setContentAsyncMethod.equals(invocation.getMethod()) || ReactiveStoreMethods.isSetContent(invocation.getMethod())) {
 			if (invocation.getArguments().length > 0) {
 				before = new BeforeSetContentEvent(invocation.getArguments()[0], store);
-				after = new AfterSetContentEvent(invocation.getArguments()[0], store);
 			}
-		} else if (unsetContentMethod.equals(invocation.getMethod())) {
+		} else if (unsetContentMethod.equals(invocation.getMethod()) || unsetContentAsyncMethod.equals(invocation.getMethod()) || ReactiveStoreMethods.isUnsetContent(invocation.getMethod())) {
 			if (invocation.getArguments().length > 0 && invocation.getArguments()[0] != null) {
 				before = new BeforeUnsetContentEvent(invocation.getArguments()[0], store);
 				after = new AfterUnsetContentEvent(invocation.getArguments()[0], store);
@@ -95,24 +143,137 @@ public class StoreMethodInterceptor implements MethodInterceptor {
 		if (before != null) {
 			publisher.publishEvent(before);
 		}
+
+		SpooledContent spool = null;
+		if (before instanceof BeforeSetContentEvent) {
+			spool = spool((BeforeSetContentEvent) before, invocation);
+			after = new AfterSetContentEvent(invocation.getArguments()[0], store, spool);
+		}
+
 		Object result;
 		try {
 			result = invocation.proceed();
 		} catch (Exception e) {
+			release(spool);
 			throw e;
 		}
 
 		if (after != null) {
-			publisher.publishEvent(after);
+			final SpooledContent content = spool;
+			if (result instanceof CompletableFuture && isAsyncStoreMethod(invocation)) {
+				final StoreEvent afterEvent = after;
+				return ((CompletableFuture<?>)result).thenApply((value) -> {
+					publisher.publishEvent(afterEvent);
+					return value;
+				}).whenComplete((value, e) -> release(content));
+			}
+			if (ReactiveStoreMethods.isStoreMethod(invocation.getMethod())) {
+				final StoreEvent afterEvent = after;
+				result = ReactiveStoreMethods.onComplete(result, () -> publisher.publishEvent(afterEvent));
+				return content != null ? ReactiveStoreMethods.doFinally(result, () -> release(content)) : result;
+			}
+			try {
+				publisher.publishEvent(after);
+			} finally {
+				release(content);
+			}
 		}
 		return result;
 	}
 
+	/**
+	 * Publishes the events of each entity of a batch operation, spooling the content of those whose listeners asked
+	 * for it.
+	 */
+	@SuppressWarnings("unchecked")
+	private Object invokeBatch(MethodInvocation invocation) throws Throwable {
+		Object[] args = invocation.getArguments();
+		if (args.length == 0 || args[0] == null) {
+			return invocation.proceed();
+		}
+
+		List<StoreEvent> afters = new ArrayList<>();
+		List<SpooledContent> spools = new ArrayList<>();
+		try {
+			if (setContentsMethod.equals(invocation.getMethod())) {
+				Map<Object, InputStream> contents = new LinkedHashMap<>((Map<Object, InputStream>) args[0]);
+				for (Map.Entry<Object, InputStream> entry : contents.entrySet()) {
+					BeforeSetContentEvent before = new BeforeSetContentEvent(entry.getKey(), store);
+					publisher.publishEvent(before);
+
+					SpooledContent spool = null;
+					if (before.getSpoolLimit() >= 0 && entry.getValue() != null) {
+						spool = new SpooledContent(before.getSpoolLimit());
+						spools.add(spool);
+						entry.setValue(spool.tee(entry.getValue()));
+					}
+					afters.add(new AfterSetContentEvent(entry.getKey(), store, spool));
+				}
+				args[0] = contents;
+			} else {
+				for (Object entity : (Collection<Object>) args[0]) {
+					publisher.publishEvent(new BeforeUnsetContentEvent(entity, store));
+					afters.add(new AfterUnsetContentEvent(entity, store));
+				}
+			}
+
+			Object result = invocation.proceed();
+			for (StoreEvent after : afters) {
+				publisher.publishEvent(after);
+			}
+			return result;
+		} finally {
+			for (SpooledContent spool : spools) {
+				release(spool);
+			}
+		}
+	}
+
+	/**
+	 * When a listener asked for the content in the before event, replaces the content argument with one that copies
+	 * the content as the store reads it.
+	 */
+	private SpooledContent spool(BeforeSetContentEvent before, MethodInvocation invocation) {
+		Object[] args = invocation.getArguments();
+		if (before.getSpoolLimit() < 0 || args.length < 2 || args[1] == null) {
+			return null;
+		}
+		SpooledContent spool = new SpooledContent(before.getSpoolLimit());
+		if (args[1] instanceof InputStream) {
+			args[1] = spool.tee((InputStream) args[1]);
+		} else if (ReactiveStoreMethods.isSetContent(invocation.getMethod())) {
+			args[1] = ReactiveStoreMethods.tee(args[1], spool);
+		} else {
+			return null;
+		}
+		return spool;
+	}
+
+	private static void release(SpooledContent spool) {
+		if (spool != null) {
+			spool.release();
+		}
+	}
+
 	private boolean isStoreMethod(MethodInvocation invocation) {
 		if (getContentMethod.equals(invocation.getMethod()) || 
 			setContentMethod.equals(invocation.getMethod()) || 
 			unsetContentMethod.equals(invocation.getMethod()) || 
-			getResourceMethod.equals(invocation.getMethod())) {
+			getResourceMethod.equals(invocation.getMethod()) ||
+			getContentRangeMethod.equals(invocation.getMethod()) ||
+			setContentsMethod.equals(invocation.getMethod()) ||
+			unsetContentsMethod.equals(invocation.getMethod()) ||
+			isAsyncStoreMethod(invocation) ||
+			ReactiveStoreMethods.isStoreMethod(invocation.getMethod())) {
+			return true;
+		}
+		return false;
+	}
+
+	private boolean isAsyncStoreMethod(MethodInvocation invocation) {
+		if (getContentAsyncMethod.equals(invocation.getMethod()) || 
+			setContentAsyncMethod.equals(invocation.getMethod()) || 
+			unsetContentAsyncMethod.equals(invocation.getMethod())) {
 			return true;
 		}
 		return false;
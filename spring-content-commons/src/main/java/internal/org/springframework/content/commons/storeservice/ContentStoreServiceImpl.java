@@ -8,6 +8,8 @@ import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.content.commons.repository.ContentStore;
+import org.springframework.content.commons.repository.BatchContentStore;
+import org.springframework.content.commons.repository.RangedContentStore;
 import org.springframework.content.commons.repository.factory.StoreFactory;
 import org.springframework.content.commons.storeservice.ContentStoreInfo;
 import org.springframework.content.commons.storeservice.ContentStoreService;
@@ -33,7 +35,8 @@ public class ContentStoreServiceImpl implements ContentStoreService {
 		Type[] genericInterfaces = contentStoreInterface.getGenericInterfaces();
 		for (Type genericInterface : genericInterfaces) {
 			if (genericInterface instanceof ParameterizedType) {
-				if (((ParameterizedType)genericInterface).getRawType().equals(ContentStore.class)) {
+				Type rawType = ((ParameterizedType)genericInterface).getRawType();
+				if (rawType.equals(ContentStore.class) || rawType.equals(RangedContentStore.class) || rawType.equals(BatchContentStore.class)) {
 					Type t = ((ParameterizedType)genericInterface).getActualTypeArguments()[0];
 					return (Class<?>)t;
 				}
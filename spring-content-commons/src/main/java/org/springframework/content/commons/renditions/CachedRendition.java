@@ -0,0 +1,37 @@
+package org.springframework.content.commons.renditions;
+
+import org.springframework.content.commons.annotations.ContentId;
+import org.springframework.content.commons.annotations.ContentLength;
+
+/**
+ * The entity a {@link RenditionCache} stores each rendition against.  Its content id is the cache key.  A content
+ * store used as the rendition cache's storage is declared as a <code>ContentStore&lt;CachedRendition, String&gt;</code>.
+ */
+public class CachedRendition {
+
+	@ContentId private String id;
+	@ContentLength private Long contentLength;
+
+	public CachedRendition() {
+	}
+
+	public CachedRendition(String id) {
+		this.id = id;
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public void setId(String id) {
+		this.id = id;
+	}
+
+	public Long getContentLength() {
+		return contentLength;
+	}
+
+	public void setContentLength(Long contentLength) {
+		this.contentLength = contentLength;
+	}
+}
@@ -0,0 +1,314 @@
+package org.springframework.content.commons.renditions;
+
+import java.io.InputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.content.commons.annotations.ContentId;
+import org.springframework.content.commons.annotations.MimeType;
+import org.springframework.content.commons.repository.ContentStore;
+import org.springframework.content.commons.repository.events.AbstractStoreEventListener;
+import org.springframework.content.commons.repository.events.AfterSetContentEvent;
+import org.springframework.content.commons.utils.BeanUtils;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.util.Assert;
+
+/**
+ * Produces renditions of content as soon as it is set, and keeps them in a {@link RenditionCache}, so that the first
+ * request for a rendition reads it rather than waits for a conversion.
+ *
+ * The renditions to produce are configured for the mime type of the content, with
+ * {@link #addRenditions(String, String...)}, or for the store the content is set through, with
+ * {@link #addRenditions(Class, String...)}.  Renditions are produced on low priority background threads
+ * <code>delay</code> milliseconds after the content is set.  When the entity's class has a Spring Data
+ * <code>CrudRepository</code> the entity is read again from the repository by its id at that point, so the rendition
+ * is produced from, and cached under the version of, the entity as it was saved rather than the instance the content
+ * was set on, which may be stale once it has been saved.  An entity that cannot be found, because it has been deleted
+ * or has not yet been committed, is left to have its renditions produced when they are first requested.  Entities
+ * without a repository are used as they were when the content was set.
+ *
+ * Setting the content of an entity again before its renditions have been produced does not produce them twice.  When
+ * <code>backlogCapacity</code> entities are waiting, the renditions of further entities are left to be produced when
+ * they are first requested.
+ */
+@ManagedResource(description = "Spring Content eager rendition generator")
+public class EagerRenditionGenerator extends AbstractStoreEventListener<Object> implements BeanFactoryAware, DisposableBean {
+
+	private static final Log logger = LogFactory.getLog(EagerRenditionGenerator.class);
+
+	private final RenditionService renditions;
+	private final RenditionCache cache;
+
+	private final Map<String, Set<String>> mimeTypeRenditions = new LinkedHashMap<>();
+	private final Map<Class<?>, Set<String>> storeRenditions = new LinkedHashMap<>();
+
+	private int poolSize = 1;
+	private int backlogCapacity = 1000;
+	private long delay = 1000;
+
+	private volatile ScheduledThreadPoolExecutor executor;
+	private ListableBeanFactory beanFactory;
+	private volatile Repositories repositories;
+
+	private final Set<String> pending = ConcurrentHashMap.newKeySet();
+	private final AtomicInteger backlog = new AtomicInteger();
+
+	private AtomicLong generated = new AtomicLong();
+	private AtomicLong deduplicated = new AtomicLong();
+	private AtomicLong dropped = new AtomicLong();
+	private AtomicLong failed = new AtomicLong();
+
+	public EagerRenditionGenerator(RenditionService renditions, RenditionCache cache) {
+		Assert.notNull(renditions, "renditions must not be null");
+		Assert.notNull(cache, "cache must not be null");
+
+		this.renditions = renditions;
+		this.cache = cache;
+	}
+
+	/**
+	 * Produces <code>toMimeTypes</code> renditions of content of <code>fromMimeType</code>.
+	 */
+	public void addRenditions(String fromMimeType, String... toMimeTypes) {
+		Assert.hasText(fromMimeType, "fromMimeType must not be empty");
+		mimeTypeRenditions.computeIfAbsent(normalize(fromMimeType), (type) -> new LinkedHashSet<>()).addAll(Arrays.asList(toMimeTypes));
+	}
+
+	/**
+	 * Produces <code>toMimeTypes</code> renditions of content set through stores implementing
+	 * <code>storeInterface</code>, whatever its mime type.
+	 */
+	public void addRenditions(Class<?> storeInterface, String... toMimeTypes) {
+		Assert.notNull(storeInterface, "storeInterface must not be null");
+		storeRenditions.computeIfAbsent(storeInterface, (type) -> new LinkedHashSet<>()).addAll(Arrays.asList(toMimeTypes));
+	}
+
+	public void setPoolSize(int poolSize) {
+		Assert.isTrue(poolSize > 0, "poolSize must be greater than 0");
+		Assert.state(executor == null, "poolSize must be set before content is set");
+		this.poolSize = poolSize;
+	}
+
+	public void setBacklogCapacity(int backlogCapacity) {
+		Assert.isTrue(backlogCapacity > 0, "backlogCapacity must be greater than 0");
+		this.backlogCapacity = backlogCapacity;
+	}
+
+	/**
+	 * Sets the milliseconds after content is set that its renditions are produced, giving the application time to
+	 * save the entity.  Defaults to 1 second.
+	 */
+	public void setDelay(long delay) {
+		Assert.isTrue(delay >= 0, "delay must not be negative");
+		this.delay = delay;
+	}
+
+	/**
+	 * Looks up the Spring Data repositories used to read entities again before producing their renditions.
+	 */
+	@Override
+	public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
+		if (beanFactory instanceof ListableBeanFactory) {
+			this.beanFactory = (ListableBeanFactory) beanFactory;
+		}
+	}
+
+	/* package */ void setRepositories(Repositories repositories) {
+		this.repositories = repositories;
+	}
+
+	@Override
+	protected void onAfterSetContent(AfterSetContentEvent event) {
+		Object entity = event.getSource();
+		ContentStore<Object, Serializable> store = event.getStore();
+		Object contentId = BeanUtils.getFieldWithAnnotation(entity, ContentId.class);
+		if (store == null || contentId == null || (mimeTypeRenditions.isEmpty() && !hasStoreRenditions(store))) {
+			return;
+		}
+
+		String key = entity.getClass().getName() + ":" + contentId;
+		if (!pending.add(key)) {
+			deduplicated.incrementAndGet();
+			return;
+		}
+		if (backlog.incrementAndGet() > backlogCapacity) {
+			backlog.decrementAndGet();
+			pending.remove(key);
+			dropped.incrementAndGet();
+			if (logger.isDebugEnabled()) {
+				logger.debug(String.format("Rendition backlog full, not producing renditions of %s", key));
+			}
+			return;
+		}
+		getExecutor().schedule(() -> {
+			backlog.decrementAndGet();
+			pending.remove(key);
+			Object current = reload(entity);
+			if (current != null) {
+				generate(current, store);
+			} else if (logger.isDebugEnabled()) {
+				logger.debug(String.format("%s not found in its repository, not producing its renditions", key));
+			}
+		}, delay, TimeUnit.MILLISECONDS);
+	}
+
+	@Override
+	public void destroy() {
+		ScheduledThreadPoolExecutor executor = this.executor;
+		if (executor != null) {
+			executor.shutdownNow();
+		}
+	}
+
+	@ManagedAttribute(description = "Number of entities waiting for their renditions to be produced")
+	public int getBacklog() {
+		return backlog.get();
+	}
+
+	@ManagedAttribute(description = "Number of renditions produced")
+	public long getGeneratedCount() {
+		return generated.get();
+	}
+
+	@ManagedAttribute(description = "Number of times content was set while its renditions were waiting to be produced")
+	public long getDeduplicatedCount() {
+		return deduplicated.get();
+	}
+
+	@ManagedAttribute(description = "Number of entities whose renditions were not produced because the backlog was full")
+	public long getDroppedCount() {
+		return dropped.get();
+	}
+
+	@ManagedAttribute(description = "Number of renditions that could not be produced")
+	public long getFailedCount() {
+		return failed.get();
+	}
+
+	private void generate(Object entity, ContentStore<Object, Serializable> store) {
+		Object fromMimeType = BeanUtils.getFieldWithAnnotation(entity, MimeType.class);
+		if (fromMimeType == null) {
+			return;
+		}
+		String from = fromMimeType.toString();
+		for (String to : renditionsOf(from, store)) {
+			if (!renditions.canConvert(from, to)) {
+				continue;
+			}
+			try (InputStream rendition = cache.getRendition(entity, to, () -> {
+				InputStream content = store.getContent(entity);
+				return content != null ? renditions.convert(from, content, to) : null;
+			})) {
+				if (rendition != null) {
+					generated.incrementAndGet();
+				}
+			} catch (Exception e) {
+				failed.incrementAndGet();
+				logger.warn(String.format("Unable to produce %s rendition of %s", to, BeanUtils.getFieldWithAnnotation(entity, ContentId.class)), e);
+			}
+		}
+	}
+
+	/*
+	 * Returns the entity as it is saved in its repository, null if it is not there, or the entity itself if it has no
+	 * CrudRepository or no id.
+	 */
+	@SuppressWarnings("unchecked")
+	private Object reload(Object entity) {
+		Repositories repositories = getRepositories();
+		if (repositories == null || !repositories.hasRepositoryFor(entity.getClass())) {
+			return entity;
+		}
+		Object repository = repositories.getRepositoryFor(entity.getClass());
+		if (repository instanceof CrudRepository == false) {
+			return entity;
+		}
+		try {
+			Serializable id = repositories.getEntityInformationFor(entity.getClass()).getId(entity);
+			if (id == null) {
+				return entity;
+			}
+			return ((CrudRepository<Object, Serializable>) repository).findOne(id);
+		} catch (RuntimeException e) {
+			logger.warn(String.format("Unable to read %s from its repository, using it as it was when its content was set", entity.getClass().getName()), e);
+			return entity;
+		}
+	}
+
+	// the repositories are looked up on first use, as they may not all have been created when this is
+	private Repositories getRepositories() {
+		if (repositories == null && beanFactory != null) {
+			repositories = new Repositories(beanFactory);
+		}
+		return repositories;
+	}
+
+	private Set<String> renditionsOf(String fromMimeType, ContentStore<Object, Serializable> store) {
+		Set<String> renditions = new LinkedHashSet<>();
+		Set<String> forMimeType = mimeTypeRenditions.get(normalize(fromMimeType));
+		if (forMimeType != null) {
+			renditions.addAll(forMimeType);
+		}
+		for (Map.Entry<Class<?>, Set<String>> forStore : storeRenditions.entrySet()) {
+			if (forStore.getKey().isInstance(store)) {
+				renditions.addAll(forStore.getValue());
+			}
+		}
+		return renditions;
+	}
+
+	private boolean hasStoreRenditions(ContentStore<Object, Serializable> store) {
+		for (Class<?> storeInterface : storeRenditions.keySet()) {
+			if (storeInterface.isInstance(store)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private ScheduledThreadPoolExecutor getExecutor() {
+		ScheduledThreadPoolExecutor executor = this.executor;
+		if (executor == null) {
+			synchronized (this) {
+				executor = this.executor;
+				if (executor == null) {
+					AtomicInteger workers = new AtomicInteger();
+					executor = new ScheduledThreadPoolExecutor(poolSize, (runnable) -> {
+						Thread worker = new Thread(runnable, "eager-rendition-" + workers.incrementAndGet());
+						worker.setDaemon(true);
+						worker.setPriority(Thread.MIN_PRIORITY);
+						return worker;
+					});
+					executor.setRemoveOnCancelPolicy(true);
+					this.executor = executor;
+				}
+			}
+		}
+		return executor;
+	}
+
+	private static String normalize(String mimeType) {
+		int parameters = mimeType.indexOf(';');
+		return (parameters >= 0 ? mimeType.substring(0, parameters) : mimeType).trim().toLowerCase(Locale.ENGLISH);
+	}
+}
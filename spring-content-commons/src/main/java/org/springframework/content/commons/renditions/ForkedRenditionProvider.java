@@ -0,0 +1,63 @@
+package org.springframework.content.commons.renditions;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.util.Assert;
+
+/**
+ * Runs the conversions of another {@link RenditionProvider} in the JVMs of a {@link RenditionWorkerPool} rather than
+ * in the application's.  The provider is created with its no argument constructor, in the application to learn the
+ * mime types it converts and in each worker to convert them, so it must not depend on being a Spring bean.
+ *
+ * Register the forked provider in place of the provider itself.
+ */
+public class ForkedRenditionProvider implements RenditionProvider {
+
+	private final Class<? extends RenditionProvider> providerClass;
+	private final RenditionProvider provider;
+	private final RenditionWorkerPool workers;
+
+	public ForkedRenditionProvider(Class<? extends RenditionProvider> providerClass, RenditionWorkerPool workers) {
+		Assert.notNull(providerClass, "providerClass must not be null");
+		Assert.notNull(workers, "workers must not be null");
+
+		this.providerClass = providerClass;
+		this.provider = BeanUtils.instantiateClass(providerClass);
+		this.workers = workers;
+	}
+
+	@Override
+	public String consumes() {
+		return provider.consumes();
+	}
+
+	@Override
+	public String[] produces() {
+		return provider.produces();
+	}
+
+	@Override
+	public int cost(String toMimeType) {
+		return provider.cost(toMimeType);
+	}
+
+	@Override
+	public boolean canProduce(String toMimeType) {
+		return provider.canProduce(toMimeType);
+	}
+
+	@Override
+	public InputStream convert(InputStream fromInputSource, String toMimeType) {
+		try {
+			return workers.convert(providerClass.getName(), fromInputSource, toMimeType);
+		} finally {
+			try {
+				fromInputSource.close();
+			} catch (IOException e) {
+				// ignore
+			}
+		}
+	}
+}
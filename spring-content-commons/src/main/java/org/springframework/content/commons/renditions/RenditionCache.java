@@ -0,0 +1,396 @@
+package org.springframework.content.commons.renditions;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.content.commons.annotations.ContentId;
+import org.springframework.content.commons.annotations.ContentLength;
+import org.springframework.content.commons.repository.ContentStore;
+import org.springframework.content.commons.repository.StoreAccessException;
+import org.springframework.content.commons.repository.events.AbstractStoreEventListener;
+import org.springframework.content.commons.utils.BeanUtils;
+import org.springframework.data.annotation.Version;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.util.Assert;
+
+import internal.org.springframework.content.commons.renditions.FileSystemRenditionStore;
+
+/**
+ * Keeps the renditions produced by the {@link RenditionService} so that viewing a rendition again reads it rather than
+ * converting the content again.
+ *
+ * Renditions are kept in a content store of {@link CachedRendition}s, by default files in the
+ * <code>spring-content-renditions</code> directory under <code>java.io.tmpdir</code>.  Each is keyed by the entity's
+ * class and content id, its version, made up of its Spring Data <code>@Version</code> and its
+ * <code>@ContentLength</code>, and the rendition's mime type.  With a {@link RenditionCacheStore}, such as the
+ * default, the keys of an entity's renditions share a prefix: every rendition of the entity's content is removed from
+ * the store when its content is set or unset, those of superseded versions are removed when a new version is cached,
+ * and the store is trimmed to {@link #setMaxSize(long) maxSize} and {@link #setMaxAge(long) maxAge}.  Renditions of
+ * content changed while the application was stopped, or by another application sharing the store, are only replaced
+ * when the entity's version changes.
+ *
+ * With a plain content store the keys of the renditions cached are remembered for the
+ * {@link #setMaxRememberedSources(int) maxRememberedSources} most recently used entities, so that they can be removed
+ * when the content is set; the renditions of an entity that is forgotten are removed from the store.
+ *
+ * Concurrent requests for a rendition that is not cached wait for a single conversion rather than each converting the
+ * content.
+ */
+@ManagedResource(description = "Spring Content rendition cache")
+public class RenditionCache extends AbstractStoreEventListener<Object> {
+
+	private static final Log logger = LogFactory.getLog(RenditionCache.class);
+
+	private static final long DEFAULT_MAX_SIZE = 1024L * 1024 * 1024;
+	private static final long DEFAULT_MAX_AGE = TimeUnit.DAYS.toMillis(7);
+	private static final long TRIM_INTERVAL = TimeUnit.MINUTES.toMillis(1);
+	private static final int DEFAULT_MAX_REMEMBERED_SOURCES = 10000;
+
+	private final ContentStore<CachedRendition, ? extends Serializable> store;
+
+	private long maxSize = DEFAULT_MAX_SIZE;
+	private long maxAge = DEFAULT_MAX_AGE;
+	private int maxRememberedSources = DEFAULT_MAX_REMEMBERED_SOURCES;
+	private final AtomicLong lastTrim = new AtomicLong();
+
+	private final Map<String, CompletableFuture<Boolean>> conversions = new ConcurrentHashMap<>();
+	// least recently used first, guarded by itself
+	private final LinkedHashMap<String, Set<String>> keys = new LinkedHashMap<>(16, 0.75f, true);
+	// only for entities whose content is being converted
+	private final Map<String, Generation> generations = new ConcurrentHashMap<>();
+
+	private AtomicLong hits = new AtomicLong();
+	private AtomicLong misses = new AtomicLong();
+	private AtomicLong waits = new AtomicLong();
+	private AtomicLong evictions = new AtomicLong();
+
+	public RenditionCache() {
+		this(new FileSystemRenditionStore(new File(System.getProperty("java.io.tmpdir"), "spring-content-renditions")));
+	}
+
+	public RenditionCache(ContentStore<CachedRendition, ? extends Serializable> store) {
+		Assert.notNull(store, "store must not be null");
+
+		this.store = store;
+	}
+
+	/**
+	 * Sets the number of bytes of renditions the store keeps before the least recently used are removed.  0 or less
+	 * for no limit.  Defaults to 1GB.  Only applies to a {@link RenditionCacheStore}.
+	 */
+	public void setMaxSize(long maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * Sets the number of milliseconds after which a rendition that has not been read is removed.  0 or less for no
+	 * limit.  Defaults to 7 days.  Only applies to a {@link RenditionCacheStore}.
+	 */
+	public void setMaxAge(long maxAge) {
+		this.maxAge = maxAge;
+	}
+
+	/**
+	 * Sets the number of entities whose rendition keys are remembered, so that their renditions can be removed when
+	 * their content is set.  The renditions of the least recently used entity beyond that are removed from the store.
+	 * Defaults to 10000.  Only applies to a store that is not a {@link RenditionCacheStore}.
+	 */
+	public void setMaxRememberedSources(int maxRememberedSources) {
+		Assert.isTrue(maxRememberedSources > 0, "maxRememberedSources must be greater than 0");
+		this.maxRememberedSources = maxRememberedSources;
+	}
+
+	/**
+	 * Returns the cached <code>mimeType</code> rendition of the content of <code>entity</code>, or converts the
+	 * content with <code>conversion</code> and caches the result.  Returns null when the conversion does.
+	 */
+	public InputStream getRendition(Object entity, String mimeType, Supplier<InputStream> conversion) {
+		Object contentId = BeanUtils.getFieldWithAnnotation(entity, ContentId.class);
+		if (contentId == null) {
+			return conversion.get();
+		}
+		String source = source(entity, contentId);
+		String version = version(source, entity);
+		String key = version + digest(mimeType);
+
+		CompletableFuture<Boolean> converted = new CompletableFuture<>();
+		CompletableFuture<Boolean> inProgress = conversions.putIfAbsent(key, converted);
+		if (inProgress != null) {
+			waits.incrementAndGet();
+			if (await(inProgress)) {
+				InputStream cached = store.getContent(new CachedRendition(key));
+				if (cached != null) {
+					hits.incrementAndGet();
+					return cached;
+				}
+			}
+			misses.incrementAndGet();
+			return conversion.get();
+		}
+
+		boolean cached = false;
+		try {
+			InputStream rendition = store.getContent(new CachedRendition(key));
+			if (rendition != null) {
+				hits.incrementAndGet();
+				remember(source, key);
+				cached = true;
+				return rendition;
+			}
+
+			misses.incrementAndGet();
+			Generation generation = generations.compute(source, (s, g) -> (g != null ? g : new Generation()).converting());
+			long started = generation.value;
+			try {
+				rendition = conversion.get();
+				if (rendition == null) {
+					return null;
+				}
+				cached = put(key, rendition);
+				if (!cached) {
+					return conversion.get();
+				}
+				remember(source, key);
+				// the content was set while converting, so the rendition may be of the previous content
+				if (generation.value != started) {
+					evict(key);
+					cached = false;
+					return conversion.get();
+				}
+			} finally {
+				generations.computeIfPresent(source, (s, g) -> g.converted());
+			}
+			if (store instanceof RenditionCacheStore) {
+				// renditions of the entity's earlier versions are no longer read
+				unsetContents(source, version);
+				trim();
+			}
+			rendition = store.getContent(new CachedRendition(key));
+			return rendition != null ? rendition : conversion.get();
+		} finally {
+			conversions.remove(key, converted);
+			converted.complete(cached);
+		}
+	}
+
+	/**
+	 * Removes the cached renditions of the content of <code>entity</code>.
+	 */
+	public void invalidate(Object entity) {
+		if (entity instanceof CachedRendition) {
+			return;
+		}
+		Object contentId = BeanUtils.getFieldWithAnnotation(entity, ContentId.class);
+		if (contentId == null) {
+			return;
+		}
+		String source = source(entity, contentId);
+		generations.computeIfPresent(source, (s, g) -> g.advance());
+		if (store instanceof RenditionCacheStore) {
+			unsetContents(source, null);
+			return;
+		}
+		Set<String> cached;
+		synchronized (keys) {
+			cached = keys.remove(source);
+		}
+		if (cached != null) {
+			for (String key : cached) {
+				evict(key);
+			}
+		}
+	}
+
+	@Override
+	protected void onBeforeSetContent(Object entity) {
+		invalidate(entity);
+	}
+
+	@Override
+	protected void onAfterSetContent(Object entity) {
+		invalidate(entity);
+	}
+
+	@Override
+	protected void onBeforeUnsetContent(Object entity) {
+		invalidate(entity);
+	}
+
+	@ManagedAttribute(description = "Number of renditions read from the cache")
+	public long getHitCount() {
+		return hits.get();
+	}
+
+	@ManagedAttribute(description = "Number of renditions converted")
+	public long getMissCount() {
+		return misses.get();
+	}
+
+	@ManagedAttribute(description = "Number of requests that waited for another request's conversion")
+	public long getWaitCount() {
+		return waits.get();
+	}
+
+	@ManagedAttribute(description = "Number of renditions removed from the cache")
+	public long getEvictionCount() {
+		return evictions.get();
+	}
+
+	private boolean put(String key, InputStream rendition) {
+		try {
+			store.setContent(new CachedRendition(key), rendition);
+			return true;
+		} catch (RuntimeException e) {
+			logger.warn(String.format("Unable to cache rendition %s", key), e);
+			return false;
+		} finally {
+			try {
+				rendition.close();
+			} catch (IOException e) {
+				// ignore
+			}
+		}
+	}
+
+	private void evict(String key) {
+		try {
+			store.unsetContent(new CachedRendition(key));
+			evictions.incrementAndGet();
+		} catch (RuntimeException e) {
+			logger.warn(String.format("Unable to remove cached rendition %s", key), e);
+		}
+	}
+
+	private void unsetContents(String source, String retain) {
+		try {
+			evictions.addAndGet(((RenditionCacheStore) store).unsetContents(source, retain));
+		} catch (RuntimeException e) {
+			logger.warn(String.format("Unable to remove cached renditions %s", source), e);
+		}
+	}
+
+	// a plain content store cannot remove renditions by prefix, so the keys of the renditions cached are remembered
+	private void remember(String source, String key) {
+		if (store instanceof RenditionCacheStore) {
+			return;
+		}
+		Set<String> forgotten = null;
+		synchronized (keys) {
+			keys.computeIfAbsent(source, (s) -> new HashSet<>()).add(key);
+			if (keys.size() > maxRememberedSources) {
+				Iterator<Set<String>> eldest = keys.values().iterator();
+				forgotten = eldest.next();
+				eldest.remove();
+			}
+		}
+		// renditions whose keys are forgotten could not be removed when their content is set
+		if (forgotten != null) {
+			for (String cached : forgotten) {
+				evict(cached);
+			}
+		}
+	}
+
+	/* package */ int getRememberedSources() {
+		synchronized (keys) {
+			return keys.size();
+		}
+	}
+
+	/* package */ int getTrackedGenerations() {
+		return generations.size();
+	}
+
+	// trims the store at most once every TRIM_INTERVAL, on the thread that has just cached a rendition
+	private void trim() {
+		long last = lastTrim.get();
+		long now = System.currentTimeMillis();
+		if (now - last < TRIM_INTERVAL || !lastTrim.compareAndSet(last, now)) {
+			return;
+		}
+		try {
+			evictions.addAndGet(((RenditionCacheStore) store).trim(maxSize, maxAge));
+		} catch (RuntimeException e) {
+			logger.warn("Unable to trim the rendition cache", e);
+		}
+	}
+
+	private static boolean await(CompletableFuture<Boolean> conversion) {
+		try {
+			return conversion.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new StoreAccessException("Interrupted waiting for a rendition", e);
+		} catch (ExecutionException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Counts the times an entity's content is set while it is being converted.  Only changed within
+	 * {@link Map#compute(Object, java.util.function.BiFunction)} so that it is dropped once the last conversion ends.
+	 */
+	private static class Generation {
+
+		private volatile long value;
+		private int converting;
+
+		Generation converting() {
+			converting++;
+			return this;
+		}
+
+		Generation converted() {
+			return --converting > 0 ? this : null;
+		}
+
+		Generation advance() {
+			value++;
+			return this;
+		}
+	}
+
+	// the prefix of the keys of every rendition of the entity's content
+	private static String source(Object entity, Object contentId) {
+		return digest(entity.getClass().getName() + ":" + contentId) + "/";
+	}
+
+	// the prefix of the keys of the renditions of this version of the entity's content
+	private static String version(String source, Object entity) {
+		return source + digest(BeanUtils.getFieldWithAnnotation(entity, Version.class) + ":" + BeanUtils.getFieldWithAnnotation(entity, ContentLength.class)) + "-";
+	}
+
+	// digests so that keys are safe to use as file names
+	private static String digest(String value) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			byte[] hash = digest.digest(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+			StringBuilder key = new StringBuilder();
+			for (byte b : hash) {
+				key.append(String.format("%02x", b));
+			}
+			return key.toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
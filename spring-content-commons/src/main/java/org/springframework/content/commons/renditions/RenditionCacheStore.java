@@ -0,0 +1,32 @@
+package org.springframework.content.commons.renditions;
+
+import org.springframework.content.commons.repository.ContentStore;
+
+/**
+ * A store for a {@link RenditionCache} that can remove renditions by the prefix of their ids and bound its own size.
+ *
+ * The cache gives every rendition of an entity's content an id starting with the same <code>source/</code> prefix,
+ * followed by its version, so the renditions of a source, or those of its superseded versions, are removed without the
+ * cache having to remember them.  With a plain <code>ContentStore&lt;CachedRendition, String&gt;</code> the cache can
+ * only remove the renditions it has cached since the application started, and cannot bound the store.
+ */
+public interface RenditionCacheStore extends ContentStore<CachedRendition, String> {
+
+	/**
+	 * Removes the renditions whose ids start with <code>prefix</code>, other than those whose ids start with
+	 * <code>retain</code>.
+	 *
+	 * @param prefix the prefix of the ids to remove
+	 * @param retain the prefix of the ids to keep, or null to remove every rendition starting with <code>prefix</code>
+	 * @return the number of renditions removed
+	 */
+	int unsetContents(String prefix, String retain);
+
+	/**
+	 * Removes the renditions last used more than <code>maxAge</code> milliseconds ago, then the least recently used
+	 * renditions until no more than <code>maxBytes</code> are kept.  A bound of 0 or less is not applied.
+	 *
+	 * @return the number of renditions removed
+	 */
+	int trim(long maxBytes, long maxAge);
+}
@@ -7,5 +7,28 @@ public interface RenditionProvider {
     public String consumes();
     public String[] produces();
     public InputStream convert(InputStream fromInputSource, String toMimeType);
-	  
+
+    /**
+     * Returns the relative cost of converting to <code>toMimeType</code>, used to choose between providers, and
+     * chains of providers, that can produce the same rendition.  The cheapest chain is used.  Defaults to 1.
+     */
+    default int cost(String toMimeType) {
+        return 1;
+    }
+
+    /**
+     * Returns whether the provider can produce <code>toMimeType</code>, which may have parameters, such as
+     * <code>image/png;width=256</code>, that are not among those listed by {@link #produces()}.  Only asked about
+     * mime types whose type, ignoring parameters, the provider produces.  Defaults to whether it lists
+     * <code>toMimeType</code> exactly.
+     */
+    default boolean canProduce(String toMimeType) {
+        for (String produced : produces()) {
+            if (produced.equalsIgnoreCase(toMimeType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
 }
@@ -0,0 +1,255 @@
+package org.springframework.content.commons.renditions;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.content.commons.repository.StoreAccessException;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.util.Assert;
+
+/**
+ * Runs the conversions of the {@link RenditionService} on a bounded pool of workers, rather than on the threads
+ * requesting renditions, so that a burst of rendition requests cannot take every request thread and every core.
+ *
+ * Conversions wait in a queue of <code>queueCapacity</code> for one of <code>poolSize</code> workers, which defaults to
+ * the number of cores.  When the queue is full a {@link RenditionUnavailableException} is thrown at once.  A conversion
+ * that has not finished <code>timeout</code> milliseconds after it was queued is cancelled, interrupting its worker,
+ * and a {@link RenditionUnavailableException} is thrown.  Providers that do not respond to interruption keep their
+ * worker until they finish.
+ *
+ * The number of conversions a provider runs at once can also be limited with
+ * {@link #setProviderLimit(Class, int)}, for providers that use more memory than others.  A conversion waiting for
+ * its provider holds its worker.
+ */
+@ManagedResource(description = "Spring Content rendition scheduler")
+public class RenditionScheduler implements DisposableBean {
+
+	private int poolSize = Runtime.getRuntime().availableProcessors();
+	private int queueCapacity = 100;
+	private long timeout = 60000;
+
+	private final Map<Class<?>, Semaphore> providerLimits = new ConcurrentHashMap<>();
+
+	private volatile ThreadPoolExecutor executor;
+
+	private AtomicLong submitted = new AtomicLong();
+	private AtomicLong rejected = new AtomicLong();
+	private AtomicLong timeouts = new AtomicLong();
+	private AtomicLong completed = new AtomicLong();
+	private AtomicLong waitTime = new AtomicLong();
+	private AtomicLong conversionTime = new AtomicLong();
+
+	public void setPoolSize(int poolSize) {
+		Assert.isTrue(poolSize > 0, "poolSize must be greater than 0");
+		Assert.state(executor == null, "poolSize must be set before the first conversion");
+		this.poolSize = poolSize;
+	}
+
+	public void setQueueCapacity(int queueCapacity) {
+		Assert.isTrue(queueCapacity > 0, "queueCapacity must be greater than 0");
+		Assert.state(executor == null, "queueCapacity must be set before the first conversion");
+		this.queueCapacity = queueCapacity;
+	}
+
+	/**
+	 * Sets the number of milliseconds after it is queued that a conversion is cancelled.  Defaults to 60 seconds.
+	 */
+	public void setTimeout(long timeout) {
+		Assert.isTrue(timeout > 0, "timeout must be greater than 0");
+		this.timeout = timeout;
+	}
+
+	/**
+	 * Limits the number of conversions providers of class <code>providerClass</code> run at once.
+	 */
+	public void setProviderLimit(Class<? extends RenditionProvider> providerClass, int limit) {
+		Assert.notNull(providerClass, "providerClass must not be null");
+		Assert.isTrue(limit > 0, "limit must be greater than 0");
+		providerLimits.put(providerClass, new Semaphore(limit, true));
+	}
+
+	/**
+	 * Runs <code>conversion</code> on a worker and returns its result.
+	 *
+	 * @throws RenditionUnavailableException if the queue is full or the conversion times out
+	 */
+	public <T> T execute(Callable<T> conversion) {
+		long queued = System.nanoTime();
+		Conversion<T> task = new Conversion<>(() -> {
+			long started = System.nanoTime();
+			waitTime.addAndGet(started - queued);
+			try {
+				return conversion.call();
+			} finally {
+				conversionTime.addAndGet(System.nanoTime() - started);
+				completed.incrementAndGet();
+			}
+		});
+
+		ThreadPoolExecutor executor = getExecutor();
+		try {
+			executor.execute(task);
+		} catch (RejectedExecutionException e) {
+			rejected.incrementAndGet();
+			throw new RenditionUnavailableException("Too many renditions are being produced", getRetryAfter(), e);
+		}
+		submitted.incrementAndGet();
+
+		try {
+			return task.get(timeout, TimeUnit.MILLISECONDS);
+		} catch (TimeoutException e) {
+			task.cancel(true);
+			executor.remove(task);
+			timeouts.incrementAndGet();
+			throw new RenditionUnavailableException(String.format("Rendition not produced within %d ms", timeout), getRetryAfter(), e);
+		} catch (InterruptedException e) {
+			task.cancel(true);
+			executor.remove(task);
+			Thread.currentThread().interrupt();
+			throw new StoreAccessException("Interrupted waiting for a rendition", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new StoreAccessException("Error producing rendition", e.getCause());
+		}
+	}
+
+	/**
+	 * Converts <code>content</code> with <code>provider</code> once the provider is within its limit.
+	 */
+	public InputStream convert(RenditionProvider provider, InputStream content, String toMimeType) {
+		Semaphore limit = providerLimits.get(provider.getClass());
+		if (limit == null) {
+			return provider.convert(content, toMimeType);
+		}
+		try {
+			limit.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new StoreAccessException("Interrupted waiting for a rendition provider", e);
+		}
+		try {
+			return provider.convert(content, toMimeType);
+		} finally {
+			limit.release();
+		}
+	}
+
+	@Override
+	public void destroy() {
+		ThreadPoolExecutor executor = this.executor;
+		if (executor != null) {
+			executor.shutdownNow();
+		}
+	}
+
+	@ManagedAttribute(description = "Number of conversions waiting for a worker")
+	public int getQueueDepth() {
+		ThreadPoolExecutor executor = this.executor;
+		return executor != null ? executor.getQueue().size() : 0;
+	}
+
+	@ManagedAttribute(description = "Number of conversions running")
+	public int getActiveCount() {
+		ThreadPoolExecutor executor = this.executor;
+		return executor != null ? executor.getActiveCount() : 0;
+	}
+
+	@ManagedAttribute(description = "Number of conversions queued")
+	public long getSubmittedCount() {
+		return submitted.get();
+	}
+
+	@ManagedAttribute(description = "Number of conversions refused because the queue was full")
+	public long getRejectedCount() {
+		return rejected.get();
+	}
+
+	@ManagedAttribute(description = "Number of conversions cancelled because they took too long")
+	public long getTimeoutCount() {
+		return timeouts.get();
+	}
+
+	@ManagedAttribute(description = "Number of conversions finished")
+	public long getCompletedCount() {
+		return completed.get();
+	}
+
+	@ManagedAttribute(description = "Average milliseconds conversions waited for a worker")
+	public long getAverageWaitTime() {
+		long count = completed.get();
+		return count > 0 ? TimeUnit.NANOSECONDS.toMillis(waitTime.get() / count) : 0;
+	}
+
+	@ManagedAttribute(description = "Average milliseconds conversions took")
+	public long getAverageConversionTime() {
+		long count = completed.get();
+		return count > 0 ? TimeUnit.NANOSECONDS.toMillis(conversionTime.get() / count) : 0;
+	}
+
+	/**
+	 * Returns an estimate of the seconds until the queued conversions have been run.
+	 */
+	public long getRetryAfter() {
+		long conversion = Math.max(1000, getAverageConversionTime());
+		long millis = conversion * (getQueueDepth() + 1) / poolSize;
+		return Math.max(1, TimeUnit.MILLISECONDS.toSeconds(millis + 999));
+	}
+
+	private ThreadPoolExecutor getExecutor() {
+		ThreadPoolExecutor executor = this.executor;
+		if (executor == null) {
+			synchronized (this) {
+				executor = this.executor;
+				if (executor == null) {
+					AtomicInteger workers = new AtomicInteger();
+					executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueCapacity), (runnable) -> {
+						Thread worker = new Thread(runnable, "rendition-worker-" + workers.incrementAndGet());
+						worker.setDaemon(true);
+						return worker;
+					});
+					executor.allowCoreThreadTimeOut(true);
+					this.executor = executor;
+				}
+			}
+		}
+		return executor;
+	}
+
+	// closes the rendition of a conversion that finishes after it was cancelled, as no one will read it
+	private static class Conversion<T> extends FutureTask<T> {
+
+		Conversion(Callable<T> callable) {
+			super(callable);
+		}
+
+		@Override
+		protected void set(T result) {
+			super.set(result);
+			if (isCancelled() && result instanceof Closeable) {
+				try {
+					((Closeable) result).close();
+				} catch (IOException e) {
+					// ignore
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,29 @@
+package org.springframework.content.commons.renditions;
+
+import org.springframework.content.commons.repository.StoreAccessException;
+
+/**
+ * Thrown when a rendition cannot be produced now, because the {@link RenditionScheduler}'s queue is full or the
+ * conversion took too long, but may be if the request is retried later.
+ */
+public class RenditionUnavailableException extends StoreAccessException {
+
+	private final long retryAfter;
+
+	public RenditionUnavailableException(String msg, long retryAfter) {
+		super(msg);
+		this.retryAfter = retryAfter;
+	}
+
+	public RenditionUnavailableException(String msg, long retryAfter, Throwable cause) {
+		super(msg, cause);
+		this.retryAfter = retryAfter;
+	}
+
+	/**
+	 * Returns the number of seconds after which the request could be retried.
+	 */
+	public long getRetryAfter() {
+		return retryAfter;
+	}
+}
@@ -0,0 +1,253 @@
+package org.springframework.content.commons.renditions;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.content.commons.repository.StoreAccessException;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.util.Assert;
+
+import internal.org.springframework.content.commons.renditions.ForkedWorker;
+import internal.org.springframework.content.commons.renditions.RenditionWorker;
+
+/**
+ * A pool of JVMs, forked on the same host, that {@link ForkedRenditionProvider}s convert content in, so that the
+ * memory used by conversions, and the garbage collection pauses it causes, are kept out of the application's JVM.
+ *
+ * Content and renditions are streamed to and from the workers over their stdin and stdout.  At most
+ * <code>poolSize</code> workers are run, each started when first needed with <code>maxHeap</code> and
+ * <code>jvmArguments</code>, and the application's classpath unless another is set.  A worker is replaced after
+ * <code>maxConversions</code> conversions, or when it is using more than <code>recycleHeapUsage</code> of its heap
+ * after a conversion, and is killed when a conversion takes longer than <code>timeout</code> milliseconds.
+ */
+@ManagedResource(description = "Spring Content rendition worker pool")
+public class RenditionWorkerPool implements DisposableBean {
+
+	private static final Log logger = LogFactory.getLog(RenditionWorkerPool.class);
+
+	private int poolSize = 2;
+	private int maxConversions = 100;
+	private String maxHeap = "512m";
+	private double recycleHeapUsage = 0.75;
+	private long timeout = 60000;
+	private List<String> jvmArguments = Collections.emptyList();
+	private String classpath = System.getProperty("java.class.path");
+
+	private volatile Semaphore permits;
+	private final BlockingDeque<ForkedWorker> idle = new LinkedBlockingDeque<>();
+	private final Set<ForkedWorker> workers = ConcurrentHashMap.newKeySet();
+	private final ScheduledExecutorService watchdog;
+
+	private AtomicLong conversions = new AtomicLong();
+	private AtomicLong started = new AtomicLong();
+	private AtomicLong recycled = new AtomicLong();
+	private AtomicLong killed = new AtomicLong();
+
+	public RenditionWorkerPool() {
+		ScheduledThreadPoolExecutor watchdog = new ScheduledThreadPoolExecutor(1, (runnable) -> {
+			Thread thread = new Thread(runnable, "rendition-worker-watchdog");
+			thread.setDaemon(true);
+			return thread;
+		});
+		watchdog.setRemoveOnCancelPolicy(true);
+		this.watchdog = watchdog;
+	}
+
+	public void setPoolSize(int poolSize) {
+		Assert.isTrue(poolSize > 0, "poolSize must be greater than 0");
+		Assert.state(permits == null, "poolSize must be set before the first conversion");
+		this.poolSize = poolSize;
+	}
+
+	public void setMaxConversions(int maxConversions) {
+		Assert.isTrue(maxConversions > 0, "maxConversions must be greater than 0");
+		this.maxConversions = maxConversions;
+	}
+
+	/**
+	 * Sets the maximum heap of each worker, in the form of the <code>-Xmx</code> option.  Defaults to 512m.
+	 */
+	public void setMaxHeap(String maxHeap) {
+		Assert.hasText(maxHeap, "maxHeap must not be empty");
+		this.maxHeap = maxHeap;
+	}
+
+	/**
+	 * Sets the fraction of its maximum heap above which a worker is replaced after a conversion.  Defaults to 0.75.
+	 */
+	public void setRecycleHeapUsage(double recycleHeapUsage) {
+		Assert.isTrue(recycleHeapUsage > 0, "recycleHeapUsage must be greater than 0");
+		this.recycleHeapUsage = recycleHeapUsage;
+	}
+
+	/**
+	 * Sets the milliseconds after which a conversion's worker is killed.  Defaults to 60 seconds.
+	 */
+	public void setTimeout(long timeout) {
+		Assert.isTrue(timeout > 0, "timeout must be greater than 0");
+		this.timeout = timeout;
+	}
+
+	public void setJvmArguments(List<String> jvmArguments) {
+		Assert.notNull(jvmArguments, "jvmArguments must not be null");
+		this.jvmArguments = new ArrayList<>(jvmArguments);
+	}
+
+	public void setClasspath(String classpath) {
+		Assert.hasText(classpath, "classpath must not be empty");
+		this.classpath = classpath;
+	}
+
+	/**
+	 * Converts <code>content</code> with an instance of <code>providerClass</code> in one of the workers, waiting for
+	 * one to be free.  The provider must have a no argument constructor.
+	 */
+	public InputStream convert(String providerClass, InputStream content, String toMimeType) {
+		Semaphore permits = getPermits();
+		try {
+			permits.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new StoreAccessException("Interrupted waiting for a rendition worker", e);
+		}
+		try {
+			ForkedWorker worker = take();
+			ScheduledFuture<?> deadline = watchdog.schedule(worker::kill, timeout, TimeUnit.MILLISECONDS);
+			try {
+				InputStream rendition = worker.convert(providerClass, content, toMimeType);
+				deadline.cancel(false);
+				give(worker);
+				return rendition;
+			} catch (StoreAccessException e) {
+				deadline.cancel(false);
+				give(worker);
+				throw e;
+			} catch (IOException | RuntimeException e) {
+				deadline.cancel(false);
+				discard(worker);
+				if (worker.isKilled()) {
+					killed.incrementAndGet();
+					throw new StoreAccessException(String.format("Rendition worker killed after %d ms converting to %s with %s", timeout, toMimeType, providerClass), e);
+				}
+				throw new StoreAccessException(String.format("Rendition worker failed converting to %s with %s", toMimeType, providerClass), e);
+			} finally {
+				conversions.incrementAndGet();
+			}
+		} finally {
+			permits.release();
+		}
+	}
+
+	@Override
+	public void destroy() {
+		watchdog.shutdownNow();
+		for (ForkedWorker worker : workers) {
+			worker.destroy();
+		}
+		workers.clear();
+		idle.clear();
+	}
+
+	@ManagedAttribute(description = "Number of worker JVMs running")
+	public int getWorkerCount() {
+		return workers.size();
+	}
+
+	@ManagedAttribute(description = "Number of conversions run by workers")
+	public long getConversionCount() {
+		return conversions.get();
+	}
+
+	@ManagedAttribute(description = "Number of worker JVMs started")
+	public long getStartedCount() {
+		return started.get();
+	}
+
+	@ManagedAttribute(description = "Number of worker JVMs replaced after too many conversions or too much heap")
+	public long getRecycledCount() {
+		return recycled.get();
+	}
+
+	@ManagedAttribute(description = "Number of worker JVMs killed for taking too long")
+	public long getKilledCount() {
+		return killed.get();
+	}
+
+	private ForkedWorker take() {
+		ForkedWorker worker;
+		while ((worker = idle.pollFirst()) != null) {
+			if (worker.isAlive() && !worker.isKilled()) {
+				return worker;
+			}
+			discard(worker);
+		}
+		try {
+			worker = new ForkedWorker(command());
+		} catch (IOException e) {
+			throw new StoreAccessException("Unable to start a rendition worker", e);
+		}
+		workers.add(worker);
+		started.incrementAndGet();
+		return worker;
+	}
+
+	private void give(ForkedWorker worker) {
+		if (worker.getConversions() >= maxConversions || worker.getHeapUsage() > recycleHeapUsage) {
+			if (logger.isDebugEnabled()) {
+				logger.debug(String.format("Replacing rendition worker after %d conversions using %.0f%% of its heap", worker.getConversions(), worker.getHeapUsage() * 100));
+			}
+			recycled.incrementAndGet();
+			discard(worker);
+			return;
+		}
+		idle.offerFirst(worker);
+	}
+
+	private void discard(ForkedWorker worker) {
+		workers.remove(worker);
+		worker.destroy();
+	}
+
+	private List<String> command() {
+		List<String> command = new ArrayList<>();
+		command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+		command.add("-Xmx" + maxHeap);
+		command.addAll(jvmArguments);
+		command.add("-cp");
+		command.add(classpath);
+		command.add(RenditionWorker.class.getName());
+		return command;
+	}
+
+	private Semaphore getPermits() {
+		Semaphore permits = this.permits;
+		if (permits == null) {
+			synchronized (this) {
+				permits = this.permits;
+				if (permits == null) {
+					permits = new Semaphore(poolSize, true);
+					this.permits = permits;
+				}
+			}
+		}
+		return permits;
+	}
+}
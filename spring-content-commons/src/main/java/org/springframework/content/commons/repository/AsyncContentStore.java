@@ -0,0 +1,20 @@
+package org.springframework.content.commons.repository;
+
+import java.io.InputStream;
+import java.io.Serializable;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking variant of {@link ContentStore}.  Each operation returns immediately and completes the returned
+ * future once the backing store has acknowledged the transfer.
+ *
+ * Store events are published as they are for {@link ContentStore}; the <code>After*</code> events are published
+ * when the future completes successfully.
+ */
+public interface AsyncContentStore<S, SID extends Serializable> extends ContentRepository<S, SID> {
+
+	CompletableFuture<S> setContentAsync(S property, InputStream content);
+	CompletableFuture<S> unsetContentAsync(S property);
+	CompletableFuture<InputStream> getContentAsync(S property);
+
+}
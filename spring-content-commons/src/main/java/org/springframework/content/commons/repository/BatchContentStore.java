@@ -0,0 +1,20 @@
+package org.springframework.content.commons.repository;
+
+import java.io.InputStream;
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * A {@link ContentStore} that can set or unset the content of several entities in one operation, letting the store
+ * send the writes or deletes to its backend together.
+ *
+ * Store events are published for each entity as they are for {@link ContentStore#setContent(Object, InputStream)}
+ * and {@link ContentStore#unsetContent(Object)}.
+ */
+public interface BatchContentStore<S, SID extends Serializable> extends ContentStore<S, SID> {
+
+	void setContents(Map<S, InputStream> contents);
+	void unsetContents(Collection<S> properties);
+
+}
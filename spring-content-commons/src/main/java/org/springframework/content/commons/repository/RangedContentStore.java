@@ -0,0 +1,19 @@
+package org.springframework.content.commons.repository;
+
+import java.io.InputStream;
+import java.io.Serializable;
+
+/**
+ * A {@link ContentStore} that can read part of an item of content without reading what comes before it.
+ *
+ * Store events are published as they are for {@link ContentStore#getContent(Object)}.
+ */
+public interface RangedContentStore<S, SID extends Serializable> extends ContentStore<S, SID> {
+
+	/**
+	 * Returns a stream over <code>length</code> bytes of content starting at <code>offset</code>, or over the rest of
+	 * the content when <code>length</code> is negative.
+	 */
+	InputStream getContent(S property, long offset, long length);
+
+}
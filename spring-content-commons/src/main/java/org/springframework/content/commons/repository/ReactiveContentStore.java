@@ -0,0 +1,27 @@
+package org.springframework.content.commons.repository;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive variant of {@link ContentStore}.  Content is written from, and read as, a stream of buffers so that it
+ * is never held in memory as a whole and flows no faster than the subscriber requests it.  Nothing happens until the
+ * returned publisher is subscribed to.
+ *
+ * Store events are published as they are for {@link ContentStore}; the <code>After*</code> events are published
+ * when the returned publisher completes.  The events' store is a blocking {@link ContentStore} view of the reactive
+ * store, so that listeners can read the content; its methods block, so listeners must not call them on the threads
+ * the reactive store runs on.
+ *
+ * Requires reactor-core on the classpath.
+ */
+public interface ReactiveContentStore<S, SID extends Serializable> extends ContentRepository<S, SID> {
+
+	Mono<S> setContent(S property, Flux<ByteBuffer> content);
+	Mono<S> unsetContent(S property);
+	Flux<ByteBuffer> getContent(S property);
+
+}
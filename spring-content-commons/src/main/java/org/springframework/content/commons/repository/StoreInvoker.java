@@ -7,6 +7,8 @@ public interface StoreInvoker {
 
     Class<?> getDomainClass();
 
+    Class<?> getStoreInterface();
+
     Class<? extends Serializable> getContentIdClass();
 
 	InputStream invokeGetContent();
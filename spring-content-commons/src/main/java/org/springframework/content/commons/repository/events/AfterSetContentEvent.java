@@ -9,8 +9,25 @@ public class AfterSetContentEvent extends StoreEvent {
 
 	private static final long serialVersionUID = -4974444274997145136L;
 
+	private transient SpooledContent content;
+
 	public AfterSetContentEvent(Object source, ContentStore<Object,Serializable> store) {
+		this(source, store, null);
+	}
+
+	public AfterSetContentEvent(Object source, ContentStore<Object,Serializable> store, SpooledContent content) {
 		super(source, store);
+		this.content = content;
 	}
 
+	/**
+	 * Returns the copy of the content asked for by {@link BeforeSetContentEvent#spoolContent(long)}, or null if no copy
+	 * was asked for or the whole of the content could not be copied.
+	 */
+	public SpooledContent getContent() {
+		if (content == null || !content.isComplete()) {
+			return null;
+		}
+		return content;
+	}
 }
@@ -9,8 +9,26 @@ public class BeforeSetContentEvent extends StoreEvent {
 
 	private static final long serialVersionUID = -7299354365313770L;
 
+	private long spoolLimit = -1;
+
 	public BeforeSetContentEvent(Object source, ContentStore<Object,Serializable> store) {
 		super(source, store);
 	}
 
+	/**
+	 * Asks for a copy of the content to be taken as it is stored.  The copy is available from
+	 * {@link AfterSetContentEvent#getContent()} when the content is no longer than <code>maxLength</code> bytes.
+	 *
+	 * @param maxLength the length of the longest content to copy
+	 */
+	public void spoolContent(long maxLength) {
+		spoolLimit = Math.max(spoolLimit, maxLength);
+	}
+
+	/**
+	 * Returns the length of the longest content to copy, or -1 when no copy was asked for.
+	 */
+	public long getSpoolLimit() {
+		return spoolLimit;
+	}
 }
@@ -0,0 +1,200 @@
+package org.springframework.content.commons.repository.events;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * A copy of the content passed to <code>setContent</code>, taken as the store reads it so that listeners can use the
+ * content without reading it back from the store.
+ *
+ * Content is held in memory up to {@link #MEMORY_THRESHOLD} bytes and in a temporary file after that.  Content longer
+ * than the limit given when the copy was requested is not kept.  The copy is only available once the store has read
+ * the content to the end.
+ *
+ * The copy is removed once it is released.  Listeners that use it after the {@link AfterSetContentEvent} has been
+ * handled must {@link #retain()} it, and {@link #release()} it when they are done.
+ */
+public class SpooledContent {
+
+	private static Log logger = LogFactory.getLog(SpooledContent.class);
+
+	public static final int MEMORY_THRESHOLD = 64 * 1024;
+
+	private final long maxLength;
+	private long length = 0;
+	private ByteArrayOutputStream memory = new ByteArrayOutputStream();
+	private File file;
+	private OutputStream out;
+	private boolean complete = false;
+	private boolean abandoned = false;
+	private int references = 1;
+
+	public SpooledContent(long maxLength) {
+		this.maxLength = maxLength;
+	}
+
+	/**
+	 * Returns a stream that reads <code>content</code> and copies what it reads into this spool.
+	 */
+	public InputStream tee(InputStream content) {
+		return new FilterInputStream(content) {
+			@Override
+			public int read() throws IOException {
+				int b = super.read();
+				if (b == -1) {
+					complete();
+				} else {
+					write(new byte[] {(byte) b}, 0, 1);
+				}
+				return b;
+			}
+
+			@Override
+			public int read(byte[] b, int off, int len) throws IOException {
+				int read = super.read(b, off, len);
+				if (read == -1) {
+					complete();
+				} else {
+					write(b, off, read);
+				}
+				return read;
+			}
+
+			@Override
+			public long skip(long n) throws IOException {
+				abandon();
+				return super.skip(n);
+			}
+
+			@Override
+			public boolean markSupported() {
+				return false;
+			}
+		};
+	}
+
+	public synchronized void write(ByteBuffer content) {
+		ByteBuffer bytes = content.duplicate();
+		byte[] buffer = new byte[Math.min(bytes.remaining(), 8192)];
+		while (bytes.hasRemaining()) {
+			int count = Math.min(bytes.remaining(), buffer.length);
+			bytes.get(buffer, 0, count);
+			write(buffer, 0, count);
+		}
+	}
+
+	public synchronized void write(byte[] bytes, int off, int len) {
+		if (abandoned || complete || len == 0) {
+			return;
+		}
+		if (length + len > maxLength) {
+			abandon();
+			return;
+		}
+		try {
+			if (out == null && memory.size() + len > MEMORY_THRESHOLD) {
+				file = File.createTempFile("spring-content-", ".spool");
+				out = new FileOutputStream(file);
+				memory.writeTo(out);
+				memory = null;
+			}
+			if (out != null) {
+				out.write(bytes, off, len);
+			} else {
+				memory.write(bytes, off, len);
+			}
+			length += len;
+		} catch (IOException e) {
+			logger.warn("Unable to spool content", e);
+			abandon();
+		}
+	}
+
+	/**
+	 * Marks the content as read to the end.
+	 */
+	public synchronized void complete() {
+		if (abandoned || complete) {
+			return;
+		}
+		try {
+			if (out != null) {
+				out.close();
+			}
+			complete = true;
+		} catch (IOException e) {
+			logger.warn("Unable to spool content", e);
+			abandon();
+		}
+	}
+
+	/**
+	 * Returns true if the whole of the content has been copied.
+	 */
+	public synchronized boolean isComplete() {
+		return complete && !abandoned;
+	}
+
+	public synchronized long getLength() {
+		return length;
+	}
+
+	/**
+	 * Returns a new stream over the copied content.
+	 *
+	 * @throws IllegalStateException if the content is not complete or has been released
+	 */
+	public synchronized InputStream getInputStream() throws IOException {
+		if (!isComplete()) {
+			throw new IllegalStateException("Spooled content is not available");
+		}
+		if (file != null) {
+			return new FileInputStream(file);
+		}
+		return new ByteArrayInputStream(memory.toByteArray());
+	}
+
+	/**
+	 * Keeps the copy until a matching {@link #release()}.
+	 */
+	public synchronized SpooledContent retain() {
+		if (abandoned) {
+			throw new IllegalStateException("Spooled content has been released");
+		}
+		references++;
+		return this;
+	}
+
+	public synchronized void release() {
+		if (--references <= 0) {
+			abandon();
+		}
+	}
+
+	private synchronized void abandon() {
+		abandoned = true;
+		memory = null;
+		if (out != null) {
+			try {
+				out.close();
+			} catch (IOException e) {
+				// ignore
+			}
+		}
+		if (file != null && !file.delete() && file.exists()) {
+			logger.warn(String.format("Unable to remove spooled content %s", file));
+		}
+		file = null;
+	}
+}
@@ -15,6 +15,9 @@ import org.springframework.beans.factory.BeanClassLoaderAware;
 import org.springframework.beans.factory.FactoryBean;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.content.commons.repository.AsyncContentStore;
+import org.springframework.content.commons.repository.BatchContentStore;
+import org.springframework.content.commons.repository.RangedContentStore;
 import org.springframework.content.commons.repository.ContentStore;
 import org.springframework.content.commons.repository.Store;
 import org.springframework.content.commons.repository.StoreExtension;
@@ -28,6 +31,9 @@ public abstract class AbstractStoreFactoryBean
 	implements InitializingBean, FactoryBean<Store<? extends Serializable>>, BeanClassLoaderAware, ApplicationEventPublisherAware, StoreFactory {
 
 	private static Log logger = LogFactory.getLog(AbstractStoreFactoryBean.class);
+
+	// by name so that reactor need not be on the classpath
+	private static final String REACTIVE_CONTENT_STORE = "org.springframework.content.commons.repository.ReactiveContentStore";
 	
 	private Class<? extends Store<Serializable>> storeInterface;
 	private ClassLoader classLoader;
@@ -122,7 +128,12 @@ public abstract class AbstractStoreFactoryBean
 		// Create proxy
 		ProxyFactory result = new ProxyFactory();
 		result.setTarget(target);
-		result.setInterfaces(new Class[] { storeInterface, Store.class, ContentStore.class });
+		// a reactive store's methods clash with ContentStore's so it is only proxied as its own interface
+		if (target instanceof ContentStore) {
+			result.setInterfaces(new Class[] { storeInterface, Store.class, ContentStore.class });
+		} else {
+			result.setInterfaces(new Class[] { storeInterface, Store.class });
+		}
 		
 		Map<Method, StoreExtension> extensionsMap = new HashMap<>();
 		try {
@@ -134,7 +145,8 @@ public abstract class AbstractStoreFactoryBean
 		} catch (Exception e) {
 			logger.error("Failed to setup extensions", e);
 		}
-		StoreMethodInterceptor intercepter = new StoreMethodInterceptor((ContentStore<Object,Serializable>)target, 
+		StoreMethodInterceptor intercepter = new StoreMethodInterceptor(StoreMethodInterceptor.eventStore(target), 
+																								storeInterface, 
 																								getDomainClass(storeInterface), 
 																								getContentIdClass(storeInterface), 
 																								extensionsMap, 
@@ -159,7 +171,11 @@ public abstract class AbstractStoreFactoryBean
         for ( Type t : types ) {
             if (t instanceof ParameterizedType) {
                 ParameterizedType pt = (ParameterizedType) t;
-                if (pt.getRawType().getTypeName().equals(ContentStore.class.getCanonicalName())) {
+                if (pt.getRawType().getTypeName().equals(ContentStore.class.getCanonicalName()) ||
+                    pt.getRawType().getTypeName().equals(RangedContentStore.class.getCanonicalName()) ||
+                    pt.getRawType().getTypeName().equals(BatchContentStore.class.getCanonicalName()) ||
+                    pt.getRawType().getTypeName().equals(AsyncContentStore.class.getCanonicalName()) ||
+                    pt.getRawType().getTypeName().equals(REACTIVE_CONTENT_STORE)) {
                     types = pt.getActualTypeArguments();
                     if (types.length != 2) {
                         throw new IllegalStateException(String.format("ContentRepository class %s must have domain and contentId types", repositoryClass.getCanonicalName()));
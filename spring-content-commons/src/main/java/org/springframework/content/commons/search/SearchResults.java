@@ -0,0 +1,32 @@
+package org.springframework.content.commons.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Pages over the results of the unpaged {@link Searchable} methods, for implementations that do not page themselves.
+ */
+final class SearchResults {
+
+    private SearchResults() {
+    }
+
+    static <T> Page<T> page(Iterable<T> results, Pageable pageable) {
+        List<T> all = new ArrayList<>();
+        if (results != null) {
+            results.forEach(all::add);
+        }
+        if (pageable == null) {
+            return new PageImpl<>(all);
+        }
+        int from = Math.min(pageable.getOffset(), all.size());
+        int to = Math.min(from + pageable.getPageSize(), all.size());
+        List<T> content = from < to ? all.subList(from, to) : Collections.<T>emptyList();
+        return new PageImpl<>(content, pageable, all.size());
+    }
+}
@@ -1,5 +1,11 @@
 package org.springframework.content.commons.search;
 
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
 public interface Searchable<T> {
 
     Iterable<T> findKeyword(String query);
@@ -15,4 +21,45 @@ public interface Searchable<T> {
     Iterable<T> findKeywordStartsWithAndEndsWith(String a, String b);
 
     Iterable<T> findAllKeywordsWithWeights(String[] terms, double[] weights);
+
+    /**
+     * Returns one page of the matches for <code>query</code>.  Implementations should page in the search engine; the
+     * default pages over {@link #findKeyword(String)} in memory.
+     */
+    default Page<T> findKeyword(String query, Pageable pageable) {
+        return SearchResults.page(findKeyword(query), pageable);
+    }
+
+    default Page<T> findAllKeywords(Pageable pageable, String...terms) {
+        return SearchResults.page(findAllKeywords(terms), pageable);
+    }
+
+    default Page<T> findAnyKeywords(Pageable pageable, String...terms) {
+        return SearchResults.page(findAnyKeywords(terms), pageable);
+    }
+
+    default Page<T> findKeywordsNear(int proximity, Pageable pageable, String...terms) {
+        return SearchResults.page(findKeywordsNear(proximity, terms), pageable);
+    }
+
+    default Page<T> findKeywordStartsWith(String term, Pageable pageable) {
+        return SearchResults.page(findKeywordStartsWith(term), pageable);
+    }
+
+    default Page<T> findKeywordStartsWithAndEndsWith(String a, String b, Pageable pageable) {
+        return SearchResults.page(findKeywordStartsWithAndEndsWith(a, b), pageable);
+    }
+
+    default Page<T> findAllKeywordsWithWeights(String[] terms, double[] weights, Pageable pageable) {
+        return SearchResults.page(findAllKeywordsWithWeights(terms, weights), pageable);
+    }
+
+    /**
+     * Returns every match for <code>query</code>.  Implementations should fetch matches a batch at a time as the
+     * stream is consumed, so result sets of any size can be read without holding them in memory; the default streams
+     * the results of {@link #findKeyword(String)}.
+     */
+    default Stream<T> streamKeyword(String query) {
+        return StreamSupport.stream(findKeyword(query).spliterator(), false);
+    }
 }
@@ -0,0 +1,21 @@
+package org.springframework.content.commons.search;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Extracts the text of content so that it can be indexed, for example by the Solr and Lucene full text indexing
+ * modules.  Implementations may be called from several threads at once.
+ */
+public interface TextExtractor {
+
+	/**
+	 * Returns the text of <code>content</code>, or null if this extractor cannot extract text from content of this mime
+	 * type.
+	 *
+	 * @param content the content
+	 * @param mimeType the mime type of the content, or null if it is not known
+	 * @param maxLength the number of characters after which the extractor may stop
+	 */
+	String extract(InputStream content, String mimeType, int maxLength) throws IOException;
+}
@@ -0,0 +1,110 @@
+package internal.org.springframework.content.commons.renditions;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.*;
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.content.commons.renditions.CachedRendition;
+
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+@RunWith(Ginkgo4jRunner.class)
+public class FileSystemRenditionStoreTest {
+
+	private FileSystemRenditionStore store;
+	private File directory;
+
+	{
+		Describe("FileSystemRenditionStore", () -> {
+			BeforeEach(() -> {
+				directory = Files.createTempDirectory("renditions").toFile();
+				store = new FileSystemRenditionStore(directory);
+			});
+			AfterEach(() -> {
+				FileUtils.deleteDirectory(directory);
+			});
+			It("should keep the renditions of a source in its own directory", () -> {
+				store.setContent(new CachedRendition("source/v1-pdf"), stream("pdf"));
+
+				assertThat(new File(directory, "source").isDirectory(), is(true));
+				assertThat(read(store.getContent(new CachedRendition("source/v1-pdf"))), is("pdf"));
+			});
+			It("should remove the directory of a source with its last rendition", () -> {
+				store.setContent(new CachedRendition("source/v1-pdf"), stream("pdf"));
+				store.unsetContent(new CachedRendition("source/v1-pdf"));
+
+				assertThat(directory.list().length, is(0));
+			});
+			Context("#unsetContents", () -> {
+				BeforeEach(() -> {
+					store.setContent(new CachedRendition("source/v1-pdf"), stream("pdf"));
+					store.setContent(new CachedRendition("source/v1-txt"), stream("txt"));
+					store.setContent(new CachedRendition("source/v2-pdf"), stream("pdf"));
+					store.setContent(new CachedRendition("other/v1-pdf"), stream("pdf"));
+				});
+				It("should remove every rendition with the prefix", () -> {
+					assertThat(store.unsetContents("source/", null), is(3));
+
+					assertThat(new File(directory, "source").exists(), is(false));
+					assertThat(store.getContent(new CachedRendition("other/v1-pdf")), is(not(nullValue())));
+				});
+				It("should keep the renditions with the retained prefix", () -> {
+					assertThat(store.unsetContents("source/", "source/v2-"), is(2));
+
+					assertThat(store.getContent(new CachedRendition("source/v1-pdf")), is(nullValue()));
+					assertThat(read(store.getContent(new CachedRendition("source/v2-pdf"))), is("pdf"));
+				});
+			});
+			Context("#trim", () -> {
+				BeforeEach(() -> {
+					store.setContent(new CachedRendition("a/v1-pdf"), stream("12345"));
+					store.setContent(new CachedRendition("b/v1-pdf"), stream("12345"));
+					store.setContent(new CachedRendition("c/v1-pdf"), stream("12345"));
+					long now = System.currentTimeMillis();
+					new File(directory, "a/v1-pdf").setLastModified(now - 30000);
+					new File(directory, "b/v1-pdf").setLastModified(now - 20000);
+					new File(directory, "c/v1-pdf").setLastModified(now - 10000);
+				});
+				It("should remove the least recently used renditions until the store is within its size", () -> {
+					store.getContent(new CachedRendition("a/v1-pdf")).close();
+
+					assertThat(store.trim(10, 0), is(1));
+					assertThat(new File(directory, "b").exists(), is(false));
+					assertThat(new File(directory, "a/v1-pdf").exists(), is(true));
+					assertThat(new File(directory, "c/v1-pdf").exists(), is(true));
+				});
+				It("should remove the renditions older than the maximum age", () -> {
+					assertThat(store.trim(0, 15000), is(2));
+					assertThat(directory.list(), is(new String[] {"c"}));
+				});
+			});
+		});
+	}
+
+	@Test
+	public void noop() {
+	}
+
+	private static InputStream stream(String content) {
+		return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static String read(InputStream content) throws IOException {
+		try {
+			return IOUtils.toString(content, "UTF-8");
+		} finally {
+			content.close();
+		}
+	}
+}
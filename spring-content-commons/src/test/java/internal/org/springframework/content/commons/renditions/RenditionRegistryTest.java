@@ -0,0 +1,228 @@
+package internal.org.springframework.content.commons.renditions;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.*;
+import static org.hamcrest.Matchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.content.commons.renditions.RenditionProvider;
+
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+@RunWith(Ginkgo4jRunner.class)
+public class RenditionRegistryTest {
+
+	private static final String DOCX = "application/vnd.openxmlformats-officedocument.wordprocessingml.document";
+
+	private RenditionRegistry registry;
+	private List<RenditionProvider> providers;
+
+	{
+		Describe("RenditionRegistry", () -> {
+			BeforeEach(() -> {
+				providers = new ArrayList<>();
+			});
+			JustBeforeEach(() -> {
+				registry = new RenditionRegistry(providers);
+			});
+
+			Context("#plan", () -> {
+				Context("given a provider for the conversion", () -> {
+					BeforeEach(() -> {
+						providers.add(new Provider("pdf", DOCX, 1, "application/pdf"));
+					});
+					It("should plan a single step", () -> {
+						RenditionRegistry.Plan plan = registry.plan(DOCX, "application/pdf");
+						assertThat(plan.steps.size(), is(1));
+						assertThat(read(plan.convert(stream("doc"))), is("doc>pdf"));
+					});
+					It("should ignore the parameters of the content's mime type", () -> {
+						assertThat(registry.plan(DOCX + "; charset=UTF-8", "application/pdf"), is(not(nullValue())));
+						assertThat(registry.plan(DOCX.toUpperCase(), "application/pdf"), is(not(nullValue())));
+					});
+					It("should only plan mime types the provider produces", () -> {
+						assertThat(registry.plan(DOCX, "image/png"), is(nullValue()));
+						assertThat(registry.plan("application/pdf", DOCX), is(nullValue()));
+					});
+					It("should cache the plan", () -> {
+						assertThat(registry.plan(DOCX, "application/pdf"), is(sameInstance(registry.plan(DOCX, "application/pdf"))));
+					});
+					It("should cache the plan whatever the case of the requested mime type", () -> {
+						assertThat(registry.plan(DOCX, "Application/PDF "), is(sameInstance(registry.plan(DOCX, "application/pdf"))));
+					});
+					It("should not cache conversions it cannot plan", () -> {
+						for (int i = 0; i < RenditionRegistry.MAX_PLANS * 2; i++) {
+							assertThat(registry.plan(DOCX, "image/x-" + i), is(nullValue()));
+						}
+						RenditionRegistry.Plan plan = registry.plan(DOCX, "application/pdf");
+						for (int i = 0; i < RenditionRegistry.MAX_PLANS * 2; i++) {
+							registry.plan(DOCX, "image/x-" + i);
+						}
+						assertThat(registry.plan(DOCX, "application/pdf"), is(sameInstance(plan)));
+					});
+				});
+				Context("given providers that convert through an intermediate mime type", () -> {
+					BeforeEach(() -> {
+						providers.add(new Provider("html", DOCX, 1, "text/html"));
+						providers.add(new Provider("pdf", "text/html", 1, "application/pdf"));
+					});
+					It("should chain the providers", () -> {
+						RenditionRegistry.Plan plan = registry.plan(DOCX, "application/pdf");
+						assertThat(plan.steps.size(), is(2));
+						assertThat(read(plan.convert(stream("doc"))), is("doc>html>pdf"));
+					});
+					It("should close the intermediate rendition when a later provider returns nothing", () -> {
+						AtomicBoolean closed = new AtomicBoolean();
+						RenditionRegistry.Plan plan = registry.plan(DOCX, "application/pdf");
+						InputStream converted = plan.convert(stream("doc"), (provider, content, toMimeType) -> {
+							if (toMimeType.equals("text/html")) {
+								return new FilterInputStream(provider.convert(content, toMimeType)) {
+									@Override
+									public void close() throws IOException {
+										closed.set(true);
+										super.close();
+									}
+								};
+							}
+							return null;
+						});
+
+						assertThat(converted, is(nullValue()));
+						assertThat(closed.get(), is(true));
+					});
+					Context("given a direct provider that costs more than the chain", () -> {
+						BeforeEach(() -> {
+							providers.add(new Provider("direct", DOCX, 5, "application/pdf"));
+						});
+						It("should use the chain", () -> {
+							assertThat(registry.plan(DOCX, "application/pdf").cost, is(2L));
+						});
+					});
+					Context("given a direct provider that costs less than the chain", () -> {
+						BeforeEach(() -> {
+							providers.add(new Provider("direct", DOCX, 1, "application/pdf"));
+						});
+						It("should use the direct provider", () -> {
+							assertThat(read(registry.plan(DOCX, "application/pdf").convert(stream("doc"))), is("doc>direct"));
+						});
+					});
+				});
+				Context("given a chain longer than the maximum number of steps", () -> {
+					BeforeEach(() -> {
+						for (int i = 0; i < RenditionRegistry.MAX_STEPS + 1; i++) {
+							providers.add(new Provider("t" + (i + 1), "test/t" + i, 1, "test/t" + (i + 1)));
+						}
+					});
+					It("should not plan the conversion", () -> {
+						assertThat(registry.plan("test/t0", "test/t" + RenditionRegistry.MAX_STEPS), is(not(nullValue())));
+						assertThat(registry.plan("test/t0", "test/t" + (RenditionRegistry.MAX_STEPS + 1)), is(nullValue()));
+					});
+				});
+				Context("given providers that convert in a cycle", () -> {
+					BeforeEach(() -> {
+						providers.add(new Provider("png", "image/jpeg", 1, "image/png"));
+						providers.add(new Provider("jpeg", "image/png", 1, "image/jpeg"));
+					});
+					It("should not plan unreachable mime types", () -> {
+						assertThat(registry.plan("image/jpeg", "image/gif"), is(nullValue()));
+					});
+				});
+				Context("given a provider that produces mime types with parameters", () -> {
+					BeforeEach(() -> {
+						providers.add(new Provider("pdf", DOCX, 1, "application/pdf") {
+							@Override
+							public boolean canProduce(String toMimeType) {
+								return toMimeType.startsWith("application/pdf;");
+							}
+
+							@Override
+							public InputStream convert(InputStream fromInputSource, String toMimeType) {
+								return stream(toMimeType);
+							}
+						});
+					});
+					It("should plan the mime types it can produce", () -> {
+						RenditionRegistry.Plan plan = registry.plan(DOCX, "application/pdf;pages=1");
+						assertThat(plan.last().toMimeType, is("application/pdf;pages=1"));
+						assertThat(read(plan.convert(stream("doc"))), is("application/pdf;pages=1"));
+					});
+					It("should not plan those it cannot", () -> {
+						assertThat(registry.plan(DOCX, "text/plain;pages=1"), is(nullValue()));
+					});
+				});
+			});
+
+			Context("#conversions", () -> {
+				BeforeEach(() -> {
+					providers.add(new Provider("html", DOCX, 1, "text/html", "text/plain"));
+					providers.add(new Provider("pdf", "text/html", 1, "application/pdf"));
+				});
+				It("should return every mime type the content can be converted to", () -> {
+					assertThat(registry.conversions(DOCX), containsInAnyOrder("text/html", "text/plain", "application/pdf"));
+				});
+			});
+		});
+	}
+
+	@Test
+	public void noop() {
+	}
+
+	private static InputStream stream(String content) {
+		return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static String read(InputStream content) throws IOException {
+		return IOUtils.toString(content, "UTF-8");
+	}
+
+	private static class Provider implements RenditionProvider {
+		private final String name;
+		private final String consumes;
+		private final int cost;
+		private final String[] produces;
+
+		Provider(String name, String consumes, int cost, String... produces) {
+			this.name = name;
+			this.consumes = consumes;
+			this.cost = cost;
+			this.produces = produces;
+		}
+
+		@Override
+		public String consumes() {
+			return consumes;
+		}
+
+		@Override
+		public String[] produces() {
+			return produces;
+		}
+
+		@Override
+		public int cost(String toMimeType) {
+			return cost;
+		}
+
+		@Override
+		public InputStream convert(InputStream fromInputSource, String toMimeType) {
+			try {
+				return stream(read(fromInputSource) + ">" + name);
+			} catch (IOException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+}
@@ -1,5 +1,6 @@
 package internal.org.springframework.content.commons.renditions;
 
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.AfterEach;
 import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.BeforeEach;
 import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Context;
 import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
@@ -29,7 +30,9 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.content.commons.annotations.MimeType;
 import org.springframework.content.commons.renditions.Renderable;
+import org.springframework.content.commons.renditions.RenditionCache;
 import org.springframework.content.commons.renditions.RenditionProvider;
+import org.springframework.content.commons.renditions.RenditionScheduler;
 import org.springframework.content.commons.repository.StoreInvoker;
 
 import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
@@ -45,6 +48,8 @@ public class RenditionServiceImplTest {
 	private MethodInvocation invocation;
 	private StoreInvoker repoInvoker;
 	private RenditionProvider mockProvider = null;
+	private RenditionCache cache;
+	private RenditionScheduler scheduler;
 	
 	{
 		Describe("RenditionServiceImpl", () -> {
@@ -152,6 +157,32 @@ public class RenditionServiceImplTest {
 						It("should convert the content", () -> {
 							verify(mockProvider).convert(anyObject(), eq("something/else"));
 						});
+
+						Context("given a rendition cache", () -> {
+							BeforeEach(() -> {
+								cache = mock(RenditionCache.class);
+								renditionService.setRenditionCache(cache);
+							});
+
+							It("should get the rendition through the cache", () -> {
+								verify(cache).getRendition(anyObject(), eq("something/else"), anyObject());
+							});
+						});
+
+						Context("given a rendition scheduler", () -> {
+							BeforeEach(() -> {
+								scheduler = new RenditionScheduler();
+								renditionService.setRenditionScheduler(scheduler);
+							});
+							AfterEach(() -> {
+								scheduler.destroy();
+							});
+
+							It("should convert the content on the scheduler", () -> {
+								verify(mockProvider).convert(anyObject(), eq("something/else"));
+								assertThat(scheduler.getCompletedCount(), is(1L));
+							});
+						});
 					});
 					
 					Context("given a ContentObject with no mime-type", () -> {
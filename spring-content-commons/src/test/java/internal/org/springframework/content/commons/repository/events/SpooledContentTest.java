@@ -0,0 +1,126 @@
+package internal.org.springframework.content.commons.repository.events;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.BeforeEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Context;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.It;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.JustBeforeEach;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.content.commons.repository.events.SpooledContent;
+
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+@RunWith(Ginkgo4jRunner.class)
+public class SpooledContentTest {
+
+	private SpooledContent spool;
+	private byte[] content;
+	private long maxLength;
+	private Exception e;
+
+	{
+		Describe("SpooledContent", () -> {
+			BeforeEach(() -> {
+				maxLength = Long.MAX_VALUE;
+			});
+			JustBeforeEach(() -> {
+				spool = new SpooledContent(maxLength);
+			});
+			Context("#tee", () -> {
+				Context("given content smaller than the memory threshold", () -> {
+					BeforeEach(() -> {
+						content = random(1000);
+					});
+					It("should copy the content as it is read", () -> {
+						try (InputStream in = spool.tee(new ByteArrayInputStream(content))) {
+							assertThat(IOUtils.toByteArray(in), is(content));
+						}
+						assertThat(spool.isComplete(), is(true));
+						assertThat(spool.getLength(), is((long) content.length));
+						assertThat(IOUtils.toByteArray(spool.getInputStream()), is(content));
+					});
+				});
+				Context("given content larger than the memory threshold", () -> {
+					BeforeEach(() -> {
+						content = random(3 * SpooledContent.MEMORY_THRESHOLD + 17);
+					});
+					It("should copy all of the content", () -> {
+						IOUtils.toByteArray(spool.tee(new ByteArrayInputStream(content)));
+						assertThat(IOUtils.toByteArray(spool.getInputStream()), is(content));
+						assertThat(IOUtils.toByteArray(spool.getInputStream()), is(content));
+					});
+				});
+				Context("given content longer than the maximum length", () -> {
+					BeforeEach(() -> {
+						content = random(1000);
+						maxLength = 999;
+					});
+					It("should not keep a copy", () -> {
+						assertThat(IOUtils.toByteArray(spool.tee(new ByteArrayInputStream(content))), is(content));
+						assertThat(spool.isComplete(), is(false));
+					});
+				});
+				Context("given content that is not read to the end", () -> {
+					BeforeEach(() -> {
+						content = random(1000);
+					});
+					It("should not be complete", () -> {
+						spool.tee(new ByteArrayInputStream(content)).read(new byte[10]);
+						assertThat(spool.isComplete(), is(false));
+						try {
+							spool.getInputStream();
+						} catch (IllegalStateException ise) {
+							e = ise;
+						}
+						assertThat(e instanceof IllegalStateException, is(true));
+					});
+				});
+			});
+			Context("#write", () -> {
+				It("should copy buffers without consuming them", () -> {
+					ByteBuffer buffer = ByteBuffer.wrap("foo".getBytes());
+					spool.write(buffer);
+					spool.complete();
+					assertThat(buffer.remaining(), is(3));
+					assertThat(IOUtils.toByteArray(spool.getInputStream()), is("foo".getBytes()));
+				});
+			});
+			Context("#release", () -> {
+				JustBeforeEach(() -> {
+					IOUtils.toByteArray(spool.tee(new ByteArrayInputStream(random(2 * SpooledContent.MEMORY_THRESHOLD))));
+				});
+				It("should discard the copy", () -> {
+					spool.release();
+					assertThat(spool.isComplete(), is(false));
+				});
+				It("should keep the copy while it is retained", () -> {
+					spool.retain();
+					spool.release();
+					assertThat(spool.isComplete(), is(true));
+					spool.release();
+					assertThat(spool.isComplete(), is(false));
+				});
+			});
+		});
+	}
+
+	@Test
+	public void test() {
+	}
+
+	private static byte[] random(int length) {
+		byte[] bytes = new byte[length];
+		new Random(length).nextBytes(bytes);
+		return bytes;
+	}
+}
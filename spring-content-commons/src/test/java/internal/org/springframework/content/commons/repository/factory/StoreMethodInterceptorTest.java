@@ -5,29 +5,45 @@ import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Context;
 import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
 import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.It;
 import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.JustBeforeEach;
+import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.isA;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.CoreMatchers.startsWith;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.mockito.Matchers.anyObject;
 import static org.mockito.Matchers.argThat;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 import java.io.Serializable;
 import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import org.aopalliance.intercept.MethodInvocation;
+import org.apache.commons.io.IOUtils;
 import org.junit.runner.RunWith;
 import org.mockito.InOrder;
 import org.mockito.Mockito;
 import org.springframework.content.commons.annotations.MimeType;
+import org.springframework.content.commons.repository.AsyncContentStore;
+import org.springframework.content.commons.repository.BatchContentStore;
+import org.springframework.content.commons.repository.RangedContentStore;
+import org.springframework.content.commons.repository.ReactiveContentStore;
 import org.springframework.content.commons.repository.StoreExtension;
 import org.springframework.content.commons.repository.ContentStore;
 import org.springframework.content.commons.repository.events.AfterGetContentEvent;
@@ -36,11 +52,15 @@ import org.springframework.content.commons.repository.events.AfterUnsetContentEv
 import org.springframework.content.commons.repository.events.BeforeGetContentEvent;
 import org.springframework.content.commons.repository.events.BeforeSetContentEvent;
 import org.springframework.content.commons.repository.events.BeforeUnsetContentEvent;
+import org.springframework.content.commons.repository.events.SpooledContent;
 import org.springframework.context.ApplicationEventPublisher;
 
 import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
 import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
 
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
 @SuppressWarnings("unchecked")
 @RunWith(Ginkgo4jRunner.class)
 @Ginkgo4jConfiguration(threads = 1)
@@ -50,11 +70,16 @@ public class StoreMethodInterceptorTest {
 	
 	// mocks
 	private ContentStore<Object, Serializable> store;
+	private ReactiveContentStore<Object, Serializable> reactiveStore;
 	private MethodInvocation invocation;
 	private StoreExtension extension;
 	private ApplicationEventPublisher publisher;
 
 	private Exception e;
+	private Object result;
+	private CompletableFuture<Object> future;
+	private Object[] args;
+	private SpooledContent spooled;
 	
 	private Map<Method, StoreExtension> extensions = null;
 	
@@ -68,7 +93,7 @@ public class StoreMethodInterceptorTest {
 				JustBeforeEach(() -> {
 					interceptor = new StoreMethodInterceptor(store, Object.class, String.class, extensions, publisher);
 					try {
-					    interceptor.invoke(invocation);
+					    result = interceptor.invoke(invocation);
                     } catch (Exception invokeException) {
 					    e = invokeException;
                     }
@@ -91,6 +116,23 @@ public class StoreMethodInterceptorTest {
 						inOrder.verify(publisher).publishEvent(argThat(isA(AfterGetContentEvent.class)));
 					});
 				});
+				Context("when a ranged getContent is invoked", () -> {
+					BeforeEach(() -> {
+						invocation = mock(MethodInvocation.class);
+
+						final Method getContentMethod = RangedContentStore.class.getMethod("getContent", Object.class, long.class, long.class);
+
+						when(invocation.getMethod()).thenReturn(getContentMethod);
+						when(invocation.getArguments()).thenReturn(new Object[]{new ContentObject("plain/text"), 10L, 20L});
+					});
+					It("should proceed", () -> {
+						InOrder inOrder = Mockito.inOrder(publisher, invocation);
+
+						inOrder.verify(publisher).publishEvent(argThat(isA(BeforeGetContentEvent.class)));
+						inOrder.verify(invocation).proceed();
+						inOrder.verify(publisher).publishEvent(argThat(isA(AfterGetContentEvent.class)));
+					});
+				});
 				Context("when getContent is invoked with illegal arguments", () -> {
 					BeforeEach(() -> {
 						invocation = mock(MethodInvocation.class);
@@ -129,6 +171,37 @@ public class StoreMethodInterceptorTest {
 						inOrder.verify(publisher).publishEvent(argThat(isA(AfterSetContentEvent.class)));
 					});
 				});
+				Context("when setContent is invoked and a listener asks for the content", () -> {
+					BeforeEach(() -> {
+						invocation = mock(MethodInvocation.class);
+
+						Class<?> storeClazz = ContentStore.class;
+						final Method setContentMethod = storeClazz.getMethod("setContent", Object.class, InputStream.class);
+
+						args = new Object[]{new ContentObject("plain/text"), new ByteArrayInputStream("foo".getBytes())};
+						when(invocation.getMethod()).thenReturn(setContentMethod);
+						when(invocation.getArguments()).thenReturn(args);
+						when(invocation.proceed()).thenAnswer((invocation) -> IOUtils.toByteArray((InputStream) args[1]));
+
+						doAnswer((invocation) -> {
+							Object event = invocation.getArguments()[0];
+							if (event instanceof BeforeSetContentEvent) {
+								((BeforeSetContentEvent) event).spoolContent(1024);
+							} else if (event instanceof AfterSetContentEvent) {
+								spooled = ((AfterSetContentEvent) event).getContent().retain();
+							}
+							return null;
+						}).when(publisher).publishEvent(anyObject());
+					});
+					It("should make the content read by the store available to the after event", () -> {
+						assertThat(IOUtils.toByteArray(spooled.getInputStream()), is("foo".getBytes()));
+						spooled.release();
+					});
+					It("should discard the content once it has been released", () -> {
+						spooled.release();
+						assertThat(spooled.isComplete(), is(false));
+					});
+				});
 				Context("when setContent is invoked with illegal arguments", () -> {
 					BeforeEach(() -> {
 						invocation = mock(MethodInvocation.class);
@@ -187,6 +260,116 @@ public class StoreMethodInterceptorTest {
 						inOrder.verify(publisher, never()).publishEvent(anyObject());
 					});
 				});
+				Context("when setContents is invoked", () -> {
+					BeforeEach(() -> {
+						invocation = mock(MethodInvocation.class);
+
+						final Method setContentsMethod = BatchContentStore.class.getMethod("setContents", Map.class);
+
+						Map<Object, InputStream> contents = new LinkedHashMap<>();
+						contents.put(new ContentObject("plain/text"), new ByteArrayInputStream("foo".getBytes()));
+						contents.put(new ContentObject("plain/text"), new ByteArrayInputStream("bar".getBytes()));
+						args = new Object[]{contents};
+						when(invocation.getMethod()).thenReturn(setContentsMethod);
+						when(invocation.getArguments()).thenReturn(args);
+						when(invocation.proceed()).thenAnswer((invocation) -> {
+							for (InputStream in : ((Map<Object, InputStream>) args[0]).values()) {
+								IOUtils.toByteArray(in);
+							}
+							return null;
+						});
+
+						doAnswer((invocation) -> {
+							Object event = invocation.getArguments()[0];
+							if (event instanceof BeforeSetContentEvent) {
+								((BeforeSetContentEvent) event).spoolContent(1024);
+							} else if (event instanceof AfterSetContentEvent) {
+								spooled = ((AfterSetContentEvent) event).getContent().retain();
+							}
+							return null;
+						}).when(publisher).publishEvent(anyObject());
+					});
+					It("should publish the events of each entity around the invocation", () -> {
+						InOrder inOrder = Mockito.inOrder(publisher, invocation);
+
+						inOrder.verify(publisher, times(2)).publishEvent(argThat(isA(BeforeSetContentEvent.class)));
+						inOrder.verify(invocation).proceed();
+						inOrder.verify(publisher, times(2)).publishEvent(argThat(isA(AfterSetContentEvent.class)));
+					});
+					It("should make the content read by the store available to each after event", () -> {
+						assertThat(IOUtils.toByteArray(spooled.getInputStream()), is("bar".getBytes()));
+						spooled.release();
+					});
+				});
+				Context("when unsetContents is invoked", () -> {
+					BeforeEach(() -> {
+						invocation = mock(MethodInvocation.class);
+
+						final Method unsetContentsMethod = BatchContentStore.class.getMethod("unsetContents", Collection.class);
+
+						when(invocation.getMethod()).thenReturn(unsetContentsMethod);
+						when(invocation.getArguments()).thenReturn(new Object[]{Arrays.asList(new ContentObject("plain/text"), new ContentObject("plain/text"))});
+					});
+					It("should publish the events of each entity around the invocation", () -> {
+						InOrder inOrder = Mockito.inOrder(publisher, invocation);
+
+						inOrder.verify(publisher, times(2)).publishEvent(argThat(isA(BeforeUnsetContentEvent.class)));
+						inOrder.verify(invocation).proceed();
+						inOrder.verify(publisher, times(2)).publishEvent(argThat(isA(AfterUnsetContentEvent.class)));
+					});
+				});
+				Context("when setContentAsync is invoked", () -> {
+					BeforeEach(() -> {
+						invocation = mock(MethodInvocation.class);
+
+						Class<?> storeClazz = AsyncContentStore.class;
+						final Method setContentAsyncMethod = storeClazz.getMethod("setContentAsync", Object.class, InputStream.class);
+
+						future = new CompletableFuture<>();
+						when(invocation.getMethod()).thenReturn(setContentAsyncMethod);
+						when(invocation.getArguments()).thenReturn(new Object[]{new ContentObject("plain/text")});
+						when(invocation.proceed()).thenReturn(future);
+					});
+					It("should publish the before event and proceed", () -> {
+						InOrder inOrder = Mockito.inOrder(publisher, invocation);
+
+						inOrder.verify(publisher).publishEvent(argThat(isA(BeforeSetContentEvent.class)));
+						inOrder.verify(invocation).proceed();
+					});
+					It("should publish the after event only once the future completes", () -> {
+						verify(publisher, never()).publishEvent(argThat(isA(AfterSetContentEvent.class)));
+
+						future.complete(new Object());
+						((CompletableFuture<?>)result).join();
+
+						verify(publisher).publishEvent(argThat(isA(AfterSetContentEvent.class)));
+					});
+				});
+				Context("when a reactive getContent is invoked", () -> {
+					BeforeEach(() -> {
+						invocation = mock(MethodInvocation.class);
+
+						Class<?> storeClazz = ReactiveContentStore.class;
+						final Method getContentMethod = storeClazz.getMethod("getContent", Object.class);
+
+						when(invocation.getMethod()).thenReturn(getContentMethod);
+						when(invocation.getArguments()).thenReturn(new Object[]{new ContentObject("plain/text")});
+						when(invocation.proceed()).thenReturn(Flux.just(ByteBuffer.wrap("foo".getBytes())));
+					});
+					It("should publish the before event and proceed", () -> {
+						InOrder inOrder = Mockito.inOrder(publisher, invocation);
+
+						inOrder.verify(publisher).publishEvent(argThat(isA(BeforeGetContentEvent.class)));
+						inOrder.verify(invocation).proceed();
+					});
+					It("should publish the after event only once the content has been read", () -> {
+						verify(publisher, never()).publishEvent(argThat(isA(AfterGetContentEvent.class)));
+
+						((Flux<?>)result).blockLast();
+
+						verify(publisher).publishEvent(argThat(isA(AfterGetContentEvent.class)));
+					});
+				});
 				Context("when an extension method is invoked", () -> {
 					BeforeEach(() -> {
 						invocation = mock(MethodInvocation.class);
@@ -218,6 +401,47 @@ public class StoreMethodInterceptorTest {
                 });
 			});
 		});
+		Describe("#eventStore", () -> {
+			Context("given a content store", () -> {
+				It("should return the store", () -> {
+					store = mock(ContentStore.class);
+					assertThat(StoreMethodInterceptor.eventStore(store), is(store));
+				});
+			});
+			Context("given a reactive store", () -> {
+				BeforeEach(() -> {
+					reactiveStore = mock(ReactiveContentStore.class);
+				});
+				It("should read the reactive store's content", () -> {
+					when(reactiveStore.getContent(anyObject())).thenReturn(Flux.just(ByteBuffer.wrap("Hello ".getBytes()), ByteBuffer.wrap("reactive!".getBytes())));
+
+					try (InputStream content = StoreMethodInterceptor.eventStore(reactiveStore).getContent(new ContentObject("plain/text"))) {
+						assertThat(IOUtils.toString(content), is("Hello reactive!"));
+					}
+				});
+				It("should return no content when the reactive store has none", () -> {
+					when(reactiveStore.getContent(anyObject())).thenReturn(Flux.empty());
+
+					assertThat(StoreMethodInterceptor.eventStore(reactiveStore).getContent(new ContentObject("plain/text")), is(nullValue()));
+				});
+				It("should write content through the reactive store", () -> {
+					ByteArrayOutputStream written = new ByteArrayOutputStream();
+					when(reactiveStore.setContent(anyObject(), anyObject())).thenAnswer((invocation) -> {
+						Flux<ByteBuffer> buffers = (Flux<ByteBuffer>) invocation.getArguments()[1];
+						return buffers.doOnNext((buffer) -> written.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining())).then(Mono.just(invocation.getArguments()[0]));
+					});
+
+					StoreMethodInterceptor.eventStore(reactiveStore).setContent(new ContentObject("plain/text"), new ByteArrayInputStream("Hello reactive!".getBytes()));
+
+					assertThat(new String(written.toByteArray()), is("Hello reactive!"));
+				});
+			});
+			Context("given any other store", () -> {
+				It("should return null", () -> {
+					assertThat(StoreMethodInterceptor.eventStore(new Object()), is(nullValue()));
+				});
+			});
+		});
 	}
 	
 	public static class ContentObject {
@@ -0,0 +1,226 @@
+package org.springframework.content.commons.renditions;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.*;
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.content.commons.annotations.ContentId;
+import org.springframework.content.commons.annotations.MimeType;
+import org.springframework.content.commons.repository.ContentStore;
+import org.springframework.content.commons.repository.events.AfterSetContentEvent;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.core.EntityInformation;
+import org.springframework.data.repository.support.Repositories;
+
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+import internal.org.springframework.content.commons.renditions.FileSystemRenditionStore;
+
+@SuppressWarnings("unchecked")
+@RunWith(Ginkgo4jRunner.class)
+@Ginkgo4jConfiguration(threads = 1)
+public class EagerRenditionGeneratorTest {
+
+	private EagerRenditionGenerator generator;
+	private RenditionService renditions;
+	private RenditionCache cache;
+	private ContentStore<Object, Serializable> store;
+	private File directory;
+	private Document document;
+	private Document saved;
+	private CrudRepository<Object, Serializable> repository;
+
+	{
+		Describe("EagerRenditionGenerator", () -> {
+			BeforeEach(() -> {
+				directory = Files.createTempDirectory("renditions").toFile();
+				cache = new RenditionCache(new FileSystemRenditionStore(directory));
+
+				renditions = mock(RenditionService.class);
+				when(renditions.canConvert("text/html", "application/pdf")).thenReturn(true);
+				when(renditions.convert(eq("text/html"), anyObject(), eq("application/pdf"))).thenAnswer((invocation) -> stream("pdf"));
+
+				store = mock(DocumentStore.class);
+				when(store.getContent(anyObject())).thenAnswer((invocation) -> stream("html"));
+
+				document = new Document("1", "text/html");
+
+				generator = new EagerRenditionGenerator(renditions, cache);
+				generator.setDelay(0);
+			});
+			AfterEach(() -> {
+				generator.destroy();
+				FileUtils.deleteDirectory(directory);
+			});
+
+			Context("given renditions for the content's mime type", () -> {
+				BeforeEach(() -> {
+					generator.addRenditions("text/html", "application/pdf");
+				});
+				It("should cache the rendition when the content is set", () -> {
+					generator.onApplicationEvent(new AfterSetContentEvent(document, store));
+					awaitGenerated(1);
+
+					InputStream rendition = cache.getRendition(document, "application/pdf", () -> {
+						throw new IllegalStateException("not cached");
+					});
+					assertThat(IOUtils.toString(rendition, "UTF-8"), is("pdf"));
+					rendition.close();
+				});
+				It("should ignore content of other mime types", () -> {
+					document.setMimeType("text/plain");
+					generator.onApplicationEvent(new AfterSetContentEvent(document, store));
+					while (generator.getBacklog() > 0) {
+						Thread.sleep(10);
+					}
+					Thread.sleep(50);
+
+					verify(renditions, never()).convert(anyObject(), anyObject(), anyObject());
+				});
+				It("should produce the renditions once when the content is set again before they are produced", () -> {
+					generator.setDelay(200);
+					generator.onApplicationEvent(new AfterSetContentEvent(document, store));
+					generator.onApplicationEvent(new AfterSetContentEvent(document, store));
+					awaitGenerated(1);
+
+					assertThat(generator.getDeduplicatedCount(), is(1L));
+					verify(renditions, times(1)).convert(anyObject(), anyObject(), anyObject());
+				});
+				Context("given the backlog is full", () -> {
+					BeforeEach(() -> {
+						generator.setDelay(60000);
+						generator.setBacklogCapacity(1);
+					});
+					It("should leave the renditions to be produced when requested", () -> {
+						generator.onApplicationEvent(new AfterSetContentEvent(document, store));
+						generator.onApplicationEvent(new AfterSetContentEvent(new Document("2", "text/html"), store));
+
+						assertThat(generator.getBacklog(), is(1));
+						assertThat(generator.getDroppedCount(), is(1L));
+					});
+				});
+			});
+
+			Context("given a repository for the entity", () -> {
+				BeforeEach(() -> {
+					generator.addRenditions("text/html", "application/pdf");
+
+					saved = new Document("1", "text/html");
+					saved.setVersion(2L);
+					EntityInformation<Object, Serializable> information = mock(EntityInformation.class);
+					when(information.getId(anyObject())).thenReturn("1");
+					repository = mock(CrudRepository.class);
+					Repositories repositories = mock(Repositories.class);
+					when(repositories.hasRepositoryFor(Document.class)).thenReturn(true);
+					when(repositories.getRepositoryFor(Document.class)).thenReturn(repository);
+					when(repositories.getEntityInformationFor(Document.class)).thenReturn(information);
+					generator.setRepositories(repositories);
+				});
+				It("should produce the renditions of the entity as it was saved", () -> {
+					when(repository.findOne("1")).thenReturn(saved);
+					generator.onApplicationEvent(new AfterSetContentEvent(document, store));
+					awaitGenerated(1);
+
+					verify(store).getContent(saved);
+					InputStream rendition = cache.getRendition(saved, "application/pdf", () -> {
+						throw new IllegalStateException("not cached");
+					});
+					assertThat(IOUtils.toString(rendition, "UTF-8"), is("pdf"));
+					rendition.close();
+				});
+				It("should not produce the renditions of an entity that is not found", () -> {
+					generator.onApplicationEvent(new AfterSetContentEvent(document, store));
+					while (generator.getBacklog() > 0) {
+						Thread.sleep(10);
+					}
+					Thread.sleep(50);
+
+					verify(repository).findOne("1");
+					verify(renditions, never()).convert(anyObject(), anyObject(), anyObject());
+				});
+			});
+
+			Context("given renditions for the store", () -> {
+				BeforeEach(() -> {
+					generator.addRenditions(DocumentStore.class, "application/pdf");
+				});
+				It("should cache the rendition when the content is set", () -> {
+					generator.onApplicationEvent(new AfterSetContentEvent(document, store));
+					awaitGenerated(1);
+
+					verify(renditions).convert(eq("text/html"), anyObject(), eq("application/pdf"));
+				});
+			});
+		});
+	}
+
+	@Test
+	public void noop() {
+	}
+
+	private void awaitGenerated(long count) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (generator.getGeneratedCount() < count && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertThat(generator.getGeneratedCount(), is(count));
+	}
+
+	private static InputStream stream(String content) {
+		return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+	}
+
+	public interface DocumentStore extends ContentStore<Object, Serializable> {
+	}
+
+	public static class Document {
+		@ContentId private String contentId;
+		@MimeType private String mimeType;
+		@Version private Long version;
+
+		public Document(String contentId, String mimeType) {
+			this.contentId = contentId;
+			this.mimeType = mimeType;
+		}
+
+		public String getContentId() {
+			return contentId;
+		}
+
+		public void setContentId(String contentId) {
+			this.contentId = contentId;
+		}
+
+		public String getMimeType() {
+			return mimeType;
+		}
+
+		public void setMimeType(String mimeType) {
+			this.mimeType = mimeType;
+		}
+
+		public Long getVersion() {
+			return version;
+		}
+
+		public void setVersion(Long version) {
+			this.version = version;
+		}
+	}
+}
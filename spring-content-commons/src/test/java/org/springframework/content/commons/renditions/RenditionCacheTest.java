@@ -0,0 +1,313 @@
+package org.springframework.content.commons.renditions;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.*;
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.content.commons.annotations.ContentId;
+import org.springframework.content.commons.annotations.ContentLength;
+import org.springframework.content.commons.repository.ContentStore;
+import org.springframework.content.commons.repository.events.AfterSetContentEvent;
+import org.springframework.content.commons.repository.events.BeforeUnsetContentEvent;
+
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+import internal.org.springframework.content.commons.renditions.FileSystemRenditionStore;
+
+@RunWith(Ginkgo4jRunner.class)
+@Ginkgo4jConfiguration(threads = 1)
+public class RenditionCacheTest {
+
+	private RenditionCache cache;
+	private File directory;
+	private Document document;
+	private AtomicInteger conversions;
+	private Supplier<InputStream> conversion;
+	private Map<String, byte[]> renditions;
+
+	{
+		Describe("RenditionCache", () -> {
+			BeforeEach(() -> {
+				directory = Files.createTempDirectory("renditions").toFile();
+				cache = new RenditionCache(new FileSystemRenditionStore(directory));
+				document = new Document("1", 10L);
+				conversions = new AtomicInteger();
+				conversion = () -> {
+					conversions.incrementAndGet();
+					return stream("rendition");
+				};
+			});
+			AfterEach(() -> {
+				FileUtils.deleteDirectory(directory);
+			});
+
+			Context("#getRendition", () -> {
+				It("should convert the content once and read the rendition after that", () -> {
+					assertThat(read(cache.getRendition(document, "application/pdf", conversion)), is("rendition"));
+					assertThat(read(cache.getRendition(document, "application/pdf", conversion)), is("rendition"));
+
+					assertThat(conversions.get(), is(1));
+					assertThat(cache.getHitCount(), is(1L));
+					assertThat(cache.getMissCount(), is(1L));
+				});
+				It("should convert the content for each mime type", () -> {
+					read(cache.getRendition(document, "application/pdf", conversion));
+					read(cache.getRendition(document, "text/plain", conversion));
+
+					assertThat(conversions.get(), is(2));
+				});
+				It("should convert the content again when its version changes", () -> {
+					read(cache.getRendition(document, "application/pdf", conversion));
+					document.setContentLength(20L);
+					read(cache.getRendition(document, "application/pdf", conversion));
+
+					assertThat(conversions.get(), is(2));
+				});
+				It("should not cache a conversion that returns nothing", () -> {
+					assertThat(cache.getRendition(document, "application/pdf", () -> null), is(nullValue()));
+					read(cache.getRendition(document, "application/pdf", conversion));
+
+					assertThat(conversions.get(), is(1));
+				});
+				It("should not cache content without a content id", () -> {
+					document.setContentId(null);
+					read(cache.getRendition(document, "application/pdf", conversion));
+					read(cache.getRendition(document, "application/pdf", conversion));
+
+					assertThat(conversions.get(), is(2));
+					assertThat(directory.list().length, is(0));
+				});
+				It("should convert the content once for concurrent requests", () -> {
+					CountDownLatch converting = new CountDownLatch(1);
+					CountDownLatch blocked = new CountDownLatch(1);
+					Supplier<InputStream> slow = () -> {
+						conversions.incrementAndGet();
+						converting.countDown();
+						try {
+							blocked.await();
+						} catch (InterruptedException e) {
+							throw new IllegalStateException(e);
+						}
+						return stream("rendition");
+					};
+
+					ExecutorService executor = Executors.newFixedThreadPool(2);
+					try {
+						Future<String> first = executor.submit(() -> read(cache.getRendition(document, "application/pdf", slow)));
+						assertThat(converting.await(5, TimeUnit.SECONDS), is(true));
+						Future<String> second = executor.submit(() -> read(cache.getRendition(document, "application/pdf", slow)));
+						while (cache.getWaitCount() == 0) {
+							Thread.sleep(10);
+						}
+						blocked.countDown();
+
+						assertThat(first.get(5, TimeUnit.SECONDS), is("rendition"));
+						assertThat(second.get(5, TimeUnit.SECONDS), is("rendition"));
+						assertThat(conversions.get(), is(1));
+					} finally {
+						executor.shutdownNow();
+					}
+				});
+				Context("given the content is set while converting", () -> {
+					It("should not cache the rendition", () -> {
+						read(cache.getRendition(document, "application/pdf", () -> {
+							cache.invalidate(document);
+							return conversion.get();
+						}));
+						assertThat(directory.list().length, is(0));
+					});
+					It("should stop tracking the entity once the conversion ends", () -> {
+						read(cache.getRendition(document, "application/pdf", () -> {
+							cache.invalidate(document);
+							return conversion.get();
+						}));
+						assertThat(cache.getTrackedGenerations(), is(0));
+					});
+				});
+				It("should not track entities whose content is set while nothing is converting", () -> {
+					read(cache.getRendition(document, "application/pdf", conversion));
+					cache.invalidate(document);
+					cache.invalidate(new Document("2", 10L));
+
+					assertThat(cache.getTrackedGenerations(), is(0));
+				});
+			});
+
+			Context("given a plain content store", () -> {
+				BeforeEach(() -> {
+					renditions = new ConcurrentHashMap<>();
+					cache = new RenditionCache(new ContentStore<CachedRendition, String>() {
+						@Override
+						public void setContent(CachedRendition property, InputStream content) {
+							try {
+								renditions.put(property.getId(), IOUtils.toByteArray(content));
+							} catch (IOException e) {
+								throw new IllegalStateException(e);
+							}
+						}
+
+						@Override
+						public void unsetContent(CachedRendition property) {
+							renditions.remove(property.getId());
+						}
+
+						@Override
+						public InputStream getContent(CachedRendition property) {
+							byte[] rendition = renditions.get(property.getId());
+							return rendition != null ? new ByteArrayInputStream(rendition) : null;
+						}
+					});
+					cache.setMaxRememberedSources(2);
+				});
+				It("should remove the entity's renditions when its content is set", () -> {
+					read(cache.getRendition(document, "application/pdf", conversion));
+					cache.onApplicationEvent(new AfterSetContentEvent(document, null));
+
+					assertThat(renditions.size(), is(0));
+					assertThat(cache.getRememberedSources(), is(0));
+				});
+				It("should forget the least recently used entity and remove its renditions", () -> {
+					Document second = new Document("2", 10L);
+					Document third = new Document("3", 10L);
+					read(cache.getRendition(document, "application/pdf", conversion));
+					read(cache.getRendition(second, "application/pdf", conversion));
+					read(cache.getRendition(document, "application/pdf", conversion));
+					read(cache.getRendition(third, "application/pdf", conversion));
+
+					assertThat(cache.getRememberedSources(), is(2));
+					assertThat(renditions.size(), is(2));
+					read(cache.getRendition(document, "application/pdf", conversion));
+					read(cache.getRendition(second, "application/pdf", conversion));
+					assertThat(conversions.get(), is(4));
+				});
+			});
+
+			Context("when content is set", () -> {
+				It("should remove the entity's renditions", () -> {
+					Document other = new Document("2", 10L);
+					read(cache.getRendition(document, "application/pdf", conversion));
+					read(cache.getRendition(other, "application/pdf", conversion));
+					cache.onApplicationEvent(new AfterSetContentEvent(document, null));
+
+					read(cache.getRendition(document, "application/pdf", conversion));
+					read(cache.getRendition(other, "application/pdf", conversion));
+					assertThat(conversions.get(), is(3));
+					assertThat(cache.getEvictionCount(), is(1L));
+				});
+			});
+
+			Context("when content is unset", () -> {
+				It("should remove the entity's renditions", () -> {
+					read(cache.getRendition(document, "application/pdf", conversion));
+					cache.onApplicationEvent(new BeforeUnsetContentEvent(document, null));
+
+					assertThat(directory.list().length, is(0));
+				});
+			});
+
+			Context("given renditions cached before the application restarted", () -> {
+				It("should remove them when the content is set", () -> {
+					read(cache.getRendition(document, "application/pdf", conversion));
+					read(cache.getRendition(document, "text/plain", conversion));
+					cache = new RenditionCache(new FileSystemRenditionStore(directory));
+					cache.onApplicationEvent(new AfterSetContentEvent(document, null));
+
+					assertThat(directory.list().length, is(0));
+					assertThat(cache.getEvictionCount(), is(2L));
+				});
+			});
+
+			Context("when a new version is cached", () -> {
+				It("should remove the renditions of the previous versions", () -> {
+					read(cache.getRendition(document, "application/pdf", conversion));
+					read(cache.getRendition(document, "text/plain", conversion));
+					document.setContentLength(20L);
+					read(cache.getRendition(document, "application/pdf", conversion));
+
+					assertThat(files(), is(1));
+					assertThat(cache.getEvictionCount(), is(2L));
+				});
+			});
+
+			Context("given renditions that have not been read for longer than the maximum age", () -> {
+				It("should remove them when a rendition is cached", () -> {
+					FileSystemRenditionStore store = new FileSystemRenditionStore(directory);
+					store.setContent(new CachedRendition("old/rendition"), stream("old"));
+					new File(directory, "old/rendition").setLastModified(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(2));
+					cache.setMaxAge(TimeUnit.HOURS.toMillis(1));
+					read(cache.getRendition(document, "application/pdf", conversion));
+
+					assertThat(new File(directory, "old").exists(), is(false));
+					assertThat(files(), is(1));
+				});
+			});
+		});
+	}
+
+	@Test
+	public void noop() {
+	}
+
+	private int files() {
+		return FileUtils.listFiles(directory, null, true).size();
+	}
+
+	private static InputStream stream(String content) {
+		return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static String read(InputStream content) throws IOException {
+		try {
+			return IOUtils.toString(content, "UTF-8");
+		} finally {
+			content.close();
+		}
+	}
+
+	public static class Document {
+		@ContentId private String contentId;
+		@ContentLength private Long contentLength;
+
+		public Document(String contentId, Long contentLength) {
+			this.contentId = contentId;
+			this.contentLength = contentLength;
+		}
+
+		public String getContentId() {
+			return contentId;
+		}
+
+		public void setContentId(String contentId) {
+			this.contentId = contentId;
+		}
+
+		public Long getContentLength() {
+			return contentLength;
+		}
+
+		public void setContentLength(Long contentLength) {
+			this.contentLength = contentLength;
+		}
+	}
+}
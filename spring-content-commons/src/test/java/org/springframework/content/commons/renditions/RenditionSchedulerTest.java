@@ -0,0 +1,197 @@
+package org.springframework.content.commons.renditions;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.*;
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+@RunWith(Ginkgo4jRunner.class)
+@Ginkgo4jConfiguration(threads = 1)
+public class RenditionSchedulerTest {
+
+	private RenditionScheduler scheduler;
+	private ExecutorService requests;
+	private CountDownLatch started;
+	private CountDownLatch blocked;
+	private Exception e;
+
+	{
+		Describe("RenditionScheduler", () -> {
+			BeforeEach(() -> {
+				scheduler = new RenditionScheduler();
+				requests = Executors.newCachedThreadPool();
+				started = new CountDownLatch(1);
+				blocked = new CountDownLatch(1);
+				e = null;
+			});
+			AfterEach(() -> {
+				blocked.countDown();
+				requests.shutdownNow();
+				scheduler.destroy();
+			});
+
+			Context("#execute", () -> {
+				It("should run the conversion on a worker", () -> {
+					String worker = scheduler.execute(() -> Thread.currentThread().getName());
+
+					assertThat(worker, startsWith("rendition-worker-"));
+					assertThat(scheduler.getCompletedCount(), is(1L));
+				});
+				It("should throw the conversion's exception", () -> {
+					try {
+						scheduler.execute(() -> {
+							throw new IllegalStateException("badness");
+						});
+					} catch (IllegalStateException ise) {
+						e = ise;
+					}
+					assertThat(e.getMessage(), is("badness"));
+				});
+				Context("given the queue is full", () -> {
+					BeforeEach(() -> {
+						scheduler.setPoolSize(1);
+						scheduler.setQueueCapacity(1);
+					});
+					It("should refuse the conversion at once", () -> {
+						requests.submit(() -> scheduler.execute(() -> {
+							started.countDown();
+							blocked.await();
+							return null;
+						}));
+						assertThat(started.await(5, TimeUnit.SECONDS), is(true));
+						requests.submit(() -> scheduler.execute(() -> null));
+						while (scheduler.getQueueDepth() < 1) {
+							Thread.sleep(10);
+						}
+
+						try {
+							scheduler.execute(() -> null);
+						} catch (RenditionUnavailableException rue) {
+							e = rue;
+						}
+						assertThat(e, is(instanceOf(RenditionUnavailableException.class)));
+						assertThat(((RenditionUnavailableException) e).getRetryAfter(), is(greaterThanOrEqualTo(1L)));
+						assertThat(scheduler.getRejectedCount(), is(1L));
+					});
+				});
+				Context("given a conversion that takes too long", () -> {
+					BeforeEach(() -> {
+						scheduler.setTimeout(100);
+					});
+					It("should cancel the conversion", () -> {
+						CountDownLatch interrupted = new CountDownLatch(1);
+						try {
+							scheduler.execute(() -> {
+								try {
+									blocked.await();
+								} catch (InterruptedException ie) {
+									interrupted.countDown();
+								}
+								return null;
+							});
+						} catch (RenditionUnavailableException rue) {
+							e = rue;
+						}
+						assertThat(e, is(instanceOf(RenditionUnavailableException.class)));
+						assertThat(interrupted.await(5, TimeUnit.SECONDS), is(true));
+						assertThat(scheduler.getTimeoutCount(), is(1L));
+					});
+					It("should close a rendition produced after it was cancelled", () -> {
+						CountDownLatch closed = new CountDownLatch(1);
+						try {
+							scheduler.execute(() -> {
+								try {
+									blocked.await();
+								} catch (InterruptedException ie) {
+									// carry on regardless
+								}
+								return new ByteArrayInputStream(new byte[0]) {
+									@Override
+									public void close() {
+										closed.countDown();
+									}
+								};
+							});
+						} catch (RenditionUnavailableException rue) {
+							e = rue;
+						}
+						assertThat(e, is(instanceOf(RenditionUnavailableException.class)));
+						assertThat(closed.await(5, TimeUnit.SECONDS), is(true));
+					});
+				});
+			});
+
+			Context("#convert", () -> {
+				Context("given a provider limit", () -> {
+					BeforeEach(() -> {
+						scheduler.setPoolSize(4);
+						scheduler.setProviderLimit(SlowProvider.class, 1);
+					});
+					It("should run no more of the provider's conversions at once than its limit", () -> {
+						SlowProvider provider = new SlowProvider();
+						List<Future<InputStream>> conversions = new ArrayList<>();
+						for (int i = 0; i < 4; i++) {
+							conversions.add(requests.submit(() -> scheduler.execute(() -> scheduler.convert(provider, new ByteArrayInputStream(new byte[0]), "text/plain"))));
+						}
+						for (Future<InputStream> conversion : conversions) {
+							conversion.get(5, TimeUnit.SECONDS);
+						}
+
+						assertThat(provider.maximum.get(), is(1));
+						assertThat(scheduler.getCompletedCount(), is(4L));
+					});
+				});
+			});
+		});
+	}
+
+	@Test
+	public void noop() {
+	}
+
+	public static class SlowProvider implements RenditionProvider {
+
+		private AtomicInteger running = new AtomicInteger();
+		private AtomicInteger maximum = new AtomicInteger();
+
+		@Override
+		public String consumes() {
+			return "text/html";
+		}
+
+		@Override
+		public String[] produces() {
+			return new String[] {"text/plain"};
+		}
+
+		@Override
+		public InputStream convert(InputStream fromInputSource, String toMimeType) {
+			maximum.accumulateAndGet(running.incrementAndGet(), Math::max);
+			try {
+				Thread.sleep(50);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} finally {
+				running.decrementAndGet();
+			}
+			return fromInputSource;
+		}
+	}
+}
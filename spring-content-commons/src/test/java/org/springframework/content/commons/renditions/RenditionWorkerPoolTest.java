@@ -0,0 +1,164 @@
+package org.springframework.content.commons.renditions;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.*;
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.content.commons.repository.StoreAccessException;
+
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+@RunWith(Ginkgo4jRunner.class)
+@Ginkgo4jConfiguration(threads = 1)
+public class RenditionWorkerPoolTest {
+
+	private RenditionWorkerPool pool;
+	private ForkedRenditionProvider provider;
+	private Exception e;
+
+	{
+		Describe("RenditionWorkerPool", () -> {
+			BeforeEach(() -> {
+				pool = new RenditionWorkerPool();
+				pool.setMaxHeap("64m");
+				provider = new ForkedRenditionProvider(TestProvider.class, pool);
+				e = null;
+			});
+			AfterEach(() -> {
+				pool.destroy();
+			});
+
+			It("should convert the content in another JVM", () -> {
+				assertThat(read(provider.convert(stream("hello"), "text/x-upper")), is("HELLO"));
+
+				String worker = read(provider.convert(stream(""), "text/x-jvm"));
+				assertThat(worker, is(not(ManagementFactory.getRuntimeMXBean().getName())));
+				assertThat(pool.getStartedCount(), is(1L));
+			});
+			It("should stream content larger than a chunk", () -> {
+				StringBuilder content = new StringBuilder();
+				for (int i = 0; i < 100000; i++) {
+					content.append("abc");
+				}
+				assertThat(read(provider.convert(stream(content.toString()), "text/x-upper")), is(content.toString().toUpperCase()));
+			});
+			It("should return null when the provider does", () -> {
+				assertThat(provider.convert(stream("hello"), "text/x-none"), is(nullValue()));
+			});
+			It("should report the provider's failure and keep the worker", () -> {
+				try {
+					provider.convert(stream("hello"), "text/x-fail");
+				} catch (StoreAccessException sae) {
+					e = sae;
+				}
+				assertThat(e.getMessage(), containsString("badness"));
+
+				assertThat(read(provider.convert(stream("hello"), "text/x-upper")), is("HELLO"));
+				assertThat(pool.getStartedCount(), is(1L));
+			});
+			It("should take its mime types from the provider", () -> {
+				assertThat(provider.consumes(), is("text/plain"));
+				assertThat(provider.produces()[0], is("text/x-upper"));
+			});
+			It("should ask the provider whether it can produce a mime type with parameters", () -> {
+				assertThat(provider.canProduce("text/x-upper;locale=tr"), is(true));
+				assertThat(provider.canProduce("text/x-jvm;locale=tr"), is(false));
+			});
+			Context("given a maximum number of conversions", () -> {
+				BeforeEach(() -> {
+					pool.setMaxConversions(1);
+				});
+				It("should replace the worker once it has run them", () -> {
+					String first = read(provider.convert(stream(""), "text/x-jvm"));
+					String second = read(provider.convert(stream(""), "text/x-jvm"));
+
+					assertThat(second, is(not(first)));
+					assertThat(pool.getRecycledCount(), is(2L));
+					assertThat(pool.getWorkerCount(), is(0));
+				});
+			});
+			Context("given a conversion that takes too long", () -> {
+				BeforeEach(() -> {
+					pool.setTimeout(2000);
+				});
+				It("should kill the worker", () -> {
+					try {
+						provider.convert(stream("hello"), "text/x-hang");
+					} catch (StoreAccessException sae) {
+						e = sae;
+					}
+					assertThat(e, is(not(nullValue())));
+					assertThat(pool.getKilledCount(), is(1L));
+
+					assertThat(read(provider.convert(stream("hello"), "text/x-upper")), is("HELLO"));
+					assertThat(pool.getStartedCount(), is(2L));
+				});
+			});
+		});
+	}
+
+	@Test
+	public void noop() {
+	}
+
+	private static InputStream stream(String content) {
+		return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static String read(InputStream content) throws IOException {
+		try {
+			return IOUtils.toString(content, "UTF-8");
+		} finally {
+			content.close();
+		}
+	}
+
+	public static class TestProvider implements RenditionProvider {
+
+		@Override
+		public String consumes() {
+			return "text/plain";
+		}
+
+		@Override
+		public String[] produces() {
+			return new String[] {"text/x-upper", "text/x-jvm", "text/x-none", "text/x-fail", "text/x-hang"};
+		}
+
+		@Override
+		public boolean canProduce(String toMimeType) {
+			return toMimeType.startsWith("text/x-upper") || RenditionProvider.super.canProduce(toMimeType);
+		}
+
+		@Override
+		public InputStream convert(InputStream fromInputSource, String toMimeType) {
+			try {
+				switch (toMimeType) {
+				case "text/x-upper":
+					return stream(IOUtils.toString(fromInputSource, "UTF-8").toUpperCase());
+				case "text/x-jvm":
+					return stream(ManagementFactory.getRuntimeMXBean().getName());
+				case "text/x-none":
+					return null;
+				case "text/x-hang":
+					Thread.sleep(Long.MAX_VALUE);
+					return null;
+				default:
+					throw new IllegalStateException("badness");
+				}
+			} catch (IOException | InterruptedException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+}
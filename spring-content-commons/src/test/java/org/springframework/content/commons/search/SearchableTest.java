@@ -0,0 +1,103 @@
+package org.springframework.content.commons.search;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.*;
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+@RunWith(Ginkgo4jRunner.class)
+public class SearchableTest {
+
+	private Searchable<String> searchable;
+	private Page<String> page;
+
+	{
+		Describe("Searchable", () -> {
+			BeforeEach(() -> {
+				searchable = new ListSearchable(Arrays.asList("a", "b", "c", "d", "e"));
+			});
+			Context("given an implementation without paged methods", () -> {
+				It("should page over the unpaged results", () -> {
+					page = searchable.findKeyword("something", new PageRequest(1, 2));
+
+					assertThat(page.getContent(), is(Arrays.asList("c", "d")));
+					assertThat(page.getTotalElements(), is(5L));
+					assertThat(page.getTotalPages(), is(3));
+				});
+				It("should return the remaining results on the last page", () -> {
+					page = searchable.findAllKeywords(new PageRequest(2, 2), "some", "thing");
+
+					assertThat(page.getContent(), is(Arrays.asList("e")));
+					assertThat(page.isLast(), is(true));
+				});
+				It("should return an empty page past the results", () -> {
+					page = searchable.findAnyKeywords(new PageRequest(5, 2), "some", "thing");
+
+					assertThat(page.getContent().isEmpty(), is(true));
+					assertThat(page.getTotalElements(), is(5L));
+				});
+				It("should stream the unpaged results", () -> {
+					assertThat(searchable.streamKeyword("something").collect(Collectors.toList()), is(Arrays.asList("a", "b", "c", "d", "e")));
+				});
+			});
+		});
+	}
+
+	@Test
+	public void noop() {
+	}
+
+	private static class ListSearchable implements Searchable<String> {
+
+		private final List<String> results;
+
+		ListSearchable(List<String> results) {
+			this.results = results;
+		}
+
+		@Override
+		public Iterable<String> findKeyword(String query) {
+			return results;
+		}
+
+		@Override
+		public Iterable<String> findAllKeywords(String... terms) {
+			return results;
+		}
+
+		@Override
+		public Iterable<String> findAnyKeywords(String... terms) {
+			return results;
+		}
+
+		@Override
+		public Iterable<String> findKeywordsNear(int proximity, String... terms) {
+			return results;
+		}
+
+		@Override
+		public Iterable<String> findKeywordStartsWith(String term) {
+			return results;
+		}
+
+		@Override
+		public Iterable<String> findKeywordStartsWithAndEndsWith(String a, String b) {
+			return results;
+		}
+
+		@Override
+		public Iterable<String> findAllKeywordsWithWeights(String[] terms, double[] weights) {
+			return results;
+		}
+	}
+}
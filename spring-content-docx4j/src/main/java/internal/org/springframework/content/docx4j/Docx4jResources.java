@@ -0,0 +1,113 @@
+package internal.org.springframework.content.docx4j;
+
+import java.io.ByteArrayOutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.fop.apps.FOPException;
+import org.apache.fop.apps.FopFactory;
+import org.docx4j.Docx4jProperties;
+import org.docx4j.convert.out.FORenderer;
+import org.docx4j.convert.out.fo.renderers.FORendererApacheFOP;
+import org.docx4j.fonts.PhysicalFonts;
+import org.docx4j.jaxb.Context;
+import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
+
+/**
+ * The state the docx4j rendition providers share, built once rather than for each conversion: the physical fonts of
+ * the host, docx4j's JAXB contexts and the FOP factories used to produce PDFs.  Built by the first conversion, or
+ * earlier by {@link Docx4jWarmUp}.
+ */
+final class Docx4jResources {
+
+	private static final Log logger = LogFactory.getLog(Docx4jResources.class);
+
+	private static final int MAX_FOP_FACTORIES = 16;
+
+	private static volatile boolean initialized = false;
+
+	private static final FORenderer FO_RENDERER = new CachingFORenderer();
+
+	private Docx4jResources() {}
+
+	static void initialize() {
+		if (initialized) {
+			return;
+		}
+		synchronized (Docx4jResources.class) {
+			if (initialized) {
+				return;
+			}
+			long start = System.currentTimeMillis();
+			try {
+				// all fonts; set before discovery, which happens once
+				PhysicalFonts.setRegex(null);
+				PhysicalFonts.discoverPhysicalFonts();
+			} catch (Exception e) {
+				logger.warn("Unable to discover physical fonts", e);
+			}
+			Context.jc.toString();
+			Docx4jProperties.setProperty("docx4j.Convert.Out.HTML.OutputMethodXML", true);
+			initialized = true;
+			if (logger.isDebugEnabled()) {
+				logger.debug(String.format("Initialized docx4j in %d ms", System.currentTimeMillis() - start));
+			}
+		}
+	}
+
+	/**
+	 * Returns the renderer PDF renditions are produced with.
+	 */
+	static FORenderer foRenderer() {
+		return FO_RENDERER;
+	}
+
+	/**
+	 * Returns a small Word document for warming up the providers.
+	 */
+	static byte[] sample() throws Exception {
+		WordprocessingMLPackage pkg = WordprocessingMLPackage.createPackage();
+		pkg.getMainDocumentPart().addStyledParagraphOfText("Title", "Spring Content");
+		pkg.getMainDocumentPart().addParagraphOfText("A document for warming up the docx4j rendition providers.");
+		ByteArrayOutputStream sample = new ByteArrayOutputStream();
+		pkg.save(sample);
+		return sample.toByteArray();
+	}
+
+	/**
+	 * Reuses a FOP factory for each FOP configuration, which docx4j generates from the fonts a document uses, rather
+	 * than building one for each conversion.  FOP factories are safe to share between threads.
+	 */
+	static class CachingFORenderer extends FORendererApacheFOP {
+
+		private final Map<String, FopFactory> factories = new LinkedHashMap<String, FopFactory>(MAX_FOP_FACTORIES, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, FopFactory> eldest) {
+				return size() > MAX_FOP_FACTORIES;
+			}
+		};
+
+		private int created = 0;
+
+		@Override
+		protected FopFactory getFopFactory(String userConfig) throws FOPException {
+			synchronized (factories) {
+				FopFactory factory = factories.get(userConfig);
+				if (factory == null) {
+					factory = createFopFactory(userConfig);
+					factories.put(userConfig, factory);
+					created++;
+				}
+				return factory;
+			}
+		}
+
+		int getCreatedCount() {
+			synchronized (factories) {
+				return created;
+			}
+		}
+	}
+}
@@ -0,0 +1,79 @@
+package internal.org.springframework.content.docx4j;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.content.commons.renditions.RenditionProvider;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.stereotype.Component;
+
+/**
+ * Warms up the Word rendition providers when the application starts, when <code>spring.content.docx4j.warmUp</code>
+ * is true, so that the first conversion does not take tens of seconds.  The shared docx4j resources are built and a
+ * sample document is converted by each provider of Word documents, on a background thread so as not to hold up
+ * startup.  Without warm-up the resources are built by the first conversion.
+ */
+@Component
+public class Docx4jWarmUp implements ApplicationListener<ContextRefreshedEvent> {
+
+	private static final Log logger = LogFactory.getLog(Docx4jWarmUp.class);
+
+	private static final String WORD = "application/vnd.openxmlformats-officedocument.wordprocessingml.document";
+
+	private boolean warmUp = false;
+	private final AtomicBoolean started = new AtomicBoolean();
+
+	@Value("${spring.content.docx4j.warmUp:false}")
+	public void setWarmUp(boolean warmUp) {
+		this.warmUp = warmUp;
+	}
+
+	@Override
+	public void onApplicationEvent(ContextRefreshedEvent event) {
+		if (!warmUp || !started.compareAndSet(false, true)) {
+			return;
+		}
+		Collection<RenditionProvider> providers = event.getApplicationContext().getBeansOfType(RenditionProvider.class).values();
+		Thread thread = new Thread(() -> warmUp(providers), "docx4j-warm-up");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Builds the shared docx4j resources and converts a sample document with each of <code>providers</code> that
+	 * converts Word documents.
+	 */
+	public void warmUp(Collection<RenditionProvider> providers) {
+		long start = System.currentTimeMillis();
+		Docx4jResources.initialize();
+
+		byte[] sample;
+		try {
+			sample = Docx4jResources.sample();
+		} catch (Exception e) {
+			logger.warn("Unable to create a sample Word document to warm up the rendition providers with", e);
+			return;
+		}
+		for (RenditionProvider provider : providers) {
+			if (!WORD.equals(provider.consumes())) {
+				continue;
+			}
+			for (String toMimeType : provider.produces()) {
+				try (InputStream rendition = provider.convert(new ByteArrayInputStream(sample), toMimeType)) {
+					if (rendition == null) {
+						logger.warn(String.format("%s did not convert the warm up document to %s", provider.getClass().getName(), toMimeType));
+					}
+				} catch (Exception e) {
+					logger.warn(String.format("%s failed to convert the warm up document to %s", provider.getClass().getName(), toMimeType), e);
+				}
+			}
+		}
+		logger.info(String.format("Warmed up the Word rendition providers in %d ms", System.currentTimeMillis() - start));
+	}
+}
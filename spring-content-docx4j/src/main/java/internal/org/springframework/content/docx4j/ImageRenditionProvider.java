@@ -0,0 +1,288 @@
+package internal.org.springframework.content.docx4j;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.content.commons.renditions.RenditionProvider;
+import org.springframework.content.commons.renditions.RenditionUnavailableException;
+import org.springframework.util.Assert;
+import org.springframework.util.InvalidMimeTypeException;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+/**
+ * Converts images while decoding no more of them than the rendition needs, so that the memory a conversion uses is
+ * proportional to the size of the rendition rather than of the image.
+ *
+ * Renditions are sized with the parameters of the mime type requested: <code>width</code> and <code>height</code>
+ * bound the rendition, keeping the image's aspect ratio, for example <code>image/png;width=256</code>, and
+ * <code>fit=cover</code> fills both, cropping the centre of the image, for example
+ * <code>image/jpeg;width=128;height=128;fit=cover</code>.  Images are never enlarged, nor converted to more than
+ * <code>maxPixels</code> pixels.  Only the region of the image a rendition shows is decoded, skipping rows and
+ * columns of it where the rendition is smaller.
+ *
+ * The pixels being decoded by all image providers at once are bounded to a quarter of the heap.  Conversions wait for
+ * the pixels they need for up to <code>timeout</code> milliseconds, and otherwise throw a
+ * {@link RenditionUnavailableException}.
+ */
+public abstract class ImageRenditionProvider implements RenditionProvider {
+
+	private static final Log logger = LogFactory.getLog(ImageRenditionProvider.class);
+
+	private static final int BYTES_PER_PIXEL = 4;
+
+	// shared by every image provider, in pixels
+	private static final int PIXEL_BUDGET = (int) Math.min(Integer.MAX_VALUE, Runtime.getRuntime().maxMemory() / 4 / BYTES_PER_PIXEL);
+	private static final Semaphore decoding = new Semaphore(PIXEL_BUDGET, true);
+
+	private final String consumes;
+	private final String[] produces;
+
+	private long maxPixels = 25000000;
+	private long timeout = 60000;
+
+	protected ImageRenditionProvider(String consumes, String... produces) {
+		this.consumes = consumes;
+		this.produces = produces;
+	}
+
+	/**
+	 * Sets the most pixels a rendition has; larger renditions are made smaller to fit.  Defaults to 25 million.
+	 */
+	public void setMaxPixels(long maxPixels) {
+		Assert.isTrue(maxPixels > 0, "maxPixels must be greater than 0");
+		this.maxPixels = maxPixels;
+	}
+
+	/**
+	 * Sets the milliseconds a conversion waits for the memory it needs.  Defaults to 60 seconds.
+	 */
+	public void setTimeout(long timeout) {
+		Assert.isTrue(timeout > 0, "timeout must be greater than 0");
+		this.timeout = timeout;
+	}
+
+	@Override
+	public String consumes() {
+		return consumes;
+	}
+
+	@Override
+	public String[] produces() {
+		return produces.clone();
+	}
+
+	@Override
+	public boolean canProduce(String toMimeType) {
+		try {
+			return format(toMimeType) != null && Size.parse(MimeTypeUtils.parseMimeType(toMimeType).getParameters()) != null;
+		} catch (InvalidMimeTypeException e) {
+			return false;
+		}
+	}
+
+	@Override
+	public InputStream convert(InputStream fromInputSource, String toMimeType) {
+		try (ImageInputStream in = ImageIO.createImageInputStream(fromInputSource)) {
+			String format = format(toMimeType);
+			Size size = Size.parse(MimeTypeUtils.parseMimeType(toMimeType).getParameters());
+			if (format == null || size == null) {
+				logger.error(String.format("Unable to convert %s to %s", consumes, toMimeType));
+				return null;
+			}
+			Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+			if (!readers.hasNext()) {
+				logger.error(String.format("Unable to convert %s to %s, the image cannot be read", consumes, toMimeType));
+				return null;
+			}
+			ImageReader reader = readers.next();
+			try {
+				reader.setInput(in, true, true);
+				return convert(reader, format, size);
+			} finally {
+				reader.dispose();
+			}
+		} catch (RenditionUnavailableException e) {
+			throw e;
+		} catch (Exception e) {
+			logger.error(String.format("Unable to convert %s to %s", consumes, toMimeType), e);
+		} finally {
+			IOUtils.closeQuietly(fromInputSource);
+		}
+		return null;
+	}
+
+	private InputStream convert(ImageReader reader, String format, Size size) throws Exception {
+		// the dimensions come from the image's header
+		int width = reader.getWidth(0);
+		int height = reader.getHeight(0);
+
+		Rectangle region = size.region(width, height);
+		int[] rendition = size.rendition(region, maxPixels);
+		int subsampling = Math.max(1, Math.min(region.width / rendition[0], region.height / rendition[1]));
+
+		ImageReadParam param = reader.getDefaultReadParam();
+		param.setSourceRegion(region);
+		param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+
+		long decoded = (long) ((region.width + subsampling - 1) / subsampling) * ((region.height + subsampling - 1) / subsampling);
+		int pixels = (int) Math.min(PIXEL_BUDGET, decoded + (long) rendition[0] * rendition[1]);
+		if (!decoding.tryAcquire(pixels, timeout, TimeUnit.MILLISECONDS)) {
+			throw new RenditionUnavailableException(String.format("Not enough memory to convert a %dx%d image within %d ms", width, height, timeout), Math.max(1, TimeUnit.MILLISECONDS.toSeconds(timeout)));
+		}
+		try {
+			BufferedImage image = scale(reader.read(0, param), rendition[0], rendition[1], "jpeg".equals(format));
+			return RenditionFiles.write("." + format, (out) -> {
+				if (!ImageIO.write(image, format, out)) {
+					throw new IllegalStateException(String.format("No image writer for %s", format));
+				}
+			});
+		} finally {
+			decoding.release(pixels);
+		}
+	}
+
+	private static BufferedImage scale(BufferedImage image, int width, int height, boolean opaque) {
+		boolean alpha = image.getColorModel().hasAlpha();
+		if (image.getWidth() == width && image.getHeight() == height && !(opaque && alpha)) {
+			return image;
+		}
+		BufferedImage scaled = new BufferedImage(width, height, alpha && !opaque ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = scaled.createGraphics();
+		try {
+			graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+			graphics.drawImage(image, 0, 0, width, height, opaque ? Color.WHITE : null, null);
+		} finally {
+			graphics.dispose();
+		}
+		return scaled;
+	}
+
+	// the ImageIO format of a mime type the provider produces, ignoring its parameters
+	private String format(String toMimeType) {
+		MimeType mimeType = MimeTypeUtils.parseMimeType(toMimeType);
+		for (String produced : produces) {
+			MimeType type = MimeTypeUtils.parseMimeType(produced);
+			if (type.getType().equalsIgnoreCase(mimeType.getType()) && type.getSubtype().equalsIgnoreCase(mimeType.getSubtype())) {
+				return mimeType.getSubtype().toLowerCase(Locale.ENGLISH);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * The size a rendition is asked for with.
+	 */
+	static class Size {
+
+		final int width;
+		final int height;
+		final boolean cover;
+
+		private Size(int width, int height, boolean cover) {
+			this.width = width;
+			this.height = height;
+			this.cover = cover;
+		}
+
+		/**
+		 * Returns the size of the parameters, or null if they are not understood.
+		 */
+		static Size parse(Map<String, String> parameters) {
+			int width = 0;
+			int height = 0;
+			boolean cover = false;
+			for (Map.Entry<String, String> parameter : parameters.entrySet()) {
+				String value = parameter.getValue();
+				switch (parameter.getKey().toLowerCase(Locale.ENGLISH)) {
+				case "width":
+					width = dimension(value);
+					if (width == 0) {
+						return null;
+					}
+					break;
+				case "height":
+					height = dimension(value);
+					if (height == 0) {
+						return null;
+					}
+					break;
+				case "fit":
+					if ("cover".equalsIgnoreCase(value)) {
+						cover = true;
+					} else if (!"contain".equalsIgnoreCase(value)) {
+						return null;
+					}
+					break;
+				default:
+					return null;
+				}
+			}
+			return new Size(width, height, cover && width > 0 && height > 0);
+		}
+
+		/**
+		 * Returns the region of a <code>width</code> by <code>height</code> image the rendition shows.
+		 */
+		Rectangle region(int width, int height) {
+			if (!cover) {
+				return new Rectangle(0, 0, width, height);
+			}
+			if ((long) width * this.height > (long) height * this.width) {
+				int w = (int) Math.max(1, Math.round((double) height * this.width / this.height));
+				return new Rectangle((width - w) / 2, 0, w, height);
+			}
+			int h = (int) Math.max(1, Math.round((double) width * this.height / this.width));
+			return new Rectangle(0, (height - h) / 2, width, h);
+		}
+
+		/**
+		 * Returns the width and height of the rendition of <code>region</code>.
+		 */
+		int[] rendition(Rectangle region, long maxPixels) {
+			double scale = 1;
+			if (width > 0 && height > 0) {
+				scale = Math.min((double) width / region.width, (double) height / region.height);
+			} else if (width > 0) {
+				scale = (double) width / region.width;
+			} else if (height > 0) {
+				scale = (double) height / region.height;
+			}
+			scale = Math.min(scale, 1);
+			double pixels = region.width * scale * region.height * scale;
+			if (pixels > maxPixels) {
+				scale *= Math.sqrt(maxPixels / pixels);
+			}
+			return new int[] {
+					(int) Math.max(1, Math.min(region.width, Math.round(region.width * scale))),
+					(int) Math.max(1, Math.min(region.height, Math.round(region.height * scale)))};
+		}
+
+		private static int dimension(String value) {
+			try {
+				int dimension = Integer.parseInt(value.trim());
+				return dimension > 0 ? dimension : 0;
+			} catch (NumberFormatException e) {
+				return 0;
+			}
+		}
+	}
+}
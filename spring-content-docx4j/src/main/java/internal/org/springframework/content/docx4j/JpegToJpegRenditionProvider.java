@@ -0,0 +1,11 @@
+package internal.org.springframework.content.docx4j;
+
+/**
+ * Produces smaller JPEGs of JPEGs, such as thumbnails, for example <code>image/jpeg;width=256</code>.
+ */
+public class JpegToJpegRenditionProvider extends ImageRenditionProvider {
+
+	public JpegToJpegRenditionProvider() {
+		super("image/jpeg", "image/jpeg");
+	}
+}
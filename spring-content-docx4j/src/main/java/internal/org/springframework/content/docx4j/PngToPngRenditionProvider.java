@@ -0,0 +1,11 @@
+package internal.org.springframework.content.docx4j;
+
+/**
+ * Produces smaller PNGs of PNGs, such as thumbnails, for example <code>image/png;width=256</code>.
+ */
+public class PngToPngRenditionProvider extends ImageRenditionProvider {
+
+	public PngToPngRenditionProvider() {
+		super("image/png", "image/png");
+	}
+}
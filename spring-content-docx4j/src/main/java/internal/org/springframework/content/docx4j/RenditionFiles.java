@@ -0,0 +1,36 @@
+package internal.org.springframework.content.docx4j;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes each rendition to its own temporary file, which is removed when the stream returned is closed.  Conversions
+ * can therefore run concurrently, and renditions of any size are returned without being held in memory.
+ */
+final class RenditionFiles {
+
+	private RenditionFiles() {}
+
+	interface RenditionWriter {
+		void write(OutputStream out) throws Exception;
+	}
+
+	/**
+	 * Returns a stream over what <code>writer</code> writes, removing the file if the writer fails.
+	 */
+	static InputStream write(String suffix, RenditionWriter writer) throws Exception {
+		Path file = Files.createTempFile("rendition-", suffix);
+		try {
+			try (OutputStream out = Files.newOutputStream(file)) {
+				writer.write(out);
+			}
+			return Files.newInputStream(file, StandardOpenOption.DELETE_ON_CLOSE);
+		} catch (Exception e) {
+			Files.deleteIfExists(file);
+			throw e;
+		}
+	}
+}
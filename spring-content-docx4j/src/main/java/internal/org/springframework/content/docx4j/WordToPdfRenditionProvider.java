@@ -1,18 +1,19 @@
 package internal.org.springframework.content.docx4j;
 
-import java.io.FileInputStream;
 import java.io.InputStream;
-import java.io.OutputStream;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.docx4j.Docx4J;
 import org.docx4j.convert.out.FOSettings;
-import org.docx4j.fonts.PhysicalFonts;
 import org.docx4j.model.fields.FieldUpdater;
 import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
 import org.springframework.content.commons.renditions.RenditionProvider;
 
 public class WordToPdfRenditionProvider implements RenditionProvider {
 
+	private static final Log logger = LogFactory.getLog(WordToPdfRenditionProvider.class);
+
 	@Override
 	public String consumes() {
 		return "application/vnd.openxmlformats-officedocument.wordprocessingml.document";
@@ -25,22 +26,11 @@ public class WordToPdfRenditionProvider implements RenditionProvider {
 
 	@Override
 	public InputStream convert(InputStream fromInputSource, String toMimeType) {
+		WordprocessingMLPackage pkg = null;
 		try {
-			// Font regex (optional)
-			// Set regex if you want to restrict to some defined subset of fonts
-			// Here we have to do this before calling createContent,
-			// since that discovers fonts
-			String regex = null;
-			// Windows:
-			// String
-			// regex=".*(calibri|camb|cour|arial|symb|times|Times|zapf).*";
-			//regex=".*(calibri|camb|cour|arial|times|comic|georgia|impact|LSANS|pala|tahoma|trebuc|verdana|symbol|webdings|wingding).*";
-			// Mac
-			// String
-			// regex=".*(Courier New|Arial|Times New Roman|Comic Sans|Georgia|Impact|Lucida Console|Lucida Sans Unicode|Palatino Linotype|Tahoma|Trebuchet|Verdana|Symbol|Webdings|Wingdings|MS Sans Serif|MS Serif).*";
-			PhysicalFonts.setRegex(regex);
-			
-			WordprocessingMLPackage pkg = WordprocessingMLPackage.load(fromInputSource);
+			Docx4jResources.initialize();
+
+			pkg = WordprocessingMLPackage.load(fromInputSource);
 	
 			// Refresh the values of DOCPROPERTY fields 
 			FieldUpdater updater = new FieldUpdater(pkg);
@@ -53,26 +43,19 @@ public class WordToPdfRenditionProvider implements RenditionProvider {
 //				foSettings.setFoDumpFile(new java.io.File("/tmp/test.fo"));
 //			}
 			foSettings.setWmlPackage(pkg);
+			foSettings.setCustomFoRenderer(Docx4jResources.foRenderer());
 			
-			//ByteArrayOutputStream os = new ByteArrayOutputStream();
-			
-			String outputfilepath;
-			outputfilepath = "/tmp/temp.pdf";
-			OutputStream os = new java.io.FileOutputStream(outputfilepath);
-	
 			// Specify whether PDF export uses XSLT or not to create the FO
 			// (XSLT takes longer, but is more complete).
 			
 			// Don't care what type of exporter you use
-			Docx4J.toFO(foSettings, os, Docx4J.FLAG_EXPORT_PREFER_XSL);
-			
-			if (pkg.getMainDocumentPart().getFontTablePart()!=null) {
+			return RenditionFiles.write(".pdf", (os) -> Docx4J.toFO(foSettings, os, Docx4J.FLAG_EXPORT_PREFER_XSL));
+		} catch (Exception e) {
+			logger.error("Unable to convert a Word document to application/pdf", e);
+		} finally {
+			if (pkg != null && pkg.getMainDocumentPart().getFontTablePart() != null) {
 				pkg.getMainDocumentPart().getFontTablePart().deleteEmbeddedFontTempFiles();
 			}
-			
-			return new FileInputStream(outputfilepath);
-		} catch (Exception e) {
-			
 		}
 		
 		return null;
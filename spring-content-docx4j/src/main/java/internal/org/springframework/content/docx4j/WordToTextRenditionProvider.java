@@ -1,21 +1,43 @@
 package internal.org.springframework.content.docx4j;
 
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
-import org.docx4j.TextUtils;
-import org.docx4j.openpackaging.packages.WordprocessingMLPackage;
-import org.docx4j.openpackaging.parts.WordprocessingML.MainDocumentPart;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.springframework.content.commons.renditions.RenditionProvider;
 import org.springframework.stereotype.Service;
 
+/**
+ * Extracts the text of a Word document by streaming its main document part, rather than loading the document with
+ * docx4j, so that the memory used does not depend on the size of the document.
+ *
+ * The text is that of the document's runs, as docx4j's <code>TextUtils</code> extracts it, without deleted text,
+ * field codes or the fallback copies of text boxes.
+ */
 @Service
 public class WordToTextRenditionProvider implements RenditionProvider {
 
+	private static final Log logger = LogFactory.getLog(WordToTextRenditionProvider.class);
+
+	private static final String CONTENT_TYPES = "[Content_Types].xml";
+	private static final String MAIN_DOCUMENT_CONTENT_TYPE = "application/vnd.openxmlformats-officedocument.wordprocessingml.document.main+xml";
+	private static final String MAIN_DOCUMENT = "word/document.xml";
+
+	private static final String WML = "http://schemas.openxmlformats.org/wordprocessingml/2006/main";
+	private static final String MARKUP_COMPATIBILITY = "http://schemas.openxmlformats.org/markup-compatibility/2006";
+
 	@Override
 	public String consumes() {
 		return "application/vnd.openxmlformats-officedocument.wordprocessingml.document";
@@ -28,32 +50,107 @@ public class WordToTextRenditionProvider implements RenditionProvider {
 
 	@Override
 	public InputStream convert(InputStream fromInputSource, String toMimeType) {
-		try {
-			WordprocessingMLPackage pkg = WordprocessingMLPackage.load(fromInputSource);
-	
-			MainDocumentPart documentPart = pkg.getMainDocumentPart();		
-			
-			org.docx4j.wml.Document wmlDocumentEl = (org.docx4j.wml.Document)documentPart.getJaxbElement();
-			
-			OutputStream os = new FileOutputStream("/tmp/temp.txt");
-			Writer out = new OutputStreamWriter(os);
-			
-			TextUtils.extractText(wmlDocumentEl, out);
-			out.close();
-			
-			if (pkg.getMainDocumentPart().getFontTablePart()!=null) {
-				pkg.getMainDocumentPart().getFontTablePart().deleteEmbeddedFontTempFiles();
-			}		
-			// This would also do it, via finalize() methods
-			pkg = null;
-
-			return new FileInputStream("/tmp/temp.txt");
-
+		try (ZipInputStream zip = new ZipInputStream(fromInputSource)) {
+			// the content types, which name the main document part, usually come first
+			String mainDocument = MAIN_DOCUMENT;
+			ZipEntry entry;
+			while ((entry = zip.getNextEntry()) != null) {
+				if (CONTENT_TYPES.equals(entry.getName())) {
+					mainDocument = mainDocument(unclosable(zip));
+				} else if (mainDocument.equals(entry.getName())) {
+					InputStream part = unclosable(zip);
+					return RenditionFiles.write(".txt", (os) -> {
+						Writer out = new OutputStreamWriter(os, StandardCharsets.UTF_8);
+						extractText(part, out);
+						out.flush();
+					});
+				}
+			}
+			logger.error(String.format("Unable to convert a Word document to text/plain, it has no %s", mainDocument));
 		} catch (Exception e) {
-			e.printStackTrace();
+			logger.error("Unable to convert a Word document to text/plain", e);
 		}
-		
+
 		return null;
 	}
 
+	private static String mainDocument(InputStream contentTypes) throws XMLStreamException {
+		XMLStreamReader reader = reader(contentTypes);
+		try {
+			while (reader.hasNext()) {
+				if (reader.next() == XMLStreamConstants.START_ELEMENT
+						&& "Override".equals(reader.getLocalName())
+						&& MAIN_DOCUMENT_CONTENT_TYPE.equals(reader.getAttributeValue(null, "ContentType"))) {
+					String partName = reader.getAttributeValue(null, "PartName");
+					return partName.startsWith("/") ? partName.substring(1) : partName;
+				}
+			}
+			return MAIN_DOCUMENT;
+		} finally {
+			reader.close();
+		}
+	}
+
+	private static void extractText(InputStream document, Writer out) throws XMLStreamException, IOException {
+		XMLStreamReader reader = reader(document);
+		try {
+			int text = 0;
+			int fallback = 0;
+			while (reader.hasNext()) {
+				switch (reader.next()) {
+				case XMLStreamConstants.START_ELEMENT:
+					if (isText(reader)) {
+						text++;
+					} else if (isFallback(reader)) {
+						fallback++;
+					}
+					break;
+				case XMLStreamConstants.END_ELEMENT:
+					if (isText(reader)) {
+						text--;
+					} else if (isFallback(reader)) {
+						fallback--;
+					}
+					break;
+				case XMLStreamConstants.CHARACTERS:
+				case XMLStreamConstants.CDATA:
+				case XMLStreamConstants.SPACE:
+					if (text > 0 && fallback == 0) {
+						out.write(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+					}
+					break;
+				default:
+					break;
+				}
+			}
+		} finally {
+			reader.close();
+		}
+	}
+
+	private static boolean isText(XMLStreamReader reader) {
+		return "t".equals(reader.getLocalName()) && WML.equals(reader.getNamespaceURI());
+	}
+
+	private static boolean isFallback(XMLStreamReader reader) {
+		return "Fallback".equals(reader.getLocalName()) && MARKUP_COMPATIBILITY.equals(reader.getNamespaceURI());
+	}
+
+	// documents come from users, so no DTDs or external entities
+	private static XMLStreamReader reader(InputStream in) throws XMLStreamException {
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+		factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+		return factory.createXMLStreamReader(in);
+	}
+
+	// the parsers close the streams they read, which would close the zip
+	private static InputStream unclosable(InputStream in) {
+		return new FilterInputStream(in) {
+			@Override
+			public void close() {
+			}
+		};
+	}
 }
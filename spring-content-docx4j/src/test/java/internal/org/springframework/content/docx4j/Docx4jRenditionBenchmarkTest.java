@@ -0,0 +1,44 @@
+package internal.org.springframework.content.docx4j;
+
+import java.io.InputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Assume;
+import org.junit.Test;
+import org.springframework.content.commons.renditions.RenditionProvider;
+
+/**
+ * Reports the latency of the first, cold, conversion of each Word rendition provider and the average of the warm
+ * conversions after it.  Skipped by the build; run it on its own, so that its first conversions are cold, with
+ * <code>mvn test -Dtest=Docx4jRenditionBenchmarkTest -Dbenchmark=true</code>.
+ */
+public class Docx4jRenditionBenchmarkTest {
+
+	private static final int WARM_CONVERSIONS = 10;
+
+	@Test
+	public void benchmark() throws Exception {
+		Assume.assumeTrue(Boolean.getBoolean("benchmark"));
+
+		benchmark(new WordToPdfRenditionProvider(), "application/pdf");
+		benchmark(new WordToHtmlRenditionProvider(), "text/html");
+		benchmark(new WordToTextRenditionProvider(), "text/plain");
+	}
+
+	private void benchmark(RenditionProvider provider, String toMimeType) throws Exception {
+		long cold = convert(provider, toMimeType);
+		long warm = 0;
+		for (int i = 0; i < WARM_CONVERSIONS; i++) {
+			warm += convert(provider, toMimeType);
+		}
+		System.out.println(String.format("%-30s cold %6d ms, warm %6d ms", provider.getClass().getSimpleName(), cold, warm / WARM_CONVERSIONS));
+	}
+
+	private long convert(RenditionProvider provider, String toMimeType) throws Exception {
+		long start = System.currentTimeMillis();
+		try (InputStream rendition = provider.convert(getClass().getResourceAsStream("/sample-docx2.docx"), toMimeType)) {
+			IOUtils.toByteArray(rendition);
+		}
+		return System.currentTimeMillis() - start;
+	}
+}
@@ -0,0 +1,63 @@
+package internal.org.springframework.content.docx4j;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+import org.springframework.content.commons.renditions.RenditionProvider;
+
+public class Docx4jWarmUpTest {
+
+	@Test
+	public void testSampleIsAWordDocument() throws Exception {
+		InputStream converted = new WordToTextRenditionProvider().convert(new ByteArrayInputStream(Docx4jResources.sample()), "text/plain");
+
+		assertThat(IOUtils.toString(converted, "UTF-8"), containsString("Spring Content"));
+	}
+
+	@Test
+	public void testWarmUpConvertsTheSampleWithWordProviders() {
+		List<String> converted = new ArrayList<>();
+		RenditionProvider word = new RecordingProvider("application/vnd.openxmlformats-officedocument.wordprocessingml.document", converted);
+		RenditionProvider other = new RecordingProvider("image/jpg", converted);
+
+		new Docx4jWarmUp().warmUp(Arrays.asList(word, other));
+
+		assertThat(converted, is(Arrays.asList("application/vnd.openxmlformats-officedocument.wordprocessingml.document:text/plain")));
+	}
+
+	private static class RecordingProvider implements RenditionProvider {
+
+		private final String consumes;
+		private final List<String> converted;
+
+		RecordingProvider(String consumes, List<String> converted) {
+			this.consumes = consumes;
+			this.converted = converted;
+		}
+
+		@Override
+		public String consumes() {
+			return consumes;
+		}
+
+		@Override
+		public String[] produces() {
+			return new String[] {"text/plain"};
+		}
+
+		@Override
+		public InputStream convert(InputStream fromInputSource, String toMimeType) {
+			converted.add(consumes + ":" + toMimeType);
+			return fromInputSource;
+		}
+	}
+}
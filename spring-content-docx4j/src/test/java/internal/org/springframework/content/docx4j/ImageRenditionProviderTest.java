@@ -0,0 +1,121 @@
+package internal.org.springframework.content.docx4j;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+
+import javax.imageio.ImageIO;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class ImageRenditionProviderTest {
+
+	private ImageRenditionProvider service;
+	private byte[] image;
+
+	@Before
+	public void setUp() throws Exception {
+		service = new JpegToPngRenditionProvider();
+
+		// red on the left, blue on the right
+		BufferedImage original = new BufferedImage(1600, 1200, BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = original.createGraphics();
+		graphics.setColor(Color.RED);
+		graphics.fillRect(0, 0, 800, 1200);
+		graphics.setColor(Color.BLUE);
+		graphics.fillRect(800, 0, 800, 1200);
+		graphics.dispose();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(original, "jpeg", out);
+		image = out.toByteArray();
+	}
+
+	@Test
+	public void testCanProduceSizedRenditions() {
+		assertThat(service.canProduce("image/png"), is(true));
+		assertThat(service.canProduce("image/png;width=256"), is(true));
+		assertThat(service.canProduce("image/png; width=256; height=256; fit=cover"), is(true));
+		assertThat(service.canProduce("image/png;width=0"), is(false));
+		assertThat(service.canProduce("image/png;width=wide"), is(false));
+		assertThat(service.canProduce("image/png;fit=stretch"), is(false));
+		assertThat(service.canProduce("image/png;quality=high"), is(false));
+		assertThat(service.canProduce("image/gif;width=256"), is(false));
+	}
+
+	@Test
+	public void testConvertToWidth() throws Exception {
+		BufferedImage rendition = convert("image/png;width=256");
+
+		assertThat(rendition.getWidth(), is(256));
+		assertThat(rendition.getHeight(), is(192));
+	}
+
+	@Test
+	public void testConvertWithinWidthAndHeight() throws Exception {
+		BufferedImage rendition = convert("image/png;width=200;height=200");
+
+		assertThat(rendition.getWidth(), is(200));
+		assertThat(rendition.getHeight(), is(150));
+	}
+
+	@Test
+	public void testConvertCoveringWidthAndHeight() throws Exception {
+		BufferedImage rendition = convert("image/png;width=100;height=200;fit=cover");
+
+		assertThat(rendition.getWidth(), is(100));
+		assertThat(rendition.getHeight(), is(200));
+		// the centre of the image, half red and half blue
+		assertThat(isRed(rendition.getRGB(10, 100)), is(true));
+		assertThat(isRed(rendition.getRGB(90, 100)), is(false));
+	}
+
+	@Test
+	public void testDoesNotEnlarge() throws Exception {
+		BufferedImage rendition = convert("image/png;width=3200");
+
+		assertThat(rendition.getWidth(), is(1600));
+		assertThat(rendition.getHeight(), is(1200));
+	}
+
+	@Test
+	public void testLimitsPixels() throws Exception {
+		service.setMaxPixels(1200);
+
+		BufferedImage rendition = convert("image/png");
+
+		assertThat(rendition.getWidth(), is(40));
+		assertThat(rendition.getHeight(), is(30));
+	}
+
+	@Test
+	public void testConvertToJpeg() throws Exception {
+		service = new JpegToJpegRenditionProvider();
+
+		InputStream converted = service.convert(new ByteArrayInputStream(image), "image/jpeg;width=64");
+
+		assertThat(ImageIO.read(converted).getWidth(), is(64));
+	}
+
+	@Test
+	public void testConvertInvalidImage() {
+		assertThat(service.convert(new ByteArrayInputStream(new byte[] {1, 2, 3}), "image/png;width=64"), is(nullValue()));
+	}
+
+	private BufferedImage convert(String toMimeType) throws Exception {
+		try (InputStream converted = service.convert(new ByteArrayInputStream(image), toMimeType)) {
+			return ImageIO.read(converted);
+		}
+	}
+
+	private static boolean isRed(int rgb) {
+		return ((rgb >> 16) & 0xff) > 200 && (rgb & 0xff) < 50;
+	}
+}
@@ -6,7 +6,13 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.greaterThan;
 
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.io.IOUtils;
 import org.junit.Before;
@@ -39,4 +45,22 @@ public class JpegToPngRenditionProviderTest {
 		assertThat(IOUtils.contentEquals(converted, this.getClass().getResourceAsStream("/sample.png")), is(true));
 	}
 
+	@Test
+	public void testConvertConcurrently() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<InputStream>> conversions = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				conversions.add(executor.submit(() -> service.convert(this.getClass().getResourceAsStream("/sample.jpeg"), "image/png")));
+			}
+			for (Future<InputStream> conversion : conversions) {
+				try (InputStream converted = conversion.get(60, TimeUnit.SECONDS)) {
+					assertThat(IOUtils.contentEquals(converted, this.getClass().getResourceAsStream("/sample.png")), is(true));
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
 }
@@ -41,6 +41,18 @@ public class WordToPdfRenditionProviderTest {
 		assertThat(content, is("This is the Document Title\n \nand this is the document body.\n \n \n"));
 	}
 
+	@Test
+	public void testReusesFopFactory() throws Exception {
+		service.convert(this.getClass().getResourceAsStream("/sample-docx2.docx"), "application/pdf").close();
+		int created = ((Docx4jResources.CachingFORenderer) Docx4jResources.foRenderer()).getCreatedCount();
+
+		InputStream converted = service.convert(this.getClass().getResourceAsStream("/sample-docx2.docx"),
+												"application/pdf");
+
+		assertThat(pdfToText(converted), is("This is the Document Title\n \nand this is the document body.\n \n \n"));
+		assertThat(((Docx4jResources.CachingFORenderer) Docx4jResources.foRenderer()).getCreatedCount(), is(created));
+	}
+
 	private String pdfToText(InputStream in) {
 		PDFParser parser = null;
 		PDDocument pdDoc = null;
@@ -4,8 +4,20 @@ import static org.hamcrest.CoreMatchers.hasItems;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import org.apache.commons.io.IOUtils;
 import org.junit.Before;
@@ -38,4 +50,69 @@ public class WordToTextRenditionProviderTest {
 		assertThat(content, is("This is the Document Title and this is the document body."));
 	}
 
+	@Test
+	public void testConvertConcurrently() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<InputStream>> conversions = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				conversions.add(executor.submit(() -> service.convert(this.getClass().getResourceAsStream("/sample-docx2.docx"), "text/plain")));
+			}
+			for (Future<InputStream> conversion : conversions) {
+				try (InputStream converted = conversion.get(60, TimeUnit.SECONDS)) {
+					assertThat(IOUtils.toString(converted), is("This is the Document Title and this is the document body."));
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testConvertLargeDocument() throws Exception {
+		StringBuilder body = new StringBuilder();
+		for (int i = 0; i < 200000; i++) {
+			body.append("<w:p><w:r><w:t>paragraph</w:t></w:r></w:p>");
+		}
+		InputStream converted = service.convert(docx(body.toString()), "text/plain");
+
+		int length = 0;
+		byte[] buffer = new byte[8192];
+		int read;
+		while ((read = converted.read(buffer)) != -1) {
+			length += read;
+		}
+		converted.close();
+		assertThat(length, is(200000 * "paragraph".length()));
+	}
+
+	@Test
+	public void testConvertSkipsFallbackAndDeletedText() throws Exception {
+		InputStream converted = service.convert(docx(
+				"<w:p><w:r><w:t>kept</w:t></w:r>" +
+				"<w:del><w:r><w:delText>deleted</w:delText></w:r></w:del>" +
+				"<w:r><mc:AlternateContent><mc:Choice Requires=\"wps\"><w:t> boxed</w:t></mc:Choice>" +
+				"<mc:Fallback><w:t> fallback</w:t></mc:Fallback></mc:AlternateContent></w:r></w:p>"), "text/plain");
+
+		assertThat(IOUtils.toString(converted), is("kept boxed"));
+	}
+
+	private static InputStream docx(String body) throws IOException {
+		ByteArrayOutputStream docx = new ByteArrayOutputStream();
+		try (ZipOutputStream zip = new ZipOutputStream(docx)) {
+			zip.putNextEntry(new ZipEntry("[Content_Types].xml"));
+			zip.write(("<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+					"<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">" +
+					"<Override PartName=\"/word/document.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.wordprocessingml.document.main+xml\"/>" +
+					"</Types>").getBytes(StandardCharsets.UTF_8));
+			zip.putNextEntry(new ZipEntry("word/document.xml"));
+			zip.write(("<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+					"<w:document xmlns:w=\"http://schemas.openxmlformats.org/wordprocessingml/2006/main\" " +
+					"xmlns:mc=\"http://schemas.openxmlformats.org/markup-compatibility/2006\"><w:body>" +
+					body +
+					"</w:body></w:document>").getBytes(StandardCharsets.UTF_8));
+		}
+		return new ByteArrayInputStream(docx.toByteArray());
+	}
+
 }
@@ -1,20 +1,34 @@
 package internal.org.springframework.content.jpa.config;
 
+import org.springframework.beans.factory.ObjectFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.content.commons.repository.factory.AbstractStoreFactoryBean;
 import org.springframework.util.Assert;
 
+import internal.org.springframework.content.jpa.operations.JpaChunkedContentTemplate;
 import internal.org.springframework.content.jpa.operations.JpaContentTemplate;
 import internal.org.springframework.content.jpa.repository.DefaultJpaStoreImpl;
 
 @SuppressWarnings("rawtypes")
 public class JpaStoreFactoryBean extends AbstractStoreFactoryBean {
 
+	public static final String CHUNKED_SCHEMA = "chunked";
+
 	@Autowired 
 	private JpaContentTemplate template;
+
+	@Autowired
+	private ObjectFactory<JpaChunkedContentTemplate> chunkedTemplate;
+
+	@Value("${spring.content.jpa.schema:blob}")
+	private String schema;
 	
 	@Override
 	protected Object getContentStoreImpl() {
+		if (CHUNKED_SCHEMA.equalsIgnoreCase(schema)) {
+			return new DefaultJpaStoreImpl(chunkedTemplate.getObject());
+		}
 		Assert.notNull(template, "template cannot be null");
 		return new DefaultJpaStoreImpl(template);
 	}
@@ -8,6 +8,7 @@ import org.springframework.content.commons.config.AbstractStoreBeanDefinitionReg
 import org.springframework.content.jpa.config.EnableJpaContentRepositories;
 import org.springframework.content.jpa.config.EnableJpaStores;
 
+import internal.org.springframework.content.jpa.operations.JpaChunkedContentTemplate;
 import internal.org.springframework.content.jpa.operations.JpaContentTemplate;
 
 public class JpaStoresRegistrar extends AbstractStoreBeanDefinitionRegistrar {
@@ -17,6 +18,11 @@ public class JpaStoresRegistrar extends AbstractStoreBeanDefinitionRegistrar {
 		String beanName = "jpaContentTemplate";
 	    BeanDefinitionBuilder builder = BeanDefinitionBuilder.genericBeanDefinition(JpaContentTemplate.class);
 	    registry.registerBeanDefinition(beanName, builder.getBeanDefinition());
+
+	    // only instantiated when a store is configured with the chunked schema
+	    BeanDefinitionBuilder chunked = BeanDefinitionBuilder.genericBeanDefinition(JpaChunkedContentTemplate.class);
+	    chunked.setLazyInit(true);
+	    registry.registerBeanDefinition("jpaChunkedContentTemplate", chunked.getBeanDefinition());
 	}
 
 	@Override
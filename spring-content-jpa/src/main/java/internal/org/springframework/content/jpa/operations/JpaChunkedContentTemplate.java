@@ -0,0 +1,461 @@
+package internal.org.springframework.content.jpa.operations;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import javax.sql.DataSource;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.content.commons.annotations.ContentId;
+import org.springframework.content.commons.annotations.ContentLength;
+import org.springframework.content.commons.repository.StoreAccessException;
+import org.springframework.content.commons.utils.BeanUtils;
+import org.springframework.core.convert.ConversionException;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.util.Assert;
+
+import internal.org.springframework.content.jpa.utils.ChunkedInputStream;
+
+/**
+ * Stores content as a header row in <code>CONTENT_HEADERS</code> and a sequence of fixed-size rows in
+ * <code>CONTENT_CHUNKS</code> keyed by (content id, sequence).  Ids and lengths are <code>BIGINT</code>s so content is
+ * not limited to 2GB and no single row holds more than one chunk.  The table names are configurable and the DDL is
+ * chosen by {@link JpaContentDialect} from the database product name.
+ *
+ * Chunks are written with JDBC batching.  Reads fetch <code>prefetch</code> chunks per query and, when
+ * <code>fetchThreads</code> is greater than zero, fetch up to <code>fetchAhead</code> of the following windows
+ * concurrently in the background.  Each fetch borrows a
+ * connection only for the duration of its query so returned streams do not hold a connection open.
+ */
+public class JpaChunkedContentTemplate implements JpaContentOperations, InitializingBean, DisposableBean {
+
+	private static Log logger = LogFactory.getLog(JpaChunkedContentTemplate.class);
+
+	public static final int DEFAULT_CHUNK_SIZE = 256 * 1024;
+	public static final int DEFAULT_BATCH_SIZE = 8;
+	public static final int DEFAULT_PREFETCH = 4;
+	public static final int DEFAULT_FETCH_AHEAD = 2;
+
+	private DataSource datasource;
+
+	private JdbcTemplate template;
+
+	private int chunkSize = DEFAULT_CHUNK_SIZE;
+	private int batchSize = DEFAULT_BATCH_SIZE;
+	private int prefetch = DEFAULT_PREFETCH;
+	private int fetchThreads = 0;
+	private int fetchAhead = DEFAULT_FETCH_AHEAD;
+	private ExecutorService fetchExecutor;
+
+	private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+
+	private String headerTable = "CONTENT_HEADERS";
+	private String chunkTable = "CONTENT_CHUNKS";
+	private JpaContentDialect dialect = JpaContentDialect.GENERIC;
+	private ConversionService conversionService = new DefaultConversionService();
+
+	@Autowired
+	public JpaChunkedContentTemplate(DataSource datasource) {
+		this.datasource = datasource;
+	}
+
+	@Autowired(required=false)
+	public void setTemplate(JdbcTemplate template) {
+		this.template = template;
+	}
+
+	@Value("${spring.content.jpa.chunked.chunkSize:" + DEFAULT_CHUNK_SIZE + "}")
+	public void setChunkSize(int chunkSize) {
+		this.chunkSize = chunkSize;
+	}
+
+	@Value("${spring.content.jpa.chunked.batchSize:" + DEFAULT_BATCH_SIZE + "}")
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	@Value("${spring.content.jpa.chunked.prefetch:" + DEFAULT_PREFETCH + "}")
+	public void setPrefetch(int prefetch) {
+		this.prefetch = prefetch;
+	}
+
+	@Value("${spring.content.jpa.chunked.fetchThreads:0}")
+	public void setFetchThreads(int fetchThreads) {
+		this.fetchThreads = fetchThreads;
+	}
+
+	@Value("${spring.content.jpa.chunked.fetchAhead:" + DEFAULT_FETCH_AHEAD + "}")
+	public void setFetchAhead(int fetchAhead) {
+		this.fetchAhead = fetchAhead;
+	}
+
+	@Value("${spring.content.jpa.chunked.headerTable:CONTENT_HEADERS}")
+	public void setHeaderTable(String headerTable) {
+		Assert.isTrue(IDENTIFIER.matcher(headerTable).matches(), String.format("Invalid table name %s", headerTable));
+		this.headerTable = headerTable;
+	}
+
+	@Value("${spring.content.jpa.chunked.chunkTable:CONTENT_CHUNKS}")
+	public void setChunkTable(String chunkTable) {
+		Assert.isTrue(IDENTIFIER.matcher(chunkTable).matches(), String.format("Invalid table name %s", chunkTable));
+		this.chunkTable = chunkTable;
+	}
+
+	public void setConversionService(ConversionService conversionService) {
+		this.conversionService = conversionService;
+	}
+
+	@Override
+	public void afterPropertiesSet() throws Exception {
+		Assert.isTrue(chunkSize > 0, "chunkSize must be greater than 0");
+		Assert.isTrue(batchSize > 0, "batchSize must be greater than 0");
+		Assert.isTrue(fetchAhead > 0, "fetchAhead must be greater than 0");
+
+		if (this.template == null) {
+			this.template = new JdbcTemplate(datasource);
+		}
+
+		if (fetchThreads > 0) {
+			final AtomicInteger count = new AtomicInteger();
+			fetchExecutor = Executors.newFixedThreadPool(fetchThreads, (r) -> {
+				Thread t = new Thread(r, "jpa-content-chunk-fetch-" + count.incrementAndGet());
+				t.setDaemon(true);
+				return t;
+			});
+		}
+
+		this.template.execute(new ConnectionCallback<Object>() {
+			@Override
+			public Object doInConnection(Connection con) throws SQLException, DataAccessException {
+				dialect = JpaContentDialect.forDatabase(con.getMetaData().getDatabaseProductName());
+
+				if (tableName(con, headerTable) == null) {
+					logger.info("Creating chunked JPA Content Repository");
+					execute(con, dialect.createHeaderTable(headerTable));
+				}
+				String chunks = tableName(con, chunkTable);
+				if (chunks == null) {
+					execute(con, dialect.createChunkTable(chunkTable));
+				} else {
+					checkChunkColumn(con, chunks);
+				}
+				return null;
+			}
+		});
+	}
+
+	@Override
+	public void destroy() throws Exception {
+		if (fetchExecutor != null) {
+			fetchExecutor.shutdownNow();
+		}
+	}
+
+	@Override
+	public <T> void setContent(T metadata, InputStream content) {
+		Object contentId = BeanUtils.getFieldWithAnnotation(metadata, ContentId.class);
+		Long presetId = contentId != null ? toId(contentId) : null;
+
+		Connection con = DataSourceUtils.getConnection(datasource);
+		boolean autoCommit = true;
+		try {
+			autoCommit = con.getAutoCommit();
+			if (autoCommit) {
+				con.setAutoCommit(false);
+			}
+
+			long id;
+			if (presetId == null) {
+				id = insertHeader(con);
+			} else {
+				id = presetId;
+				update(con, String.format("DELETE FROM %s WHERE content_id=?", chunkTable), id);
+			}
+
+			long length = 0;
+			long seq = 0;
+			PreparedStatement ps = con.prepareStatement(String.format("INSERT INTO %s (content_id, seq, data) VALUES (?, ?, ?)", chunkTable));
+			try {
+				byte[] chunk;
+				while ((chunk = readChunk(content)).length > 0) {
+					ps.setLong(1, id);
+					ps.setLong(2, seq++);
+					ps.setBytes(3, chunk);
+					ps.addBatch();
+					length += chunk.length;
+					if (seq % batchSize == 0) {
+						ps.executeBatch();
+					}
+				}
+				if (seq % batchSize != 0) {
+					ps.executeBatch();
+				}
+			} finally {
+				JdbcUtils.closeStatement(ps);
+			}
+
+			// an entity whose id was set by the application has no header yet
+			if (writeHeader(con, "UPDATE %s SET content_length=?, chunk_size=?, chunk_count=? WHERE id=?", id, length, seq) == 0) {
+				writeHeader(con, dialect.withIdentityInsert(headerTable, "INSERT INTO %s (content_length, chunk_size, chunk_count, id) VALUES (?, ?, ?, ?)"), id, length, seq);
+			}
+
+			if (autoCommit) {
+				con.commit();
+			}
+
+			if (presetId == null) {
+				BeanUtils.setFieldWithAnnotation(metadata, ContentId.class, id);
+			}
+			BeanUtils.setFieldWithAnnotation(metadata, ContentLength.class, length);
+		} catch (SQLException | IOException e) {
+			logger.error(String.format("Error setting content %s", contentId), e);
+			if (autoCommit) {
+				try {
+					con.rollback();
+				} catch (SQLException sqle) {
+					logger.error(String.format("Error rolling back content %s", contentId), sqle);
+				}
+			}
+		} finally {
+			if (autoCommit) {
+				try {
+					con.setAutoCommit(true);
+				} catch (SQLException sqle) {
+					logger.error("Error restoring auto-commit", sqle);
+				}
+			}
+			DataSourceUtils.releaseConnection(con, datasource);
+		}
+	}
+
+	@Override
+	public <T> void unsetContent(T metadata) {
+		Object contentId = BeanUtils.getFieldWithAnnotation(metadata, ContentId.class);
+		if (contentId == null) {
+			return;
+		}
+
+		long id = toId(contentId);
+		try {
+			this.template.update(String.format("DELETE FROM %s WHERE content_id=?", chunkTable), id);
+			this.template.update(String.format("DELETE FROM %s WHERE id=?", headerTable), id);
+			BeanUtils.setFieldWithAnnotation(metadata, ContentId.class, null);
+			BeanUtils.setFieldWithAnnotation(metadata, ContentLength.class, 0);
+		} catch (DataAccessException dae) {
+			logger.error(String.format("Error deleting content %s", contentId), dae);
+		}
+	}
+
+	/**
+	 * Deletes the content of several entities, deleting their chunks and their headers with one JDBC batch each.
+	 */
+	@Override
+	public <T> void unsetContents(Collection<T> metadata) {
+		List<T> entities = new ArrayList<>();
+		List<Object[]> ids = new ArrayList<>();
+		for (T entity : metadata) {
+			Object contentId = BeanUtils.getFieldWithAnnotation(entity, ContentId.class);
+			if (contentId != null) {
+				entities.add(entity);
+				ids.add(new Object[] {toId(contentId)});
+			}
+		}
+		if (ids.isEmpty()) {
+			return;
+		}
+
+		try {
+			this.template.batchUpdate(String.format("DELETE FROM %s WHERE content_id=?", chunkTable), ids);
+			this.template.batchUpdate(String.format("DELETE FROM %s WHERE id=?", headerTable), ids);
+			for (T entity : entities) {
+				BeanUtils.setFieldWithAnnotation(entity, ContentId.class, null);
+				BeanUtils.setFieldWithAnnotation(entity, ContentLength.class, 0);
+			}
+		} catch (DataAccessException dae) {
+			logger.error("Error deleting content", dae);
+		}
+	}
+
+	@Override
+	public <T> InputStream getContent(T metadata) {
+		return getContent(metadata, 0, -1);
+	}
+
+	/**
+	 * Returns a stream over <code>length</code> bytes of content starting at <code>offset</code>.  Only the chunks
+	 * covering the range are fetched.  A negative <code>length</code> reads to the end of the content.
+	 */
+	@Override
+	public <T> InputStream getContent(T metadata, long offset, long length) {
+		Object contentId = BeanUtils.getFieldWithAnnotation(metadata, ContentId.class);
+		if (contentId == null) {
+			return null;
+		}
+
+		final long id = toId(contentId);
+		List<long[]> headers;
+		try {
+			headers = this.template.query(String.format("SELECT content_length, chunk_size, chunk_count FROM %s WHERE id=?", headerTable),
+					(rs, row) -> new long[] {rs.getLong(1), rs.getInt(2), rs.getLong(3)}, id);
+		} catch (DataAccessException dae) {
+			logger.error(String.format("Error getting content %s", contentId), dae);
+			return null;
+		}
+		if (headers.isEmpty()) {
+			return null;
+		}
+
+		long contentLength = headers.get(0)[0];
+		int storedChunkSize = (int) headers.get(0)[1];
+		long chunkCount = headers.get(0)[2];
+
+		long start = Math.min(Math.max(offset, 0), contentLength);
+		long end = length < 0 ? contentLength : Math.min(contentLength, start + length);
+
+		return new ChunkedInputStream((from, to) -> fetchChunks(id, from, to), storedChunkSize, chunkCount, prefetch, fetchExecutor, fetchAhead, start, end);
+	}
+
+	private List<byte[]> fetchChunks(long id, long from, long to) {
+		return this.template.query((con) -> {
+			PreparedStatement ps = con.prepareStatement(String.format("SELECT data FROM %s WHERE content_id=? AND seq BETWEEN ? AND ? ORDER BY seq", chunkTable));
+			// fetch the whole window in one round trip
+			ps.setFetchSize((int) (to - from + 1));
+			ps.setLong(1, id);
+			ps.setLong(2, from);
+			ps.setLong(3, to);
+			return ps;
+		}, (rs, row) -> rs.getBytes(1));
+	}
+
+	private long insertHeader(Connection con) throws SQLException {
+		PreparedStatement ps = con.prepareStatement(String.format("INSERT INTO %s (content_length, chunk_size, chunk_count) VALUES (0, ?, 0)", headerTable), Statement.RETURN_GENERATED_KEYS);
+		ResultSet keys = null;
+		try {
+			ps.setInt(1, chunkSize);
+			ps.executeUpdate();
+			keys = ps.getGeneratedKeys();
+			keys.next();
+			return keys.getLong(1);
+		} finally {
+			JdbcUtils.closeResultSet(keys);
+			JdbcUtils.closeStatement(ps);
+		}
+	}
+
+	private int writeHeader(Connection con, String sql, long id, long length, long chunkCount) throws SQLException {
+		PreparedStatement ps = con.prepareStatement(String.format(sql, headerTable));
+		try {
+			ps.setLong(1, length);
+			ps.setInt(2, chunkSize);
+			ps.setLong(3, chunkCount);
+			ps.setLong(4, id);
+			return ps.executeUpdate();
+		} finally {
+			JdbcUtils.closeStatement(ps);
+		}
+	}
+
+	private long toId(Object contentId) {
+		try {
+			return conversionService.convert(contentId, Long.class);
+		} catch (ConversionException e) {
+			throw new StoreAccessException(String.format("Content id %s is not a number and cannot be stored in %s", contentId, headerTable), e);
+		}
+	}
+
+	/*
+	 * Tables created before the data column was a BLOB have a column sized for the chunk size they were created with
+	 */
+	private void checkChunkColumn(Connection con, String table) throws SQLException {
+		ResultSet rs = con.getMetaData().getColumns(null, null, table, null);
+		try {
+			while (rs.next()) {
+				if (!"data".equalsIgnoreCase(rs.getString("COLUMN_NAME"))) {
+					continue;
+				}
+				int type = rs.getInt("DATA_TYPE");
+				int size = rs.getInt("COLUMN_SIZE");
+				if ((type == Types.BINARY || type == Types.VARBINARY) && size > 0 && size < chunkSize) {
+					throw new IllegalStateException(String.format("Column data of %s holds at most %d bytes, less than the chunk size of %d", table, size, chunkSize));
+				}
+			}
+		} finally {
+			JdbcUtils.closeResultSet(rs);
+		}
+	}
+
+	private byte[] readChunk(InputStream content) throws IOException {
+		byte[] chunk = new byte[chunkSize];
+		int total = 0;
+		while (total < chunkSize) {
+			int read = content.read(chunk, total, chunkSize - total);
+			if (read == -1) {
+				break;
+			}
+			total += read;
+		}
+		return total == chunkSize ? chunk : Arrays.copyOf(chunk, total);
+	}
+
+	private static void update(Connection con, String sql, long id) throws SQLException {
+		PreparedStatement ps = con.prepareStatement(sql);
+		try {
+			ps.setLong(1, id);
+			ps.executeUpdate();
+		} finally {
+			JdbcUtils.closeStatement(ps);
+		}
+	}
+
+	private static void execute(Connection con, String sql) throws SQLException {
+		Statement stmt = con.createStatement();
+		try {
+			stmt.executeUpdate(sql);
+		} finally {
+			JdbcUtils.closeStatement(stmt);
+		}
+	}
+
+	/*
+	 * Returns the name of the table as the database reports it, trying the upper case name for databases that fold
+	 * unquoted identifiers, or null when the table does not exist
+	 */
+	private static String tableName(Connection con, String table) throws SQLException {
+		for (String name : new String[] {table, table.toUpperCase()}) {
+			ResultSet rs = con.getMetaData().getTables(null, null, name, new String[] {"TABLE"});
+			try {
+				if (rs.next()) {
+					return rs.getString("TABLE_NAME");
+				}
+			} finally {
+				JdbcUtils.closeResultSet(rs);
+			}
+		}
+		return null;
+	}
+}
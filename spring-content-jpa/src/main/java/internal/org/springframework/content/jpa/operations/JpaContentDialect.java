@@ -0,0 +1,131 @@
+package internal.org.springframework.content.jpa.operations;
+
+/**
+ * Database specific SQL used by {@link JpaContentTemplate} to create the content table and to write content whose id
+ * is already known in a single statement.  Databases that are not recognised use {@link #GENERIC}, which creates the
+ * table with standard SQL and writes known ids by first selecting the row, then updating it if it exists or
+ * inserting it if it does not.
+ */
+public enum JpaContentDialect {
+
+	GENERIC {
+		@Override
+		public String upsert(String table, String idColumn, String contentColumn) {
+			return null;
+		}
+	},
+
+	HSQL {
+		@Override
+		public String upsert(String table, String idColumn, String contentColumn) {
+			return String.format("MERGE INTO %1$s USING (VALUES(CAST(? AS BIGINT), CAST(? AS BLOB))) AS v(%2$s, %3$s) ON %1$s.%2$s = v.%2$s " +
+					"WHEN MATCHED THEN UPDATE SET %1$s.%3$s = v.%3$s " +
+					"WHEN NOT MATCHED THEN INSERT (%2$s, %3$s) VALUES (v.%2$s, v.%3$s)", table, idColumn, contentColumn);
+		}
+	},
+
+	H2 {
+		@Override
+		public String upsert(String table, String idColumn, String contentColumn) {
+			return String.format("MERGE INTO %1$s (%2$s, %3$s) KEY (%2$s) VALUES (?, ?)", table, idColumn, contentColumn);
+		}
+	},
+
+	MYSQL {
+		@Override
+		protected String identityType() {
+			return "BIGINT NOT NULL AUTO_INCREMENT";
+		}
+
+		@Override
+		public String blobType() {
+			return "LONGBLOB";
+		}
+
+		@Override
+		public String upsert(String table, String idColumn, String contentColumn) {
+			return String.format("INSERT INTO %1$s (%2$s, %3$s) VALUES (?, ?) ON DUPLICATE KEY UPDATE %3$s = VALUES(%3$s)", table, idColumn, contentColumn);
+		}
+	},
+
+	SQLSERVER {
+		@Override
+		protected String identityType() {
+			return "BIGINT IDENTITY(1,1) NOT NULL";
+		}
+
+		@Override
+		public String blobType() {
+			return "VARBINARY(MAX)";
+		}
+
+		@Override
+		public String upsert(String table, String idColumn, String contentColumn) {
+			return withIdentityInsert(table, String.format(
+					"MERGE INTO %1$s WITH (HOLDLOCK) USING (VALUES(CAST(? AS BIGINT), CAST(? AS VARBINARY(MAX)))) AS v(%2$s, %3$s) ON %1$s.%2$s = v.%2$s " +
+					"WHEN MATCHED THEN UPDATE SET %3$s = v.%3$s " +
+					"WHEN NOT MATCHED THEN INSERT (%2$s, %3$s) VALUES (v.%2$s, v.%3$s);", table, idColumn, contentColumn));
+		}
+
+		// ids are generated by the IDENTITY column so an explicit id can only be written with IDENTITY_INSERT on
+		@Override
+		public String withIdentityInsert(String table, String sql) {
+			return String.format("SET IDENTITY_INSERT %1$s ON; %2$s SET IDENTITY_INSERT %1$s OFF", table, sql.endsWith(";") ? sql : sql + ";");
+		}
+	};
+
+	protected String identityType() {
+		return "BIGINT GENERATED BY DEFAULT AS IDENTITY (START WITH 1)";
+	}
+
+	/**
+	 * Returns the column type used for binary content.  It is unbounded, or large enough for any content, so the
+	 * chunk size of chunked storage can be changed without altering the table.
+	 */
+	public String blobType() {
+		return "BLOB";
+	}
+
+	public String createTable(String table, String idColumn, String contentColumn) {
+		return String.format("CREATE TABLE %1$s (%2$s %4$s, %3$s %5$s, PRIMARY KEY (%2$s))", table, idColumn, contentColumn, identityType(), blobType());
+	}
+
+	public String createHeaderTable(String table) {
+		return String.format("CREATE TABLE %1$s (id %2$s, content_length BIGINT, chunk_size INTEGER, chunk_count BIGINT, PRIMARY KEY (id))", table, identityType());
+	}
+
+	public String createChunkTable(String table) {
+		return String.format("CREATE TABLE %1$s (content_id BIGINT NOT NULL, seq BIGINT NOT NULL, data %2$s, PRIMARY KEY (content_id, seq))", table, blobType());
+	}
+
+	/**
+	 * Returns <code>sql</code>, which writes an explicit value into the generated id column of <code>table</code>,
+	 * wrapped in whatever the database needs to allow it.
+	 */
+	public String withIdentityInsert(String table, String sql) {
+		return sql;
+	}
+
+	/**
+	 * Returns a statement that inserts or replaces the content for a known id, taking the id and the content as
+	 * parameters in that order, or <code>null</code> if the database has no single statement upsert.
+	 */
+	public abstract String upsert(String table, String idColumn, String contentColumn);
+
+	public static JpaContentDialect forDatabase(String productName) {
+		if (productName == null) {
+			return GENERIC;
+		}
+		String name = productName.toLowerCase();
+		if (name.contains("hsql")) {
+			return HSQL;
+		} else if (name.equals("h2")) {
+			return H2;
+		} else if (name.contains("mysql") || name.contains("mariadb")) {
+			return MYSQL;
+		} else if (name.contains("sql server")) {
+			return SQLSERVER;
+		}
+		return GENERIC;
+	}
+}
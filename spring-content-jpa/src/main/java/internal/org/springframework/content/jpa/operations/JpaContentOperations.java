@@ -0,0 +1,107 @@
+package internal.org.springframework.content.jpa.operations;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.Map;
+
+public interface JpaContentOperations {
+
+	<T> void setContent(T metadata, InputStream content);
+	<T> void unsetContent(T metadata);
+	<T> InputStream getContent(T metadata);
+
+	/**
+	 * Sets the content of several entities.  Defaults to setting each in turn.
+	 */
+	default <T> void setContents(Map<T, InputStream> contents) {
+		for (Map.Entry<T, InputStream> entry : contents.entrySet()) {
+			setContent(entry.getKey(), entry.getValue());
+		}
+	}
+
+	/**
+	 * Deletes the content of several entities.  Defaults to deleting each in turn.
+	 */
+	default <T> void unsetContents(Collection<T> metadata) {
+		for (T entity : metadata) {
+			unsetContent(entity);
+		}
+	}
+
+	/**
+	 * Returns a stream over <code>length</code> bytes of content starting at <code>offset</code>, or over the rest of
+	 * the content when <code>length</code> is negative.  Defaults to skipping to <code>offset</code> in the whole
+	 * content.
+	 */
+	default <T> InputStream getContent(T metadata, long offset, long length) {
+		InputStream content = getContent(metadata);
+		if (content == null) {
+			return null;
+		}
+		try {
+			long skipped = 0;
+			while (skipped < offset) {
+				long n = content.skip(offset - skipped);
+				if (n <= 0) {
+					if (content.read() == -1) {
+						break;
+					}
+					n = 1;
+				}
+				skipped += n;
+			}
+		} catch (IOException e) {
+			try {
+				content.close();
+			} catch (IOException ioe) {
+				// ignore
+			}
+			throw new IllegalStateException(String.format("Unable to skip to %d", offset), e);
+		}
+		if (length < 0) {
+			return content;
+		}
+		return new FilterInputStream(content) {
+			private long remaining = length;
+
+			@Override
+			public int read() throws IOException {
+				if (remaining <= 0) {
+					return -1;
+				}
+				int b = super.read();
+				if (b != -1) {
+					remaining--;
+				}
+				return b;
+			}
+
+			@Override
+			public int read(byte[] b, int off, int len) throws IOException {
+				if (remaining <= 0) {
+					return -1;
+				}
+				int read = super.read(b, off, (int) Math.min(len, remaining));
+				if (read > 0) {
+					remaining -= read;
+				}
+				return read;
+			}
+
+			@Override
+			public long skip(long n) throws IOException {
+				long skipped = super.skip(Math.min(n, remaining));
+				remaining -= skipped;
+				return skipped;
+			}
+
+			@Override
+			public int available() throws IOException {
+				return (int) Math.min(super.available(), remaining);
+			}
+		};
+	}
+
+}
@@ -1,41 +1,83 @@
 package internal.org.springframework.content.jpa.operations;
 
 import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.sql.Blob;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.regex.Pattern;
 
 import javax.sql.DataSource;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.content.commons.annotations.ContentId;
 import org.springframework.content.commons.annotations.ContentLength;
 import org.springframework.content.commons.utils.BeanUtils;
 
+import internal.org.springframework.content.jpa.utils.DeleteOnCloseFileInputStream;
 import internal.org.springframework.content.jpa.utils.InputStreamEx;
+import internal.org.springframework.content.jpa.utils.ResultSetInputStream;
 import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.PreparedStatementCallback;
 import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
 
-public class JpaContentTemplate implements InitializingBean {
+/**
+ * Stores each item of content as a single BLOB row.  All statements are parameterised so their text is constant for a
+ * given table and may be cached by the driver and the database.  The table and column names are configurable and the
+ * DDL and upsert syntax are chosen by {@link JpaContentDialect} from the database product name.
+ */
+public class JpaContentTemplate implements JpaContentOperations, InitializingBean, DisposableBean {
 
 	private static Log logger = LogFactory.getLog(JpaContentTemplate.class);
-	
+
+	public static final long DEFAULT_STREAM_TIMEOUT = 5 * 60 * 1000;
+	public static final long DEFAULT_SPILL_THRESHOLD = 1024 * 1024;
+	public static final int DEFAULT_FETCH_SIZE = 1;
+
+	private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+
 	private DataSource datasource;
 
     private JdbcTemplate template;
 
+    private boolean streaming = false;
+    private long streamTimeout = DEFAULT_STREAM_TIMEOUT;
+    private long spillThreshold = DEFAULT_SPILL_THRESHOLD;
+    private ScheduledExecutorService reaper;
+
+    private String table = "BLOBS";
+    private String idColumn = "id";
+    private String contentColumn = "blob";
+    private int fetchSize = DEFAULT_FETCH_SIZE;
+    private JpaContentDialect dialect = JpaContentDialect.GENERIC;
+
     @Autowired
     public JpaContentTemplate(DataSource datasource) {
         this.datasource = datasource;
@@ -46,6 +88,59 @@ public class JpaContentTemplate implements InitializingBean {
         this.template = template;
     }
 
+    @Value("${spring.content.jpa.streaming:false}")
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
+    @Value("${spring.content.jpa.streamTimeout:" + DEFAULT_STREAM_TIMEOUT + "}")
+    public void setStreamTimeout(long streamTimeout) {
+        this.streamTimeout = streamTimeout;
+    }
+
+    @Value("${spring.content.jpa.spillThreshold:" + DEFAULT_SPILL_THRESHOLD + "}")
+    public void setSpillThreshold(long spillThreshold) {
+        this.spillThreshold = spillThreshold;
+    }
+
+    @Value("${spring.content.jpa.table:BLOBS}")
+    public void setTable(String table) {
+        Assert.isTrue(IDENTIFIER.matcher(table).matches(), String.format("Invalid table name %s", table));
+        this.table = table;
+    }
+
+    @Value("${spring.content.jpa.idColumn:id}")
+    public void setIdColumn(String idColumn) {
+        Assert.isTrue(IDENTIFIER.matcher(idColumn).matches(), String.format("Invalid column name %s", idColumn));
+        this.idColumn = idColumn;
+    }
+
+    @Value("${spring.content.jpa.contentColumn:blob}")
+    public void setContentColumn(String contentColumn) {
+        Assert.isTrue(IDENTIFIER.matcher(contentColumn).matches(), String.format("Invalid column name %s", contentColumn));
+        this.contentColumn = contentColumn;
+    }
+
+    /**
+     * Sets the fetch size used when reading content.  Each read returns a single row so the default of 1 stops drivers
+     * from reading ahead, and buffering, more BLOB data than the caller asked for.
+     */
+    @Value("${spring.content.jpa.fetchSize:" + DEFAULT_FETCH_SIZE + "}")
+    public void setFetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
+    public void setDialect(JpaContentDialect dialect) {
+        this.dialect = dialect;
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (reaper != null) {
+            reaper.shutdownNow();
+        }
+    }
+
     @Override
 	public void afterPropertiesSet() throws Exception {
         if (this.template == null) {
@@ -56,20 +151,23 @@ public class JpaContentTemplate implements InitializingBean {
 
             @Override
             public Integer doInConnection(Connection con) throws SQLException, DataAccessException {
+				dialect = JpaContentDialect.forDatabase(con.getMetaData().getDatabaseProductName());
+
 				ResultSet rs = null;
 				Statement stmt = null;
 				try {
-					rs = con.getMetaData().getTables(null, null, "BLOBS", new String[] {"TABLE"});
-					if (!rs.next()) {
+					rs = con.getMetaData().getTables(null, null, table, new String[] {"TABLE"});
+					boolean exists = rs.next();
+					if (!exists && !table.equals(table.toUpperCase())) {
+						JdbcUtils.closeResultSet(rs);
+						rs = con.getMetaData().getTables(null, null, table.toUpperCase(), new String[] {"TABLE"});
+						exists = rs.next();
+					}
+					if (!exists) {
 						logger.info("Creating JPA Content Repository");
 
-						stmt = datasource.getConnection().createStatement();
-						String sql = "CREATE TABLE BLOBS " +
-								"(id INTEGER GENERATED BY DEFAULT AS IDENTITY (START WITH 1), " +
-								" blob BLOB, " +
-								" PRIMARY KEY ( id ))";
-
-						return stmt.executeUpdate(sql);
+						stmt = con.createStatement();
+						return stmt.executeUpdate(dialect.createTable(table, idColumn, contentColumn));
 					}
 				} finally {
 					if (stmt != null) {
@@ -85,18 +183,17 @@ public class JpaContentTemplate implements InitializingBean {
 	}
 
 	public <T> void setContent(T metadata, InputStream content) {
-		if (BeanUtils.getFieldWithAnnotation(metadata, ContentId.class) == null) {
-			String sql = "INSERT INTO BLOBS VALUES(NULL, ?);";
+		Object id = BeanUtils.getFieldWithAnnotation(metadata, ContentId.class);
+		if (id == null) {
             this.template.execute(new PreparedStatementCreator() {
                 @Override
                 public PreparedStatement createPreparedStatement(Connection con) throws SQLException {
-                    return con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+                    return con.prepareStatement(insertSql(), Statement.RETURN_GENERATED_KEYS);
                 }
             }, new PreparedStatementCallback<Integer>() {
                 @Override
                 public Integer doInPreparedStatement(PreparedStatement ps) throws SQLException, DataAccessException {
                     ResultSet set = null;
-                    int id = 0;
                     int rc = 0;
                     try {
                         InputStreamEx in = new InputStreamEx(content);
@@ -104,94 +201,335 @@ public class JpaContentTemplate implements InitializingBean {
                         rc = ps.executeUpdate();
                         set = ps.getGeneratedKeys();
                         set.next();
-                        id = set.getInt("ID");
-                        BeanUtils.setFieldWithAnnotation(metadata, ContentId.class, id);
+                        BeanUtils.setFieldWithAnnotation(metadata, ContentId.class, set.getLong(1));
                         BeanUtils.setFieldWithAnnotation(metadata, ContentLength.class, in.getLength());
                         return rc;
                     } catch (SQLException sqle) {
                         logger.error("Error inserting content", sqle);
                     } finally {
-                        if (set != null) {
-                            try {
-                                set.close();
-                            } catch (SQLException e) {
-                                logger.error(String.format("Unexpected error closing result set for content id %s", id));
-                            }
-                        }
+                        JdbcUtils.closeResultSet(set);
                     }
                     return rc;
                 }
             });
 		} else {
-			String sql = "UPDATE BLOBS SET blob=? WHERE id=" + BeanUtils.getFieldWithAnnotation(metadata, ContentId.class);
-            this.template.execute(sql, new PreparedStatementCallback<Object>() {
+            this.template.execute(new ConnectionCallback<Integer>() {
                 @Override
-                public Object doInPreparedStatement(PreparedStatement ps) throws SQLException, DataAccessException {
-                    int rc = 0;
+                public Integer doInConnection(Connection con) throws SQLException, DataAccessException {
                     try {
                         InputStreamEx in = new InputStreamEx(content);
-                        ps.setBinaryStream(1, in);
-                        rc = ps.executeUpdate();
+                        int rc = write(con, id, in);
                         BeanUtils.setFieldWithAnnotation(metadata, ContentLength.class, in.getLength());
+                        return rc;
                     } catch (SQLException sqle) {
-                        logger.error(String.format("Error updating content %s", BeanUtils.getFieldWithAnnotation(metadata, ContentId.class)), sqle);
+                        logger.error(String.format("Error updating content %s", id), sqle);
                     }
-                    return rc;
+                    return 0;
                 }
             });
         }
     }
 
+	/**
+	 * Sets the content of several entities.  Content for entities that already have a content id is written with a
+	 * single JDBC batch when the database supports a single statement upsert, new content is inserted individually so
+	 * that each generated id can be read back.
+	 */
+	@Override
+	public <T> void setContents(Map<T, InputStream> contents) {
+		String upsert = dialect.upsert(table, idColumn, contentColumn);
+		Map<T, InputStream> existing = new LinkedHashMap<>();
+		for (Map.Entry<T, InputStream> entry : contents.entrySet()) {
+			if (BeanUtils.getFieldWithAnnotation(entry.getKey(), ContentId.class) == null || upsert == null) {
+				setContent(entry.getKey(), entry.getValue());
+			} else {
+				existing.put(entry.getKey(), entry.getValue());
+			}
+		}
+		if (existing.isEmpty()) {
+			return;
+		}
+
+		this.template.execute(upsert, new PreparedStatementCallback<int[]>() {
+			@Override
+			public int[] doInPreparedStatement(PreparedStatement ps) throws SQLException, DataAccessException {
+				List<InputStreamEx> streams = new ArrayList<>();
+				for (Map.Entry<T, InputStream> entry : existing.entrySet()) {
+					InputStreamEx in = new InputStreamEx(entry.getValue());
+					streams.add(in);
+					ps.setObject(1, BeanUtils.getFieldWithAnnotation(entry.getKey(), ContentId.class));
+					ps.setBinaryStream(2, in);
+					ps.addBatch();
+				}
+				try {
+					int[] rcs = ps.executeBatch();
+					int i = 0;
+					for (T metadata : existing.keySet()) {
+						BeanUtils.setFieldWithAnnotation(metadata, ContentLength.class, streams.get(i++).getLength());
+					}
+					return rcs;
+				} catch (SQLException sqle) {
+					logger.error("Error updating content", sqle);
+				}
+				return null;
+			}
+		});
+	}
+
 	public <T> void unsetContent(T metadata) {
-		String sql = "DELETE FROM BLOBS WHERE id=" + BeanUtils.getFieldWithAnnotation(metadata, ContentId.class);
-        this.template.execute(sql, new PreparedStatementCallback<Integer>() {
+		Object id = BeanUtils.getFieldWithAnnotation(metadata, ContentId.class);
+		if (id == null) {
+			return;
+		}
+
+        this.template.execute(deleteSql(), new PreparedStatementCallback<Integer>() {
             @Override
             public Integer doInPreparedStatement(PreparedStatement ps) throws SQLException, DataAccessException {
                 int rc = 0;
                 try {
+                    ps.setObject(1, id);
                     rc = ps.executeUpdate();
                     BeanUtils.setFieldWithAnnotation(metadata, ContentId.class, null);
                     BeanUtils.setFieldWithAnnotation(metadata, ContentLength.class, 0);
                 } catch (SQLException sqle) {
-                    logger.error(String.format("Error deleting content %s", BeanUtils.getFieldWithAnnotation(metadata, ContentId.class)), sqle);
+                    logger.error(String.format("Error deleting content %s", id), sqle);
                 }
                 return rc;
             }
         });
 	}
 
+	/**
+	 * Deletes the content of several entities with a single JDBC batch.
+	 */
+	@Override
+	public <T> void unsetContents(Collection<T> metadata) {
+		List<T> entities = new ArrayList<>();
+		for (T entity : metadata) {
+			if (BeanUtils.getFieldWithAnnotation(entity, ContentId.class) != null) {
+				entities.add(entity);
+			}
+		}
+		if (entities.isEmpty()) {
+			return;
+		}
+
+		this.template.execute(deleteSql(), new PreparedStatementCallback<int[]>() {
+			@Override
+			public int[] doInPreparedStatement(PreparedStatement ps) throws SQLException, DataAccessException {
+				for (T entity : entities) {
+					ps.setObject(1, BeanUtils.getFieldWithAnnotation(entity, ContentId.class));
+					ps.addBatch();
+				}
+				try {
+					int[] rcs = ps.executeBatch();
+					for (T entity : entities) {
+						BeanUtils.setFieldWithAnnotation(entity, ContentId.class, null);
+						BeanUtils.setFieldWithAnnotation(entity, ContentLength.class, 0);
+					}
+					return rcs;
+				} catch (SQLException sqle) {
+					logger.error("Error deleting content", sqle);
+				}
+				return null;
+			}
+		});
+	}
+
 	public <T> InputStream getContent(T metadata) {
-		String sql = "SELECT blob FROM BLOBS WHERE id='" + BeanUtils.getFieldWithAnnotation(metadata, ContentId.class) + "'";
-        return this.template.execute(sql, new PreparedStatementCallback<InputStream>() {
+		if (streaming) {
+			return getContentStream(metadata);
+		}
+
+		Object id = BeanUtils.getFieldWithAnnotation(metadata, ContentId.class);
+        return this.template.execute(new PreparedStatementCreator() {
+            @Override
+            public PreparedStatement createPreparedStatement(Connection con) throws SQLException {
+                return prepareSelect(con, id);
+            }
+        }, new PreparedStatementCallback<InputStream>() {
             @Override
             public InputStream doInPreparedStatement(PreparedStatement ps) throws SQLException, DataAccessException {
                 ResultSet set = null;
                 try {
                     set = ps.executeQuery();
                     if(!set.next()) return null;
-                    Blob b = set.getBlob("blob");
+                    Blob b = set.getBlob(contentColumn);
 
-                    // yowchie...don't want to copy the content into memory however as the binarystream
-                    // is not available past connection.close() we have no choice.  This is the easiest thing to do with the current API
-                    // but we should investigate other alternatives.  Suspect we should pass in the OutputStream to write to.
+                    // the binarystream is not available past connection.close() so buffer it, spilling to a
+                    // temporary file when the content is too large to hold on the heap
                     try {
-                        byte[] bytes = IOUtils.toByteArray(b.getBinaryStream());
-                        return new ByteArrayInputStream(bytes);
+                        return buffer(b);
                     } catch (IOException ioe) {
+                        logger.error(String.format("Error buffering content %s", id), ioe);
                         return null;
                     }
                 } catch (SQLException sqle) {
-                    logger.error(String.format("Error getting content %s", BeanUtils.getFieldWithAnnotation(metadata, ContentId.class)), sqle);
+                    logger.error(String.format("Error getting content %s", id), sqle);
                 } finally {
                     if (set != null)
                         try {
                             set.close();
                         } catch (SQLException sqle) {
-                            logger.error(String.format("Error closing resultset for content %s", BeanUtils.getFieldWithAnnotation(metadata, ContentId.class)), sqle);
+                            logger.error(String.format("Error closing resultset for content %s", id), sqle);
                         }
                 }
             return null;
             }
         });
 	}
+
+	/*
+	 * Returns a stream over the open result set.  The connection is held until the stream is closed.  When there is a
+	 * surrounding transaction the transaction's connection is used and the stream is closed when the transaction
+	 * completes, otherwise the stream is closed after streamTimeout if the caller has not closed it.
+	 */
+	private <T> InputStream getContentStream(T metadata) {
+		Object id = BeanUtils.getFieldWithAnnotation(metadata, ContentId.class);
+
+		DataSource ds = this.template.getDataSource();
+		Connection con = DataSourceUtils.getConnection(ds);
+		PreparedStatement ps = null;
+		ResultSet set = null;
+		try {
+			ps = prepareSelect(con, id);
+			set = ps.executeQuery();
+			if (!set.next()) {
+				JdbcUtils.closeResultSet(set);
+				JdbcUtils.closeStatement(ps);
+				DataSourceUtils.releaseConnection(con, ds);
+				return null;
+			}
+			Blob b = set.getBlob(contentColumn);
+
+			final ResultSetInputStream in = new ResultSetInputStream(b.getBinaryStream(), set, ps, con, ds);
+			if (TransactionSynchronizationManager.isSynchronizationActive()) {
+				TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+					@Override
+					public void afterCompletion(int status) {
+						IOUtils.closeQuietly(in);
+					}
+				});
+			} else if (streamTimeout > 0) {
+				in.closeAfter(getReaper(), streamTimeout);
+			}
+			return in;
+		} catch (SQLException sqle) {
+			logger.error(String.format("Error getting content %s", id), sqle);
+			JdbcUtils.closeResultSet(set);
+			JdbcUtils.closeStatement(ps);
+			DataSourceUtils.releaseConnection(con, ds);
+		}
+		return null;
+	}
+
+	/*
+	 * Writes content for a known id.  Uses the dialect's upsert when there is one, otherwise checks whether the row
+	 * exists first as the stream can only be bound once.
+	 */
+	private int write(Connection con, Object id, InputStream content) throws SQLException {
+		String upsert = dialect.upsert(table, idColumn, contentColumn);
+		PreparedStatement ps = null;
+		try {
+			if (upsert != null) {
+				ps = con.prepareStatement(upsert);
+				ps.setObject(1, id);
+				ps.setBinaryStream(2, content);
+			} else if (exists(con, id)) {
+				ps = con.prepareStatement(updateSql());
+				ps.setBinaryStream(1, content);
+				ps.setObject(2, id);
+			} else {
+				ps = con.prepareStatement(insertWithIdSql());
+				ps.setObject(1, id);
+				ps.setBinaryStream(2, content);
+			}
+			return ps.executeUpdate();
+		} finally {
+			JdbcUtils.closeStatement(ps);
+		}
+	}
+
+	private boolean exists(Connection con, Object id) throws SQLException {
+		PreparedStatement ps = null;
+		ResultSet rs = null;
+		try {
+			ps = con.prepareStatement(existsSql());
+			ps.setObject(1, id);
+			rs = ps.executeQuery();
+			return rs.next();
+		} finally {
+			JdbcUtils.closeResultSet(rs);
+			JdbcUtils.closeStatement(ps);
+		}
+	}
+
+	private PreparedStatement prepareSelect(Connection con, Object id) throws SQLException {
+		PreparedStatement ps = con.prepareStatement(selectSql());
+		try {
+			ps.setFetchSize(fetchSize);
+			ps.setObject(1, id);
+		} catch (SQLException sqle) {
+			JdbcUtils.closeStatement(ps);
+			throw sqle;
+		}
+		return ps;
+	}
+
+	private String insertSql() {
+		return String.format("INSERT INTO %s (%s) VALUES (?)", table, contentColumn);
+	}
+
+	private String insertWithIdSql() {
+		return String.format("INSERT INTO %s (%s, %s) VALUES (?, ?)", table, idColumn, contentColumn);
+	}
+
+	private String updateSql() {
+		return String.format("UPDATE %s SET %s=? WHERE %s=?", table, contentColumn, idColumn);
+	}
+
+	private String deleteSql() {
+		return String.format("DELETE FROM %s WHERE %s=?", table, idColumn);
+	}
+
+	private String selectSql() {
+		return String.format("SELECT %s FROM %s WHERE %s=?", contentColumn, table, idColumn);
+	}
+
+	private String existsSql() {
+		return String.format("SELECT 1 FROM %s WHERE %s=?", table, idColumn);
+	}
+
+	private InputStream buffer(Blob b) throws SQLException, IOException {
+		if (b.length() <= spillThreshold) {
+			return new ByteArrayInputStream(IOUtils.toByteArray(b.getBinaryStream()));
+		}
+
+		File spill = File.createTempFile("spring-content-jpa-", ".blob");
+		InputStream in = null;
+		OutputStream out = null;
+		try {
+			in = b.getBinaryStream();
+			out = new FileOutputStream(spill);
+			IOUtils.copyLarge(in, out);
+		} catch (IOException ioe) {
+			spill.delete();
+			throw ioe;
+		} finally {
+			IOUtils.closeQuietly(in);
+			IOUtils.closeQuietly(out);
+		}
+		return new DeleteOnCloseFileInputStream(spill);
+	}
+
+	private synchronized ScheduledExecutorService getReaper() {
+		if (reaper == null) {
+			reaper = Executors.newSingleThreadScheduledExecutor((r) -> {
+				Thread t = new Thread(r, "jpa-content-stream-reaper");
+				t.setDaemon(true);
+				return t;
+			});
+		}
+		return reaper;
+	}
 }
@@ -2,16 +2,19 @@ package internal.org.springframework.content.jpa.repository;
 
 import java.io.InputStream;
 import java.io.Serializable;
+import java.util.Collection;
+import java.util.Map;
 
-import org.springframework.content.commons.repository.ContentStore;
+import org.springframework.content.commons.repository.BatchContentStore;
+import org.springframework.content.commons.repository.RangedContentStore;
 
-import internal.org.springframework.content.jpa.operations.JpaContentTemplate;
+import internal.org.springframework.content.jpa.operations.JpaContentOperations;
 
-public class DefaultJpaStoreImpl<S, SID extends Serializable> implements ContentStore<S,SID> {
+public class DefaultJpaStoreImpl<S, SID extends Serializable> implements RangedContentStore<S,SID>, BatchContentStore<S,SID> {
 
-	private JpaContentTemplate template;
+	private JpaContentOperations template;
 	
-	public DefaultJpaStoreImpl(JpaContentTemplate template) {
+	public DefaultJpaStoreImpl(JpaContentOperations template) {
 		this.template = template;
 	}
 
@@ -25,9 +28,24 @@ public class DefaultJpaStoreImpl<S, SID extends Serializable> implements Content
 		this.template.unsetContent(metadata);
 	}
 
+	@Override
+	public void setContents(Map<S, InputStream> contents) {
+		this.template.setContents(contents);
+	}
+
+	@Override
+	public void unsetContents(Collection<S> metadata) {
+		this.template.unsetContents(metadata);
+	}
+
 	@Override
 	public InputStream getContent(S metadata) {
 		return this.template.getContent(metadata);
 	}
 
+	@Override
+	public InputStream getContent(S metadata, long offset, long length) {
+		return this.template.getContent(metadata, offset, length);
+	}
+
 }
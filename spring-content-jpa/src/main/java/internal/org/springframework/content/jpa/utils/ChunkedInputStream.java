@@ -0,0 +1,190 @@
+package internal.org.springframework.content.jpa.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Reads content stored as a sequence of fixed-size chunks.  Chunks are fetched a window at a time and, when an
+ * executor is supplied, up to <code>fetchAhead</code> of the following windows are fetched concurrently in the
+ * background while the current one is consumed.
+ *
+ * Only the chunks covering the requested range are fetched and {@link #skip(long)} moves the read position without
+ * fetching the chunks skipped over.
+ */
+public final class ChunkedInputStream extends InputStream {
+
+	public interface ChunkFetcher {
+		/**
+		 * Returns the chunks numbered <code>from</code> to <code>to</code> inclusive, in sequence order.
+		 */
+		List<byte[]> fetch(long from, long to);
+	}
+
+	private final ChunkFetcher fetcher;
+	private final int chunkSize;
+	private final long chunkCount;
+	private final int window;
+	private final Executor executor;
+	private final int fetchAhead;
+
+	private long position;
+	private final long end;
+
+	private List<byte[]> chunks;
+	private long chunksStart = -1;
+
+	// windows being fetched in the background, in sequence order
+	private final Deque<Window> prefetched = new ArrayDeque<>();
+
+	private boolean closed = false;
+
+	public ChunkedInputStream(ChunkFetcher fetcher, int chunkSize, long chunkCount, int window, Executor executor, long offset, long end) {
+		this(fetcher, chunkSize, chunkCount, window, executor, 1, offset, end);
+	}
+
+	public ChunkedInputStream(ChunkFetcher fetcher, int chunkSize, long chunkCount, int window, Executor executor, int fetchAhead, long offset, long end) {
+		this.fetcher = fetcher;
+		this.chunkSize = chunkSize;
+		this.chunkCount = chunkCount;
+		this.window = Math.max(1, window);
+		this.executor = executor;
+		this.fetchAhead = Math.max(1, fetchAhead);
+		this.position = offset;
+		this.end = end;
+	}
+
+	@Override
+	public int read() throws IOException {
+		byte[] b = new byte[1];
+		int read = read(b, 0, 1);
+		return read == -1 ? -1 : b[0] & 0xff;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (closed) {
+			throw new IOException("Stream closed");
+		}
+		if (len == 0) {
+			return 0;
+		}
+		if (position >= end) {
+			return -1;
+		}
+
+		long seq = position / chunkSize;
+		int chunkOffset = (int) (position % chunkSize);
+		byte[] chunk = chunk(seq);
+		if (chunk == null || chunkOffset >= chunk.length) {
+			return -1;
+		}
+
+		int read = (int) Math.min(Math.min(len, chunk.length - chunkOffset), end - position);
+		System.arraycopy(chunk, chunkOffset, b, off, read);
+		position += read;
+		return read;
+	}
+
+	@Override
+	public long skip(long n) throws IOException {
+		if (n <= 0) {
+			return 0;
+		}
+		long skipped = Math.min(n, end - position);
+		position += skipped;
+		return skipped;
+	}
+
+	@Override
+	public int available() throws IOException {
+		if (chunks == null || position >= end) {
+			return 0;
+		}
+		long seq = position / chunkSize;
+		if (seq < chunksStart || seq >= chunksStart + chunks.size()) {
+			return 0;
+		}
+		return (int) Math.min(chunks.get((int) (seq - chunksStart)).length - (position % chunkSize), end - position);
+	}
+
+	@Override
+	public void close() throws IOException {
+		closed = true;
+		chunks = null;
+		cancelPrefetched();
+	}
+
+	private byte[] chunk(long seq) throws IOException {
+		if (chunks == null || seq < chunksStart || seq >= chunksStart + chunks.size()) {
+			load(seq);
+		}
+		if (seq - chunksStart >= chunks.size()) {
+			return null;
+		}
+		return chunks.get((int) (seq - chunksStart));
+	}
+
+	private void load(long seq) throws IOException {
+		try {
+			Window next = prefetched.peekFirst();
+			if (next != null && next.start == seq) {
+				prefetched.removeFirst();
+				chunks = next.chunks.join();
+			} else {
+				// skipped away from the windows being fetched
+				cancelPrefetched();
+				chunks = fetcher.fetch(seq, lastInWindow(seq));
+			}
+		} catch (CompletionException | IllegalStateException e) {
+			throw new IOException(String.format("Unable to fetch chunk %d", seq), e.getCause() != null ? e.getCause() : e);
+		} catch (RuntimeException e) {
+			throw new IOException(String.format("Unable to fetch chunk %d", seq), e);
+		}
+		chunksStart = seq;
+
+		if (executor != null && !chunks.isEmpty()) {
+			fetchAhead(seq + chunks.size());
+		}
+	}
+
+	private void fetchAhead(long next) {
+		Window last = prefetched.peekLast();
+		if (last != null) {
+			next = lastInWindow(last.start) + 1;
+		}
+		long lastNeeded = (end - 1) / chunkSize;
+		while (prefetched.size() < fetchAhead && next <= lastNeeded && next < chunkCount) {
+			final long start = next;
+			prefetched.addLast(new Window(start, CompletableFuture.supplyAsync(() -> fetcher.fetch(start, lastInWindow(start)), executor)));
+			next = lastInWindow(start) + 1;
+		}
+	}
+
+	private void cancelPrefetched() {
+		for (Window window : prefetched) {
+			window.chunks.cancel(false);
+		}
+		prefetched.clear();
+	}
+
+	private long lastInWindow(long seq) {
+		long lastNeeded = (end - 1) / chunkSize;
+		return Math.min(Math.min(seq + window - 1, chunkCount - 1), Math.max(seq, lastNeeded));
+	}
+
+	private static final class Window {
+		final long start;
+		final CompletableFuture<List<byte[]>> chunks;
+
+		Window(long start, CompletableFuture<List<byte[]>> chunks) {
+			this.start = start;
+			this.chunks = chunks;
+		}
+	}
+}
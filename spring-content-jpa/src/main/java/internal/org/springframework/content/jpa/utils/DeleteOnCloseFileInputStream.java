@@ -0,0 +1,28 @@
+package internal.org.springframework.content.jpa.utils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+
+/**
+ * Reads a temporary spill file and deletes it once closed.
+ */
+public final class DeleteOnCloseFileInputStream extends FileInputStream {
+
+	private File file;
+
+	public DeleteOnCloseFileInputStream(File file) throws FileNotFoundException {
+		super(file);
+		this.file = file;
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			super.close();
+		} finally {
+			file.delete();
+		}
+	}
+}
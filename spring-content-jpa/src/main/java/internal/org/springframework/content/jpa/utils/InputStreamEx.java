@@ -7,7 +7,7 @@ public final class InputStreamEx extends InputStream {
 	
 	private InputStream in;
 	
-	private int len;
+	private long len;
 	
 	public InputStreamEx(InputStream in) {
 		this.in = in;
@@ -37,7 +37,7 @@ public final class InputStreamEx extends InputStream {
 		return read;
 	}
 	
-	public int getLength() {
+	public long getLength() {
 		return this.len;
 	}
 	
@@ -0,0 +1,78 @@
+package internal.org.springframework.content.jpa.utils;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.sql.DataSource;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.support.JdbcUtils;
+
+/**
+ * Streams a BLOB straight from an open result set.  The result set, statement and connection stay open for as long
+ * as the stream does and are released when the stream is closed or, if one is set, when the timeout expires.
+ */
+public final class ResultSetInputStream extends FilterInputStream {
+
+	private static Log logger = LogFactory.getLog(ResultSetInputStream.class);
+
+	private ResultSet resultSet;
+	private Statement statement;
+	private Connection connection;
+	private DataSource dataSource;
+
+	private AtomicBoolean closed = new AtomicBoolean(false);
+	private ScheduledFuture<?> timeout;
+
+	public ResultSetInputStream(InputStream in, ResultSet resultSet, Statement statement, Connection connection, DataSource dataSource) {
+		super(in);
+		this.resultSet = resultSet;
+		this.statement = statement;
+		this.connection = connection;
+		this.dataSource = dataSource;
+	}
+
+	public void closeAfter(ScheduledExecutorService scheduler, long millis) {
+		this.timeout = scheduler.schedule(() -> {
+			if (!closed.get()) {
+				logger.warn(String.format("Content stream not closed after %dms, releasing connection", millis));
+				try {
+					close();
+				} catch (IOException e) {
+					logger.error("Unexpected error closing content stream", e);
+				}
+			}
+		}, millis, TimeUnit.MILLISECONDS);
+	}
+
+	public boolean isClosed() {
+		return closed.get();
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (!closed.compareAndSet(false, true)) {
+			return;
+		}
+		if (timeout != null) {
+			timeout.cancel(false);
+		}
+		try {
+			super.close();
+		} finally {
+			JdbcUtils.closeResultSet(resultSet);
+			JdbcUtils.closeStatement(statement);
+			DataSourceUtils.releaseConnection(connection, dataSource);
+		}
+	}
+}
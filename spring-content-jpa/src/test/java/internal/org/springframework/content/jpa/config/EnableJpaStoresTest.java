@@ -6,7 +6,11 @@ import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Context;
 import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
 import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.It;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.not;
@@ -18,18 +22,22 @@ import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 import javax.sql.DataSource;
 
+import org.apache.commons.io.IOUtils;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.NoSuchBeanDefinitionException;
 import org.springframework.content.commons.annotations.Content;
 import org.springframework.content.commons.annotations.ContentId;
+import org.springframework.content.commons.repository.BatchContentStore;
 import org.springframework.content.commons.repository.ContentStore;
+import org.springframework.content.commons.repository.RangedContentStore;
 import org.springframework.content.jpa.config.EnableJpaContentRepositories;
 import org.springframework.content.jpa.config.EnableJpaStores;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
+import org.springframework.core.env.MapPropertySource;
 import org.springframework.data.annotation.Id;
 import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
 import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
@@ -67,6 +75,48 @@ public class EnableJpaStoresTest {
 					assertThat(context.getBean("jpaContentTemplate"), is(not(nullValue())));
 				});
 			});
+			Context("given a context configured for the chunked schema", () -> {
+				BeforeEach(() -> {
+					context = new AnnotationConfigApplicationContext();
+					context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", Collections.<String,Object>singletonMap("spring.content.jpa.schema", "chunked")));
+					context.register(TestConfig.class);
+					context.refresh();
+				});
+				AfterEach(() -> {
+					context.close();
+				});
+				It("should have a content repository bean", () -> {
+					assertThat(context.getBean(TestEntityContentRepository.class), is(not(nullValue())));
+				});
+				It("should have a jpaChunkedContentTemplate bean", () -> {
+					assertThat(context.getBean("jpaChunkedContentTemplate"), is(not(nullValue())));
+				});
+				It("should read ranges of content through the store", () -> {
+					RangedTestEntityContentStore store = context.getBean(RangedTestEntityContentStore.class);
+					RangedTestEntity entity = new RangedTestEntity();
+					store.setContent(entity, new ByteArrayInputStream("Hello ranged content!".getBytes()));
+
+					assertThat(IOUtils.toString(store.getContent(entity, 6, 6)), is("ranged"));
+				});
+				It("should set and unset several items through the store", () -> {
+					RangedTestEntityContentStore store = context.getBean(RangedTestEntityContentStore.class);
+					Map<RangedTestEntity, InputStream> contents = new LinkedHashMap<>();
+					for (int i = 0; i < 3; i++) {
+						contents.put(new RangedTestEntity(), new ByteArrayInputStream(String.format("content %d", i).getBytes()));
+					}
+					store.setContents(contents);
+
+					int i = 0;
+					for (RangedTestEntity entity : contents.keySet()) {
+						assertThat(IOUtils.toString(store.getContent(entity)), is(String.format("content %d", i++)));
+					}
+
+					store.unsetContents(contents.keySet());
+					for (RangedTestEntity entity : contents.keySet()) {
+						assertThat(entity.getContentId(), is(nullValue()));
+					}
+				});
+			});
 			Context("given a context with an empty configuration", () -> {
 				BeforeEach(() -> {
 					context = new AnnotationConfigApplicationContext();
@@ -172,6 +222,22 @@ public class EnableJpaStoresTest {
 
 	public interface TestEntityContentRepository extends ContentStore<TestEntity, String> {
 	}
+
+	public static class RangedTestEntity {
+		@ContentId
+		private String contentId;
+
+		public String getContentId() {
+			return contentId;
+		}
+
+		public void setContentId(String contentId) {
+			this.contentId = contentId;
+		}
+	}
+
+	public interface RangedTestEntityContentStore extends RangedContentStore<RangedTestEntity, String>, BatchContentStore<RangedTestEntity, String> {
+	}
 	
 	@Repository
 	public class JpaTestContentRepository implements TestEntityContentRepository {
@@ -0,0 +1,262 @@
+package internal.org.springframework.content.operations;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.AfterEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.BeforeEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Context;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.It;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.JustBeforeEach;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.UUID;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.content.commons.annotations.ContentId;
+import org.springframework.content.commons.annotations.ContentLength;
+import org.springframework.content.commons.repository.StoreAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+import internal.org.springframework.content.jpa.operations.JpaChunkedContentTemplate;
+
+@RunWith(Ginkgo4jRunner.class)
+@Ginkgo4jConfiguration(threads=1)
+public class JpaChunkedContentTemplateTest {
+
+    private static final String CONTENT = "Hello chunked content world! The quick brown fox jumps over the lazy dog.";
+
+    private JpaChunkedContentTemplate template;
+    private EmbeddedDatabase datasource;
+
+    private TestEntity entity;
+    private InputStream stream;
+
+    private int fetchThreads;
+    private String chunkTable;
+
+    {
+        Describe("JpaChunkedContentTemplate", () -> {
+            for (EmbeddedDatabaseType type : new EmbeddedDatabaseType[] {EmbeddedDatabaseType.HSQL, EmbeddedDatabaseType.H2}) {
+                Context("given a " + type + " database", () -> {
+                    BeforeEach(() -> {
+                        fetchThreads = 0;
+                        chunkTable = "CONTENT_CHUNKS";
+                        datasource = new EmbeddedDatabaseBuilder().setType(type).setName(UUID.randomUUID().toString()).build();
+                    });
+                    JustBeforeEach(() -> {
+                        template = new JpaChunkedContentTemplate(datasource);
+                        template.setChunkSize(8);
+                        template.setBatchSize(3);
+                        template.setPrefetch(2);
+                        template.setFetchThreads(fetchThreads);
+                        template.setChunkTable(chunkTable);
+                        template.afterPropertiesSet();
+                    });
+                    AfterEach(() -> {
+                        template.destroy();
+                        datasource.shutdown();
+                    });
+                    Context("#setContent", () -> {
+                        BeforeEach(() -> {
+                            entity = new TestEntity();
+                        });
+                        JustBeforeEach(() -> {
+                            template.setContent(entity, new ByteArrayInputStream(CONTENT.getBytes()));
+                        });
+                        It("should create a header and store the content as chunks", () -> {
+                            assertThat(entity.getContentId(), is(not(nullValue())));
+                            assertThat(entity.getContentLen(), is((long) CONTENT.length()));
+
+                            JdbcTemplate jdbc = new JdbcTemplate(datasource);
+                            assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM CONTENT_CHUNKS WHERE content_id=?", Long.class, entity.getContentId()), is(10L));
+                            assertThat(jdbc.queryForObject("SELECT chunk_count FROM CONTENT_HEADERS WHERE id=?", Long.class, entity.getContentId()), is(10L));
+                            assertThat(jdbc.queryForObject("SELECT content_length FROM CONTENT_HEADERS WHERE id=?", Long.class, entity.getContentId()), is((long) CONTENT.length()));
+                        });
+                        It("should read the content back", () -> {
+                            stream = template.getContent(entity);
+                            assertThat(IOUtils.toString(stream), is(CONTENT));
+                        });
+                        Context("when the content is replaced", () -> {
+                            It("should replace all of the chunks", () -> {
+                                String id = entity.getContentId();
+                                template.setContent(entity, new ByteArrayInputStream("Short".getBytes()));
+
+                                assertThat(entity.getContentId(), is(id));
+                                assertThat(entity.getContentLen(), is(5L));
+                                assertThat(new JdbcTemplate(datasource).queryForObject("SELECT COUNT(*) FROM CONTENT_CHUNKS WHERE content_id=?", Long.class, id), is(1L));
+                                assertThat(IOUtils.toString(template.getContent(entity)), is("Short"));
+                            });
+                        });
+                        Context("when the content is unset", () -> {
+                            It("should delete the header and the chunks", () -> {
+                                String id = entity.getContentId();
+                                template.unsetContent(entity);
+
+                                assertThat(entity.getContentId(), is(nullValue()));
+                                assertThat(entity.getContentLen(), is(0L));
+                                JdbcTemplate jdbc = new JdbcTemplate(datasource);
+                                assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM CONTENT_CHUNKS WHERE content_id=?", Long.class, id), is(0L));
+                                assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM CONTENT_HEADERS WHERE id=?", Long.class, id), is(0L));
+                            });
+                        });
+                        Context("when chunks are fetched in parallel", () -> {
+                            BeforeEach(() -> {
+                                fetchThreads = 2;
+                            });
+                            It("should read the content back in order", () -> {
+                                assertThat(IOUtils.toString(template.getContent(entity)), is(CONTENT));
+                            });
+                            It("should read ranges back in order", () -> {
+                                assertThat(IOUtils.toString(template.getContent(entity, 9, 50)), is(CONTENT.substring(9, 59)));
+                            });
+                        });
+                        Context("when a range is read", () -> {
+                            It("should return only the requested bytes", () -> {
+                                assertThat(IOUtils.toString(template.getContent(entity, 10, 25)), is(CONTENT.substring(10, 35)));
+                            });
+                            It("should stop at the end of the content", () -> {
+                                assertThat(IOUtils.toString(template.getContent(entity, 60, 100)), is(CONTENT.substring(60)));
+                            });
+                        });
+                        Context("when the stream is skipped", () -> {
+                            It("should continue from the new position", () -> {
+                                stream = template.getContent(entity);
+                                assertThat(stream.skip(41), is(41L));
+                                assertThat(IOUtils.toString(stream), is(CONTENT.substring(41)));
+                            });
+                        });
+                    });
+                    Context("#unsetContents", () -> {
+                        It("should delete the headers and the chunks of each item", () -> {
+                            TestEntity first = new TestEntity();
+                            TestEntity second = new TestEntity();
+                            template.setContent(first, new ByteArrayInputStream(CONTENT.getBytes()));
+                            template.setContent(second, new ByteArrayInputStream(CONTENT.getBytes()));
+
+                            template.unsetContents(Arrays.asList(first, second, new TestEntity()));
+
+                            assertThat(first.getContentId(), is(nullValue()));
+                            assertThat(second.getContentId(), is(nullValue()));
+                            JdbcTemplate jdbc = new JdbcTemplate(datasource);
+                            assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM CONTENT_CHUNKS", Long.class), is(0L));
+                            assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM CONTENT_HEADERS", Long.class), is(0L));
+                        });
+                    });
+                    Context("#setContent with an id set by the application", () -> {
+                        It("should create the header for that id", () -> {
+                            entity = new TestEntity("12345");
+                            template.setContent(entity, new ByteArrayInputStream(CONTENT.getBytes()));
+
+                            assertThat(entity.getContentId(), is("12345"));
+                            assertThat(new JdbcTemplate(datasource).queryForObject("SELECT chunk_count FROM CONTENT_HEADERS WHERE id=?", Long.class, 12345L), is(10L));
+                            assertThat(IOUtils.toString(template.getContent(entity)), is(CONTENT));
+                        });
+                        It("should reject an id that is not a number", () -> {
+                            Exception e = null;
+                            try {
+                                template.setContent(new TestEntity("not-a-number"), new ByteArrayInputStream(CONTENT.getBytes()));
+                            } catch (Exception ex) {
+                                e = ex;
+                            }
+                            assertThat(e, is(instanceOf(StoreAccessException.class)));
+                            assertThat(new JdbcTemplate(datasource).queryForObject("SELECT COUNT(*) FROM CONTENT_CHUNKS", Long.class), is(0L));
+                        });
+                    });
+                    Context("given a configured chunk table", () -> {
+                        BeforeEach(() -> {
+                            chunkTable = "DOCUMENT_CHUNKS";
+                        });
+                        It("should store the chunks in that table", () -> {
+                            entity = new TestEntity();
+                            template.setContent(entity, new ByteArrayInputStream(CONTENT.getBytes()));
+
+                            assertThat(new JdbcTemplate(datasource).queryForObject("SELECT COUNT(*) FROM DOCUMENT_CHUNKS WHERE content_id=?", Long.class, entity.getContentId()), is(10L));
+                            assertThat(IOUtils.toString(template.getContent(entity)), is(CONTENT));
+                        });
+                    });
+                    Context("given an existing chunk table with a bounded data column", () -> {
+                        It("should reject a chunk size the column cannot hold", () -> {
+                            JdbcTemplate jdbc = new JdbcTemplate(datasource);
+                            jdbc.execute("CREATE TABLE OLD_CHUNKS (content_id BIGINT NOT NULL, seq BIGINT NOT NULL, data VARBINARY(4), PRIMARY KEY (content_id, seq))");
+
+                            JpaChunkedContentTemplate old = new JpaChunkedContentTemplate(datasource);
+                            old.setChunkSize(8);
+                            old.setChunkTable("OLD_CHUNKS");
+                            Exception e = null;
+                            try {
+                                old.afterPropertiesSet();
+                            } catch (Exception ex) {
+                                e = ex;
+                            }
+                            assertThat(e, is(instanceOf(IllegalStateException.class)));
+                        });
+                    });
+                    Context("#getContent", () -> {
+                        Context("when the content does not exist", () -> {
+                            It("should return null", () -> {
+                                assertThat(template.getContent(new TestEntity("12345")), is(nullValue()));
+                            });
+                        });
+                        Context("when the content is empty", () -> {
+                            It("should return an empty stream", () -> {
+                                entity = new TestEntity();
+                                template.setContent(entity, new ByteArrayInputStream(new byte[0]));
+                                assertThat(entity.getContentLen(), is(0L));
+                                assertThat(IOUtils.toString(template.getContent(entity)), is(""));
+                            });
+                        });
+                    });
+                });
+            }
+        });
+    }
+
+    @Test
+    public void noop() {
+    }
+
+    public static class TestEntity {
+        @ContentId
+        private String contentId;
+
+        @ContentLength
+        private long contentLen;
+
+        public TestEntity() {
+        }
+
+        public TestEntity(String contentId) {
+            this.contentId = contentId;
+        }
+
+        public String getContentId() {
+            return contentId;
+        }
+
+        public void setContentId(String contentId) {
+            this.contentId = contentId;
+        }
+
+        public long getContentLen() {
+            return contentLen;
+        }
+
+        public void setContentLen(long contentLen) {
+            this.contentLen = contentLen;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package internal.org.springframework.content.operations;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import org.apache.commons.io.IOUtils;
+import org.springframework.content.commons.annotations.ContentId;
+import org.springframework.content.commons.annotations.ContentLength;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import internal.org.springframework.content.jpa.operations.JpaChunkedContentTemplate;
+import internal.org.springframework.content.jpa.operations.JpaContentOperations;
+import internal.org.springframework.content.jpa.operations.JpaContentTemplate;
+
+/**
+ * Rough throughput comparison of the JPA content templates on the embedded databases.  Not run as part of the build;
+ * run its main method with the test classpath.
+ */
+public class JpaContentTemplateBenchmark {
+
+	private static final int ITEMS = 200;
+	private static final int CONTENT_SIZE = 64 * 1024;
+	private static final int WARMUP_ROUNDS = 2;
+	private static final int ROUNDS = 5;
+
+	public static void main(String[] args) throws Exception {
+		byte[] content = new byte[CONTENT_SIZE];
+		new Random(0).nextBytes(content);
+
+		for (EmbeddedDatabaseType type : new EmbeddedDatabaseType[] {EmbeddedDatabaseType.H2, EmbeddedDatabaseType.HSQL}) {
+			EmbeddedDatabase database = new EmbeddedDatabaseBuilder().setType(type).setName(UUID.randomUUID().toString()).build();
+			try {
+				JpaContentTemplate blobs = new JpaContentTemplate(database);
+				blobs.afterPropertiesSet();
+
+				JpaChunkedContentTemplate chunked = new JpaChunkedContentTemplate(database);
+				chunked.setChunkSize(16 * 1024);
+				chunked.afterPropertiesSet();
+
+				run(type + " blob", blobs, content);
+				runBatched(type + " blob (batched)", blobs, content);
+				run(type + " chunked", chunked, content);
+
+				blobs.destroy();
+				chunked.destroy();
+			} finally {
+				database.shutdown();
+			}
+		}
+	}
+
+	private static void run(String name, JpaContentOperations ops, byte[] content) throws Exception {
+		for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+			List<Entity> entities = new ArrayList<>();
+			for (int i = 0; i < ITEMS; i++) {
+				entities.add(new Entity());
+			}
+
+			long insert = System.nanoTime();
+			for (Entity entity : entities) {
+				ops.setContent(entity, new ByteArrayInputStream(content));
+			}
+			long update = System.nanoTime();
+			for (Entity entity : entities) {
+				ops.setContent(entity, new ByteArrayInputStream(content));
+			}
+			long read = System.nanoTime();
+			for (Entity entity : entities) {
+				try (InputStream in = ops.getContent(entity)) {
+					IOUtils.toByteArray(in);
+				}
+			}
+			long delete = System.nanoTime();
+			for (Entity entity : entities) {
+				ops.unsetContent(entity);
+			}
+			long end = System.nanoTime();
+
+			if (round >= WARMUP_ROUNDS) {
+				report(name, update - insert, read - update, delete - read, end - delete);
+			}
+		}
+	}
+
+	private static void runBatched(String name, JpaContentTemplate ops, byte[] content) throws Exception {
+		for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+			Map<Entity, InputStream> contents = new LinkedHashMap<>();
+			for (int i = 0; i < ITEMS; i++) {
+				contents.put(new Entity(), new ByteArrayInputStream(content));
+			}
+
+			long insert = System.nanoTime();
+			ops.setContents(contents);
+			long update = System.nanoTime();
+			for (Entity entity : contents.keySet()) {
+				contents.put(entity, new ByteArrayInputStream(content));
+			}
+			ops.setContents(contents);
+			long read = System.nanoTime();
+			for (Entity entity : contents.keySet()) {
+				try (InputStream in = ops.getContent(entity)) {
+					IOUtils.toByteArray(in);
+				}
+			}
+			long delete = System.nanoTime();
+			ops.unsetContents(contents.keySet());
+			long end = System.nanoTime();
+
+			if (round >= WARMUP_ROUNDS) {
+				report(name, update - insert, read - update, delete - read, end - delete);
+			}
+		}
+	}
+
+	private static void report(String name, long insert, long update, long read, long delete) {
+		System.out.println(String.format("%-24s insert %6dms  update %6dms  read %6dms  delete %6dms  (%d x %dKB)",
+				name, insert / 1000000, update / 1000000, read / 1000000, delete / 1000000, ITEMS, CONTENT_SIZE / 1024));
+	}
+
+	public static class Entity {
+		@ContentId
+		private Long contentId;
+
+		@ContentLength
+		private long contentLength;
+
+		public Long getContentId() {
+			return contentId;
+		}
+
+		public void setContentId(Long contentId) {
+			this.contentId = contentId;
+		}
+
+		public long getContentLength() {
+			return contentLength;
+		}
+
+		public void setContentLength(long contentLength) {
+			this.contentLength = contentLength;
+		}
+	}
+}
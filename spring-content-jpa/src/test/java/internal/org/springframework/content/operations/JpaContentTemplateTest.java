@@ -1,10 +1,12 @@
 package internal.org.springframework.content.operations;
 
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.AfterEach;
 import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.BeforeEach;
 import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Context;
 import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
 import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.It;
 import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.JustBeforeEach;
+import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -12,9 +14,11 @@ import static org.hamcrest.core.Is.is;
 import static org.mockito.Matchers.anyObject;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Matchers.isA;
-import static org.mockito.Matchers.startsWith;
+import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -26,18 +30,29 @@ import java.sql.DatabaseMetaData;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
 
 import javax.sql.DataSource;
 
+import org.apache.commons.io.IOUtils;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.content.commons.annotations.ContentId;
 import org.springframework.content.commons.annotations.ContentLength;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
 
 import internal.org.springframework.content.jpa.operations.JpaContentTemplate;
+import internal.org.springframework.content.jpa.utils.DeleteOnCloseFileInputStream;
+import internal.org.springframework.content.jpa.utils.ResultSetInputStream;
 
 @RunWith(Ginkgo4jRunner.class)
 //@Ginkgo4jConfiguration(threads=1)
@@ -59,6 +74,10 @@ public class JpaContentTemplateTest {
 
     private Blob blob;
 
+    private long streamTimeout;
+
+    private EmbeddedDatabase database;
+
     {
         Describe("JpaContentTemplate", () -> {
             Describe("#afterPropertiesSet", () -> {
@@ -138,7 +157,7 @@ public class JpaContentTemplateTest {
                             when(connection.prepareStatement(anyObject(), eq(Statement.RETURN_GENERATED_KEYS))).thenReturn((PreparedStatement) statement);
                             when(statement.getGeneratedKeys()).thenReturn(resultSet);
                             when(resultSet.next()).thenReturn(true);
-                            when(resultSet.getInt(eq("ID"))).thenReturn(12345);
+                            when(resultSet.getLong(1)).thenReturn(12345L);
                         });
                         It("inserts the content into the BLOBS table", () -> {
                             verify((PreparedStatement) statement).setBinaryStream(eq(1), isA(InputStream.class));
@@ -162,16 +181,22 @@ public class JpaContentTemplateTest {
                         BeforeEach(() -> {
                             when(datasource.getConnection()).thenReturn(connection);
                             when(connection.prepareStatement(anyObject())).thenReturn((PreparedStatement) statement);
+                            when(statement.executeQuery()).thenReturn(resultSet);
+                            when(resultSet.next()).thenReturn(true);
+                        });
+                        It("should check the content exists", () -> {
+                            verify(connection).prepareStatement(eq("SELECT 1 FROM BLOBS WHERE id=?"));
                         });
                         It("should UPDATE sql", () -> {
-                            verify(connection).prepareStatement(startsWith("UPDATE BLOBS SET blob=?"));
+                            verify(connection).prepareStatement(eq("UPDATE BLOBS SET blob=? WHERE id=?"));
                         });
                         It("should update the existing content", () -> {
                             verify((PreparedStatement) statement).setBinaryStream(eq(1), isA(InputStream.class));
+                            verify((PreparedStatement) statement).setObject(2, 12345);
                             verify((PreparedStatement) statement).executeUpdate();
                         });
-                        It("should close the statement", () -> {
-                            verify(statement).close();
+                        It("should close the statements", () -> {
+                            verify(statement, times(2)).close();
                         });
 
                         It("should close the connection", () -> {
@@ -194,7 +219,7 @@ public class JpaContentTemplateTest {
                 });
                 Context("given content to be deleted", () -> {
                     BeforeEach(() -> {
-                        entity = new TestEntity();
+                        entity = new TestEntity(12345);
                     });
                     Context("given a connection", () -> {
                         BeforeEach(() -> {
@@ -202,7 +227,8 @@ public class JpaContentTemplateTest {
                             when(connection.prepareStatement(anyObject())).thenReturn((PreparedStatement) statement);
                         });
                         It("deletes the content with a DELETE statement", () -> {
-                            verify(connection).prepareStatement(startsWith("DELETE FROM BLOBS WHERE id="));
+                            verify(connection).prepareStatement(eq("DELETE FROM BLOBS WHERE id=?"));
+                            verify(statement).setObject(1, 12345);
                         });
                         It("should update the content id metadata", () -> {
                             assertThat(entity.getContentId(), is(nullValue()));
@@ -247,7 +273,11 @@ public class JpaContentTemplateTest {
                     });
 
                     It("should execute sql SELECT statement", () -> {
-                        verify(connection).prepareStatement(eq("SELECT blob FROM BLOBS WHERE id='12345'"));
+                        verify(connection).prepareStatement(eq("SELECT blob FROM BLOBS WHERE id=?"));
+                        verify(statement).setObject(1, 12345);
+                    });
+                    It("should limit the fetch size", () -> {
+                        verify(statement).setFetchSize(JpaContentTemplate.DEFAULT_FETCH_SIZE);
                     });
 
                     It("should return a content stream", () -> {
@@ -265,7 +295,158 @@ public class JpaContentTemplateTest {
                         verify(connection).close();
                     });
                 });
+                Context("given content larger than the spill threshold", () -> {
+                    BeforeEach(() -> {
+                        entity = new TestEntity(12345);
+                        when(datasource.getConnection()).thenReturn(connection);
+                        when(connection.prepareStatement(anyObject())).thenReturn(statement);
+                        when(statement.executeQuery()).thenReturn(resultSet);
+                        when(resultSet.next()).thenReturn(true);
+                        when(resultSet.getBlob(anyObject())).thenReturn(blob);
+                        when(blob.length()).thenReturn(JpaContentTemplate.DEFAULT_SPILL_THRESHOLD + 1);
+                        when(blob.getBinaryStream()).thenReturn(new ByteArrayInputStream("Hello content world!".getBytes()));
+                    });
+                    It("should spill the content to a temporary file", () -> {
+                        assertThat(inputStream, is(instanceOf(DeleteOnCloseFileInputStream.class)));
+                        assertThat(IOUtils.toString(inputStream), is("Hello content world!"));
+                        inputStream.close();
+                    });
+                    It("should close the connection", () -> {
+                        verify(connection).close();
+                    });
+                });
             });
+
+            Describe("#getContent when streaming", () -> {
+                BeforeEach(() -> {
+                    datasource = mock(DataSource.class);
+                    connection = mock(Connection.class);
+                    statement = mock(PreparedStatement.class);
+                    resultSet = mock(ResultSet.class);
+                    blob = mock(Blob.class);
+
+                    entity = new TestEntity(12345);
+                    when(datasource.getConnection()).thenReturn(connection);
+                    when(connection.prepareStatement(anyObject())).thenReturn(statement);
+                    when(statement.executeQuery()).thenReturn(resultSet);
+                    when(resultSet.next()).thenReturn(true);
+                    when(resultSet.getBlob(anyObject())).thenReturn(blob);
+                    when(blob.getBinaryStream()).thenReturn(new ByteArrayInputStream("Hello content world!".getBytes()));
+                });
+                JustBeforeEach(() -> {
+                    template = new JpaContentTemplate(datasource);
+                    template.setTemplate(new JdbcTemplate(datasource));
+                    template.setStreaming(true);
+                    template.setStreamTimeout(streamTimeout);
+                    inputStream = template.getContent(entity);
+                });
+                Context("given the stream is open", () -> {
+                    BeforeEach(() -> {
+                        streamTimeout = JpaContentTemplate.DEFAULT_STREAM_TIMEOUT;
+                    });
+                    It("should stream the content without buffering it", () -> {
+                        assertThat(inputStream, is(instanceOf(ResultSetInputStream.class)));
+                        assertThat(IOUtils.toString(inputStream), is("Hello content world!"));
+                        verify(blob, never()).length();
+                    });
+                    It("should not close the connection until the stream is closed", () -> {
+                        verify(connection, never()).close();
+
+                        inputStream.close();
+
+                        verify(resultSet).close();
+                        verify(statement).close();
+                        verify(connection).close();
+                    });
+                });
+                Context("given the stream is not closed before the timeout", () -> {
+                    BeforeEach(() -> {
+                        streamTimeout = 50;
+                    });
+                    It("should release the connection", () -> {
+                        verify(connection, timeout(5000)).close();
+                        assertThat(((ResultSetInputStream)inputStream).isClosed(), is(true));
+                    });
+                });
+                Context("given a surrounding transaction", () -> {
+                    BeforeEach(() -> {
+                        streamTimeout = JpaContentTemplate.DEFAULT_STREAM_TIMEOUT;
+                        TransactionSynchronizationManager.initSynchronization();
+                    });
+                    AfterEach(() -> {
+                        TransactionSynchronizationManager.clearSynchronization();
+                    });
+                    It("should close the stream when the transaction completes", () -> {
+                        verify(connection, never()).close();
+
+                        for (TransactionSynchronization sync : TransactionSynchronizationManager.getSynchronizations()) {
+                            sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+                        }
+
+                        assertThat(((ResultSetInputStream)inputStream).isClosed(), is(true));
+                        verify(connection, atLeastOnce()).close();
+                    });
+                });
+            });
+
+            for (EmbeddedDatabaseType type : new EmbeddedDatabaseType[] {EmbeddedDatabaseType.HSQL, EmbeddedDatabaseType.H2}) {
+                Describe("given a " + type + " database", () -> {
+                    BeforeEach(() -> {
+                        database = new EmbeddedDatabaseBuilder().setType(type).setName(UUID.randomUUID().toString()).build();
+                        template = new JpaContentTemplate(database);
+                        template.setTable("CONTENT");
+                        template.setIdColumn("content_id");
+                        template.setContentColumn("data");
+                        template.afterPropertiesSet();
+                    });
+                    AfterEach(() -> {
+                        template.destroy();
+                        database.shutdown();
+                    });
+                    It("should create the configured table", () -> {
+                        entity = new TestEntity();
+                        template.setContent(entity, new ByteArrayInputStream("Hello content world!".getBytes()));
+
+                        assertThat(entity.getContentId(), is(not(nullValue())));
+                        assertThat(new JdbcTemplate(database).queryForObject("SELECT COUNT(*) FROM CONTENT WHERE content_id=?", Long.class, entity.getContentId()), is(1L));
+                    });
+                    It("should replace existing content", () -> {
+                        entity = new TestEntity();
+                        template.setContent(entity, new ByteArrayInputStream("Hello content world!".getBytes()));
+                        template.setContent(entity, new ByteArrayInputStream("Goodbye!".getBytes()));
+
+                        assertThat(entity.getContentLen(), is(8L));
+                        assertThat(IOUtils.toString(template.getContent(entity)), is("Goodbye!"));
+                    });
+                    It("should insert content for an id that has no row", () -> {
+                        entity = new TestEntity(999);
+                        template.setContent(entity, new ByteArrayInputStream("Hello content world!".getBytes()));
+
+                        assertThat(IOUtils.toString(template.getContent(entity)), is("Hello content world!"));
+                    });
+                    It("should set and unset several items in batches", () -> {
+                        Map<TestEntity, InputStream> contents = new LinkedHashMap<>();
+                        for (int i = 0; i < 5; i++) {
+                            TestEntity e = new TestEntity();
+                            template.setContent(e, new ByteArrayInputStream("original".getBytes()));
+                            contents.put(e, new ByteArrayInputStream(String.format("content %d", i).getBytes()));
+                        }
+                        template.setContents(contents);
+
+                        int i = 0;
+                        for (TestEntity e : contents.keySet()) {
+                            assertThat(IOUtils.toString(template.getContent(e)), is(String.format("content %d", i++)));
+                            assertThat(e.getContentLen(), is(9L));
+                        }
+
+                        template.unsetContents(contents.keySet());
+                        assertThat(new JdbcTemplate(database).queryForObject("SELECT COUNT(*) FROM CONTENT", Long.class), is(0L));
+                        for (TestEntity e : contents.keySet()) {
+                            assertThat(e.getContentId(), is(nullValue()));
+                        }
+                    });
+                });
+            }
         });
     }
 
@@ -0,0 +1,58 @@
+package internal.org.springframework.content.lucene;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.content.commons.renditions.RenditionService;
+import org.springframework.content.commons.search.TextExtractor;
+
+/**
+ * Indexes plain text content as it is and extracts the text of other content with its <code>text/plain</code>
+ * rendition, such as the docx4j Word to text rendition, when there is a {@link RenditionService}.
+ */
+public class DefaultTextExtractor implements TextExtractor {
+
+	private static final String TEXT_PLAIN = "text/plain";
+
+	private RenditionService renditions;
+
+	public DefaultTextExtractor(RenditionService renditions) {
+		this.renditions = renditions;
+	}
+
+	@Override
+	public String extract(InputStream content, String mimeType, int maxLength) throws IOException {
+		if (mimeType == null) {
+			return null;
+		}
+		if (mimeType.startsWith(TEXT_PLAIN)) {
+			return read(content, maxLength);
+		}
+		if (renditions == null || !renditions.canConvert(mimeType, TEXT_PLAIN)) {
+			return null;
+		}
+		InputStream text = renditions.convert(mimeType, content, TEXT_PLAIN);
+		if (text == null) {
+			return null;
+		}
+		try {
+			return read(text, maxLength);
+		} finally {
+			text.close();
+		}
+	}
+
+	private static String read(InputStream content, int maxLength) throws IOException {
+		Reader reader = new InputStreamReader(content, StandardCharsets.UTF_8);
+		StringBuilder text = new StringBuilder();
+		char[] buffer = new char[8192];
+		int read;
+		while (text.length() < maxLength && (read = reader.read(buffer, 0, Math.min(buffer.length, maxLength - text.length()))) != -1) {
+			text.append(buffer, 0, read);
+		}
+		return text.toString();
+	}
+}
@@ -0,0 +1,300 @@
+package internal.org.springframework.content.lucene;
+
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.SimpleCollector;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.springframework.content.commons.repository.StoreAccessException;
+import org.springframework.content.commons.search.Searchable;
+import org.springframework.content.lucene.LuceneIndex;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.util.Assert;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Searches the {@link LuceneIndex} for the content ids of a domain class.  Queries use the syntax of Lucene's classic
+ * query parser, the same syntax as Solr's standard query parser, and matches are returned in relevance order.
+ */
+public class LuceneSearchService implements Searchable<Object> {
+
+    private static final int STREAM_BATCH_SIZE = 1000;
+    private static final Set<String> FIELDS = Collections.singleton(LuceneIndex.CONTENT_ID_FIELD);
+
+    private LuceneIndex index;
+    private Class<?> domainClass;
+
+    public LuceneSearchService(LuceneIndex index, Class<?> domainClass) {
+        Assert.notNull(index, "index must not be null");
+        Assert.notNull(domainClass, "domainClass must not be null");
+
+        this.index = index;
+        this.domainClass = domainClass;
+    }
+
+    @Override
+    public List<Object> findKeyword(String queryStr) {
+        return search(queryStr);
+    }
+
+    @Override
+    public List<Object> findAllKeywords(String... terms) {
+        return search(parseTerms("AND", terms));
+    }
+
+    @Override
+    public List<Object> findAnyKeywords(String... terms) {
+        return search(parseTerms("OR", terms));
+    }
+
+    @Override
+    public List<Object> findKeywordsNear(int proximity, String... terms) {
+        return search(near(proximity, terms));
+    }
+
+    @Override
+    public List<Object> findKeywordStartsWith(String term) {
+        return search(term + "*");
+    }
+
+    @Override
+    public List<Object> findKeywordStartsWithAndEndsWith(String a, String b) {
+        return search(a + "*" + b);
+    }
+
+    @Override
+    public List<Object> findAllKeywordsWithWeights(String[] terms, double[] weights) {
+        return search(parseTermsAndWeights("AND", terms, weights));
+    }
+
+    @Override
+    public Page<Object> findKeyword(String queryStr, Pageable pageable) {
+        return search(queryStr, pageable);
+    }
+
+    @Override
+    public Page<Object> findAllKeywords(Pageable pageable, String... terms) {
+        return search(parseTerms("AND", terms), pageable);
+    }
+
+    @Override
+    public Page<Object> findAnyKeywords(Pageable pageable, String... terms) {
+        return search(parseTerms("OR", terms), pageable);
+    }
+
+    @Override
+    public Page<Object> findKeywordsNear(int proximity, Pageable pageable, String... terms) {
+        return search(near(proximity, terms), pageable);
+    }
+
+    @Override
+    public Page<Object> findKeywordStartsWith(String term, Pageable pageable) {
+        return search(term + "*", pageable);
+    }
+
+    @Override
+    public Page<Object> findKeywordStartsWithAndEndsWith(String a, String b, Pageable pageable) {
+        return search(a + "*" + b, pageable);
+    }
+
+    @Override
+    public Page<Object> findAllKeywordsWithWeights(String[] terms, double[] weights, Pageable pageable) {
+        return search(parseTermsAndWeights("AND", terms, weights), pageable);
+    }
+
+    /**
+     * Fetches the matches {@link #STREAM_BATCH_SIZE} at a time as the stream is consumed, each batch from the latest
+     * searcher, so matches indexed or removed while the stream is read may be missed or returned.
+     */
+    @Override
+    public Stream<Object> streamKeyword(String queryStr) {
+        Query query = query(queryStr);
+        Iterator<Object> ids = new Iterator<Object>() {
+            private ScoreDoc after = null;
+            private Iterator<Object> batch = Collections.emptyIterator();
+            private boolean done = false;
+
+            @Override
+            public boolean hasNext() {
+                while (!batch.hasNext() && !done) {
+                    batch = execute(queryStr, (searcher) -> {
+                        TopDocs top = after == null ? searcher.search(query, STREAM_BATCH_SIZE) : searcher.searchAfter(after, query, STREAM_BATCH_SIZE);
+                        ScoreDoc[] docs = top.scoreDocs;
+                        done = docs.length < STREAM_BATCH_SIZE;
+                        if (docs.length > 0) {
+                            after = docs[docs.length - 1];
+                        }
+                        return ids(searcher, docs, 0);
+                    }).iterator();
+                }
+                return batch.hasNext();
+            }
+
+            @Override
+            public Object next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return batch.next();
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(ids, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /* package */ String parseTermsAndWeights(String operator, String[] terms, double[] weights){
+        Assert.state(terms.length == weights.length, "all terms must have a weight");
+
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < terms.length - 1; i++){
+            builder.append("(");
+            builder.append(terms[i]);
+            builder.append(")^");
+            builder.append(weights[i]);
+            builder.append(" " + operator + " ");
+        }
+        builder.append("(");
+        builder.append(terms[terms.length-1]);
+        builder.append(")^");
+        builder.append(weights[weights.length-1]);
+
+        return builder.toString();
+    }
+
+    /* package */ String parseTerms(String operator, String... terms){
+        String separator;
+
+        if(operator == "NONE") {
+            separator = " ";
+        }
+        else {
+            separator = " " + operator + " ";
+        }
+        StringBuilder builder = new StringBuilder();
+
+        for (int i = 0; i < terms.length - 1; i++){
+            builder.append(terms[i]);
+            builder.append(separator);
+        }
+        builder.append(terms[terms.length - 1]);
+        return builder.toString();
+    }
+
+    private String near(int proximity, String... terms) {
+        return "\"" + parseTerms("NONE", terms) + "\"~" + Integer.toString(proximity);
+    }
+
+    private List<Object> search(String queryStr) {
+        Query query = query(queryStr);
+        return execute(queryStr, (searcher) -> {
+            AllMatchesCollector matches = new AllMatchesCollector();
+            searcher.search(query, matches);
+            return ids(searcher, matches.scoreDocs(), 0);
+        });
+    }
+
+    private Page<Object> search(String queryStr, Pageable pageable) {
+        Query query = query(queryStr);
+        return execute(queryStr, (searcher) -> {
+            TopDocs top = searcher.search(query, Math.max(1, pageable.getOffset() + pageable.getPageSize()));
+            return new PageImpl<>(ids(searcher, top.scoreDocs, pageable.getOffset()), pageable, top.totalHits);
+        });
+    }
+
+    // restricts the query to the domain class with a clause that does not affect the relevance of matches
+    private Query query(String queryStr) {
+        Query text;
+        try {
+            text = new QueryParser(LuceneIndex.TEXT_FIELD, index.getAnalyzer()).parse(queryStr);
+        } catch (ParseException e) {
+            throw new StoreAccessException(String.format("Error parsing query %s.", queryStr), e);
+        }
+        return new BooleanQuery.Builder()
+                .add(text, BooleanClause.Occur.MUST)
+                .add(new TermQuery(new Term(LuceneIndex.ENTITY_CLASS_FIELD, domainClass.getCanonicalName())), BooleanClause.Occur.FILTER)
+                .build();
+    }
+
+    private static List<Object> ids(IndexSearcher searcher, ScoreDoc[] docs, int from) throws IOException {
+        List<Object> ids = new ArrayList<>();
+        for (int i = from; i < docs.length; i++) {
+            ids.add(searcher.doc(docs[i].doc, FIELDS).get(LuceneIndex.CONTENT_ID_FIELD));
+        }
+        return ids;
+    }
+
+    private <T> T execute(String queryStr, SearcherCallback<T> callback) {
+        try {
+            IndexSearcher searcher = index.acquire();
+            try {
+                return callback.doWithSearcher(searcher);
+            } finally {
+                index.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new StoreAccessException(String.format("Error running query %s against the lucene index.", queryStr), e);
+        }
+    }
+
+    private interface SearcherCallback<T> {
+        T doWithSearcher(IndexSearcher searcher) throws IOException;
+    }
+
+    /**
+     * Collects every match in a single pass, for searches that return them all, and orders them as
+     * {@link IndexSearcher#search(Query, int)} does: by descending score, then by document.
+     */
+    private static class AllMatchesCollector extends SimpleCollector {
+
+        private final List<ScoreDoc> matches = new ArrayList<>();
+        private Scorer scorer;
+        private int docBase;
+
+        @Override
+        protected void doSetNextReader(LeafReaderContext context) throws IOException {
+            docBase = context.docBase;
+        }
+
+        @Override
+        public void setScorer(Scorer scorer) throws IOException {
+            this.scorer = scorer;
+        }
+
+        @Override
+        public void collect(int doc) throws IOException {
+            matches.add(new ScoreDoc(docBase + doc, scorer.score()));
+        }
+
+        @Override
+        public boolean needsScores() {
+            return true;
+        }
+
+        ScoreDoc[] scoreDocs() {
+            ScoreDoc[] docs = matches.toArray(new ScoreDoc[matches.size()]);
+            Arrays.sort(docs, (a, b) -> a.score != b.score ? Float.compare(b.score, a.score) : Integer.compare(a.doc, b.doc));
+            return docs;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package org.springframework.content.lucene;
+
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.content.commons.renditions.RenditionService;
+import org.springframework.content.commons.repository.StoreExtension;
+import org.springframework.content.commons.search.TextExtractor;
+import org.springframework.content.commons.utils.ReflectionServiceImpl;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.ConversionService;
+
+@Configuration
+public class FullTextLuceneIndexingConfig {
+
+    @Autowired
+    private LuceneProperties props;
+    @Autowired
+    private ConversionService contentConversionService;
+
+    @Autowired(required=false)
+    private Analyzer analyzer;
+    @Autowired(required=false)
+    private TextExtractor textExtractor;
+    @Autowired(required=false)
+    private RenditionService renditionService;
+
+    @Bean
+    public LuceneIndex luceneIndex() {
+        LuceneIndex index = new LuceneIndex(props, analyzer != null ? analyzer : new StandardAnalyzer());
+        index.setTextExtractor(textExtractor);
+        index.setRenditionService(renditionService);
+        return index;
+    }
+
+    @Bean
+    public StoreExtension luceneFulltextSearcher() {
+        return new LuceneSearchContentRepositoryExtension(luceneIndex(), new ReflectionServiceImpl(), contentConversionService);
+    }
+
+    @Bean
+    public Object luceneFulltextEventListener() {
+        return new LuceneIndexer(luceneIndex());
+    }
+}
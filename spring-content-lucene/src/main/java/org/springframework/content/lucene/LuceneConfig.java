@@ -0,0 +1,25 @@
+package org.springframework.content.lucene;
+
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix="lucene")
+public class LuceneConfig {
+
+    private LuceneProperties indexing = new LuceneProperties();
+
+    /**
+     * Indexing settings, bound from <code>lucene.indexing.*</code>.
+     */
+    public LuceneProperties getIndexing() {
+        return indexing;
+    }
+
+    @Bean
+    public LuceneProperties luceneProperties() {
+        return indexing;
+    }
+}
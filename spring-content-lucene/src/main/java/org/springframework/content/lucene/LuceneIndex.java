@@ -0,0 +1,402 @@
+package org.springframework.content.lucene;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.store.RAMDirectory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.content.commons.annotations.ContentId;
+import org.springframework.content.commons.annotations.MimeType;
+import org.springframework.content.commons.renditions.RenditionService;
+import org.springframework.content.commons.repository.ContentStore;
+import org.springframework.content.commons.repository.StoreAccessException;
+import org.springframework.content.commons.repository.events.SpooledContent;
+import org.springframework.content.commons.search.TextExtractor;
+import org.springframework.content.commons.utils.BeanUtils;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.util.Assert;
+
+import internal.org.springframework.content.lucene.DefaultTextExtractor;
+
+/**
+ * A Lucene index of the text of content, kept in the application.
+ *
+ * Updates are queued and written to the index by a single committer thread, so storing content does not wait for the
+ * index.  The committer takes up to <code>batchSize</code> updates at a time and, once it has written them, refreshes
+ * the near-real-time searcher so that searches see them without the index being committed.  The index is committed to
+ * its directory every <code>commitInterval</code> milliseconds, and when the application stops.
+ *
+ * The queue holds at most <code>queueCapacity</code> updates; queuing an update when it is full waits for space.
+ * Updates still queued when the application stops are written before the index is closed.
+ *
+ * Content copied as it was stored is indexed from that copy, which is released once it has been indexed.  Other
+ * content is read back from the store.  Text is extracted by a {@link TextExtractor}; by default plain text is
+ * indexed as it is and other content through its <code>text/plain</code> rendition.
+ */
+@ManagedResource(description = "Spring Content Lucene index")
+public class LuceneIndex implements InitializingBean, DisposableBean {
+
+	private static Log logger = LogFactory.getLog(LuceneIndex.class);
+
+	public static final String ID_FIELD = "id";
+	public static final String ENTITY_CLASS_FIELD = "entity_class";
+	public static final String CONTENT_ID_FIELD = "content_id";
+	public static final String TEXT_FIELD = "text";
+
+	private static final long OFFER_TIMEOUT = 30000;
+
+	private LuceneProperties properties;
+	private Analyzer analyzer;
+	private TextExtractor extractor;
+	private RenditionService renditions;
+
+	private Directory directory;
+	private IndexWriter writer;
+	private SearcherManager searchers;
+	private BlockingQueue<Update> updates;
+	private Thread committer;
+	private volatile boolean running;
+	private long lastCommit;
+
+	private AtomicInteger pending = new AtomicInteger();
+	private AtomicLong indexed = new AtomicLong();
+	private AtomicLong deleted = new AtomicLong();
+	private AtomicLong failed = new AtomicLong();
+	private AtomicLong commits = new AtomicLong();
+
+	public LuceneIndex(LuceneProperties properties, Analyzer analyzer) {
+		Assert.notNull(properties, "properties must not be null");
+		Assert.notNull(analyzer, "analyzer must not be null");
+
+		this.properties = properties;
+		this.analyzer = analyzer;
+	}
+
+	/**
+	 * Sets the extractor used to extract the text of content.  When none is set plain text content is indexed as it is
+	 * and other content is converted to text by the rendition service, if there is one.
+	 */
+	public void setTextExtractor(TextExtractor extractor) {
+		this.extractor = extractor;
+	}
+
+	public void setRenditionService(RenditionService renditions) {
+		this.renditions = renditions;
+	}
+
+	@Override
+	public void afterPropertiesSet() throws Exception {
+		if (extractor == null) {
+			extractor = new DefaultTextExtractor(renditions);
+		}
+
+		if (properties.getDirectory() != null) {
+			File dir = new File(properties.getDirectory());
+			if (!dir.isDirectory() && !dir.mkdirs()) {
+				throw new IllegalStateException(String.format("Unable to create lucene index directory %s", dir));
+			}
+			directory = FSDirectory.open(dir.toPath());
+		} else {
+			logger.info("No lucene index directory set, keeping the index in memory");
+			directory = new RAMDirectory();
+		}
+
+		IndexWriterConfig config = new IndexWriterConfig(analyzer);
+		config.setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
+		writer = new IndexWriter(directory, config);
+		searchers = new SearcherManager(writer, true, null);
+		lastCommit = System.nanoTime();
+
+		updates = new LinkedBlockingQueue<>(Math.max(1, properties.getQueueCapacity()));
+		running = true;
+		committer = new Thread(this::run, "lucene-committer");
+		committer.setDaemon(true);
+		committer.start();
+	}
+
+	@Override
+	public void destroy() throws Exception {
+		running = false;
+		if (committer != null) {
+			committer.join(OFFER_TIMEOUT);
+		}
+		try {
+			if (writer != null && writer.isOpen()) {
+				writer.commit();
+			}
+		} finally {
+			if (searchers != null) {
+				searchers.close();
+			}
+			if (writer != null) {
+				writer.close();
+			}
+			if (directory != null) {
+				directory.close();
+			}
+		}
+	}
+
+	/**
+	 * Queues the content of <code>entity</code> to be indexed from <code>content</code>, a copy taken as it was stored.
+	 * The index retains the copy until it has been indexed.  When <code>content</code> is null the content is read from
+	 * <code>store</code>.
+	 */
+	public void add(Object entity, ContentStore<Object, Serializable> store, SpooledContent content) {
+		Update update = new Update(Action.ADD, entity);
+		update.store = store;
+		update.mimeType = mimeType(entity);
+		if (content != null) {
+			update.content = content.retain();
+		}
+		offer(update);
+	}
+
+	/**
+	 * Queues the removal of the content of <code>entity</code> from the index.
+	 */
+	public void delete(Object entity) {
+		offer(new Update(Action.DELETE, entity));
+	}
+
+	/**
+	 * Returns the length in bytes of the longest content that should be copied as it is stored.
+	 */
+	public long getSpoolLimit() {
+		return properties.getSpoolLimit();
+	}
+
+	public Analyzer getAnalyzer() {
+		return analyzer;
+	}
+
+	/**
+	 * Returns a searcher over the updates written so far.  Every searcher acquired must be released with
+	 * {@link #release(IndexSearcher)}.
+	 */
+	public IndexSearcher acquire() throws IOException {
+		return searchers.acquire();
+	}
+
+	public void release(IndexSearcher searcher) throws IOException {
+		searchers.release(searcher);
+	}
+
+	/**
+	 * Waits until every queued update can be seen by searches, or the timeout elapses.
+	 *
+	 * @return true if the queue emptied within the timeout
+	 */
+	public boolean flush(long timeout, TimeUnit unit) throws InterruptedException {
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		while (pending.get() > 0) {
+			if (System.nanoTime() > deadline) {
+				return false;
+			}
+			Thread.sleep(10);
+		}
+		return true;
+	}
+
+	@ManagedOperation(description = "Commits the index to its directory")
+	public void commit() throws IOException {
+		writer.commit();
+		commits.incrementAndGet();
+	}
+
+	@ManagedAttribute(description = "Number of updates waiting to be written to the index")
+	public int getQueueDepth() {
+		return pending.get();
+	}
+
+	@ManagedAttribute(description = "Number of items in the index")
+	public int getDocumentCount() {
+		return writer.numDocs();
+	}
+
+	@ManagedAttribute(description = "Number of items indexed")
+	public long getIndexedCount() {
+		return indexed.get();
+	}
+
+	@ManagedAttribute(description = "Number of items removed from the index")
+	public long getDeletedCount() {
+		return deleted.get();
+	}
+
+	@ManagedAttribute(description = "Number of updates that could not be written")
+	public long getFailedCount() {
+		return failed.get();
+	}
+
+	@ManagedAttribute(description = "Number of commits of the index")
+	public long getCommitCount() {
+		return commits.get();
+	}
+
+	private void offer(Update update) {
+		pending.incrementAndGet();
+		try {
+			if (!updates.offer(update, OFFER_TIMEOUT, TimeUnit.MILLISECONDS)) {
+				throw new StoreAccessException(String.format("Lucene index queue full, unable to queue %s", update.id));
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			forget(update);
+			throw new StoreAccessException(String.format("Interrupted queuing %s", update.id), e);
+		} catch (RuntimeException e) {
+			forget(update);
+			throw e;
+		}
+	}
+
+	private void run() {
+		List<Update> batch = new ArrayList<>();
+		while (running || !updates.isEmpty()) {
+			try {
+				Update first = updates.poll(Math.max(1, properties.getRefreshInterval()), TimeUnit.MILLISECONDS);
+				if (first != null) {
+					batch.add(first);
+					updates.drainTo(batch, Math.max(1, properties.getBatchSize()) - 1);
+					for (Update update : batch) {
+						write(update);
+					}
+					searchers.maybeRefreshBlocking();
+				}
+				if (writer.hasUncommittedChanges() && System.nanoTime() - lastCommit >= TimeUnit.MILLISECONDS.toNanos(properties.getCommitInterval())) {
+					commit();
+					lastCommit = System.nanoTime();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (IOException | RuntimeException e) {
+				logger.error("Unable to update the lucene index", e);
+			} finally {
+				for (Update update : batch) {
+					forget(update);
+				}
+				batch.clear();
+			}
+		}
+	}
+
+	private void write(Update update) {
+		try {
+			Term id = new Term(ID_FIELD, update.id);
+			if (update.action == Action.DELETE) {
+				writer.deleteDocuments(id);
+				deleted.incrementAndGet();
+				return;
+			}
+
+			Document document = new Document();
+			document.add(new StringField(ID_FIELD, update.id, Field.Store.YES));
+			document.add(new StringField(ENTITY_CLASS_FIELD, update.entityClass, Field.Store.NO));
+			document.add(new StringField(CONTENT_ID_FIELD, update.contentId, Field.Store.YES));
+			String text = text(update);
+			if (text != null) {
+				document.add(new TextField(TEXT_FIELD, text, Field.Store.NO));
+			}
+			writer.updateDocument(id, document);
+			indexed.incrementAndGet();
+		} catch (IOException | RuntimeException e) {
+			logger.error(String.format("Unable to %s %s in the lucene index", update.action == Action.ADD ? "index" : "remove", update.id), e);
+			failed.incrementAndGet();
+		}
+	}
+
+	private String text(Update update) throws IOException {
+		InputStream content;
+		if (update.content != null) {
+			content = update.content.getInputStream();
+		} else if (update.store != null) {
+			content = update.store.getContent(update.entity);
+		} else {
+			content = null;
+		}
+		if (content == null) {
+			logger.warn(String.format("No content found for %s, indexing it without text", update.id));
+			return null;
+		}
+		try {
+			String text = extractor.extract(content, update.mimeType, properties.getMaxTextLength());
+			if (text == null) {
+				logger.debug(String.format("Unable to extract text from %s content of %s", update.mimeType, update.id));
+			} else if (text.length() > properties.getMaxTextLength()) {
+				text = text.substring(0, properties.getMaxTextLength());
+			}
+			return text;
+		} finally {
+			content.close();
+		}
+	}
+
+	private void forget(Update update) {
+		if (update.content != null) {
+			update.content.release();
+			update.content = null;
+		}
+		update.entity = null;
+		update.store = null;
+		pending.decrementAndGet();
+	}
+
+	private static String mimeType(Object entity) {
+		Object mimeType = BeanUtils.getFieldWithAnnotation(entity, MimeType.class);
+		return mimeType != null ? mimeType.toString() : null;
+	}
+
+	private static String contentId(Object entity) {
+		Object id = BeanUtils.getFieldWithAnnotation(entity, ContentId.class);
+		Assert.notNull(id, "content id must not be null");
+		return id.toString();
+	}
+
+	enum Action { ADD, DELETE }
+
+	private static class Update {
+		private final Action action;
+		private final String id;
+		private final String entityClass;
+		private final String contentId;
+		private Object entity;
+		private ContentStore<Object, Serializable> store;
+		private String mimeType;
+		private SpooledContent content;
+
+		Update(Action action, Object entity) {
+			this.action = action;
+			this.entity = entity;
+			this.entityClass = entity.getClass().getCanonicalName();
+			this.contentId = contentId(entity);
+			this.id = entityClass + ":" + contentId;
+		}
+	}
+}
@@ -0,0 +1,64 @@
+package org.springframework.content.lucene;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.content.commons.annotations.ContentId;
+import org.springframework.content.commons.annotations.StoreEventHandler;
+import org.springframework.content.commons.repository.events.AbstractStoreEventListener;
+import org.springframework.content.commons.repository.events.AfterSetContentEvent;
+import org.springframework.content.commons.repository.events.BeforeSetContentEvent;
+import org.springframework.content.commons.repository.events.BeforeUnsetContentEvent;
+import org.springframework.content.commons.utils.BeanUtils;
+import org.springframework.util.Assert;
+
+/**
+ * Keeps the Lucene index up to date as content is set and unset.  Updates are handed to the {@link LuceneIndex} and
+ * written in the background.  Content is copied as it is stored, up to the index's spool limit, so that it can be
+ * indexed without reading it back from the store.
+ */
+@StoreEventHandler
+public class LuceneIndexer extends AbstractStoreEventListener<Object> {
+
+	private LuceneIndex index;
+
+	@Autowired
+	public LuceneIndexer(LuceneIndex index) {
+		Assert.notNull(index, "index must not be null");
+
+		this.index = index;
+	}
+
+	@Override
+	protected void onBeforeSetContent(BeforeSetContentEvent event) {
+		if (index.getSpoolLimit() > 0 && BeanUtils.hasFieldWithAnnotation(event.getSource(), ContentId.class)) {
+			event.spoolContent(index.getSpoolLimit());
+		}
+	}
+
+	@Override
+	protected void onAfterSetContent(AfterSetContentEvent event) {
+		Object contentEntity = event.getSource();
+		if (BeanUtils.hasFieldWithAnnotation(contentEntity, ContentId.class) == false) {
+			return;
+		}
+
+		if (BeanUtils.getFieldWithAnnotation(contentEntity, ContentId.class) == null) {
+			return;
+		}
+
+		index.add(contentEntity, event.getStore(), event.getContent());
+	}
+
+	@Override
+	protected void onBeforeUnsetContent(BeforeUnsetContentEvent event) {
+		Object contentEntity = event.getSource();
+		if (BeanUtils.hasFieldWithAnnotation(contentEntity, ContentId.class) == false) {
+			return;
+		}
+
+		if (BeanUtils.getFieldWithAnnotation(contentEntity, ContentId.class) == null) {
+			return;
+		}
+
+		index.delete(contentEntity);
+	}
+}
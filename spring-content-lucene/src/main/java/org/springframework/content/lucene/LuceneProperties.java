@@ -0,0 +1,92 @@
+package org.springframework.content.lucene;
+
+
+public class LuceneProperties {
+
+    private String directory = null;
+    private int queueCapacity = 10000;
+    private int batchSize = 100;
+    private long refreshInterval = 100;
+    private long commitInterval = 1000;
+    private long spoolLimit = 100 * 1024 * 1024;
+    private int maxTextLength = 1000000;
+
+    /**
+     * Directory the index is kept in.  When null the index is kept in memory and is lost when the application stops.
+     */
+    public String getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Maximum number of updates waiting to be written to the index.
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Maximum number of updates written to the index before searches are refreshed.
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Milliseconds the committer waits for further updates before refreshing searches with those it has written.
+     */
+    public long getRefreshInterval() {
+        return refreshInterval;
+    }
+
+    public void setRefreshInterval(long refreshInterval) {
+        this.refreshInterval = refreshInterval;
+    }
+
+    /**
+     * Milliseconds between commits of the index to its directory.  Updates that have not been committed are lost if
+     * the application stops abruptly.
+     */
+    public long getCommitInterval() {
+        return commitInterval;
+    }
+
+    public void setCommitInterval(long commitInterval) {
+        this.commitInterval = commitInterval;
+    }
+
+    /**
+     * Length in bytes of the longest content indexed from a copy taken as it is stored.  Longer content is read back
+     * from the store.  Zero or less always reads content back from the store.
+     */
+    public long getSpoolLimit() {
+        return spoolLimit;
+    }
+
+    public void setSpoolLimit(long spoolLimit) {
+        this.spoolLimit = spoolLimit;
+    }
+
+    /**
+     * Maximum number of characters of text indexed for each item.
+     */
+    public int getMaxTextLength() {
+        return maxTextLength;
+    }
+
+    public void setMaxTextLength(int maxTextLength) {
+        this.maxTextLength = maxTextLength;
+    }
+}
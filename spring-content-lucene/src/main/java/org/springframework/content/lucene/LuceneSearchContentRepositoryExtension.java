@@ -0,0 +1,70 @@
+package org.springframework.content.lucene;
+
+import internal.org.springframework.content.lucene.LuceneSearchService;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.content.commons.repository.StoreExtension;
+import org.springframework.content.commons.repository.StoreInvoker;
+import org.springframework.content.commons.search.Searchable;
+import org.springframework.content.commons.utils.ReflectionService;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.data.domain.Page;
+import org.springframework.util.Assert;
+
+import java.io.Serializable;
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Implements {@link Searchable} for content stores by searching the {@link LuceneIndex}.  Stores get the content ids
+ * of the matches, converted to their content id type.
+ */
+@SuppressWarnings("unchecked")
+public class LuceneSearchContentRepositoryExtension implements StoreExtension {
+
+    private LuceneIndex index;
+    private ReflectionService reflectionService;
+    private ConversionService conversionService;
+
+    public LuceneSearchContentRepositoryExtension(LuceneIndex index, ReflectionService reflectionService, ConversionService conversionService) {
+        Assert.notNull(index, "index must not be null");
+
+        this.index = index;
+        this.reflectionService = reflectionService;
+        this.conversionService = conversionService;
+    }
+
+    @Override
+    public Set<Method> getMethods() {
+        Set<Method> methods = new HashSet<>();
+        methods.addAll(Arrays.asList(Searchable.class.getMethods()));
+        return methods;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation, StoreInvoker invoker) {
+        Class<? extends Serializable> clazz = invoker.getContentIdClass();
+
+        LuceneSearchService tgt = new LuceneSearchService(index, invoker.getDomainClass());
+        Object result = reflectionService.invokeMethod(invocation.getMethod(), tgt, invocation.getArguments());
+        if (result instanceof Page) {
+            return ((Page<Object>) result).map((item) -> convert(item, clazz));
+        } else if (result instanceof Stream) {
+            return ((Stream<Object>) result).map((item) -> convert(item, clazz));
+        }
+
+        List newList = new ArrayList();
+        for (Object item : (List<Object>) result) {
+            newList.add(convert(item, clazz));
+        }
+
+        return newList;
+    }
+
+    private Object convert(Object item, Class<? extends Serializable> clazz) {
+        if (conversionService.canConvert(item.getClass(), clazz) == false) {
+            throw new IllegalStateException(String.format("Cannot convert item of type %s to %s", item.getClass().getName(), clazz.getName()));
+        }
+        return conversionService.convert(item, clazz);
+    }
+}
@@ -0,0 +1,67 @@
+package internal.org.springframework.content.lucene;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.It;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.content.lucene.EnableFullTextLuceneIndexing;
+import org.springframework.content.lucene.LuceneIndex;
+import org.springframework.content.lucene.LuceneIndexer;
+import org.springframework.content.lucene.LuceneProperties;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.test.context.ContextConfiguration;
+
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jSpringRunner;
+
+@RunWith(Ginkgo4jSpringRunner.class)
+@ContextConfiguration(classes=EnableFullTextLuceneIndexingTest.TestConfiguration.class)
+public class EnableFullTextLuceneIndexingTest {
+
+	@Autowired private ApplicationContext context;
+
+	{
+		Describe("EnableFullTextLuceneIndexing", () -> {
+			It("should have a LuceneProperties bean", () -> {
+				assertThat(context.getBean(LuceneProperties.class), is(not(nullValue())));
+			});
+			It("should have a LuceneIndex bean", () -> {
+				assertThat(context.getBean(LuceneIndex.class), is(not(nullValue())));
+			});
+			It("should have a LuceneIndexer bean", () -> {
+				assertThat(context.getBean(LuceneIndexer.class), is(not(nullValue())));
+			});
+		});
+	}
+
+	@Configuration
+	@EnableFullTextLuceneIndexing
+	@Import(ContentStoreConfiguration.class)
+	public static class TestConfiguration {
+	}
+
+	public static class ContentStoreConfiguration {
+
+		// Developer bean - would usually be supplied by app developer
+		@Bean
+		public ConversionService conversionService() {
+			return mock(ConversionService.class);
+		}
+
+	}
+
+	@Test
+	public void noop() {
+	}
+
+}
@@ -0,0 +1,195 @@
+package internal.org.springframework.content.lucene;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.*;
+import static org.hamcrest.Matchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.content.commons.annotations.ContentId;
+import org.springframework.content.commons.annotations.MimeType;
+import org.springframework.content.commons.repository.ContentStore;
+import org.springframework.content.commons.repository.StoreAccessException;
+import org.springframework.content.lucene.LuceneIndex;
+import org.springframework.content.lucene.LuceneProperties;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+@RunWith(Ginkgo4jRunner.class)
+@Ginkgo4jConfiguration(threads = 1)
+public class LuceneSearchServiceTest {
+
+	private LuceneIndex index;
+	private LuceneSearchService search;
+	private ContentStore<Object, Serializable> store;
+
+	{
+		Describe("LuceneSearchService", () -> {
+			BeforeEach(() -> {
+				store = mock(ContentStore.class);
+				when(store.getContent(anyObject())).thenAnswer((invocation) -> {
+					Text text = (Text) invocation.getArguments()[0];
+					return new ByteArrayInputStream(text.getText().getBytes(StandardCharsets.UTF_8));
+				});
+
+				index = new LuceneIndex(new LuceneProperties(), new StandardAnalyzer());
+				index.afterPropertiesSet();
+				index.add(new Document("1", "the quick brown fox jumps over the lazy dog"), store, null);
+				index.add(new Document("2", "a quick response to the brown envelope"), store, null);
+				index.add(new Document("3", "dogs and foxes are mammals"), store, null);
+				index.add(new Other("4", "the quick brown fox"), store, null);
+				assertThat(index.flush(5, TimeUnit.SECONDS), is(true));
+
+				search = new LuceneSearchService(index, Document.class);
+			});
+			AfterEach(() -> {
+				index.destroy();
+			});
+
+			Context("#findKeyword", () -> {
+				It("should return the content ids of the domain class's matches", () -> {
+					assertThat(search.findKeyword("quick"), containsInAnyOrder("1", "2"));
+				});
+				It("should accept the query syntax", () -> {
+					assertThat(search.findKeyword("quick AND NOT fox"), Matchers.<Object>contains("2"));
+				});
+				It("should fail for a malformed query", () -> {
+					Exception e = null;
+					try {
+						search.findKeyword("quick AND (");
+					} catch (StoreAccessException sae) {
+						e = sae;
+					}
+					assertThat(e, is(not(nullValue())));
+				});
+			});
+			Context("#findAllKeywords", () -> {
+				It("should return matches with every keyword", () -> {
+					assertThat(search.findAllKeywords("quick", "fox"), Matchers.<Object>contains("1"));
+				});
+			});
+			Context("#findAnyKeywords", () -> {
+				It("should return matches with any of the keywords", () -> {
+					assertThat(search.findAnyKeywords("envelope", "mammals"), containsInAnyOrder("2", "3"));
+				});
+			});
+			Context("#findKeywordsNear", () -> {
+				It("should return matches with the keywords within the proximity", () -> {
+					assertThat(search.findKeywordsNear(1, "quick", "fox"), Matchers.<Object>contains("1"));
+					assertThat(search.findKeywordsNear(0, "quick", "fox"), is(empty()));
+				});
+			});
+			Context("#findKeywordStartsWith", () -> {
+				It("should return matches with a keyword with the prefix", () -> {
+					assertThat(search.findKeywordStartsWith("fox"), containsInAnyOrder("1", "3"));
+				});
+			});
+			Context("#findKeywordStartsWithAndEndsWith", () -> {
+				It("should return matches with a keyword with the prefix and suffix", () -> {
+					assertThat(search.findKeywordStartsWithAndEndsWith("d", "s"), Matchers.<Object>contains("3"));
+				});
+			});
+			Context("#findAllKeywordsWithWeights", () -> {
+				It("should return matches with every keyword", () -> {
+					assertThat(search.findAllKeywordsWithWeights(new String[] {"brown"}, new double[] {1.0}), containsInAnyOrder("1", "2"));
+					assertThat(search.findAllKeywordsWithWeights(new String[] {"brown", "envelope"}, new double[] {1.0, 2.0}), Matchers.<Object>contains("2"));
+				});
+				It("should order matches by the weights of the keywords", () -> {
+					List<Object> envelope = search.findKeyword("(envelope)^10.0 OR (mammals)^0.1");
+					List<Object> mammals = search.findKeyword("(envelope)^0.1 OR (mammals)^10.0");
+					assertThat(envelope, Matchers.<Object>contains("2", "3"));
+					assertThat(mammals, Matchers.<Object>contains("3", "2"));
+				});
+			});
+			Context("#findKeyword with a pageable", () -> {
+				It("should return a page of matches", () -> {
+					Page<Object> first = search.findKeyword("quick OR dogs", new PageRequest(0, 2));
+					Page<Object> second = search.findKeyword("quick OR dogs", new PageRequest(1, 2));
+
+					assertThat(first.getTotalElements(), is(3L));
+					assertThat(first.getContent().size(), is(2));
+					assertThat(second.getContent().size(), is(1));
+					assertThat(second.getContent().get(0), not(isIn(first.getContent())));
+				});
+			});
+			Context("#streamKeyword", () -> {
+				It("should stream every match", () -> {
+					try (Stream<Object> ids = search.streamKeyword("quick")) {
+						assertThat(ids.collect(Collectors.toList()), containsInAnyOrder("1", "2"));
+					}
+				});
+			});
+		});
+	}
+
+	@Test
+	public void test() {
+	}
+
+	public interface Text {
+		String getText();
+	}
+
+	public static class Document implements Text {
+		@ContentId private String contentId;
+		@MimeType private String mimeType = "text/plain";
+		private String text;
+
+		public Document(String contentId, String text) {
+			this.contentId = contentId;
+			this.text = text;
+		}
+
+		public String getContentId() {
+			return contentId;
+		}
+
+		public String getMimeType() {
+			return mimeType;
+		}
+
+		@Override
+		public String getText() {
+			return text;
+		}
+	}
+
+	public static class Other implements Text {
+		@ContentId private String contentId;
+		@MimeType private String mimeType = "text/plain";
+		private String text;
+
+		public Other(String contentId, String text) {
+			this.contentId = contentId;
+			this.text = text;
+		}
+
+		public String getContentId() {
+			return contentId;
+		}
+
+		public String getMimeType() {
+			return mimeType;
+		}
+
+		@Override
+		public String getText() {
+			return text;
+		}
+	}
+}
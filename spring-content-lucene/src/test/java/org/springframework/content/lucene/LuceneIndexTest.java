@@ -0,0 +1,181 @@
+package org.springframework.content.lucene;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.*;
+import static org.hamcrest.Matchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.content.commons.annotations.ContentId;
+import org.springframework.content.commons.annotations.MimeType;
+import org.springframework.content.commons.repository.ContentStore;
+import org.springframework.content.commons.repository.events.SpooledContent;
+
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+import internal.org.springframework.content.lucene.LuceneSearchService;
+
+@RunWith(Ginkgo4jRunner.class)
+@Ginkgo4jConfiguration(threads = 1)
+public class LuceneIndexTest {
+
+	private LuceneIndex index;
+	private LuceneProperties props;
+	private ContentStore<Object, Serializable> store;
+	private File directory;
+
+	{
+		Describe("LuceneIndex", () -> {
+			BeforeEach(() -> {
+				props = new LuceneProperties();
+				store = mock(ContentStore.class);
+				when(store.getContent(anyObject())).thenAnswer((invocation) -> {
+					Document document = (Document) invocation.getArguments()[0];
+					return new ByteArrayInputStream(document.text.getBytes(StandardCharsets.UTF_8));
+				});
+			});
+			JustBeforeEach(() -> {
+				index = new LuceneIndex(props, new StandardAnalyzer());
+				index.afterPropertiesSet();
+			});
+			AfterEach(() -> {
+				index.destroy();
+				if (directory != null) {
+					FileUtils.deleteDirectory(directory);
+					directory = null;
+				}
+			});
+
+			Context("#add", () -> {
+				It("should make the content searchable once flushed", () -> {
+					index.add(new Document("1", "the quick brown fox"), store, null);
+					assertThat(index.flush(5, TimeUnit.SECONDS), is(true));
+
+					assertThat(search("fox"), Matchers.<Object>contains("1"));
+					assertThat(index.getIndexedCount(), is(1L));
+					assertThat(index.getDocumentCount(), is(1));
+				});
+				It("should replace the previous content", () -> {
+					index.add(new Document("1", "the quick brown fox"), store, null);
+					index.add(new Document("1", "the lazy dog"), store, null);
+					assertThat(index.flush(5, TimeUnit.SECONDS), is(true));
+
+					assertThat(search("fox"), is(empty()));
+					assertThat(search("dog"), Matchers.<Object>contains("1"));
+					assertThat(index.getDocumentCount(), is(1));
+				});
+				It("should index a copy of the content rather than read the store", () -> {
+					SpooledContent content = new SpooledContent(1024);
+					byte[] bytes = "spooled text".getBytes(StandardCharsets.UTF_8);
+					content.write(bytes, 0, bytes.length);
+					content.complete();
+
+					index.add(new Document("1", "stored text"), store, content);
+					content.release();
+					assertThat(index.flush(5, TimeUnit.SECONDS), is(true));
+
+					assertThat(search("spooled"), Matchers.<Object>contains("1"));
+					verify(store, never()).getContent(anyObject());
+					assertThat(content.isComplete(), is(false));
+				});
+				It("should index content it cannot extract text from without text", () -> {
+					Document document = new Document("1", "binary");
+					document.setMimeType("application/octet-stream");
+					index.add(document, store, null);
+					assertThat(index.flush(5, TimeUnit.SECONDS), is(true));
+
+					assertThat(index.getDocumentCount(), is(1));
+					assertThat(search("binary"), is(empty()));
+				});
+				Context("given a maximum text length", () -> {
+					BeforeEach(() -> {
+						props.setMaxTextLength(9);
+					});
+					It("should only index the start of the text", () -> {
+						index.add(new Document("1", "the quick brown fox"), store, null);
+						assertThat(index.flush(5, TimeUnit.SECONDS), is(true));
+
+						assertThat(search("quick"), Matchers.<Object>contains("1"));
+						assertThat(search("fox"), is(empty()));
+					});
+				});
+			});
+
+			Context("#delete", () -> {
+				It("should remove the content from the index", () -> {
+					Document document = new Document("1", "the quick brown fox");
+					index.add(document, store, null);
+					index.delete(document);
+					assertThat(index.flush(5, TimeUnit.SECONDS), is(true));
+
+					assertThat(search("fox"), is(empty()));
+					assertThat(index.getDeletedCount(), is(1L));
+				});
+			});
+
+			Context("given an index directory", () -> {
+				BeforeEach(() -> {
+					directory = Files.createTempDirectory("lucene-index").toFile();
+					props.setDirectory(directory.getAbsolutePath());
+				});
+				It("should keep the index when reopened", () -> {
+					index.add(new Document("1", "the quick brown fox"), store, null);
+					index.destroy();
+
+					index = new LuceneIndex(props, new StandardAnalyzer());
+					index.afterPropertiesSet();
+					assertThat(search("fox"), Matchers.<Object>contains("1"));
+				});
+			});
+		});
+	}
+
+	@Test
+	public void test() {
+	}
+
+	private List<Object> search(String query) {
+		return new LuceneSearchService(index, Document.class).findKeyword(query);
+	}
+
+	public static class Document {
+		@ContentId private String contentId;
+		@MimeType private String mimeType = "text/plain";
+		private String text;
+
+		public Document(String contentId, String text) {
+			this.contentId = contentId;
+			this.text = text;
+		}
+
+		public String getContentId() {
+			return contentId;
+		}
+
+		public void setContentId(String contentId) {
+			this.contentId = contentId;
+		}
+
+		public String getMimeType() {
+			return mimeType;
+		}
+
+		public void setMimeType(String mimeType) {
+			this.mimeType = mimeType;
+		}
+	}
+}
@@ -1,17 +1,54 @@
 package internal.org.springframework.content.mongo.config;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryUtils;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ListableBeanFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.content.commons.repository.ReactiveContentStore;
 import org.springframework.content.commons.repository.factory.AbstractStoreFactoryBean;
+import org.springframework.content.mongo.config.GridFsStore;
+import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.core.convert.ConversionService;
+import org.springframework.data.mongodb.MongoDbFactory;
 import org.springframework.data.mongodb.gridfs.GridFsTemplate;
+import org.springframework.util.StringUtils;
+
+import com.mongodb.gridfs.GridFS;
 
 import internal.org.springframework.content.mongo.repository.DefaultMongoStoreImpl;
+import internal.org.springframework.content.mongo.repository.DefaultReactiveMongoStoreImpl;
+
+public class MongoStoreFactoryBean extends AbstractStoreFactoryBean implements DisposableBean {
 
-public class MongoStoreFactoryBean extends AbstractStoreFactoryBean {
+	private static Log logger = LogFactory.getLog(MongoStoreFactoryBean.class);
 
-	@Autowired private GridFsTemplate gridFs;
+	@Autowired private MongoDbFactory dbFactory;
 	@Autowired private ConversionService mongoStoreConverter;
 
+	@Value("${spring.content.mongo.bucket:" + GridFS.DEFAULT_BUCKET + "}")
+	private String bucket;
+
+	@Value("${spring.content.mongo.chunkSize:" + GridFS.DEFAULT_CHUNKSIZE + "}")
+	private int chunkSize;
+
+	@Value("${spring.content.mongo.inlineThreshold:0}")
+	private int inlineThreshold;
+
+	@Value("${spring.content.mongo.prefetch:4}")
+	private int prefetch;
+
+	@Autowired private BeanFactory beanFactory;
+
+	private ExecutorService cleanup;
+
 	@Override
 	public void afterPropertiesSet() throws Exception {
 		super.afterPropertiesSet();
@@ -19,6 +56,74 @@ public class MongoStoreFactoryBean extends AbstractStoreFactoryBean {
 
 	@Override
 	protected Object getContentStoreImpl() {
-		return new DefaultMongoStoreImpl(gridFs, mongoStoreConverter);
+		String storeBucket = bucket;
+		int storeChunkSize = chunkSize;
+		int storeInlineThreshold = inlineThreshold;
+		int storePrefetch = prefetch;
+
+		GridFsStore settings = AnnotationUtils.findAnnotation(getStoreInterface(), GridFsStore.class);
+		if (settings != null) {
+			if (StringUtils.hasText(settings.bucket())) {
+				storeBucket = settings.bucket();
+			}
+			if (settings.chunkSize() > 0) {
+				storeChunkSize = settings.chunkSize();
+			}
+			if (settings.inlineThreshold() >= 0) {
+				storeInlineThreshold = settings.inlineThreshold();
+			}
+			if (settings.prefetch() > 0) {
+				storePrefetch = settings.prefetch();
+			}
+		}
+
+		warnIfGridFsTemplateIgnored(storeBucket);
+
+		// the reactive driver is optional so its types are kept out of this class's signatures
+		if (ReactiveContentStore.class.isAssignableFrom(getStoreInterface())) {
+			com.mongodb.reactivestreams.client.MongoClient client = beanFactory.getBean(com.mongodb.reactivestreams.client.MongoClient.class);
+			return new DefaultReactiveMongoStoreImpl(client.getDatabase(dbFactory.getDb().getName()), storeBucket, storeChunkSize, storeInlineThreshold, storePrefetch, mongoStoreConverter);
+		}
+
+		cleanup = Executors.newSingleThreadExecutor((runnable) -> {
+			Thread thread = new Thread(runnable, "mongo-revision-cleanup");
+			thread.setDaemon(true);
+			return thread;
+		});
+		return new DefaultMongoStoreImpl(gridFs(storeBucket), storeChunkSize, storeInlineThreshold, mongoStoreConverter, cleanup);
+	}
+
+	@Override
+	public void destroy() throws Exception {
+		if (cleanup != null) {
+			cleanup.shutdown();
+		}
+	}
+
+	// stores read and write GridFS through the MongoDbFactory, so a GridFsTemplate's bucket and converter have no effect
+	private void warnIfGridFsTemplateIgnored(String storeBucket) {
+		if (beanFactory instanceof ListableBeanFactory
+				&& BeanFactoryUtils.beanNamesForTypeIncludingAncestors((ListableBeanFactory) beanFactory, GridFsTemplate.class, false, false).length > 0) {
+			logger.warn(String.format("Ignoring the GridFsTemplate bean for store %s; its content is stored in bucket '%s' of the MongoDbFactory's database.  Set spring.content.mongo.bucket or @GridFsStore(bucket=...) to choose the bucket.", getStoreInterface().getName(), storeBucket));
+		}
+	}
+
+	// GridFS touches the database when it is constructed so defer that until the store is first used
+	private Supplier<GridFS> gridFs(String bucket) {
+		return new Supplier<GridFS>() {
+			private volatile GridFS gridFs;
+
+			@Override
+			public GridFS get() {
+				if (gridFs == null) {
+					synchronized (this) {
+						if (gridFs == null) {
+							gridFs = new GridFS(dbFactory.getDb(), bucket);
+						}
+					}
+				}
+				return gridFs;
+			}
+		};
 	}
 }
@@ -1,63 +1,115 @@
 package internal.org.springframework.content.mongo.repository;
 
-import static org.springframework.data.mongodb.core.query.Query.query;
-import static org.springframework.data.mongodb.gridfs.GridFsCriteria.whereFilename;
-
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.SequenceInputStream;
 import java.io.Serializable;
+import java.util.Date;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.bson.types.ObjectId;
 import org.springframework.content.commons.annotations.ContentId;
 import org.springframework.content.commons.annotations.ContentLength;
 import org.springframework.content.commons.repository.ContentStore;
 import org.springframework.content.commons.utils.BeanUtils;
 import org.springframework.core.convert.ConversionService;
-import org.springframework.core.io.Resource;
-import org.springframework.data.mongodb.gridfs.GridFsTemplate;
 import org.springframework.util.Assert;
-
+import org.springframework.util.DigestUtils;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCollection;
+import com.mongodb.gridfs.GridFS;
+import com.mongodb.gridfs.GridFSDBFile;
+import com.mongodb.gridfs.GridFSInputFile;
+
+/**
+ * Stores content in a GridFS bucket using the resource path as the filename.
+ *
+ * Content is written in a single pass; the driver computes the length and MD5 as the chunks are saved.  Replacing
+ * content stores a new revision of the file and then, on the supplied executor, deletes the revisions uploaded before
+ * it, so readers always find a complete file, a write costs no extra queries and concurrent writers never delete a
+ * newer revision than their own.  Reads return the most recent revision.
+ *
+ * Content no larger than <code>inlineThreshold</code> bytes is not chunked.  It is stored as binary data on its file
+ * document, marked with <code>inline: true</code>, so it takes one document instead of two.  Both layouts live in the
+ * bucket's <code>files</code> collection and a read finds the newest revision, and the content of an inline one, with a
+ * single query on <code>(filename, uploadDate)</code>, which is indexed when the store is first used.
+ */
 public class DefaultMongoStoreImpl<S, SID extends Serializable> implements ContentStore<S,SID> {
 
 	private static Log logger = LogFactory.getLog(DefaultMongoStoreImpl.class);
 
-	private GridFsTemplate gridFs;
+	// leaves room for the rest of the file document within mongo's 16MB document limit
+	public static final int MAX_INLINE_THRESHOLD = 15 * 1024 * 1024;
+
+	static final String INLINE = "inline";
+	static final String INLINE_DATA = "data";
+
+	private static final BasicDBObject NEWEST_FIRST = new BasicDBObject("uploadDate", -1);
+
+	private Supplier<GridFS> gridFs;
+	private int chunkSize;
+	private int inlineThreshold;
 	private ConversionService converter;
+	private Executor executor;
+	private volatile boolean indexed = false;
 
-	public DefaultMongoStoreImpl(GridFsTemplate gridFs, ConversionService converter) {
+	public DefaultMongoStoreImpl(Supplier<GridFS> gridFs, int chunkSize, int inlineThreshold, ConversionService converter, Executor executor) {
 		Assert.notNull(gridFs, "gridFs cannot be null");
+		Assert.isTrue(chunkSize > 0, "chunkSize must be greater than 0");
+		Assert.isTrue(inlineThreshold >= 0 && inlineThreshold <= MAX_INLINE_THRESHOLD, String.format("inlineThreshold must be between 0 and %d", MAX_INLINE_THRESHOLD));
 		Assert.notNull(converter, "converter cannot be null");
+		Assert.notNull(executor, "executor cannot be null");
 
 		this.gridFs = gridFs;
+		this.chunkSize = chunkSize;
+		this.inlineThreshold = inlineThreshold;
 		this.converter = converter;
+		this.executor = executor;
 	}
 
 	@Override
 	public void setContent(S property, InputStream content) {
 		Object contentId = BeanUtils.getFieldWithAnnotation(property, ContentId.class);
+		boolean replacing = contentId != null;
 		if (contentId == null) {
 			contentId = UUID.randomUUID();
 			BeanUtils.setFieldWithAnnotation(property, ContentId.class, contentId.toString());
 		}
 
 		String location = converter.convert(contentId, String.class);
-		Resource resource = gridFs.getResource(location);
-		if (resource != null && resource.exists()) {
-			gridFs.delete(query(whereFilename().is(resource.getFilename())));
-		}
 
-		gridFs.store(content, location);
-		resource = gridFs.getResource(location);
-
-		long contentLen = 0L;
+		Date uploaded;
+		long length;
 		try {
-			contentLen = resource.contentLength();
+			byte[] head = inlineThreshold > 0 ? read(content, inlineThreshold + 1) : new byte[0];
+			if (inlineThreshold > 0 && head.length <= inlineThreshold) {
+				uploaded = saveInline(location, head);
+				length = head.length;
+			} else {
+				GridFSInputFile file = gridFs().createFile(new SequenceInputStream(new ByteArrayInputStream(head), content), location);
+				file.setChunkSize(chunkSize);
+				file.save();
+				uploaded = file.getUploadDate();
+				length = file.getLength();
+			}
 		} catch (IOException ioe) {
-			logger.debug(String.format("Unable to retrieve content length for %s", contentId));
+			logger.error(String.format("Unexpected error setting content %s", contentId.toString()), ioe);
+			return;
+		}
+
+		if (replacing) {
+			removeRevisionsBefore(location, uploaded);
 		}
-		BeanUtils.setFieldWithAnnotation(property, ContentLength.class, contentLen);
+
+		BeanUtils.setFieldWithAnnotation(property, ContentLength.class, length);
 	}
 
 	@Override
@@ -69,15 +121,16 @@ public class DefaultMongoStoreImpl<S, SID extends Serializable> implements Conte
 			return null;
 
 		String location = converter.convert(contentId, String.class);
-		Resource resource = gridFs.getResource(location);
-		try {
-			if (resource != null && resource.exists()) {
-				return resource.getInputStream();
-			}
-		} catch (IOException e) {
-			logger.error(String.format("Unexpected error getting content %s", contentId.toString()), e);
+		// superseded revisions are removed soon after a write so this usually returns just the one
+		List<GridFSDBFile> revisions = gridFs().find(new BasicDBObject("filename", location), NEWEST_FIRST);
+		if (revisions == null || revisions.isEmpty()) {
+			return null;
+		}
+		GridFSDBFile newest = revisions.get(0);
+		if (Boolean.TRUE.equals(newest.get(INLINE))) {
+			return new ByteArrayInputStream((byte[]) newest.get(INLINE_DATA));
 		}
-		return null;
+		return newest.getInputStream();
 	}
 
 	@Override
@@ -90,16 +143,68 @@ public class DefaultMongoStoreImpl<S, SID extends Serializable> implements Conte
 
 		try {
 			String location = converter.convert(contentId, String.class);
-			Resource resource = gridFs.getResource(location);
-			if (resource != null && resource.exists()) {
-				gridFs.delete(query(whereFilename().is(resource.getFilename())));
+			gridFs().remove(new BasicDBObject("filename", location));
 
-				// reset content fields
-				BeanUtils.setFieldWithAnnotation(property, ContentId.class, null);
-				BeanUtils.setFieldWithAnnotation(property, ContentLength.class, 0);
-			}
+			// reset content fields
+			BeanUtils.setFieldWithAnnotation(property, ContentId.class, null);
+			BeanUtils.setFieldWithAnnotation(property, ContentLength.class, 0);
 		} catch (Exception ase) {
 			logger.error(String.format("Unexpected error unsetting content %s", contentId.toString()), ase);
 		}
 	}
+
+	// writes a file document that carries its content instead of referencing chunks and returns its upload date
+	private Date saveInline(String location, byte[] content) {
+		Date uploaded = new Date();
+		BasicDBObject file = new BasicDBObject("_id", new ObjectId())
+				.append("filename", location)
+				.append("length", (long) content.length)
+				.append("uploadDate", uploaded)
+				.append("md5", DigestUtils.md5DigestAsHex(content))
+				.append(INLINE, true)
+				.append(INLINE_DATA, content);
+		files(gridFs()).insert(file);
+		return uploaded;
+	}
+
+	// the legacy driver only indexes the files collection of buckets with fewer than 1000 files
+	private GridFS gridFs() {
+		GridFS fs = gridFs.get();
+		if (!indexed) {
+			files(fs).createIndex(new BasicDBObject("filename", 1).append("uploadDate", 1));
+			indexed = true;
+		}
+		return fs;
+	}
+
+	private static DBCollection files(GridFS fs) {
+		return fs.getDB().getCollection(fs.getBucketName() + ".files");
+	}
+
+	private static byte[] read(InputStream content, int max) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(Math.min(max, 64 * 1024));
+		byte[] buffer = new byte[Math.min(max, 64 * 1024)];
+		int remaining = max;
+		while (remaining > 0) {
+			int read = content.read(buffer, 0, Math.min(buffer.length, remaining));
+			if (read == -1) {
+				break;
+			}
+			out.write(buffer, 0, read);
+			remaining -= read;
+		}
+		return out.toByteArray();
+	}
+
+	// strictly before, so a writer that lands in the same millisecond as another does not delete its revision
+	private void removeRevisionsBefore(String location, Date uploaded) {
+		BasicDBObject revisions = new BasicDBObject("filename", location).append("uploadDate", new BasicDBObject("$lt", uploaded));
+		executor.execute(() -> {
+			try {
+				gridFs().remove(revisions);
+			} catch (Exception e) {
+				logger.error(String.format("Unexpected error removing previous revisions of %s", location), e);
+			}
+		});
+	}
 }
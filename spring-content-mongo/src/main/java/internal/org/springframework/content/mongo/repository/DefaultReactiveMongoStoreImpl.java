@@ -0,0 +1,294 @@
+package internal.org.springframework.content.mongo.repository;
+
+import static com.mongodb.client.model.Filters.and;
+import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Filters.in;
+import static com.mongodb.client.model.Filters.lt;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.Binary;
+import org.bson.types.ObjectId;
+import org.springframework.content.commons.annotations.ContentId;
+import org.springframework.content.commons.annotations.ContentLength;
+import org.springframework.content.commons.repository.ReactiveContentStore;
+import org.springframework.content.commons.repository.StoreAccessException;
+import org.springframework.content.commons.utils.BeanUtils;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.util.Assert;
+
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import com.mongodb.reactivestreams.client.MongoDatabase;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive store for a GridFS bucket, written against the reactive streams driver's collections.  The bucket's files,
+ * chunks and inline content are laid out as they are by {@link DefaultMongoStoreImpl}, so either store can read what
+ * the other has written, and the newest revision is found with a single query on the files collection.  The
+ * <code>(filename, uploadDate)</code> index on the files collection and the unique <code>(files_id, n)</code> index
+ * on the chunks collection are created before the store's first read or write.
+ *
+ * Writes split the incoming buffers into chunks and insert them <code>prefetch</code> at a time, so no more than that
+ * many chunks are held in memory and the content is requested no faster than it can be written.  The file document is
+ * inserted once every chunk has been written, so readers never find a partial file, and when content is replaced the
+ * revisions uploaded before it are removed after that.  Reads stream the chunks of the most recent
+ * revision in order, fetching up to <code>prefetch</code> chunks ahead of the subscriber.
+ */
+public class DefaultReactiveMongoStoreImpl<S, SID extends Serializable> implements ReactiveContentStore<S,SID> {
+
+	private static final Document NEWEST_FIRST = new Document("uploadDate", -1);
+	private static final Document IN_ORDER = new Document("n", 1);
+	private static final Document ID_ONLY = new Document("_id", 1);
+
+	private MongoCollection<Document> files;
+	private MongoCollection<Document> chunks;
+	private int chunkSize;
+	private int inlineThreshold;
+	private int prefetch;
+	private ConversionService converter;
+	private volatile boolean indexed = false;
+
+	public DefaultReactiveMongoStoreImpl(MongoDatabase database, String bucket, int chunkSize, int inlineThreshold, int prefetch, ConversionService converter) {
+		Assert.notNull(database, "database cannot be null");
+		Assert.hasText(bucket, "bucket cannot be empty");
+		Assert.isTrue(chunkSize > 0, "chunkSize must be greater than 0");
+		Assert.isTrue(inlineThreshold >= 0 && inlineThreshold <= DefaultMongoStoreImpl.MAX_INLINE_THRESHOLD, String.format("inlineThreshold must be between 0 and %d", DefaultMongoStoreImpl.MAX_INLINE_THRESHOLD));
+		Assert.isTrue(prefetch > 0, "prefetch must be greater than 0");
+		Assert.notNull(converter, "converter cannot be null");
+
+		this.files = database.getCollection(bucket + ".files");
+		this.chunks = database.getCollection(bucket + ".chunks");
+		this.chunkSize = chunkSize;
+		this.inlineThreshold = inlineThreshold;
+		this.prefetch = prefetch;
+		this.converter = converter;
+	}
+
+	@Override
+	public Mono<S> setContent(S property, Flux<ByteBuffer> content) {
+		return Mono.defer(() -> {
+			Object contentId = BeanUtils.getFieldWithAnnotation(property, ContentId.class);
+			boolean replacing = contentId != null;
+			if (contentId == null) {
+				contentId = UUID.randomUUID();
+				BeanUtils.setFieldWithAnnotation(property, ContentId.class, contentId.toString());
+			}
+
+			String id = contentId.toString();
+			String location = converter.convert(contentId, String.class);
+			Chunker chunker = new Chunker(new ObjectId());
+
+			return indexes().thenMany(content.concatMapIterable(chunker::write))
+					.concatWith(Flux.defer(() -> Flux.fromIterable(chunker.finish())))
+					.buffer(prefetch)
+					.concatMap((batch) -> Mono.from(chunks.insertMany(batch)), 1)
+					.then(Mono.defer(() -> Mono.from(files.insertOne(chunker.file(location)))))
+					.then()
+					.onErrorResume((e) -> Mono.from(chunks.deleteMany(eq("files_id", chunker.fileId)))
+							.then(Mono.error(e)))
+					// strictly before, so concurrent writers never remove a newer revision than their own
+					.then(replacing ? Mono.defer(() -> revisions(and(eq("filename", location), lt("uploadDate", chunker.uploaded))).flatMap(this::remove)) : Mono.empty())
+					.then(Mono.fromCallable(() -> {
+						BeanUtils.setFieldWithAnnotation(property, ContentLength.class, chunker.length);
+						return property;
+					}))
+					.onErrorMap((e) -> !(e instanceof StoreAccessException), (e) -> new StoreAccessException(String.format("Unexpected error setting content %s", id), e));
+		});
+	}
+
+	@Override
+	public Flux<ByteBuffer> getContent(S property) {
+		return Flux.defer(() -> {
+			if (property == null)
+				return Flux.empty();
+			Object contentId = BeanUtils.getFieldWithAnnotation(property, ContentId.class);
+			if (contentId == null)
+				return Flux.empty();
+
+			String location = converter.convert(contentId, String.class);
+			return indexes().then(Mono.from(files.find(eq("filename", location)).sort(NEWEST_FIRST).first()))
+					.flatMapMany((file) -> {
+						if (Boolean.TRUE.equals(file.get(DefaultMongoStoreImpl.INLINE))) {
+							return Flux.just(ByteBuffer.wrap(((Binary) file.get(DefaultMongoStoreImpl.INLINE_DATA)).getData()));
+						}
+						return Flux.from(chunks.find(eq("files_id", file.get("_id"))).sort(IN_ORDER))
+								.limitRate(prefetch)
+								.map((chunk) -> ByteBuffer.wrap(((Binary) chunk.get("data")).getData()));
+					})
+					.onErrorMap((e) -> new StoreAccessException(String.format("Unexpected error getting content %s", contentId.toString()), e));
+		});
+	}
+
+	@Override
+	public Mono<S> unsetContent(S property) {
+		return Mono.defer(() -> {
+			if (property == null)
+				return Mono.empty();
+			Object contentId = BeanUtils.getFieldWithAnnotation(property, ContentId.class);
+			if (contentId == null)
+				return Mono.just(property);
+
+			String location = converter.convert(contentId, String.class);
+			return indexes().then(revisions(eq("filename", location)))
+					.flatMap(this::remove)
+					.then(Mono.fromCallable(() -> {
+						// reset content fields
+						BeanUtils.setFieldWithAnnotation(property, ContentId.class, null);
+						BeanUtils.setFieldWithAnnotation(property, ContentLength.class, 0);
+						return property;
+					}))
+					.onErrorMap((e) -> new StoreAccessException(String.format("Unexpected error unsetting content %s", contentId.toString()), e));
+		});
+	}
+
+	// creating an index that already exists does nothing, so stores that race to create them are harmless
+	private Mono<Void> indexes() {
+		if (indexed) {
+			return Mono.empty();
+		}
+		return Mono.from(files.createIndex(new Document("filename", 1).append("uploadDate", 1)))
+				.then(Mono.from(chunks.createIndex(new Document("files_id", 1).append("n", 1), new IndexOptions().unique(true))))
+				.doOnSuccess((name) -> indexed = true)
+				.then();
+	}
+
+	// the ids of the revisions matching filter
+	private Mono<List<Object>> revisions(Bson filter) {
+		return Flux.from(files.find(filter).projection(ID_ONLY))
+				.map((file) -> file.get("_id"))
+				.collectList();
+	}
+
+	// removes the file documents before their chunks so that readers never find a file with missing chunks
+	private Mono<Void> remove(List<Object> ids) {
+		if (ids.isEmpty()) {
+			return Mono.empty();
+		}
+		return Mono.from(files.deleteMany(in("_id", ids)))
+				.then(Mono.from(chunks.deleteMany(in("files_id", ids))))
+				.then();
+	}
+
+	/**
+	 * Splits the content into chunk documents as it arrives, keeping track of its length and MD5.  Chunks are held
+	 * back while the content is small enough to be stored inline.
+	 */
+	private class Chunker {
+
+		private final ObjectId fileId;
+		private final MessageDigest md5;
+		private byte[] buffer = new byte[chunkSize];
+		private int position = 0;
+		private int n = 0;
+		private long length = 0;
+		private Date uploaded;
+		private List<Document> held = new ArrayList<>();
+		private byte[] inline;
+
+		Chunker(ObjectId fileId) {
+			this.fileId = fileId;
+			try {
+				this.md5 = MessageDigest.getInstance("MD5");
+			} catch (NoSuchAlgorithmException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+
+		List<Document> write(ByteBuffer bytes) {
+			ByteBuffer content = bytes.duplicate();
+			md5.update(content.duplicate());
+			length += content.remaining();
+
+			List<Document> ready = new ArrayList<>();
+			while (content.hasRemaining()) {
+				int count = Math.min(content.remaining(), chunkSize - position);
+				content.get(buffer, position, count);
+				position += count;
+				if (position == chunkSize) {
+					ready.add(chunk());
+				}
+			}
+			return release(ready);
+		}
+
+		List<Document> finish() {
+			if (inlineThreshold > 0 && length <= inlineThreshold) {
+				inline = new byte[(int) length];
+				int offset = 0;
+				for (Document chunk : held) {
+					byte[] data = ((Binary) chunk.get("data")).getData();
+					System.arraycopy(data, 0, inline, offset, data.length);
+					offset += data.length;
+				}
+				System.arraycopy(buffer, 0, inline, offset, position);
+				return Collections.emptyList();
+			}
+			List<Document> ready = new ArrayList<>();
+			if (position > 0) {
+				ready.add(chunk());
+			}
+			return release(ready);
+		}
+
+		Document file(String location) {
+			Document file = new Document("_id", fileId)
+					.append("filename", location)
+					.append("length", length);
+			if (inline == null) {
+				file.append("chunkSize", (long) chunkSize);
+			}
+			uploaded = new Date();
+			file.append("uploadDate", uploaded)
+					.append("md5", toHex(md5.digest()));
+			if (inline != null) {
+				file.append(DefaultMongoStoreImpl.INLINE, true)
+						.append(DefaultMongoStoreImpl.INLINE_DATA, new Binary(inline));
+			}
+			return file;
+		}
+
+		private Document chunk() {
+			byte[] data = new byte[position];
+			System.arraycopy(buffer, 0, data, 0, position);
+			position = 0;
+			return new Document("_id", new ObjectId())
+					.append("files_id", fileId)
+					.append("n", n++)
+					.append("data", new Binary(data));
+		}
+
+		private List<Document> release(List<Document> ready) {
+			if (inlineThreshold > 0 && length <= inlineThreshold) {
+				held.addAll(ready);
+				return Collections.emptyList();
+			}
+			if (!held.isEmpty()) {
+				held.addAll(ready);
+				ready = held;
+				held = new ArrayList<>();
+			}
+			return ready;
+		}
+	}
+
+	private static String toHex(byte[] bytes) {
+		StringBuilder hex = new StringBuilder(bytes.length * 2);
+		for (byte b : bytes) {
+			hex.append(String.format("%02x", b));
+		}
+		return hex.toString();
+	}
+}
@@ -0,0 +1,46 @@
+package org.springframework.content.mongo.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Configures the GridFS bucket and chunk size used by a single Mongo store.  Place on the store interface, e.g.:
+ *
+ * <pre>
+ * &#64;GridFsStore(bucket="videos", chunkSize=4 * 1024 * 1024)
+ * public interface VideoStore extends ContentStore&lt;Video, String&gt; {}
+ * </pre>
+ *
+ * Attributes that are not set fall back to the <code>spring.content.mongo.bucket</code>,
+ * <code>spring.content.mongo.chunkSize</code>, <code>spring.content.mongo.inlineThreshold</code> and
+ * <code>spring.content.mongo.prefetch</code> properties.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface GridFsStore {
+
+	/**
+	 * The GridFS bucket content is stored in.
+	 */
+	String bucket() default "";
+
+	/**
+	 * The size in bytes of the chunks content is split into.
+	 */
+	int chunkSize() default 0;
+
+	/**
+	 * Content no larger than this many bytes is stored on its file document, marked <code>inline: true</code>,
+	 * instead of in chunks.  <code>0</code> disables inline storage.
+	 */
+	int inlineThreshold() default -1;
+
+	/**
+	 * The number of chunks a reactive store reads ahead of, and writes in batches for, its subscribers.
+	 */
+	int prefetch() default 0;
+}
@@ -19,8 +19,10 @@ import org.springframework.beans.factory.NoSuchBeanDefinitionException;
 import org.springframework.content.commons.annotations.Content;
 import org.springframework.content.commons.annotations.ContentId;
 import org.springframework.content.commons.repository.ContentStore;
+import org.springframework.content.commons.repository.ReactiveContentStore;
 import org.springframework.content.mongo.config.EnableMongoContentRepositories;
 import org.springframework.content.mongo.config.EnableMongoStores;
+import org.springframework.content.mongo.config.GridFsStore;
 import org.springframework.content.mongo.config.MongoStoreConverter;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
 import org.springframework.context.annotation.Bean;
@@ -30,11 +32,11 @@ import org.springframework.core.convert.ConversionService;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.MongoDbFactory;
 import org.springframework.data.mongodb.config.AbstractMongoConfiguration;
-import org.springframework.data.mongodb.gridfs.GridFsTemplate;
 
 import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
 import com.mongodb.Mongo;
 import com.mongodb.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
 
 @RunWith(Ginkgo4jRunner.class)
 public class EnableMongoStoresTest {
@@ -57,6 +59,12 @@ public class EnableMongoStoresTest {
 				It("should have a mongo store converter", () -> {
 					assertThat(context.getBean("mongoStoreConverter"), is(not(nullValue())));
 				});
+				It("should have a store with its own GridFS settings", () -> {
+					assertThat(context.getBean(LargeContentStore.class), is(not(nullValue())));
+				});
+				It("should have a reactive store", () -> {
+					assertThat(context.getBean(ReactiveTestEntityStore.class), is(not(nullValue())));
+				});
 			});
 
 			Context("given a context with a custom converter", () -> {
@@ -159,10 +167,6 @@ public class EnableMongoStoresTest {
 
 	@Configuration
 	public static class InfrastructureConfig extends AbstractMongoConfiguration {
-		@Bean
-		public GridFsTemplate gridFsTemplate() throws Exception {
-			return new GridFsTemplate(mongoDbFactory(), mappingMongoConverter());
-		}
 		@Override
 		protected String getDatabaseName() {
 			return "spring-content";
@@ -175,6 +179,10 @@ public class EnableMongoStoresTest {
 		public Mongo mongo() throws Exception {
 	        return new MongoClient();
 		}
+		@Bean
+		public com.mongodb.reactivestreams.client.MongoClient reactiveMongoClient() {
+			return MongoClients.create();
+		}
 	}
 
 	@Content
@@ -187,4 +195,11 @@ public class EnableMongoStoresTest {
 
 	public interface TestEntityContentRepository extends ContentStore<TestEntity, String> {
 	}
+
+	@GridFsStore(bucket="large", chunkSize=4 * 1024 * 1024)
+	public interface LargeContentStore extends ContentStore<TestEntity, String> {
+	}
+
+	public interface ReactiveTestEntityStore extends ReactiveContentStore<TestEntity, String> {
+	}
 }
@@ -8,37 +8,55 @@ import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.JustBeforeEach;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
-import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Matchers.isA;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.UUID;
 
+import org.apache.commons.io.IOUtils;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.springframework.content.commons.annotations.ContentId;
 import org.springframework.content.commons.annotations.ContentLength;
 import org.springframework.core.convert.ConversionService;
-import org.springframework.data.mongodb.gridfs.GridFsResource;
-import org.springframework.data.mongodb.gridfs.GridFsTemplate;
+import org.springframework.util.DigestUtils;
 
 import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
-import com.mongodb.gridfs.GridFSFile;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DB;
+import com.mongodb.DBCollection;
+import com.mongodb.DBObject;
+import com.mongodb.gridfs.GridFS;
+import com.mongodb.gridfs.GridFSDBFile;
+import com.mongodb.gridfs.GridFSInputFile;
 
 
 @RunWith(Ginkgo4jRunner.class)
 public class DefaultMongoStoreImplTest {
     private DefaultMongoStoreImpl<TestEntity, String> mongoContentRepoImpl;
-    private GridFsTemplate gridFsTemplate;
-    private GridFSFile gridFSFile;
+    private GridFS gridFs;
+    private GridFSInputFile inputFile;
+    private GridFSDBFile dbFile;
     private TestEntity property;
-    private GridFsResource resource;
     private ConversionService converter;
+    private List<Runnable> deferred;
+    private DB db;
+    private DBCollection files;
 
     private InputStream content;
     private InputStream result;
@@ -48,10 +66,16 @@ public class DefaultMongoStoreImplTest {
 
         	BeforeEach(() -> {
             	converter = mock(ConversionService.class);
-                gridFsTemplate = mock(GridFsTemplate.class);
-                gridFSFile = mock(GridFSFile.class);
-                resource = mock(GridFsResource.class);
-                mongoContentRepoImpl = new DefaultMongoStoreImpl<TestEntity, String>(gridFsTemplate, converter);
+                gridFs = mock(GridFS.class);
+                inputFile = mock(GridFSInputFile.class);
+                dbFile = mock(GridFSDBFile.class);
+                deferred = new ArrayList<>();
+                db = mock(DB.class);
+                files = mock(DBCollection.class);
+                when(gridFs.getDB()).thenReturn(db);
+                when(gridFs.getBucketName()).thenReturn("fs");
+                when(db.getCollection("fs.files")).thenReturn(files);
+                mongoContentRepoImpl = new DefaultMongoStoreImpl<TestEntity, String>(() -> gridFs, 1024, 0, converter, deferred::add);
             });
 
             Context("#setContent", () -> {
@@ -59,6 +83,11 @@ public class DefaultMongoStoreImplTest {
                     property = new TestEntity();
 
                     content = mock(InputStream.class);
+
+                    when(gridFs.createFile(any(InputStream.class), anyString())).thenReturn(inputFile);
+                    when(inputFile.getId()).thenReturn("new-revision");
+                    when(inputFile.getLength()).thenReturn(1L);
+                    when(inputFile.getUploadDate()).thenReturn(new Date(1000));
                 });
 
                 JustBeforeEach(() -> {
@@ -68,17 +97,27 @@ public class DefaultMongoStoreImplTest {
                 Context("when content is new", () -> {
                 	BeforeEach(() -> {
                 		when(converter.convert(isA(UUID.class), eq(String.class))).thenReturn("12345-67890");
-                		when(gridFsTemplate.getResource(anyString())).thenReturn(null).thenReturn(resource);
-                		when(gridFsTemplate.store(anyObject(), anyString())).thenReturn(gridFSFile);
-                		when(resource.contentLength()).thenReturn(1L);
                 	});
 
                 	It("should use the mongoStoreConverter to find the resource path", () -> {
                 		verify(converter).convert(isA(UUID.class), eq(String.class));
                 	});
 
-                	It("should store content in GridFS", () -> {
-                		verify(gridFsTemplate).store(eq(content), eq("12345-67890"));
+                	It("should store content in GridFS with the configured chunk size", () -> {
+                		verify(gridFs).createFile(any(InputStream.class), eq("12345-67890"));
+                		verify(inputFile).setChunkSize(1024);
+                		verify(inputFile).save();
+                	});
+
+                	It("should not look the content up before or after storing it", () -> {
+                		verify(gridFs, never()).find(any(DBObject.class), any(DBObject.class));
+                		verify(gridFs, never()).findOne(anyString());
+                		verify(files, never()).find(any(DBObject.class), any(DBObject.class));
+                	});
+
+                	It("should not remove anything", () -> {
+                		assertThat(deferred.isEmpty(), is(true));
+                		verify(gridFs, never()).remove(any(DBObject.class));
                 	});
 
                 	It("should update the content length", () -> {
@@ -86,27 +125,97 @@ public class DefaultMongoStoreImplTest {
                 	});
             	});
 
+                Context("when an inline threshold is set", () -> {
+                	BeforeEach(() -> {
+                		when(converter.convert(isA(UUID.class), eq(String.class))).thenReturn("12345-67890");
+
+                		mongoContentRepoImpl = new DefaultMongoStoreImpl<TestEntity, String>(() -> gridFs, 1024, 16, converter, deferred::add);
+                	});
+
+                	Context("given content no larger than the threshold", () -> {
+                		BeforeEach(() -> {
+                			content = new ByteArrayInputStream("Hello inline!".getBytes());
+                		});
+
+                		It("should store the content on a file document marked inline", () -> {
+                			ArgumentCaptor<DBObject> file = ArgumentCaptor.forClass(DBObject.class);
+                			verify(files).insert(file.capture());
+                			assertThat(file.getValue().get("filename"), is("12345-67890"));
+                			assertThat(file.getValue().get("inline"), is(true));
+                			assertThat(new String((byte[]) file.getValue().get("data")), is("Hello inline!"));
+                			assertThat(file.getValue().get("length"), is(13L));
+                			assertThat(file.getValue().get("md5"), is(DigestUtils.md5DigestAsHex("Hello inline!".getBytes())));
+                		});
+
+                		It("should not create chunks", () -> {
+                			verify(gridFs, never()).createFile(any(InputStream.class), anyString());
+                		});
+
+                		It("should update the content length", () -> {
+                			assertThat(property.getContentLen(), is(13L));
+                		});
+                	});
+
+                	Context("given content larger than the threshold", () -> {
+                		BeforeEach(() -> {
+                			content = new ByteArrayInputStream("Hello chunked content!".getBytes());
+                		});
+
+                		It("should store all of the content in GridFS", () -> {
+                			ArgumentCaptor<InputStream> stored = ArgumentCaptor.forClass(InputStream.class);
+                			verify(gridFs).createFile(stored.capture(), eq("12345-67890"));
+                			assertThat(IOUtils.toString(stored.getValue()), is("Hello chunked content!"));
+                			verify(files, never()).insert(any(DBObject.class));
+                		});
+                	});
+                });
+
                 Context("#when the content already exists", () -> {
                 	BeforeEach(() -> {
                 		property.setContentId("abcd-efghi");
 
                 		when(converter.convert(eq("abcd-efghi"), eq(String.class))).thenReturn("abcd-efghi");
-                		when(gridFsTemplate.getResource(anyObject())).thenReturn(resource);
-                		when(gridFsTemplate.store(anyObject(), anyString())).thenReturn(gridFSFile);
-                		when(resource.exists()).thenReturn(true);
-                		when(resource.contentLength()).thenReturn(1L);
                 	});
 
                 	It("should use the mongoStoreConverter to find the resource path", () -> {
                 		verify(converter).convert(eq("abcd-efghi"), eq(String.class));
                 	});
 
-                	It("should delete the exsting resource", () -> {
-                		verify(gridFsTemplate).delete(anyObject());
+                	It("should not look up the existing revisions before storing the new one", () -> {
+                		verify(inputFile).save();
+                		verify(files, never()).find(any(DBObject.class), any(DBObject.class));
+                		verify(gridFs, never()).find(any(DBObject.class), any(DBObject.class));
+                	});
+
+                	It("should store the new revision before removing only the revisions uploaded before it", () -> {
+                		verify(inputFile).save();
+                		verify(gridFs, never()).remove(any(DBObject.class));
+
+                		assertThat(deferred.size(), is(1));
+                		deferred.get(0).run();
+
+                		ArgumentCaptor<DBObject> query = ArgumentCaptor.forClass(DBObject.class);
+                		verify(gridFs).remove(query.capture());
+                		assertThat(query.getValue().get("filename"), is("abcd-efghi"));
+                		assertThat(((DBObject)query.getValue().get("uploadDate")).get("$lt"), is(new Date(1000)));
                 	});
 
-                	It("should store content in GridFS", () -> {
-                		verify(gridFsTemplate).store(eq(content), eq("abcd-efghi"));
+                	Context("given content stored inline", () -> {
+                		BeforeEach(() -> {
+                			mongoContentRepoImpl = new DefaultMongoStoreImpl<TestEntity, String>(() -> gridFs, 1024, 16, converter, deferred::add);
+                			content = new ByteArrayInputStream("Hello inline!".getBytes());
+                		});
+
+                		It("should remove the revisions uploaded before the inline one", () -> {
+                			ArgumentCaptor<DBObject> file = ArgumentCaptor.forClass(DBObject.class);
+                			verify(files).insert(file.capture());
+
+                			deferred.get(0).run();
+
+                			ArgumentCaptor<DBObject> query = ArgumentCaptor.forClass(DBObject.class);
+                			verify(gridFs).remove(query.capture());
+                			assertThat(((DBObject)query.getValue().get("uploadDate")).get("$lt"), is(file.getValue().get("uploadDate")));
+                		});
                 	});
 
                 	It("should update the content length", () -> {
@@ -123,8 +232,7 @@ public class DefaultMongoStoreImplTest {
                     content = mock(InputStream.class);
 
             		when(converter.convert(eq("abcd"), eq(String.class))).thenReturn("abcd");
-                    when(gridFsTemplate.getResource(anyObject())).thenReturn(resource);
-                    when(resource.getInputStream()).thenReturn(content);
+                    when(dbFile.getInputStream()).thenReturn(content);
                 });
 
                 JustBeforeEach(() -> {
@@ -133,26 +241,52 @@ public class DefaultMongoStoreImplTest {
 
                 Context("when the resource exists", () -> {
                     BeforeEach(() -> {
-                        when(resource.exists()).thenReturn(true);
+                        when(gridFs.find(any(DBObject.class), any(DBObject.class))).thenReturn(Arrays.asList(dbFile, mock(GridFSDBFile.class)));
                     });
 
                     It("should use the converter to get the resource path", () -> {
                     	verify(converter).convert(eq("abcd"), eq(String.class));
                     });
 
-                    It("should fetch the resource from that path", () -> {
-                    	verify(gridFsTemplate).getResource("abcd");
+                    It("should find the revisions from that path, newest first, with one query", () -> {
+                    	ArgumentCaptor<DBObject> query = ArgumentCaptor.forClass(DBObject.class);
+                    	ArgumentCaptor<DBObject> sort = ArgumentCaptor.forClass(DBObject.class);
+                    	verify(gridFs).find(query.capture(), sort.capture());
+                    	assertThat(query.getValue().get("filename"), is("abcd"));
+                    	assertThat(sort.getValue().get("uploadDate"), is(-1));
+                    	verify(gridFs, never()).findOne(any(DBObject.class));
+                    	verify(files, never()).findOne(any(DBObject.class), any(DBObject.class), any(DBObject.class));
                     });
 
-                    It("should get content", () -> {
+                    It("should get the content of the newest", () -> {
                         assertThat(result, is(content));
                     });
+
+                    It("should index the files collection by filename and upload date once", () -> {
+                        mongoContentRepoImpl.getContent(property);
+
+                        ArgumentCaptor<DBObject> keys = ArgumentCaptor.forClass(DBObject.class);
+                        verify(files).createIndex(keys.capture());
+                        assertThat(keys.getValue().keySet(), is(new LinkedHashSet<>(Arrays.asList("filename", "uploadDate"))));
+                    });
                 });
 
+                Context("when the content is stored inline", () -> {
+                    BeforeEach(() -> {
+                        when(dbFile.get("inline")).thenReturn(true);
+                        when(dbFile.get("data")).thenReturn("Hello inline!".getBytes());
+                        when(gridFs.find(any(DBObject.class), any(DBObject.class))).thenReturn(Collections.singletonList(dbFile));
+                    });
+
+                    It("should return the content from the file document", () -> {
+                        assertThat(IOUtils.toString(result), is("Hello inline!"));
+                        verify(dbFile, never()).getInputStream();
+                    });
+                });
 
                 Context("when the resource does not exists", () -> {
                     BeforeEach(() -> {
-                        when(resource.exists()).thenReturn(false);
+                        when(gridFs.find(any(DBObject.class), any(DBObject.class))).thenReturn(Collections.<GridFSDBFile>emptyList());
                     });
 
                     It("should not find the content", () -> {
@@ -167,8 +301,6 @@ public class DefaultMongoStoreImplTest {
                     property.setContentId("abcd");
 
             		when(converter.convert(eq("abcd"), eq(String.class))).thenReturn("abcd");
-                    when(gridFsTemplate.getResource(anyObject())).thenReturn(resource);
-                    when(resource.exists()).thenReturn(true);
                 });
 
                 JustBeforeEach(() -> {
@@ -179,12 +311,10 @@ public class DefaultMongoStoreImplTest {
                 	verify(converter).convert(eq("abcd"), eq(String.class));
                 });
 
-                It("should fetch the resource from that path", () -> {
-                	verify(gridFsTemplate).getResource(eq("abcd"));
-                });
-
-                It("should unset content", () -> {
-                    verify(gridFsTemplate).delete(anyObject());
+                It("should remove every revision at that path", () -> {
+                	ArgumentCaptor<DBObject> query = ArgumentCaptor.forClass(DBObject.class);
+                	verify(gridFs).remove(query.capture());
+                	assertThat(query.getValue().get("filename"), is("abcd"));
                 });
 
                 It("should reset the metadata", () -> {
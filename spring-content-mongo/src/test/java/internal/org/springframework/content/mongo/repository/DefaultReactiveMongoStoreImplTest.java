@@ -0,0 +1,301 @@
+package internal.org.springframework.content.mongo.repository;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.AfterEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.BeforeEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Context;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.It;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.JustBeforeEach;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.apache.commons.io.IOUtils;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.bson.types.ObjectId;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.util.DigestUtils;
+
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+import com.mongodb.gridfs.GridFS;
+import com.mongodb.reactivestreams.client.MongoClient;
+
+import internal.org.springframework.content.mongo.repository.DefaultMongoStoreImplTest.TestEntity;
+import reactor.core.publisher.Flux;
+
+@RunWith(Ginkgo4jRunner.class)
+public class DefaultReactiveMongoStoreImplTest {
+
+	private static final int CHUNK_SIZE = 1024;
+	private static final int PREFETCH = 4;
+
+	private MongoStandIn mongo;
+	private MongoClient client;
+	private DefaultReactiveMongoStoreImpl<TestEntity, String> store;
+	private int inlineThreshold;
+
+	private TestEntity property;
+	private byte[] content;
+	private List<Long> requests;
+
+	{
+		Describe("DefaultReactiveMongoStoreImpl", () -> {
+			BeforeEach(() -> {
+				mongo = new MongoStandIn().start();
+				client = mongo.createClient();
+				inlineThreshold = 0;
+				property = new TestEntity();
+				requests = new CopyOnWriteArrayList<>();
+			});
+			JustBeforeEach(() -> {
+				store = new DefaultReactiveMongoStoreImpl<>(client.getDatabase("test"), "fs", CHUNK_SIZE, inlineThreshold, PREFETCH, new DefaultConversionService());
+			});
+			AfterEach(() -> {
+				client.close();
+				mongo.stop();
+			});
+
+			Context("#setContent", () -> {
+				BeforeEach(() -> {
+					content = random(10 * CHUNK_SIZE + 100);
+				});
+				Context("when content is new", () -> {
+					JustBeforeEach(() -> {
+						store.setContent(property, buffers(content, 300)).block();
+					});
+					It("should set the content id and length", () -> {
+						assertThat(property.getContentId(), is(not(nullValue())));
+						assertThat(property.getContentLen(), is((long) content.length));
+					});
+					It("should write the content in chunks of the configured size", () -> {
+						List<Document> chunks = mongo.collection("test", "fs.chunks");
+						assertThat(chunks.size(), is(11));
+						for (Document chunk : chunks) {
+							int expected = chunk.getInteger("n") < 10 ? CHUNK_SIZE : 100;
+							assertThat(((Binary) chunk.get("data")).length(), is(expected));
+						}
+					});
+					It("should write a file document describing the content", () -> {
+						List<Document> files = mongo.collection("test", "fs.files");
+						assertThat(files.size(), is(1));
+						assertThat(files.get(0).getString("filename"), is(property.getContentId()));
+						assertThat(files.get(0).getLong("length"), is((long) content.length));
+						assertThat(files.get(0).getString("md5"), is(DigestUtils.md5DigestAsHex(content)));
+					});
+					It("should request the content as it is written", () -> {
+						assertThat(requests.contains(Long.MAX_VALUE), is(false));
+					});
+				});
+				Context("when the content already exists", () -> {
+					JustBeforeEach(() -> {
+						store.setContent(property, buffers(random(3 * CHUNK_SIZE), CHUNK_SIZE)).block();
+						store.setContent(property, buffers(content, 300)).block();
+					});
+					It("should keep only the new revision", () -> {
+						assertThat(mongo.collection("test", "fs.files").size(), is(1));
+						assertThat(mongo.collection("test", "fs.chunks").size(), is(11));
+						assertThat(read(store.getContent(property)), is(content));
+					});
+				});
+				Context("when a newer revision is written while the content is being replaced", () -> {
+					JustBeforeEach(() -> {
+						store.setContent(property, buffers(random(3 * CHUNK_SIZE), CHUNK_SIZE)).block();
+
+						// the concurrent revision lands after this write's, so it is uploaded later
+						Document concurrent = new Document("_id", new ObjectId())
+								.append("filename", property.getContentId())
+								.append("length", 0L)
+								.append("uploadDate", new Date(System.currentTimeMillis() + 60000));
+						store.setContent(property, buffers(content, 300)
+								.doOnComplete(() -> mongo.collection("test", "fs.files").add(concurrent)))
+								.block();
+					});
+					It("should remove only the revisions uploaded before its own", () -> {
+						List<Document> files = mongo.collection("test", "fs.files");
+						assertThat(files.size(), is(2));
+						assertThat(mongo.collection("test", "fs.chunks").size(), is(11));
+					});
+				});
+				Context("when an inline threshold is set", () -> {
+					BeforeEach(() -> {
+						inlineThreshold = 2 * CHUNK_SIZE;
+					});
+					Context("given content no larger than the threshold", () -> {
+						BeforeEach(() -> {
+							content = random(2 * CHUNK_SIZE);
+						});
+						JustBeforeEach(() -> {
+							store.setContent(property, buffers(content, 300)).block();
+						});
+						It("should store the content on a file document marked inline without chunks", () -> {
+							assertThat(mongo.collection("test", "fs.chunks").size(), is(0));
+							assertThat(mongo.collection("test", "fs.files").size(), is(1));
+							assertThat(mongo.collection("test", "fs.files").get(0).get("inline"), is(true));
+							assertThat(((Binary) mongo.collection("test", "fs.files").get(0).get("data")).getData(), is(content));
+							assertThat(property.getContentLen(), is((long) content.length));
+						});
+						It("should read the content back", () -> {
+							assertThat(read(store.getContent(property)), is(content));
+						});
+						It("should read the newest revision when it replaces chunked content", () -> {
+							byte[] replacement = random(CHUNK_SIZE / 2);
+							store.setContent(property, buffers(replacement, 300)).block();
+							assertThat(read(store.getContent(property)), is(replacement));
+							assertThat(mongo.collection("test", "fs.files").size(), is(1));
+						});
+						It("should be readable by the blocking store", () -> {
+							com.mongodb.MongoClient blocking = new com.mongodb.MongoClient(mongo.getConnectionString().substring("mongodb://".length()));
+							try {
+								DefaultMongoStoreImpl<TestEntity, String> other = new DefaultMongoStoreImpl<>(() -> new GridFS(blocking.getDB("test"), "fs"), CHUNK_SIZE, 0, new DefaultConversionService(), Runnable::run);
+								try (InputStream in = other.getContent(property)) {
+									assertThat(IOUtils.toByteArray(in), is(content));
+								}
+							} finally {
+								blocking.close();
+							}
+						});
+					});
+					Context("given content larger than the threshold", () -> {
+						JustBeforeEach(() -> {
+							store.setContent(property, buffers(content, 300)).block();
+						});
+						It("should store all of the content in chunks", () -> {
+							assertThat(mongo.collection("test", "fs.chunks").size(), is(11));
+							assertThat(mongo.collection("test", "fs.files").get(0).get("data"), is(nullValue()));
+							assertThat(mongo.collection("test", "fs.files").get(0).get("inline"), is(nullValue()));
+							assertThat(read(store.getContent(property)), is(content));
+						});
+					});
+				});
+			});
+
+			Context("#getContent", () -> {
+				Context("when the content exists", () -> {
+					BeforeEach(() -> {
+						content = random(20 * CHUNK_SIZE);
+					});
+					JustBeforeEach(() -> {
+						store.setContent(property, buffers(content, CHUNK_SIZE)).block();
+					});
+					It("should stream the content in order", () -> {
+						assertThat(read(store.getContent(property)), is(content));
+					});
+					It("should fetch no more than the prefetch ahead of the subscriber", () -> {
+						read(store.getContent(property));
+						assertThat(mongo.getMores().isEmpty(), is(false));
+						assertThat(Collections.max(mongo.getMores()) <= PREFETCH, is(true));
+					});
+					It("should be readable by the blocking store", () -> {
+						com.mongodb.MongoClient blocking = new com.mongodb.MongoClient(mongo.getConnectionString().substring("mongodb://".length()));
+						try {
+							DefaultMongoStoreImpl<TestEntity, String> other = new DefaultMongoStoreImpl<>(() -> new GridFS(blocking.getDB("test"), "fs"), CHUNK_SIZE, 0, new DefaultConversionService(), Runnable::run);
+							try (InputStream in = other.getContent(property)) {
+								assertThat(IOUtils.toByteArray(in), is(content));
+							}
+						} finally {
+							blocking.close();
+						}
+					});
+				});
+				Context("when the content does not exist", () -> {
+					It("should complete without content", () -> {
+						property.setContentId("missing");
+						assertThat(store.getContent(property).collectList().block().size(), is(0));
+					});
+				});
+				Context("when the property has no content id", () -> {
+					It("should complete without content", () -> {
+						assertThat(store.getContent(property).collectList().block().size(), is(0));
+					});
+				});
+			});
+
+			Context("#unsetContent", () -> {
+				JustBeforeEach(() -> {
+					store.setContent(property, buffers(random(5 * CHUNK_SIZE), CHUNK_SIZE)).block();
+					store.unsetContent(property).block();
+				});
+				It("should remove the file and its chunks", () -> {
+					assertThat(mongo.collection("test", "fs.files").size(), is(0));
+					assertThat(mongo.collection("test", "fs.chunks").size(), is(0));
+				});
+				It("should reset the metadata", () -> {
+					assertThat(property.getContentId(), is(nullValue()));
+					assertThat(property.getContentLen(), is(0L));
+				});
+			});
+
+			Context("indexes", () -> {
+				Context("when content is first read", () -> {
+					JustBeforeEach(() -> {
+						property.setContentId("missing");
+						store.getContent(property).collectList().block();
+					});
+					It("should index the files by filename and upload date and the chunks uniquely by file and number", () -> {
+						List<Document> files = mongo.indexes("test", "fs.files");
+						assertThat(files.size(), is(1));
+						assertThat(((Document) files.get(0).get("key")).keySet(), is(new LinkedHashSet<>(Arrays.asList("filename", "uploadDate"))));
+
+						List<Document> chunks = mongo.indexes("test", "fs.chunks");
+						assertThat(chunks.size(), is(1));
+						assertThat(((Document) chunks.get(0).get("key")).keySet(), is(new LinkedHashSet<>(Arrays.asList("files_id", "n"))));
+						assertThat(chunks.get(0).get("unique"), is(true));
+					});
+				});
+				Context("when the store is used again", () -> {
+					JustBeforeEach(() -> {
+						store.setContent(property, buffers(random(CHUNK_SIZE), CHUNK_SIZE)).block();
+						store.getContent(property).collectList().block();
+						store.unsetContent(property).block();
+					});
+					It("should create the indexes only once", () -> {
+						assertThat(mongo.indexes("test", "fs.files").size(), is(1));
+						assertThat(mongo.indexes("test", "fs.chunks").size(), is(1));
+					});
+				});
+			});
+		});
+	}
+
+	@Test
+	public void test() {
+		//noop
+	}
+
+	private Flux<ByteBuffer> buffers(byte[] bytes, int size) {
+		return Flux.range(0, (bytes.length + size - 1) / size)
+				.map((i) -> ByteBuffer.wrap(bytes, i * size, Math.min(size, bytes.length - i * size)))
+				.doOnRequest(requests::add);
+	}
+
+	private static byte[] read(Flux<ByteBuffer> content) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		content.doOnNext((buffer) -> {
+			byte[] bytes = new byte[buffer.remaining()];
+			buffer.get(bytes);
+			out.write(bytes, 0, bytes.length);
+		}).blockLast();
+		return out.toByteArray();
+	}
+
+	private static byte[] random(int length) {
+		byte[] bytes = new byte[length];
+		new Random(length).nextBytes(bytes);
+		return bytes;
+	}
+}
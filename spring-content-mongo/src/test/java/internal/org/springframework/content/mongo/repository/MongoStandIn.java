@@ -0,0 +1,387 @@
+package internal.org.springframework.content.mongo.repository;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.Document;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+
+/**
+ * Minimal in-process MongoDB server speaking the legacy wire protocol, enough for the reactive streams driver to
+ * insert, find, page through and delete documents.  It reports itself as a 3.0 server so that the driver issues
+ * queries and cursor requests as OP_QUERY and OP_GET_MORE messages and writes as commands.
+ *
+ * Filters support equality, <code>$ne</code>, <code>$in</code> and <code>$lt</code> on top level fields; sorts compare top level fields.
+ */
+public class MongoStandIn {
+
+	private static final int OP_REPLY = 1;
+	private static final int OP_QUERY = 2004;
+	private static final int OP_GET_MORE = 2005;
+	private static final int OP_KILL_CURSORS = 2007;
+
+	private static final DocumentCodec CODEC = new DocumentCodec();
+
+	private ServerSocket server;
+	private Map<String, List<Document>> collections = new ConcurrentHashMap<>();
+	private Map<Long, Iterator<Document>> cursors = new ConcurrentHashMap<>();
+	private List<Integer> getMores = new CopyOnWriteArrayList<>();
+	private Map<String, List<Document>> indexes = new ConcurrentHashMap<>();
+	private AtomicLong cursorIds = new AtomicLong();
+	private AtomicInteger requestIds = new AtomicInteger();
+
+	public MongoStandIn start() throws IOException {
+		server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+		Thread acceptor = new Thread(() -> {
+			while (!server.isClosed()) {
+				try {
+					Socket socket = server.accept();
+					Thread connection = new Thread(() -> serve(socket), "mongo-stand-in-connection");
+					connection.setDaemon(true);
+					connection.start();
+				} catch (IOException e) {
+					// closed
+				}
+			}
+		}, "mongo-stand-in");
+		acceptor.setDaemon(true);
+		acceptor.start();
+		return this;
+	}
+
+	public void stop() throws IOException {
+		server.close();
+	}
+
+	public String getConnectionString() {
+		return String.format("mongodb://127.0.0.1:%d", server.getLocalPort());
+	}
+
+	public MongoClient createClient() {
+		return MongoClients.create(getConnectionString());
+	}
+
+	/**
+	 * Returns the documents of the collection <code>name</code> in database <code>db</code>.
+	 */
+	public List<Document> collection(String db, String name) {
+		return collection(db + "." + name);
+	}
+
+	/**
+	 * Returns the number of documents requested by each OP_GET_MORE message received so far.
+	 */
+	public List<Integer> getMores() {
+		return getMores;
+	}
+
+	/**
+	 * Returns the index specifications received by createIndexes commands for the collection <code>name</code> in
+	 * database <code>db</code>, one for each time an index was requested.
+	 */
+	public List<Document> indexes(String db, String name) {
+		return indexes.computeIfAbsent(db + "." + name, (key) -> new CopyOnWriteArrayList<>());
+	}
+
+	public void reset() {
+		collections.clear();
+		cursors.clear();
+		getMores.clear();
+		indexes.clear();
+	}
+
+	private List<Document> collection(String namespace) {
+		return collections.computeIfAbsent(namespace, (key) -> new CopyOnWriteArrayList<>());
+	}
+
+	private void serve(Socket socket) {
+		try (Socket s = socket) {
+			DataInputStream in = new DataInputStream(s.getInputStream());
+			OutputStream out = s.getOutputStream();
+			while (true) {
+				byte[] header = new byte[16];
+				in.readFully(header);
+				ByteBuffer h = ByteBuffer.wrap(header).order(ByteOrder.LITTLE_ENDIAN);
+				int length = h.getInt();
+				int requestId = h.getInt();
+				h.getInt();
+				int opCode = h.getInt();
+
+				byte[] body = new byte[length - 16];
+				in.readFully(body);
+				ByteBuffer message = ByteBuffer.wrap(body).order(ByteOrder.LITTLE_ENDIAN);
+
+				switch (opCode) {
+				case OP_QUERY:
+					query(message, requestId, out);
+					break;
+				case OP_GET_MORE:
+					getMore(message, requestId, out);
+					break;
+				case OP_KILL_CURSORS:
+					killCursors(message);
+					break;
+				default:
+					throw new IOException(String.format("Unsupported op code %d", opCode));
+				}
+			}
+		} catch (EOFException e) {
+			// client disconnected
+		} catch (IOException e) {
+			// closed
+		}
+	}
+
+	private void query(ByteBuffer message, int requestId, OutputStream out) throws IOException {
+		message.getInt(); // flags
+		String namespace = cstring(message);
+		int skip = message.getInt();
+		int numberToReturn = message.getInt();
+		Document query = document(message);
+
+		if (namespace.endsWith(".$cmd")) {
+			String db = namespace.substring(0, namespace.indexOf('.'));
+			reply(out, requestId, 0, Collections.singletonList(command(db, query)));
+			return;
+		}
+
+		Document filter = query;
+		Document sort = null;
+		if (query.containsKey("$query")) {
+			filter = (Document) query.get("$query");
+			sort = (Document) query.get("$orderby");
+		}
+
+		List<Document> results = new ArrayList<>();
+		for (Document document : collection(namespace)) {
+			if (matches(document, filter)) {
+				results.add(document);
+			}
+		}
+		if (sort != null) {
+			results.sort(comparator(sort));
+		}
+		results = results.subList(Math.min(skip, results.size()), results.size());
+
+		Iterator<Document> cursor = results.iterator();
+		List<Document> batch = next(cursor, numberToReturn == 0 ? 101 : Math.abs(numberToReturn));
+		long cursorId = 0;
+		if (numberToReturn >= 0 && cursor.hasNext()) {
+			cursorId = cursorIds.incrementAndGet();
+			cursors.put(cursorId, cursor);
+		}
+		reply(out, requestId, cursorId, batch);
+	}
+
+	private void getMore(ByteBuffer message, int requestId, OutputStream out) throws IOException {
+		message.getInt();
+		cstring(message);
+		int numberToReturn = message.getInt();
+		long cursorId = message.getLong();
+
+		getMores.add(numberToReturn);
+
+		Iterator<Document> cursor = cursors.get(cursorId);
+		if (cursor == null) {
+			reply(out, requestId, 0, Collections.emptyList());
+			return;
+		}
+		List<Document> batch = next(cursor, numberToReturn == 0 ? Integer.MAX_VALUE : Math.abs(numberToReturn));
+		if (!cursor.hasNext()) {
+			cursors.remove(cursorId);
+			cursorId = 0;
+		}
+		reply(out, requestId, cursorId, batch);
+	}
+
+	private void killCursors(ByteBuffer message) {
+		message.getInt();
+		int count = message.getInt();
+		for (int i = 0; i < count; i++) {
+			cursors.remove(message.getLong());
+		}
+	}
+
+	private Document command(String db, Document command) {
+		String name = command.keySet().iterator().next();
+		switch (name.toLowerCase()) {
+		case "ismaster":
+			return new Document("ismaster", true)
+					.append("maxBsonObjectSize", 16 * 1024 * 1024)
+					.append("maxMessageSizeBytes", 48000000)
+					.append("maxWriteBatchSize", 1000)
+					.append("minWireVersion", 0)
+					.append("maxWireVersion", 3)
+					.append("ok", 1.0);
+		case "buildinfo":
+			return new Document("version", "3.0.0")
+					.append("versionArray", Arrays.asList(3, 0, 0, 0))
+					.append("ok", 1.0);
+		case "insert": {
+			List<Document> collection = collection(db + "." + command.getString(name));
+			List<?> documents = (List<?>) command.get("documents");
+			for (Object document : documents) {
+				collection.add((Document) document);
+			}
+			return new Document("n", documents.size()).append("ok", 1.0);
+		}
+		case "count": {
+			Document filter = command.get("query") == null ? new Document() : (Document) command.get("query");
+			int count = 0;
+			for (Document document : collection(db + "." + command.getString(name))) {
+				if (matches(document, filter)) {
+					count++;
+				}
+			}
+			return new Document("n", count).append("ok", 1.0);
+		}
+		case "delete": {
+			List<Document> collection = collection(db + "." + command.getString(name));
+			int removed = 0;
+			for (Object delete : (List<?>) command.get("deletes")) {
+				Document filter = (Document) ((Document) delete).get("q");
+				for (Document document : collection) {
+					if (matches(document, filter) && collection.remove(document)) {
+						removed++;
+					}
+				}
+			}
+			return new Document("n", removed).append("ok", 1.0);
+		}
+		case "createindexes": {
+			for (Object index : (List<?>) command.get("indexes")) {
+				indexes(db, command.getString(name)).add((Document) index);
+			}
+			return new Document("ok", 1.0);
+		}
+		default:
+			return new Document("ok", 1.0);
+		}
+	}
+
+	private static boolean matches(Document document, Document filter) {
+		for (Map.Entry<String, Object> condition : filter.entrySet()) {
+			Object actual = document.get(condition.getKey());
+			Object expected = condition.getValue();
+			if (expected instanceof Document && ((Document) expected).containsKey("$ne")) {
+				if (equal(actual, ((Document) expected).get("$ne"))) {
+					return false;
+				}
+			} else if (expected instanceof Document && ((Document) expected).containsKey("$in")) {
+				boolean found = false;
+				for (Object candidate : (Collection<?>) ((Document) expected).get("$in")) {
+					found |= equal(actual, candidate);
+				}
+				if (!found) {
+					return false;
+				}
+			} else if (expected instanceof Document && ((Document) expected).containsKey("$lt")) {
+				if (actual == null || compare(actual, ((Document) expected).get("$lt")) >= 0) {
+					return false;
+				}
+			} else if (!equal(actual, expected)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean equal(Object actual, Object expected) {
+		if (actual instanceof Number && expected instanceof Number) {
+			return ((Number) actual).doubleValue() == ((Number) expected).doubleValue();
+		}
+		return actual == null ? expected == null : actual.equals(expected);
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static int compare(Object actual, Object expected) {
+		return ((Comparable) actual).compareTo(expected);
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static Comparator<Document> comparator(Document sort) {
+		return (left, right) -> {
+			for (Map.Entry<String, Object> key : sort.entrySet()) {
+				Comparable l = (Comparable) left.get(key.getKey());
+				Comparable r = (Comparable) right.get(key.getKey());
+				int result = l == null ? (r == null ? 0 : -1) : (r == null ? 1 : l.compareTo(r));
+				if (result != 0) {
+					return ((Number) key.getValue()).intValue() < 0 ? -result : result;
+				}
+			}
+			return 0;
+		};
+	}
+
+	private static List<Document> next(Iterator<Document> cursor, int count) {
+		List<Document> batch = new ArrayList<>();
+		while (batch.size() < count && cursor.hasNext()) {
+			batch.add(cursor.next());
+		}
+		return batch;
+	}
+
+	private void reply(OutputStream out, int responseTo, long cursorId, List<Document> documents) throws IOException {
+		BasicOutputBuffer buffer = new BasicOutputBuffer();
+		for (Document document : documents) {
+			CODEC.encode(new BsonBinaryWriter(buffer), document, EncoderContext.builder().build());
+		}
+		byte[] payload = buffer.toByteArray();
+
+		ByteBuffer message = ByteBuffer.allocate(36 + payload.length).order(ByteOrder.LITTLE_ENDIAN);
+		message.putInt(36 + payload.length);
+		message.putInt(requestIds.incrementAndGet());
+		message.putInt(responseTo);
+		message.putInt(OP_REPLY);
+		message.putInt(0);
+		message.putLong(cursorId);
+		message.putInt(0);
+		message.putInt(documents.size());
+		message.put(payload);
+		out.write(message.array());
+		out.flush();
+	}
+
+	private static String cstring(ByteBuffer message) {
+		int start = message.position();
+		while (message.get() != 0) {
+			// find the terminator
+		}
+		return new String(message.array(), start, message.position() - start - 1, StandardCharsets.UTF_8);
+	}
+
+	private static Document document(ByteBuffer message) {
+		int length = message.getInt(message.position());
+		ByteBuffer bytes = ByteBuffer.wrap(message.array(), message.position(), length).slice().order(ByteOrder.LITTLE_ENDIAN);
+		message.position(message.position() + length);
+		return CODEC.decode(new BsonBinaryReader(bytes), DecoderContext.builder().build());
+	}
+}
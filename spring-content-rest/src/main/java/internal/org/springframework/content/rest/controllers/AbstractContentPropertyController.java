@@ -4,13 +4,18 @@ import java.util.Collection;
 import java.util.Set;
 
 import org.springframework.content.commons.annotations.ContentId;
+import org.springframework.content.commons.renditions.RenditionUnavailableException;
 import org.springframework.content.commons.utils.BeanUtils;
 import org.springframework.data.mapping.PersistentEntity;
 import org.springframework.data.mapping.PersistentProperty;
 import org.springframework.data.mapping.PersistentPropertyAccessor;
 import org.springframework.data.repository.support.RepositoryInvoker;
 import org.springframework.data.rest.webmvc.ResourceNotFoundException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.HttpRequestMethodNotSupportedException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 
 import internal.org.springframework.content.rest.utils.PersistentEntityUtils;
 
@@ -92,4 +97,12 @@ public abstract class AbstractContentPropertyController {
 		}
 		return null;
 	}
+
+	// renditions refused by a busy rendition scheduler, so that clients back off rather than wait
+	@ExceptionHandler(RenditionUnavailableException.class)
+	public ResponseEntity<Void> handleRenditionUnavailable(RenditionUnavailableException e) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.add(HttpHeaders.RETRY_AFTER, Long.toString(e.getRetryAfter()));
+		return new ResponseEntity<Void>(headers, HttpStatus.SERVICE_UNAVAILABLE);
+	}
 }
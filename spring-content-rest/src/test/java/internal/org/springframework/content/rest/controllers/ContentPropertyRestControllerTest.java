@@ -9,7 +9,10 @@ import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
 
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
@@ -21,6 +24,8 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 import org.springframework.content.commons.annotations.Content;
+import org.springframework.content.commons.renditions.Renderable;
+import org.springframework.content.commons.renditions.RenditionUnavailableException;
 import org.springframework.content.commons.repository.ContentStore;
 import org.springframework.content.commons.storeservice.ContentStoreInfo;
 import org.springframework.content.commons.storeservice.ContentStoreService;
@@ -77,6 +82,34 @@ public class ContentPropertyRestControllerTest {
 					assertThat(IOUtils.toString(resource.getBody().getInputStream()), is("Hello Spring Content Rest World!"));
 				});
 			});
+
+			Context("given a rendition request the rendition scheduler refuses", () -> {
+				BeforeEach(() -> {
+					when(rootResourceInfoMock.getInvoker()).thenReturn(invokerMock);
+					when(invokerMock.hasFindOneMethod()).thenReturn(true);
+					when(invokerMock.invokeFindOne("12345")).thenReturn(new ContentEntity("12345"));
+					ContentStore<Object, Serializable> renderableRepo = mock(ContentStore.class, withSettings().extraInterfaces(Renderable.class));
+					when(contentRepoService.getContentStores()).thenReturn(new ContentStoreInfo[] {contentRepoInfo});
+					when(contentRepoInfo.getImpementation()).thenReturn(renderableRepo);
+					Mockito.doReturn(ContentEntity.class).when(contentRepoInfo).getDomainObjectClass();
+					Mockito.doReturn(ContentEntityContentRepository.class).when(contentRepoInfo).getInterface();
+					when(((Renderable<Object>) renderableRepo).getRendition(anyObject(), eq("application/pdf"))).thenThrow(new RenditionUnavailableException("busy", 7));
+				});
+
+				It("should respond 503 with a Retry-After header", () -> {
+					RenditionUnavailableException e = null;
+					try {
+						controller.getContent(rootResourceInfoMock, "files", "12345", "content", "12345", "application/pdf");
+					} catch (RenditionUnavailableException rue) {
+						e = rue;
+					}
+					assertThat(e, is(not(nullValue())));
+
+					ResponseEntity<Void> response = controller.handleRenditionUnavailable(e);
+					assertThat(response.getStatusCode(), is(HttpStatus.SERVICE_UNAVAILABLE));
+					assertThat(response.getHeaders().getFirst("Retry-After"), is("7"));
+				});
+			});
 		});
 	}
 
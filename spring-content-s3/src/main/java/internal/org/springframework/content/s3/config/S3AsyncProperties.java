@@ -0,0 +1,164 @@
+package internal.org.springframework.content.s3.config;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3AsyncClientBuilder;
+import software.amazon.awssdk.services.s3.S3Configuration;
+
+public class S3AsyncProperties {
+
+	public static final int DEFAULT_PART_SIZE = 8 * 1024 * 1024;
+
+	private int maxConcurrency = 500;
+	private int maxPendingConnectionAcquires = 10000;
+	private long connectionTimeout = 2000;
+	private long connectionAcquisitionTimeout = 10000;
+	private long readTimeout = 30000;
+	private long writeTimeout = 30000;
+	private int partSize = DEFAULT_PART_SIZE;
+	private int readThreads = 16;
+	private String endpoint;
+	private String region;
+	private boolean pathStyleAccess = false;
+
+	public int getMaxConcurrency() {
+		return maxConcurrency;
+	}
+
+	@Value("${spring.content.s3.async.maxConcurrency:500}")
+	public void setMaxConcurrency(int maxConcurrency) {
+		this.maxConcurrency = maxConcurrency;
+	}
+
+	public int getMaxPendingConnectionAcquires() {
+		return maxPendingConnectionAcquires;
+	}
+
+	@Value("${spring.content.s3.async.maxPendingConnectionAcquires:10000}")
+	public void setMaxPendingConnectionAcquires(int maxPendingConnectionAcquires) {
+		this.maxPendingConnectionAcquires = maxPendingConnectionAcquires;
+	}
+
+	public long getConnectionTimeout() {
+		return connectionTimeout;
+	}
+
+	@Value("${spring.content.s3.async.connectionTimeout:2000}")
+	public void setConnectionTimeout(long connectionTimeout) {
+		this.connectionTimeout = connectionTimeout;
+	}
+
+	public long getConnectionAcquisitionTimeout() {
+		return connectionAcquisitionTimeout;
+	}
+
+	@Value("${spring.content.s3.async.connectionAcquisitionTimeout:10000}")
+	public void setConnectionAcquisitionTimeout(long connectionAcquisitionTimeout) {
+		this.connectionAcquisitionTimeout = connectionAcquisitionTimeout;
+	}
+
+	public long getReadTimeout() {
+		return readTimeout;
+	}
+
+	@Value("${spring.content.s3.async.readTimeout:30000}")
+	public void setReadTimeout(long readTimeout) {
+		this.readTimeout = readTimeout;
+	}
+
+	public long getWriteTimeout() {
+		return writeTimeout;
+	}
+
+	@Value("${spring.content.s3.async.writeTimeout:30000}")
+	public void setWriteTimeout(long writeTimeout) {
+		this.writeTimeout = writeTimeout;
+	}
+
+	public int getPartSize() {
+		return partSize;
+	}
+
+	@Value("${spring.content.s3.async.partSize:" + DEFAULT_PART_SIZE + "}")
+	public void setPartSize(int partSize) {
+		this.partSize = partSize;
+	}
+
+	public int getReadThreads() {
+		return readThreads;
+	}
+
+	@Value("${spring.content.s3.async.readThreads:16}")
+	public void setReadThreads(int readThreads) {
+		this.readThreads = readThreads;
+	}
+
+	public String getEndpoint() {
+		return endpoint;
+	}
+
+	@Value("${spring.content.s3.async.endpoint:#{null}}")
+	public void setEndpoint(String endpoint) {
+		this.endpoint = endpoint;
+	}
+
+	public String getRegion() {
+		return region;
+	}
+
+	@Value("${spring.content.s3.async.region:#{environment.AWS_REGION}}")
+	public void setRegion(String region) {
+		this.region = region;
+	}
+
+	public boolean isPathStyleAccess() {
+		return pathStyleAccess;
+	}
+
+	@Value("${spring.content.s3.async.pathStyleAccess:false}")
+	public void setPathStyleAccess(boolean pathStyleAccess) {
+		this.pathStyleAccess = pathStyleAccess;
+	}
+
+	/**
+	 * Creates the executor the content being uploaded is read on, so that reads never block the client's threads.
+	 */
+	public ExecutorService createReadExecutor() {
+		AtomicInteger threads = new AtomicInteger();
+		return Executors.newFixedThreadPool(readThreads, (runnable) -> {
+			Thread thread = new Thread(runnable, "s3-async-reader-" + threads.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	public S3AsyncClient createClient() {
+		S3AsyncClientBuilder builder = S3AsyncClient.builder()
+				.httpClientBuilder(NettyNioAsyncHttpClient.builder()
+						.maxConcurrency(maxConcurrency)
+						.maxPendingConnectionAcquires(maxPendingConnectionAcquires)
+						.connectionTimeout(Duration.ofMillis(connectionTimeout))
+						.connectionAcquisitionTimeout(Duration.ofMillis(connectionAcquisitionTimeout))
+						.readTimeout(Duration.ofMillis(readTimeout))
+						.writeTimeout(Duration.ofMillis(writeTimeout)))
+				.credentialsProvider(DefaultCredentialsProvider.create())
+				.serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(pathStyleAccess).build());
+		if (region != null) {
+			builder.region(Region.of(region));
+		}
+		if (endpoint != null) {
+			builder.endpointOverride(URI.create(endpoint));
+		}
+		return builder.build();
+	}
+}
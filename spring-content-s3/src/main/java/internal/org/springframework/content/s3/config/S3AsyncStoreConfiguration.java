@@ -0,0 +1,13 @@
+package internal.org.springframework.content.s3.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class S3AsyncStoreConfiguration {
+
+	@Bean
+	public S3AsyncProperties s3AsyncProperties() {
+		return new S3AsyncProperties();
+	}
+}
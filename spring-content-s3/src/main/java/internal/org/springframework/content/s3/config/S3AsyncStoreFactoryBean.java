@@ -0,0 +1,52 @@
+package internal.org.springframework.content.s3.config;
+
+import java.util.concurrent.ExecutorService;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.content.commons.repository.factory.AbstractStoreFactoryBean;
+import org.springframework.core.convert.ConversionService;
+
+import internal.org.springframework.content.s3.store.DefaultS3AsyncStoreImpl;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+
+@SuppressWarnings("rawtypes")
+public class S3AsyncStoreFactoryBean extends AbstractStoreFactoryBean implements DisposableBean {
+
+	@Autowired(required=false)
+	private S3AsyncClient client;
+
+	@Autowired
+	private S3AsyncProperties properties;
+
+	@Autowired
+	private ConversionService s3StoreConverter;
+
+	@Value("${spring.content.s3.bucket:#{environment.AWS_BUCKET}}")
+	private String bucket;
+
+	private S3AsyncClient ownedClient;
+	private ExecutorService readExecutor;
+
+	@Override
+	protected Object getContentStoreImpl() {
+		S3AsyncClient clientToUse = client;
+		if (clientToUse == null) {
+			ownedClient = properties.createClient();
+			clientToUse = ownedClient;
+		}
+		readExecutor = properties.createReadExecutor();
+		return new DefaultS3AsyncStoreImpl(s3StoreConverter, clientToUse, bucket, properties.getPartSize(), readExecutor);
+	}
+
+	@Override
+	public void destroy() throws Exception {
+		if (readExecutor != null) {
+			readExecutor.shutdown();
+		}
+		if (ownedClient != null) {
+			ownedClient.close();
+		}
+	}
+}
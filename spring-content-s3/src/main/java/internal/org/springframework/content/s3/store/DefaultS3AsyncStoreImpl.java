@@ -0,0 +1,235 @@
+package internal.org.springframework.content.s3.store;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import org.springframework.content.commons.annotations.ContentId;
+import org.springframework.content.commons.annotations.ContentLength;
+import org.springframework.content.commons.repository.AsyncContentStore;
+import org.springframework.content.commons.repository.ContentStore;
+import org.springframework.content.commons.repository.StoreAccessException;
+import org.springframework.content.commons.utils.BeanUtils;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.util.Assert;
+
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+/**
+ * S3 store built on the non-blocking {@link S3AsyncClient}.  Transfers are driven by the client's event loop so no
+ * thread is held for the duration of an upload or download.
+ *
+ * Content is read from the caller's <code>InputStream</code> one part at a time.  Content that fits in a single part
+ * is written with one <code>PutObject</code>, larger content is written as a multipart upload with at most one part
+ * buffered per transfer.  Parts are read on <code>readExecutor</code>, never on the client's completion threads, as
+ * reading the supplied stream may block.
+ *
+ * The {@link ContentStore} methods wait for their transfer and throw a {@link StoreAccessException} if it fails.
+ */
+public class DefaultS3AsyncStoreImpl<S, SID extends Serializable> implements ContentStore<S,SID>, AsyncContentStore<S,SID> {
+
+	private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+	private ConversionService converter;
+	private S3AsyncClient client;
+	private String bucket;
+	private int partSize;
+	private Executor readExecutor;
+
+	public DefaultS3AsyncStoreImpl(ConversionService converter, S3AsyncClient client, String bucket, int partSize, Executor readExecutor) {
+		Assert.isTrue(partSize > 0, "partSize must be greater than 0");
+		Assert.notNull(readExecutor, "readExecutor must not be null");
+		this.converter = converter;
+		this.client = client;
+		this.bucket = bucket;
+		this.partSize = partSize;
+		this.readExecutor = readExecutor;
+	}
+
+	@Override
+	public void setContent(S property, InputStream content) {
+		join(setContentAsync(property, content), "setting", property);
+	}
+
+	@Override
+	public InputStream getContent(S property) {
+		return join(getContentAsync(property), "getting", property);
+	}
+
+	@Override
+	public void unsetContent(S property) {
+		join(unsetContentAsync(property), "unsetting", property);
+	}
+
+	@Override
+	public CompletableFuture<S> setContentAsync(S property, InputStream content) {
+		Object contentId = BeanUtils.getFieldWithAnnotation(property, ContentId.class);
+		if (contentId == null) {
+			contentId = UUID.randomUUID();
+			BeanUtils.setFieldWithAnnotation(property, ContentId.class, contentId.toString());
+		}
+
+		final String id = contentId.toString();
+		final String key = keyFor(contentId);
+
+		CompletableFuture<Long> upload = readPart(content).thenCompose((part) -> {
+			if (part.length < partSize) {
+				return client.putObject((r) -> r.bucket(bucket).key(key).contentLength((long)part.length), AsyncRequestBody.fromBytes(part))
+						.thenApply((response) -> (long)part.length);
+			}
+			return multipartUpload(key, part, content);
+		});
+
+		return upload.handle((length, t) -> {
+			if (t != null) {
+				throw new CompletionException(new StoreAccessException(String.format("Unexpected error setting content %s", id), unwrap(t)));
+			}
+			BeanUtils.setFieldWithAnnotation(property, ContentLength.class, length);
+			return property;
+		});
+	}
+
+	@Override
+	public CompletableFuture<InputStream> getContentAsync(S property) {
+		if (property == null)
+			return CompletableFuture.completedFuture(null);
+		Object contentId = BeanUtils.getFieldWithAnnotation(property, ContentId.class);
+		if (contentId == null)
+			return CompletableFuture.completedFuture(null);
+
+		final String key = keyFor(contentId);
+		return client.getObject((r) -> r.bucket(bucket).key(key), AsyncResponseTransformer.toBlockingInputStream())
+				.handle((stream, t) -> {
+					if (t == null) {
+						return stream;
+					}
+					if (isNotFound(t)) {
+						return null;
+					}
+					throw new CompletionException(new StoreAccessException(String.format("Unexpected error getting content %s", contentId.toString()), unwrap(t)));
+				});
+	}
+
+	@Override
+	public CompletableFuture<S> unsetContentAsync(S property) {
+		if (property == null)
+			return CompletableFuture.completedFuture(null);
+		Object contentId = BeanUtils.getFieldWithAnnotation(property, ContentId.class);
+		if (contentId == null)
+			return CompletableFuture.completedFuture(property);
+
+		final String key = keyFor(contentId);
+		return client.deleteObject((r) -> r.bucket(bucket).key(key))
+				.handle((response, t) -> {
+					if (t != null && !isNotFound(t)) {
+						throw new CompletionException(new StoreAccessException(String.format("Unexpected error unsetting content %s", contentId.toString()), unwrap(t)));
+					}
+
+					// reset content fields
+					BeanUtils.setFieldWithAnnotation(property, ContentId.class, null);
+					BeanUtils.setFieldWithAnnotation(property, ContentLength.class, 0);
+					return property;
+				});
+	}
+
+	private CompletableFuture<Long> multipartUpload(String key, byte[] firstPart, InputStream content) {
+		return client.createMultipartUpload((r) -> r.bucket(bucket).key(key))
+				.thenCompose((created) -> {
+					String uploadId = created.uploadId();
+					List<CompletedPart> parts = new ArrayList<>();
+					return uploadParts(key, uploadId, 1, firstPart, content, parts, 0L)
+							.thenCompose((length) -> client.completeMultipartUpload((r) -> r.bucket(bucket).key(key).uploadId(uploadId).multipartUpload((m) -> m.parts(parts)))
+									.thenApply((response) -> length))
+							.whenComplete((length, t) -> {
+								if (t != null) {
+									client.abortMultipartUpload((r) -> r.bucket(bucket).key(key).uploadId(uploadId));
+								}
+							});
+				});
+	}
+
+	private CompletableFuture<Long> uploadParts(String key, String uploadId, int partNumber, byte[] part, InputStream content, List<CompletedPart> parts, long length) {
+		return client.uploadPart((r) -> r.bucket(bucket).key(key).uploadId(uploadId).partNumber(partNumber).contentLength((long)part.length), AsyncRequestBody.fromBytes(part))
+				.thenCompose((response) -> {
+					parts.add(CompletedPart.builder().partNumber(partNumber).eTag(response.eTag()).build());
+					long total = length + part.length;
+
+					return readPart(content).thenCompose((next) -> {
+						if (next.length == 0) {
+							return CompletableFuture.completedFuture(total);
+						}
+						return uploadParts(key, uploadId, partNumber + 1, next, content, parts, total);
+					});
+				});
+	}
+
+	// reads the next part off the client's threads
+	private CompletableFuture<byte[]> readPart(InputStream content) {
+		return CompletableFuture.supplyAsync(() -> {
+			try {
+				return readPartBlocking(content);
+			} catch (IOException e) {
+				throw new CompletionException(e);
+			}
+		}, readExecutor);
+	}
+
+	private byte[] readPartBlocking(InputStream content) throws IOException {
+		ByteArrayOutputStream part = new ByteArrayOutputStream(Math.min(partSize, READ_BUFFER_SIZE));
+		byte[] buffer = new byte[Math.min(partSize, READ_BUFFER_SIZE)];
+		int remaining = partSize;
+		while (remaining > 0) {
+			int read = content.read(buffer, 0, Math.min(buffer.length, remaining));
+			if (read == -1) {
+				break;
+			}
+			part.write(buffer, 0, read);
+			remaining -= read;
+		}
+		return part.toByteArray();
+	}
+
+	private String keyFor(Object contentId) {
+		String location = converter.convert(contentId, String.class);
+		Assert.state(location.startsWith("s3://") == false);
+		if (location.startsWith("/")) {
+			return location.substring(1);
+		}
+		return location;
+	}
+
+	private static <T> T join(CompletableFuture<T> future, String operation, Object property) {
+		try {
+			return future.join();
+		} catch (CompletionException e) {
+			Throwable cause = unwrap(e);
+			if (cause instanceof StoreAccessException) {
+				throw (StoreAccessException) cause;
+			}
+			throw new StoreAccessException(String.format("Unexpected error %s content %s", operation, BeanUtils.getFieldWithAnnotation(property, ContentId.class)), cause);
+		}
+	}
+
+	private static boolean isNotFound(Throwable t) {
+		Throwable cause = unwrap(t);
+		return cause instanceof S3Exception && ((S3Exception)cause).statusCode() == 404;
+	}
+
+	private static Throwable unwrap(Throwable t) {
+		while (t instanceof CompletionException && t.getCause() != null) {
+			t = t.getCause();
+		}
+		return t;
+	}
+}
@@ -0,0 +1,65 @@
+package org.springframework.content.s3.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.springframework.beans.factory.FactoryBean;
+import org.springframework.context.annotation.Import;
+
+import internal.org.springframework.content.s3.config.S3AsyncStoreConfiguration;
+import internal.org.springframework.content.s3.config.S3AsyncStoreFactoryBean;
+import internal.org.springframework.content.s3.config.S3AsyncStoresRegistrar;
+import internal.org.springframework.content.s3.config.S3StoreConfiguration;
+
+/**
+ * Enables S3 stores backed by the non-blocking <code>S3AsyncClient</code>.  Stores may extend
+ * {@link org.springframework.content.commons.repository.ContentStore},
+ * {@link org.springframework.content.commons.repository.AsyncContentStore} or both.
+ * 
+ * If the application context does not contain an <code>S3AsyncClient</code> one is created from the
+ * <code>spring.content.s3.async.*</code> properties.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Inherited
+@Import({S3StoreConfiguration.class, S3AsyncStoreConfiguration.class, S3AsyncStoresRegistrar.class})
+public @interface EnableS3AsyncStores {
+
+	/**
+	 * Alias for the {@link #basePackages()} attribute. Allows for more concise annotation declarations e.g.:
+	 * {@code @EnableJpaRepositories("org.my.pkg")} instead of {@code @EnableJpaRepositories(basePackages="org.my.pkg")}.
+	 * 
+	 * @return base packages
+	 */
+	String[] value() default {};
+
+	/**
+	 * Base packages to scan for annotated components. {@link #value()} is an alias for (and mutually exclusive with) this
+	 * attribute. Use {@link #basePackageClasses()} for a type-safe alternative to String-based package names.
+	 * 
+	 * @return base packages
+	 */
+	String[] basePackages() default {};
+
+	/**
+	 * Type-safe alternative to {@link #basePackages()} for specifying the packages to scan for annotated components. The
+	 * package of each class specified will be scanned. Consider creating a special no-op marker class or interface in
+	 * each package that serves no purpose other than being referenced by this attribute.
+	 * 
+	 * @return base package classes
+	 */
+	Class<?>[] basePackageClasses() default {};
+
+	/**
+	 * Returns the {@link FactoryBean} class to be used for each repository instance. Defaults to
+	 * {@link S3AsyncStoreFactoryBean}.
+	 *
+	 * @return s3 store factory bean
+	 */
+	Class<?> storeFactoryBeanClass() default S3AsyncStoreFactoryBean.class;
+}
@@ -0,0 +1,116 @@
+package internal.org.springframework.content.s3.config;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.AfterEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.BeforeEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Context;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.It;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.util.Collections;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.content.commons.annotations.Content;
+import org.springframework.content.commons.annotations.ContentId;
+import org.springframework.content.commons.annotations.ContentLength;
+import org.springframework.content.commons.repository.AsyncContentStore;
+import org.springframework.content.commons.repository.ContentStore;
+import org.springframework.content.s3.config.EnableS3AsyncStores;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.MapPropertySource;
+
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+import internal.org.springframework.content.s3.store.S3StandIn;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+
+@RunWith(Ginkgo4jRunner.class)
+public class EnableS3AsyncStoresTest {
+
+	private static S3StandIn s3;
+
+	private AnnotationConfigApplicationContext context;
+	{
+		Describe("EnableS3AsyncStores", () -> {
+			Context("given a context and a configuration with an async S3 store bean", () -> {
+				BeforeEach(() -> {
+					if (s3 == null) {
+						s3 = new S3StandIn().start();
+					}
+					context = new AnnotationConfigApplicationContext();
+					context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", Collections.<String,Object>singletonMap("spring.content.s3.bucket", "some-bucket")));
+					context.register(TestConfig.class);
+					context.refresh();
+				});
+				AfterEach(() -> {
+					context.close();
+				});
+				It("should have an async store bean", () -> {
+					assertThat(context.getBean(TestEntityAsyncStore.class), is(not(nullValue())));
+				});
+				It("should have an s3 store converter", () -> {
+					assertThat(context.getBean("s3StoreConverter"), is(not(nullValue())));
+				});
+				It("should set and get content through the async contract", () -> {
+					TestEntityAsyncStore store = context.getBean(TestEntityAsyncStore.class);
+
+					TestEntity entity = store.setContentAsync(new TestEntity(), new ByteArrayInputStream("Hello async world!".getBytes())).join();
+					assertThat(entity.getContentId(), is(not(nullValue())));
+					assertThat(entity.getContentLength(), is(18L));
+
+					assertThat(IOUtils.toString(store.getContent(entity)), is("Hello async world!"));
+				});
+			});
+		});
+	}
+
+	@Test
+	public void noop() {
+	}
+
+	@Configuration
+	@EnableS3AsyncStores
+	public static class TestConfig {
+
+		@Bean(destroyMethod="")
+		public S3AsyncClient s3AsyncClient() {
+			return s3.createClient();
+		}
+	}
+
+	@Content
+	public static class TestEntity {
+		@ContentId
+		private String contentId;
+
+		@ContentLength
+		private long contentLength;
+
+		public String getContentId() {
+			return contentId;
+		}
+
+		public void setContentId(String contentId) {
+			this.contentId = contentId;
+		}
+
+		public long getContentLength() {
+			return contentLength;
+		}
+
+		public void setContentLength(long contentLength) {
+			this.contentLength = contentLength;
+		}
+	}
+
+	public interface TestEntityAsyncStore extends ContentStore<TestEntity, String>, AsyncContentStore<TestEntity, String> {
+	}
+}
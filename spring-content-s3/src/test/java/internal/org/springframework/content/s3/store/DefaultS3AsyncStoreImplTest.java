@@ -0,0 +1,221 @@
+package internal.org.springframework.content.s3.store;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.BeforeEach;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Context;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.Describe;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.It;
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.JustBeforeEach;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.runner.RunWith;
+import org.springframework.content.commons.annotations.ContentId;
+import org.springframework.content.commons.annotations.ContentLength;
+import org.springframework.content.commons.repository.StoreAccessException;
+import org.springframework.core.convert.support.DefaultConversionService;
+
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+
+@RunWith(Ginkgo4jRunner.class)
+@Ginkgo4jConfiguration(threads=1)
+public class DefaultS3AsyncStoreImplTest {
+    private DefaultS3AsyncStoreImpl<TestEntity, String> s3StoreImpl;
+    // shared across specs; the client's event loop takes seconds to shut down
+    private static S3StandIn s3;
+    private static S3AsyncClient client;
+    private static ExecutorService readExecutor;
+    private TestEntity entity;
+
+    private InputStream content;
+    private InputStream result;
+    private List<String> readThreads;
+    private Exception e;
+
+    {
+        Describe("DefaultS3AsyncStoreImpl", () -> {
+            BeforeEach(() -> {
+                if (s3 == null) {
+                    s3 = new S3StandIn().start();
+                    client = s3.createClient();
+                    readExecutor = Executors.newFixedThreadPool(4, (runnable) -> {
+                        Thread thread = new Thread(runnable, "test-reader");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                }
+                s3.reset();
+                readThreads = new CopyOnWriteArrayList<>();
+                e = null;
+
+                s3StoreImpl = new DefaultS3AsyncStoreImpl<TestEntity, String>(new DefaultConversionService(), client, "some-bucket", 16, readExecutor);
+            });
+            Context("#setContent", () -> {
+                BeforeEach(() -> {
+                    entity = new TestEntity();
+                });
+                JustBeforeEach(() -> {
+                    try {
+                        s3StoreImpl.setContent(entity, content);
+                    } catch (StoreAccessException sae) {
+                        e = sae;
+                    }
+                });
+                Context("when the content fits in a single part", () -> {
+                    BeforeEach(() -> {
+                        content = new ByteArrayInputStream("Hello world!".getBytes());
+                    });
+                    It("should make a new content id", () -> {
+                        assertThat(entity.getContentId(), is(not(nullValue())));
+                    });
+                    It("should store the content", () -> {
+                        assertThat(new String(s3.getObject("some-bucket", entity.getContentId())), is("Hello world!"));
+                    });
+                    It("should set the content length without fetching the object", () -> {
+                        assertThat(entity.getContentLen(), is(12L));
+                        assertThat(s3.getRequestCount(), is(1));
+                    });
+                });
+                Context("when the content spans multiple parts", () -> {
+                    BeforeEach(() -> {
+                        entity.setContentId("abcd-efgh");
+                        content = new ByteArrayInputStream("Hello content world! Hello content world!".getBytes()) {
+                            @Override
+                            public synchronized int read(byte[] b, int off, int len) {
+                                readThreads.add(Thread.currentThread().getName());
+                                return super.read(b, off, len);
+                            }
+                        };
+                    });
+                    It("should read every part on the read executor", () -> {
+                        assertThat(readThreads.isEmpty(), is(false));
+                        for (String thread : readThreads) {
+                            assertThat(thread, is("test-reader"));
+                        }
+                    });
+                    It("should store the content as a multipart upload", () -> {
+                        assertThat(new String(s3.getObject("some-bucket", "abcd-efgh")), is("Hello content world! Hello content world!"));
+                    });
+                    It("should set the content length", () -> {
+                        assertThat(entity.getContentLen(), is(41L));
+                    });
+                });
+                Context("when the content cannot be read", () -> {
+                    BeforeEach(() -> {
+                        content = new InputStream() {
+                            @Override
+                            public int read() throws IOException {
+                                throw new IOException("badness");
+                            }
+                        };
+                    });
+                    It("should throw a StoreAccessException", () -> {
+                        assertThat(e, is(instanceOf(StoreAccessException.class)));
+                        assertThat(e.getCause(), is(instanceOf(IOException.class)));
+                    });
+                });
+            });
+            Context("#getContent", () -> {
+                BeforeEach(() -> {
+                    entity = new TestEntity("abcd-efgh");
+                });
+                JustBeforeEach(() -> {
+                    result = s3StoreImpl.getContent(entity);
+                });
+                Context("when the content exists", () -> {
+                    BeforeEach(() -> {
+                        s3.putObject("some-bucket", "abcd-efgh", "Hello content world!".getBytes());
+                    });
+                    It("should stream the content", () -> {
+                        assertThat(IOUtils.toString(result), is("Hello content world!"));
+                    });
+                });
+                Context("when the content does not exist", () -> {
+                    It("should not find the content", () -> {
+                        assertThat(result, is(nullValue()));
+                    });
+                });
+            });
+            Context("#unsetContent", () -> {
+                BeforeEach(() -> {
+                    entity = new TestEntity("abcd-efgh");
+                    entity.setContentLen(20L);
+                    s3.putObject("some-bucket", "abcd-efgh", "Hello content world!".getBytes());
+                });
+                JustBeforeEach(() -> {
+                    s3StoreImpl.unsetContent(entity);
+                });
+                It("should delete the content and reset the content fields", () -> {
+                    assertThat(s3.getObject("some-bucket", "abcd-efgh"), is(nullValue()));
+                    assertThat(entity.getContentId(), is(nullValue()));
+                    assertThat(entity.getContentLen(), is(0L));
+                });
+            });
+            Context("when many transfers are in flight", () -> {
+                It("should complete them all", () -> {
+                    List<TestEntity> entities = new ArrayList<>();
+                    List<CompletableFuture<TestEntity>> futures = new ArrayList<>();
+                    for (int i = 0; i < 50; i++) {
+                        TestEntity e = new TestEntity(String.format("content-%d", i));
+                        entities.add(e);
+                        futures.add(s3StoreImpl.setContentAsync(e, new ByteArrayInputStream(String.format("content number %d", i).getBytes())));
+                    }
+                    CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+                    for (int i = 0; i < 50; i++) {
+                        InputStream in = s3StoreImpl.getContentAsync(entities.get(i)).join();
+                        assertThat(IOUtils.toString(in), is(String.format("content number %d", i)));
+                    }
+                });
+            });
+        });
+    }
+
+    public static class TestEntity {
+        @ContentId
+        private String contentId;
+
+        @ContentLength
+        private long contentLen;
+
+        public TestEntity() {
+            this.contentId = null;
+        }
+
+        public TestEntity(String contentId) {
+            this.contentId = new String(contentId);
+        }
+
+        public String getContentId() {
+            return this.contentId;
+        }
+
+        public void setContentId(String contentId) {
+            this.contentId = contentId;
+        }
+
+        public long getContentLen() {
+            return contentLen;
+        }
+
+        public void setContentLen(long contentLen) {
+            this.contentLen = contentLen;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package internal.org.springframework.content.s3.store;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.IOUtils;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3Configuration;
+
+/**
+ * Minimal in-process S3-compatible server supporting the object and multipart operations used by the async store.
+ * Objects are addressed path-style, i.e. <code>/{bucket}/{key}</code>.
+ */
+public class S3StandIn {
+
+	private HttpServer server;
+	private Map<String, byte[]> objects = new ConcurrentHashMap<>();
+	private Map<String, Map<Integer, byte[]>> uploads = new ConcurrentHashMap<>();
+	private AtomicInteger requests = new AtomicInteger();
+
+	public S3StandIn start() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/", this::handle);
+		server.start();
+		return this;
+	}
+
+	public void stop() {
+		server.stop(0);
+	}
+
+	public URI getEndpoint() {
+		return URI.create(String.format("http://127.0.0.1:%d", server.getAddress().getPort()));
+	}
+
+	public S3AsyncClient createClient() {
+		return S3AsyncClient.builder()
+				.endpointOverride(getEndpoint())
+				.region(Region.US_EAST_1)
+				.credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("access", "secret")))
+				.serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build())
+				.build();
+	}
+
+	public byte[] getObject(String bucket, String key) {
+		return objects.get(bucket + "/" + key);
+	}
+
+	public void putObject(String bucket, String key, byte[] content) {
+		objects.put(bucket + "/" + key, content);
+	}
+
+	public void reset() {
+		objects.clear();
+		uploads.clear();
+		requests.set(0);
+	}
+
+	public int getRequestCount() {
+		return requests.get();
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		requests.incrementAndGet();
+		try {
+			String path = exchange.getRequestURI().getPath().substring(1);
+			Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+			String method = exchange.getRequestMethod();
+
+			if ("POST".equals(method) && query.containsKey("uploads")) {
+				String uploadId = UUID.randomUUID().toString();
+				uploads.put(uploadId, new TreeMap<>());
+				sendXml(exchange, 200, String.format("<InitiateMultipartUploadResult><Bucket/><Key/><UploadId>%s</UploadId></InitiateMultipartUploadResult>", uploadId));
+			} else if ("PUT".equals(method) && query.containsKey("uploadId")) {
+				byte[] part = readBody(exchange);
+				uploads.get(query.get("uploadId")).put(Integer.parseInt(query.get("partNumber")), part);
+				sendEmpty(exchange, 200, md5(part));
+			} else if ("POST".equals(method) && query.containsKey("uploadId")) {
+				readBody(exchange);
+				ByteArrayOutputStream object = new ByteArrayOutputStream();
+				for (byte[] part : uploads.remove(query.get("uploadId")).values()) {
+					object.write(part);
+				}
+				objects.put(path, object.toByteArray());
+				sendXml(exchange, 200, "<CompleteMultipartUploadResult><Location/><Bucket/><Key/><ETag>\"multipart\"</ETag></CompleteMultipartUploadResult>");
+			} else if ("DELETE".equals(method) && query.containsKey("uploadId")) {
+				uploads.remove(query.get("uploadId"));
+				sendEmpty(exchange, 204, null);
+			} else if ("PUT".equals(method)) {
+				byte[] content = readBody(exchange);
+				objects.put(path, content);
+				sendEmpty(exchange, 200, md5(content));
+			} else if ("GET".equals(method)) {
+				byte[] content = objects.get(path);
+				if (content == null) {
+					sendXml(exchange, 404, "<Error><Code>NoSuchKey</Code><Message>The specified key does not exist.</Message></Error>");
+					return;
+				}
+				exchange.getResponseHeaders().add("ETag", md5(content));
+				exchange.sendResponseHeaders(200, content.length == 0 ? -1 : content.length);
+				try (OutputStream os = exchange.getResponseBody()) {
+					os.write(content);
+				}
+			} else if ("DELETE".equals(method)) {
+				objects.remove(path);
+				sendEmpty(exchange, 204, null);
+			} else {
+				sendXml(exchange, 400, "<Error><Code>NotImplemented</Code></Error>");
+			}
+		} finally {
+			exchange.close();
+		}
+	}
+
+	private byte[] readBody(HttpExchange exchange) throws IOException {
+		byte[] body = IOUtils.toByteArray(exchange.getRequestBody());
+		String sha = exchange.getRequestHeaders().getFirst("x-amz-content-sha256");
+		if (sha != null && sha.startsWith("STREAMING-")) {
+			return decodeChunked(body);
+		}
+		return body;
+	}
+
+	// decodes an aws-chunked body; <hex-size>;chunk-signature=...\r\n<data>\r\n ... 0;chunk-signature=...\r\n
+	private static byte[] decodeChunked(byte[] body) {
+		ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+		int pos = 0;
+		while (pos < body.length) {
+			int eol = pos;
+			while (body[eol] != '\r') {
+				eol++;
+			}
+			String header = new String(body, pos, eol - pos, StandardCharsets.US_ASCII);
+			int size = Integer.parseInt(header.split(";")[0], 16);
+			if (size == 0) {
+				break;
+			}
+			decoded.write(body, eol + 2, size);
+			pos = eol + 2 + size + 2;
+		}
+		return decoded.toByteArray();
+	}
+
+	private static void sendXml(HttpExchange exchange, int status, String xml) throws IOException {
+		byte[] bytes = xml.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().add("Content-Type", "application/xml");
+		exchange.sendResponseHeaders(status, bytes.length);
+		try (OutputStream os = exchange.getResponseBody()) {
+			os.write(bytes);
+		}
+	}
+
+	private static void sendEmpty(HttpExchange exchange, int status, String etag) throws IOException {
+		if (etag != null) {
+			exchange.getResponseHeaders().add("ETag", etag);
+		}
+		exchange.sendResponseHeaders(status, -1);
+	}
+
+	private static Map<String, String> parseQuery(String query) {
+		Map<String, String> params = new TreeMap<>();
+		if (query == null) {
+			return params;
+		}
+		for (String param : query.split("&")) {
+			int idx = param.indexOf('=');
+			if (idx == -1) {
+				params.put(param, "");
+			} else {
+				params.put(param.substring(0, idx), param.substring(idx + 1));
+			}
+		}
+		return params;
+	}
+
+	private static String md5(byte[] content) {
+		try {
+			StringBuilder etag = new StringBuilder("\"");
+			for (byte b : MessageDigest.getInstance("MD5").digest(content)) {
+				etag.append(String.format("%02x", b));
+			}
+			return etag.append("\"").toString();
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
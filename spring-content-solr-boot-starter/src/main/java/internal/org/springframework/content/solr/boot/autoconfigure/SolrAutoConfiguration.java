@@ -3,6 +3,7 @@ package internal.org.springframework.content.solr.boot.autoconfigure;
 import org.apache.solr.client.solrj.SolrClient;
 import org.apache.solr.client.solrj.impl.HttpSolrClient;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.content.solr.SolrProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -14,6 +15,7 @@ import org.springframework.format.support.DefaultFormattingConversionService;
 public class SolrAutoConfiguration {
     @Bean
     @ConditionalOnMissingBean(SolrProperties.class)
+    @ConfigurationProperties(prefix = "solr.indexing")
     public SolrProperties solrProperties() {
         SolrProperties solrConfig =  new SolrProperties();
         solrConfig.setUrl("http://localhost:8983/solr/solr");
@@ -1,11 +1,17 @@
 package internal.org.springframework.content.solr.boot.autoconfigure;
 
+import org.springframework.content.commons.renditions.RenditionService;
 import org.springframework.content.commons.repository.StoreExtension;
+import org.springframework.content.commons.search.TextExtractor;
+import org.springframework.content.commons.storeservice.ContentStoreService;
 import org.springframework.content.commons.utils.ReflectionServiceImpl;
 import org.apache.solr.client.solrj.SolrClient;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.content.solr.SolrProperties;
+import org.springframework.content.solr.SolrReindexer;
+import org.springframework.content.solr.SolrSearchCache;
 import org.springframework.content.solr.SolrSearchContentRepositoryExtension;
+import org.springframework.content.solr.SolrIndexQueue;
 import org.springframework.content.solr.SolrIndexer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
@@ -23,14 +29,44 @@ public class SolrExtensionAutoConfiguration {
 	public SolrExtensionAutoConfiguration() {
 	}
 	
+    @Autowired(required=false)
+    private ContentStoreService contentStoreService;
+    @Autowired(required=false)
+    private TextExtractor textExtractor;
+    @Autowired(required=false)
+    private RenditionService renditionService;
+
+	@Bean
+	public SolrIndexQueue solrIndexQueue() {
+		SolrIndexQueue queue = new SolrIndexQueue(solrClient, props);
+		queue.setContentStoreService(contentStoreService);
+		queue.setTextExtractor(textExtractor);
+		queue.setRenditionService(renditionService);
+		return queue;
+	}
+
+	@Bean
+	public SolrReindexer solrReindexer() {
+		SolrReindexer reindexer = new SolrReindexer(solrIndexQueue(), props);
+		reindexer.setContentStoreService(contentStoreService);
+		return reindexer;
+	}
+
 	@Bean
 	public Object solrFulltextEventListener() {
-		return new SolrIndexer(solrClient, props);
+		return new SolrIndexer(solrIndexQueue());
+	}
+
+	@Bean
+	public SolrSearchCache solrSearchCache() {
+		return new SolrSearchCache(props);
 	}
 
     @Bean
     public StoreExtension solrFulltextSearcher() {
-        return new SolrSearchContentRepositoryExtension(solrClient, new ReflectionServiceImpl(), contentConversionService, props);
+        SolrSearchContentRepositoryExtension searcher = new SolrSearchContentRepositoryExtension(solrClient, new ReflectionServiceImpl(), contentConversionService, props);
+        searcher.setSearchCache(solrSearchCache());
+        return searcher;
     }
 
 }
@@ -0,0 +1,76 @@
+package internal.org.springframework.content.solr.boot.autoconfigure;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.content.solr.SolrReindexer;
+import org.springframework.content.solr.SolrReindexer.Job;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.Assert;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+/**
+ * Starts, reports on and stops reindexing over HTTP.
+ *
+ * <ul>
+ *     <li><code>GET /solr/reindex</code> returns the progress of each reindex</li>
+ *     <li><code>POST /solr/reindex?domainClass=...</code> reindexes a domain class, or every domain class when none
+ *     is given.  Recorded progress is resumed unless <code>resume=false</code></li>
+ *     <li><code>DELETE /solr/reindex?domainClass=...</code> stops reindexing a domain class</li>
+ * </ul>
+ *
+ * Registered as a bean rather than a component so that it is only mapped when enabled.  It is not secured; anyone who
+ * can reach it can start and stop reindexing, so applications must restrict it to administrators.
+ */
+@RequestMapping(SolrReindexEndpoint.PATH)
+@ResponseBody
+public class SolrReindexEndpoint {
+
+	public static final String PATH = "/solr/reindex";
+
+	private SolrReindexer reindexer;
+
+	public SolrReindexEndpoint(SolrReindexer reindexer) {
+		Assert.notNull(reindexer, "reindexer must not be null");
+		this.reindexer = reindexer;
+	}
+
+	@RequestMapping(method = RequestMethod.GET)
+	public Collection<Job> jobs() {
+		return reindexer.getJobs();
+	}
+
+	@RequestMapping(method = RequestMethod.POST)
+	public ResponseEntity<?> reindex(@RequestParam(required = false) String domainClass, @RequestParam(defaultValue = "true") boolean resume) {
+		if (domainClass == null) {
+			List<Job> jobs = reindexer.reindexAll();
+			return new ResponseEntity<>(jobs, HttpStatus.ACCEPTED);
+		}
+		return new ResponseEntity<>(reindexer.reindex(reindexer.findDomainClass(domainClass), resume), HttpStatus.ACCEPTED);
+	}
+
+	@RequestMapping(method = RequestMethod.DELETE)
+	public ResponseEntity<?> cancel(@RequestParam String domainClass) {
+		Job job = reindexer.getJob(reindexer.findDomainClass(domainClass));
+		if (job == null) {
+			return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+		}
+		job.cancel();
+		return new ResponseEntity<>(job, HttpStatus.OK);
+	}
+
+	@ExceptionHandler(IllegalArgumentException.class)
+	public ResponseEntity<String> notFound(IllegalArgumentException e) {
+		return new ResponseEntity<>(e.getMessage(), HttpStatus.NOT_FOUND);
+	}
+
+	@ExceptionHandler(IllegalStateException.class)
+	public ResponseEntity<String> conflict(IllegalStateException e) {
+		return new ResponseEntity<>(e.getMessage(), HttpStatus.CONFLICT);
+	}
+}
@@ -0,0 +1,26 @@
+package internal.org.springframework.content.solr.boot.autoconfigure;
+
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.content.solr.SolrReindexer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Maps the {@link SolrReindexEndpoint} when <code>solr.indexing.reindexEndpoint</code> is true.  The endpoint is not
+ * secured by this configuration; applications that enable it must restrict it, for example with Spring Security.
+ */
+@Configuration
+@AutoConfigureAfter(SolrExtensionAutoConfiguration.class)
+@ConditionalOnWebApplication
+@ConditionalOnClass(name = "org.springframework.web.servlet.DispatcherServlet")
+@ConditionalOnProperty(prefix = "solr.indexing", name = "reindexEndpoint", havingValue = "true")
+public class SolrReindexEndpointConfiguration {
+
+    @Bean
+    public SolrReindexEndpoint solrReindexEndpoint(SolrReindexer solrReindexer) {
+        return new SolrReindexEndpoint(solrReindexer);
+    }
+}
@@ -13,6 +13,7 @@ import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.content.commons.repository.StoreExtension;
 import org.springframework.content.commons.utils.ReflectionServiceImpl;
+import org.springframework.content.solr.SolrIndexQueue;
 import org.springframework.content.solr.SolrIndexer;
 import org.springframework.content.solr.SolrProperties;
 import org.springframework.content.solr.SolrSearchContentRepositoryExtension;
@@ -71,9 +72,14 @@ public class SolrAutoConfigurationTests {
 		public TestConfig() {
 		}
 
+		@Bean
+		public SolrIndexQueue solrIndexQueue() {
+			return new SolrIndexQueue(solrClient, props);
+		}
+
 		@Bean
 		public Object solrFulltextEventListener() {
-			return new SolrIndexer(solrClient, props);
+			return new SolrIndexer(solrIndexQueue());
 		}
 
 		@Bean
@@ -0,0 +1,94 @@
+package internal.org.springframework.content.autoconfigure.solr;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.*;
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.util.EnvironmentTestUtils;
+import org.springframework.content.solr.SolrReindexer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.support.SpringFactoriesLoader;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+import internal.org.springframework.content.solr.boot.autoconfigure.SolrReindexEndpoint;
+import internal.org.springframework.content.solr.boot.autoconfigure.SolrReindexEndpointConfiguration;
+
+@RunWith(Ginkgo4jRunner.class)
+@Ginkgo4jConfiguration(threads = 1)
+public class SolrReindexEndpointConfigurationTest {
+
+	private AnnotationConfigWebApplicationContext context;
+
+	{
+		Describe("SolrReindexEndpointConfiguration", () -> {
+			It("should be registered as an auto-configuration", () -> {
+				assertThat(SpringFactoriesLoader.loadFactoryNames(EnableAutoConfiguration.class, getClass().getClassLoader()), hasItem(SolrReindexEndpointConfiguration.class.getName()));
+			});
+			Context("given a web application context", () -> {
+				BeforeEach(() -> {
+					context = new AnnotationConfigWebApplicationContext();
+					context.setServletContext(new MockServletContext());
+					context.register(WebConfig.class, SolrReindexEndpointConfiguration.class);
+				});
+				AfterEach(() -> {
+					context.close();
+				});
+				Context("given the reindex endpoint is enabled", () -> {
+					BeforeEach(() -> {
+						EnvironmentTestUtils.addEnvironment(context, "solr.indexing.reindexEndpoint=true");
+						context.refresh();
+					});
+					It("should map the reindex endpoint", () -> {
+						assertThat(patterns(), hasItem(SolrReindexEndpoint.PATH));
+					});
+				});
+				Context("given the reindex endpoint is not enabled", () -> {
+					BeforeEach(() -> {
+						context.refresh();
+					});
+					It("should not map the reindex endpoint", () -> {
+						assertThat(context.getBeansOfType(SolrReindexEndpoint.class).isEmpty(), is(true));
+						assertThat(patterns(), not(hasItem(SolrReindexEndpoint.PATH)));
+					});
+				});
+			});
+		});
+	}
+
+	private Set<String> patterns() {
+		Set<String> patterns = new HashSet<>();
+		for (RequestMappingInfo info : context.getBean(RequestMappingHandlerMapping.class).getHandlerMethods().keySet()) {
+			patterns.addAll(info.getPatternsCondition().getPatterns());
+		}
+		return patterns;
+	}
+
+	@Test
+	public void noop() {
+	}
+
+	@Configuration
+	@EnableWebMvc
+	public static class WebConfig {
+
+		@Bean
+		public SolrReindexer solrReindexer() {
+			return mock(SolrReindexer.class);
+		}
+	}
+}
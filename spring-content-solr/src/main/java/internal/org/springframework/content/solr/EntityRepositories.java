@@ -0,0 +1,206 @@
+package internal.org.springframework.content.solr;
+
+import java.io.Serializable;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mapping.PersistentEntity;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.core.EntityInformation;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.util.Assert;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * Finds the Spring Data repositories that manage the domain classes of content stores, to read the ids of entities as
+ * they are indexed, to load the entities that match a search and to page through every entity when reindexing.
+ *
+ * Entities are paged through by id when the repository declares a <code>findBy&lt;Id&gt;GreaterThan(id, Pageable)</code>
+ * query method, for example <code>Slice&lt;Document&gt; findByIdGreaterThan(Long id, Pageable pageable)</code>, so that
+ * each page is found by key, without skipping over the pages before it or counting the entities.
+ *
+ * The repositories are looked up on first use, as they may not all have been created when this is.
+ */
+public class EntityRepositories {
+
+    private final ListableBeanFactory beanFactory;
+    private final ConversionService conversionService = new DefaultConversionService();
+    private volatile Repositories repositories;
+
+    public EntityRepositories(ListableBeanFactory beanFactory) {
+        Assert.notNull(beanFactory, "beanFactory must not be null");
+        this.beanFactory = beanFactory;
+    }
+
+    public boolean hasRepositoryFor(Class<?> domainClass) {
+        return getRepositories().hasRepositoryFor(domainClass);
+    }
+
+    /**
+     * Returns the id of <code>entity</code>, or null if no repository manages its class.
+     */
+    @SuppressWarnings("unchecked")
+    public Serializable getId(Object entity) {
+        if (!hasRepositoryFor(entity.getClass())) {
+            return null;
+        }
+        EntityInformation<Object, Serializable> information = getRepositories().getEntityInformationFor(entity.getClass());
+        return information.getId(entity);
+    }
+
+    /**
+     * Loads the entities with the given ids with a single <code>findAll</code>, returning them in the order of the ids.
+     * Ids whose entity no longer exists are left out.
+     */
+    @SuppressWarnings("unchecked")
+    public List<Object> findAll(Class<?> domainClass, List<?> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (!hasRepositoryFor(domainClass)) {
+            throw new IllegalStateException(String.format("No repository found for %s", domainClass.getName()));
+        }
+        Object repository = getRepositories().getRepositoryFor(domainClass);
+        if (repository instanceof CrudRepository == false) {
+            throw new IllegalStateException(String.format("Repository for %s is not a CrudRepository", domainClass.getName()));
+        }
+        EntityInformation<Object, Serializable> information = getRepositories().getEntityInformationFor(domainClass);
+
+        List<Serializable> entityIds = new ArrayList<>(ids.size());
+        for (Object id : ids) {
+            entityIds.add(conversionService.convert(id, information.getIdType()));
+        }
+
+        Map<Serializable, Object> entities = new HashMap<>();
+        for (Object entity : ((CrudRepository<Object, Serializable>) repository).findAll(entityIds)) {
+            entities.put(information.getId(entity), entity);
+        }
+
+        List<Object> ordered = new ArrayList<>(entities.size());
+        for (Serializable id : entityIds) {
+            Object entity = entities.get(id);
+            if (entity != null) {
+                ordered.add(entity);
+            }
+        }
+        return ordered;
+    }
+
+    /**
+     * Returns a page of all the entities of <code>domainClass</code>, sorted by id when the id property is known so
+     * that paging through them is stable.
+     */
+    @SuppressWarnings("unchecked")
+    public Page<Object> findAll(Class<?> domainClass, int page, int size) {
+        if (!hasRepositoryFor(domainClass)) {
+            throw new IllegalStateException(String.format("No repository found for %s", domainClass.getName()));
+        }
+        Object repository = getRepositories().getRepositoryFor(domainClass);
+        if (repository instanceof PagingAndSortingRepository == false) {
+            throw new IllegalStateException(String.format("Repository for %s is not a PagingAndSortingRepository", domainClass.getName()));
+        }
+
+        PageRequest request = new PageRequest(page, size);
+        PersistentEntity<?, ?> entity = getRepositories().getPersistentEntity(domainClass);
+        if (entity != null && entity.getIdProperty() != null) {
+            request = new PageRequest(page, size, new Sort(entity.getIdProperty().getName()));
+        }
+        return ((PagingAndSortingRepository<Object, Serializable>) repository).findAll(request);
+    }
+
+    /**
+     * Returns whether entities of <code>domainClass</code> can be paged through by id with
+     * {@link #findAllAfter(Class, Serializable, int)}.
+     */
+    public boolean canFindAllAfter(Class<?> domainClass) {
+        return hasRepositoryFor(domainClass) && findAfterMethod(domainClass) != null;
+    }
+
+    /**
+     * Returns up to <code>size</code> entities of <code>domainClass</code> with an id greater than <code>afterId</code>,
+     * sorted by id, using the repository's <code>findBy&lt;Id&gt;GreaterThan</code> query method.  When
+     * <code>afterId</code> is null the first entities are returned as a page, which holds the total number of entities.
+     */
+    @SuppressWarnings("unchecked")
+    public Slice<Object> findAllAfter(Class<?> domainClass, Serializable afterId, int size) {
+        Method method = canFindAllAfter(domainClass) ? findAfterMethod(domainClass) : null;
+        if (method == null) {
+            throw new IllegalStateException(String.format("Repository for %s has no findBy<Id>GreaterThan(id, Pageable) query method", domainClass.getName()));
+        }
+        if (afterId == null) {
+            return findAll(domainClass, 0, size);
+        }
+
+        Object repository = getRepositories().getRepositoryFor(domainClass);
+        String idProperty = getRepositories().getPersistentEntity(domainClass).getIdProperty().getName();
+        Pageable request = new PageRequest(0, size, new Sort(idProperty));
+        Object id = conversionService.convert(afterId, method.getParameterTypes()[0]);
+        Object entities = ReflectionUtils.invokeMethod(method, repository, id, request);
+        if (entities instanceof Slice) {
+            return (Slice<Object>) entities;
+        }
+        List<Object> content = new ArrayList<>();
+        ((Iterable<Object>) entities).forEach(content::add);
+        return new SliceImpl<>(content, request, content.size() == size);
+    }
+
+    /**
+     * Returns the number of entities of <code>domainClass</code>.
+     */
+    @SuppressWarnings("unchecked")
+    public long count(Class<?> domainClass) {
+        Object repository = getRepositories().getRepositoryFor(domainClass);
+        if (repository instanceof CrudRepository == false) {
+            throw new IllegalStateException(String.format("Repository for %s is not a CrudRepository", domainClass.getName()));
+        }
+        return ((CrudRepository<Object, Serializable>) repository).count();
+    }
+
+    /**
+     * Converts an id recorded as a string back to the id type of <code>domainClass</code>.
+     */
+    public Serializable convertId(Class<?> domainClass, String id) {
+        EntityInformation<Object, Serializable> information = getRepositories().getEntityInformationFor(domainClass);
+        return conversionService.convert(id, information.getIdType());
+    }
+
+    // the repository's findBy<Id>GreaterThan(id, Pageable) query method, if it declares one
+    private Method findAfterMethod(Class<?> domainClass) {
+        PersistentEntity<?, ?> entity = getRepositories().getPersistentEntity(domainClass);
+        RepositoryInformation information = getRepositories().getRepositoryInformationFor(domainClass);
+        if (entity == null || entity.getIdProperty() == null || information == null) {
+            return null;
+        }
+        String name = "findBy" + StringUtils.capitalize(entity.getIdProperty().getName()) + "GreaterThan";
+        for (Method method : information.getRepositoryInterface().getMethods()) {
+            if (method.getName().equals(name) && method.getParameterCount() == 2
+                    && Pageable.class.equals(method.getParameterTypes()[1]) && Iterable.class.isAssignableFrom(method.getReturnType())) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    private Repositories getRepositories() {
+        if (repositories == null) {
+            repositories = new Repositories(beanFactory);
+        }
+        return repositories;
+    }
+}
@@ -4,29 +4,53 @@ import org.apache.solr.client.solrj.SolrClient;
 import org.apache.solr.client.solrj.SolrQuery;
 import org.apache.solr.client.solrj.SolrServerException;
 import org.apache.solr.client.solrj.request.QueryRequest;
+import org.apache.solr.client.solrj.util.ClientUtils;
 import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.params.CursorMarkParams;
 import org.apache.solr.common.util.NamedList;
 import org.springframework.content.commons.repository.StoreAccessException;
 import org.springframework.content.commons.search.Searchable;
 import org.springframework.content.solr.SolrProperties;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.util.Assert;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class SolrSearchService implements Searchable<Object> {
 
-    private static final String field = "id";
+    private static final String UNIQUE_KEY = "id";
+    private static final int CURSOR_ROWS = 1000;
 
     private SolrClient solr;
     private SolrProperties solrProperties;
     private Class<?> domainClass;
+    private String field;
 
     public SolrSearchService(SolrClient solr, SolrProperties solrProperties, Class<?> domainClass) {
+        this(solr, solrProperties, domainClass, UNIQUE_KEY);
+    }
+
+    /**
+     * Creates a search service that returns the values of <code>field</code> instead of content ids.  Matches that
+     * were indexed without the field are filtered out in Solr, so they are not counted in the total either.
+     */
+    public SolrSearchService(SolrClient solr, SolrProperties solrProperties, Class<?> domainClass, String field) {
         this.solr = solr;
         this.solrProperties = solrProperties;
         this.domainClass = domainClass;
+        this.field = field;
     }
 
     @Override
@@ -71,6 +95,89 @@ public class SolrSearchService implements Searchable<Object> {
         return getIds(executeQuery(this.getDomainClass(), queryStr));
     }
 
+    @Override
+    public Page<Object> findKeyword(String queryStr, Pageable pageable) {
+        return getPage(executeQuery(this.getDomainClass(), queryStr, pageable), pageable);
+    }
+
+    @Override
+    public Page<Object> findAllKeywords(Pageable pageable, String... terms) {
+        String queryStr = this.parseTerms("AND", terms);
+        return getPage(executeQuery(this.getDomainClass(), queryStr, pageable), pageable);
+    }
+
+    @Override
+    public Page<Object> findAnyKeywords(Pageable pageable, String... terms) {
+        String queryStr = this.parseTerms("OR", terms);
+        return getPage(executeQuery(this.getDomainClass(), queryStr, pageable), pageable);
+    }
+
+    @Override
+    public Page<Object> findKeywordsNear(int proximity, Pageable pageable, String... terms) {
+        String termStr = this.parseTerms("NONE", terms);
+        String queryStr = "\""+ termStr + "\"~"+ Integer.toString(proximity);
+        return getPage(executeQuery(this.getDomainClass(), queryStr, pageable), pageable);
+    }
+
+    @Override
+    public Page<Object> findKeywordStartsWith(String term, Pageable pageable) {
+        String queryStr = term + "*";
+        return getPage(executeQuery(this.getDomainClass(), queryStr, pageable), pageable);
+    }
+
+    @Override
+    public Page<Object> findKeywordStartsWithAndEndsWith(String a, String b, Pageable pageable) {
+        String queryStr = a + "*" + b;
+        return getPage(executeQuery(this.getDomainClass(), queryStr, pageable), pageable);
+    }
+
+    @Override
+    public Page<Object> findAllKeywordsWithWeights(String[] terms, double[] weights, Pageable pageable) {
+        String queryStr = parseTermsAndWeights("AND", terms, weights);
+        return getPage(executeQuery(this.getDomainClass(), queryStr, pageable), pageable);
+    }
+
+    /**
+     * Pages through the matches, most relevant first, with a Solr cursor, fetching the next {@link #CURSOR_ROWS} ids
+     * only when the previous ones have been consumed.
+     */
+    @Override
+    public Stream<Object> streamKeyword(String queryStr) {
+        Iterator<Object> ids = new Iterator<Object>() {
+            private String cursorMark = CursorMarkParams.CURSOR_MARK_START;
+            private Iterator<Object> page = Collections.emptyIterator();
+            private boolean done = false;
+
+            @Override
+            public boolean hasNext() {
+                while (!page.hasNext() && !done) {
+                    SolrQuery query = query(getDomainClass(), queryStr);
+                    query.setRows(CURSOR_ROWS);
+                    // by relevance, as the other keyword searches are; a cursor needs the unique key to break ties
+                    query.setSort(SolrQuery.SortClause.desc("score"));
+                    query.addSort(SolrQuery.SortClause.asc(UNIQUE_KEY));
+                    query.set(CursorMarkParams.CURSOR_MARK_PARAM, cursorMark);
+                    NamedList<Object> response = execute(query, queryStr);
+
+                    String next = (String) response.get(CursorMarkParams.CURSOR_MARK_NEXT);
+                    done = next == null || next.equals(cursorMark);
+                    cursorMark = next;
+                    page = getIds(response).iterator();
+                }
+                return page.hasNext();
+            }
+
+            @Override
+            public Object next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return page.next();
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(ids, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
     /* package */ String parseTermsAndWeights(String operator, String[] terms, double[] weights){
         Assert.state(terms.length == weights.length, "all terms must have a weight");
 
@@ -113,23 +220,64 @@ public class SolrSearchService implements Searchable<Object> {
         List<Object> ids = new ArrayList<>();
         SolrDocumentList list = (SolrDocumentList) response.get("response");
         for (int j = 0; j < list.size(); ++j) {
-            String id =  list.get(j).getFieldValue("id").toString();
-            id = id.substring(id.indexOf(':')+1,id.length());
+            Object value = list.get(j).getFieldValue(field);
+            if (value == null) {
+                continue;
+            }
+            String id = value.toString();
+            if (UNIQUE_KEY.equals(field)) {
+                id = id.substring(id.indexOf(':')+1,id.length());
+            }
             ids.add(id);
         }
 
         return ids;
     }
 
+    /* package */ Page<Object> getPage(NamedList response, Pageable pageable) {
+        SolrDocumentList list = (SolrDocumentList) response.get("response");
+        return new PageImpl<>(getIds(response), pageable, list.getNumFound());
+    }
+
     /* package */ QueryRequest solrAuthenticate(QueryRequest request) {
         request.setBasicAuthCredentials(solrProperties.getUser(), solrProperties.getPassword());
         return request;
     }
 
     /* package */ NamedList<Object> executeQuery(Class<?> domainClass, String queryString) {
+        return execute(query(domainClass, queryString), queryString);
+    }
+
+    /* package */ NamedList<Object> executeQuery(Class<?> domainClass, String queryString, Pageable pageable) {
+        SolrQuery query = query(domainClass, queryString);
+        query.setStart(pageable.getOffset());
+        query.setRows(pageable.getPageSize());
+        if (pageable.getSort() != null) {
+            for (Sort.Order order : pageable.getSort()) {
+                query.addSort(order.getProperty(), order.isAscending() ? SolrQuery.ORDER.asc : SolrQuery.ORDER.desc);
+            }
+        }
+        return execute(query, queryString);
+    }
+
+    // restricts the query to the domain class with a filter query, which solr caches independently of the query.
+    // legacy type queries also match documents indexed without the entity class field by the prefix of their id
+    private SolrQuery query(Class<?> domainClass, String queryString) {
         SolrQuery query = new SolrQuery();
-        query.setQuery("(" + queryString + ") AND id:" + domainClass.getCanonicalName()  + "\\:*");
+        query.setQuery(queryString);
+        String filter = solrProperties.getEntityClassField() + ":" + ClientUtils.escapeQueryChars(domainClass.getCanonicalName());
+        if (solrProperties.isLegacyTypeQuery()) {
+            filter += " OR id:" + ClientUtils.escapeQueryChars(domainClass.getCanonicalName() + ":") + "*";
+        }
+        query.addFilterQuery(filter);
+        if (!UNIQUE_KEY.equals(field)) {
+            query.addFilterQuery(field + ":[* TO *]");
+        }
         query.setFields(field);
+        return query;
+    }
+
+    private NamedList<Object> execute(SolrQuery query, String queryString) {
         QueryRequest request = new QueryRequest(query);
         if (solrProperties.getUser() != null) {
             request = solrAuthenticate(request);
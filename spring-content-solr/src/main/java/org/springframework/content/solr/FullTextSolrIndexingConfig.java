@@ -3,7 +3,10 @@ package org.springframework.content.solr;
 
 import org.apache.solr.client.solrj.SolrClient;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.content.commons.renditions.RenditionService;
 import org.springframework.content.commons.repository.StoreExtension;
+import org.springframework.content.commons.search.TextExtractor;
+import org.springframework.content.commons.storeservice.ContentStoreService;
 import org.springframework.content.commons.utils.ReflectionServiceImpl;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
@@ -21,14 +24,44 @@ public class FullTextSolrIndexingConfig {
     @Autowired
     private ConversionService contentConversionService;
 
+    @Bean
+    public SolrSearchCache solrSearchCache() {
+        return new SolrSearchCache(props);
+    }
+
     @Bean
     public StoreExtension solrFulltextSearcher() {
-        return new SolrSearchContentRepositoryExtension(solrClient, new ReflectionServiceImpl(), contentConversionService, props);
+        SolrSearchContentRepositoryExtension searcher = new SolrSearchContentRepositoryExtension(solrClient, new ReflectionServiceImpl(), contentConversionService, props);
+        searcher.setSearchCache(solrSearchCache());
+        return searcher;
+    }
+
+    @Autowired(required=false)
+    private ContentStoreService contentStoreService;
+    @Autowired(required=false)
+    private TextExtractor textExtractor;
+    @Autowired(required=false)
+    private RenditionService renditionService;
+
+    @Bean
+    public SolrIndexQueue solrIndexQueue() {
+        SolrIndexQueue queue = new SolrIndexQueue(solrClient, props);
+        queue.setContentStoreService(contentStoreService);
+        queue.setTextExtractor(textExtractor);
+        queue.setRenditionService(renditionService);
+        return queue;
+    }
+
+    @Bean
+    public SolrReindexer solrReindexer() {
+        SolrReindexer reindexer = new SolrReindexer(solrIndexQueue(), props);
+        reindexer.setContentStoreService(contentStoreService);
+        return reindexer;
     }
 
     @Bean
     public Object solrFulltextEventListener() {
-        return new SolrIndexer(solrClient, props);
+        return new SolrIndexer(solrIndexQueue());
     }
 
 
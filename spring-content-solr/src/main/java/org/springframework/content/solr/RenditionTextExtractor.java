@@ -0,0 +1,61 @@
+package org.springframework.content.solr;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.content.commons.renditions.RenditionService;
+import org.springframework.content.commons.search.TextExtractor;
+import org.springframework.util.Assert;
+
+/**
+ * Extracts text with the <code>text/plain</code> renditions of the {@link RenditionService}, such as the docx4j Word
+ * to text rendition.  Plain text content is used as it is.
+ */
+public class RenditionTextExtractor implements TextExtractor {
+
+	private static final String TEXT_PLAIN = "text/plain";
+
+	private RenditionService renditions;
+
+	public RenditionTextExtractor(RenditionService renditions) {
+		Assert.notNull(renditions, "renditions must not be null");
+
+		this.renditions = renditions;
+	}
+
+	@Override
+	public String extract(InputStream content, String mimeType, int maxLength) throws IOException {
+		if (mimeType == null) {
+			return null;
+		}
+		if (mimeType.startsWith(TEXT_PLAIN)) {
+			return read(content, maxLength);
+		}
+		if (!renditions.canConvert(mimeType, TEXT_PLAIN)) {
+			return null;
+		}
+		InputStream text = renditions.convert(mimeType, content, TEXT_PLAIN);
+		if (text == null) {
+			return null;
+		}
+		try {
+			return read(text, maxLength);
+		} finally {
+			text.close();
+		}
+	}
+
+	private static String read(InputStream content, int maxLength) throws IOException {
+		Reader reader = new InputStreamReader(content, StandardCharsets.UTF_8);
+		StringBuilder text = new StringBuilder();
+		char[] buffer = new char[8192];
+		int read;
+		while (text.length() < maxLength && (read = reader.read(buffer, 0, Math.min(buffer.length, maxLength - text.length()))) != -1) {
+			text.append(buffer, 0, read);
+		}
+		return text.toString();
+	}
+}
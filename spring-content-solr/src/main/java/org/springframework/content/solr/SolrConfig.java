@@ -12,6 +12,7 @@ public class SolrConfig {
     private String url;
     private String username;
     private String password;
+    private SolrProperties indexing = new SolrProperties();
 
     public String getUrl() {
         return url;
@@ -37,10 +38,17 @@ public class SolrConfig {
         this.password = password;
     }
 
+    /**
+     * Indexing settings, bound from <code>solr.indexing.*</code>.
+     */
+    public SolrProperties getIndexing() {
+        return indexing;
+    }
+
     @Bean
     public SolrProperties solrProperties() {
 
-        SolrProperties props = new SolrProperties();
+        SolrProperties props = indexing;
         if (url == null) {
             this.url = "http://localhost:8983/solr/solr";
         }
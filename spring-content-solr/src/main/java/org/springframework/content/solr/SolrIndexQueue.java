@@ -0,0 +1,885 @@
+package org.springframework.content.solr;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.request.AbstractUpdateRequest;
+import org.apache.solr.client.solrj.request.ContentStreamUpdateRequest;
+import org.apache.solr.client.solrj.request.QueryRequest;
+import org.apache.solr.client.solrj.request.UpdateRequest;
+import org.apache.solr.client.solrj.util.ClientUtils;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.params.CursorMarkParams;
+import org.apache.solr.common.util.NamedList;
+import org.apache.solr.common.util.ContentStreamBase;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.content.commons.annotations.ContentId;
+import org.springframework.content.commons.annotations.MimeType;
+import org.springframework.content.commons.renditions.RenditionService;
+import org.springframework.content.commons.repository.ContentStore;
+import org.springframework.content.commons.repository.StoreAccessException;
+import org.springframework.content.commons.repository.events.SpooledContent;
+import org.springframework.content.commons.search.TextExtractor;
+import org.springframework.content.commons.storeservice.ContentStoreInfo;
+import org.springframework.content.commons.storeservice.ContentStoreService;
+import org.springframework.content.commons.utils.BeanUtils;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+import internal.org.springframework.content.solr.EntityRepositories;
+
+/**
+ * Sends index updates to Solr in the background so that storing content does not wait for Solr.
+ *
+ * Updates are spread over <code>indexingThreads</code> workers by Solr id, so the updates for one item are always
+ * applied in the order they were queued.  Each worker takes up to <code>batchSize</code> updates at a time and sends
+ * consecutive deletes as a single request.  Content is posted to the extracting request handler one item per request,
+ * as that handler accepts a single document.  Requests ask Solr to commit within <code>commitWithin</code>
+ * milliseconds rather than committing each one.  Failed requests are retried with exponential backoff and dropped,
+ * with an error logged, after <code>maxRetries</code> retries.
+ *
+ * The queue holds at most <code>queueCapacity</code> updates; queuing an update when it is full waits for space.
+ * When a <code>queueDirectory</code> is configured every queued update is also written to that directory until it has
+ * been sent, and updates left over from a previous run are queued again by a background thread once the queue has
+ * started, so startup does not wait for space in the queue.  A left over update is dropped if the same item is updated
+ * again before it has been queued.  Content for those updates is read from the store found through the
+ * {@link ContentStoreService}.
+ *
+ * Content copied as it was stored is indexed from that copy, which is released once the update has been sent.  Other
+ * content is read back from the store.
+ *
+ * With <code>clientExtraction</code> enabled the text of the content is extracted here by a {@link TextExtractor},
+ * on a pool of <code>extractionThreads</code> threads, rather than by Solr.  At most <code>maxTextLength</code>
+ * characters are kept, and consecutive items are sent to the <code>/update</code> handler as a single request.
+ */
+@ManagedResource(description = "Spring Content Solr indexing queue")
+public class SolrIndexQueue implements InitializingBean, DisposableBean, BeanFactoryAware {
+
+	private static Log logger = LogFactory.getLog(SolrIndexQueue.class);
+
+	private static final long MAX_BACKOFF = 30000;
+	private static final long OFFER_TIMEOUT = 30000;
+	private static final String TASK_SUFFIX = ".task";
+	private static final int REINDEX_ROWS = 1000;
+
+	private SolrClient solrClient;
+	private SolrProperties properties;
+	private ContentStoreService stores;
+
+	private Worker[] workers;
+	private ExecutorService executor;
+	private ExecutorService extraction;
+	private TextExtractor extractor;
+	private RenditionService renditions;
+	private EntityRepositories repositories;
+	private File directory;
+	private volatile boolean running;
+	private Thread recovery;
+	private volatile boolean recovering;
+	// the solr ids updated while recovering, guarded by itself
+	private Set<String> superseded = new HashSet<>();
+
+	private AtomicLong sequence = new AtomicLong();
+	private AtomicInteger pending = new AtomicInteger();
+	private AtomicLong indexed = new AtomicLong();
+	private AtomicLong deleted = new AtomicLong();
+	private AtomicLong failed = new AtomicLong();
+	private AtomicLong retried = new AtomicLong();
+
+	public SolrIndexQueue(SolrClient solrClient, SolrProperties properties) {
+		Assert.notNull(solrClient, "solrClient must not be null");
+		Assert.notNull(properties, "properties must not be null");
+
+		this.solrClient = solrClient;
+		this.properties = properties;
+	}
+
+	/**
+	 * Sets the service used to find the store of updates recovered from the queue directory.
+	 */
+	public void setContentStoreService(ContentStoreService stores) {
+		this.stores = stores;
+	}
+
+	/**
+	 * Sets the extractor used when <code>clientExtraction</code> is enabled.  When none is set Tika is used if there
+	 * are Tika parsers on the classpath, and the rendition service otherwise.
+	 */
+	public void setTextExtractor(TextExtractor extractor) {
+		this.extractor = extractor;
+	}
+
+	public void setRenditionService(RenditionService renditions) {
+		this.renditions = renditions;
+	}
+
+	/**
+	 * Looks up the Spring Data repositories used to find the id of each entity, which is indexed so that searches can
+	 * load the matching entities.
+	 */
+	@Override
+	public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
+		if (beanFactory instanceof ListableBeanFactory) {
+			this.repositories = new EntityRepositories((ListableBeanFactory) beanFactory);
+		}
+	}
+
+	/* package */ void setEntityRepositories(EntityRepositories repositories) {
+		this.repositories = repositories;
+	}
+
+	@Override
+	public void afterPropertiesSet() throws Exception {
+		int threads = Math.max(1, properties.getIndexingThreads());
+		int capacity = Math.max(1, properties.getQueueCapacity() / threads);
+
+		workers = new Worker[threads];
+		for (int i = 0; i < threads; i++) {
+			workers[i] = new Worker(new LinkedBlockingQueue<>(capacity));
+		}
+
+		if (properties.isClientExtraction()) {
+			if (extractor == null && ClassUtils.isPresent("org.apache.tika.Tika", getClass().getClassLoader()) && TikaTextExtractor.hasParsers()) {
+				extractor = new TikaTextExtractor();
+			} else if (extractor == null && renditions != null) {
+				extractor = new RenditionTextExtractor(renditions);
+			}
+			if (extractor == null) {
+				throw new IllegalStateException("Client side extraction needs a TextExtractor, Tika parsers or a RenditionService");
+			}
+			int extractors = Math.max(1, properties.getExtractionThreads());
+			AtomicInteger extractorCount = new AtomicInteger();
+			extraction = new ThreadPoolExecutor(extractors, extractors, 0, TimeUnit.MILLISECONDS,
+					new ArrayBlockingQueue<>(extractors), (runnable) -> {
+						Thread thread = new Thread(runnable, "solr-extractor-" + extractorCount.incrementAndGet());
+						thread.setDaemon(true);
+						return thread;
+					}, new ThreadPoolExecutor.CallerRunsPolicy());
+		}
+
+		if (properties.getQueueDirectory() != null) {
+			directory = new File(properties.getQueueDirectory());
+			if (!directory.isDirectory() && !directory.mkdirs()) {
+				throw new IllegalStateException(String.format("Unable to create solr queue directory %s", directory));
+			}
+		}
+
+		AtomicInteger count = new AtomicInteger();
+		executor = Executors.newFixedThreadPool(threads, (runnable) -> {
+			Thread thread = new Thread(runnable, "solr-indexer-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		running = true;
+		for (Worker worker : workers) {
+			executor.execute(worker);
+		}
+
+		if (directory != null) {
+			File[] files = journaled();
+			if (files.length > 0) {
+				recovering = true;
+				recovery = new Thread(() -> recover(files), "solr-queue-recovery");
+				recovery.setDaemon(true);
+				recovery.start();
+			}
+		}
+	}
+
+	@Override
+	public void destroy() throws Exception {
+		if (recovery != null) {
+			recovery.interrupt();
+			recovery.join(10000);
+		}
+		running = false;
+		executor.shutdownNow();
+		executor.awaitTermination(10, TimeUnit.SECONDS);
+		if (extraction != null) {
+			extraction.shutdownNow();
+		}
+
+		int pending = getQueueDepth();
+		if (pending > 0 && directory == null) {
+			logger.warn(String.format("Discarding %d queued solr index updates", pending));
+		}
+		for (Worker worker : workers) {
+			List<Task> discarded = new ArrayList<>();
+			worker.queue.drainTo(discarded);
+			for (Task task : discarded) {
+				release(task);
+			}
+		}
+	}
+
+	/**
+	 * Queues the content of <code>entity</code> to be indexed, reading it from <code>store</code> when it is sent.
+	 */
+	public void add(Object entity, ContentStore<Object, Serializable> store) {
+		add(entity, store, null);
+	}
+
+	/**
+	 * Queues the content of <code>entity</code> to be indexed from <code>content</code>, a copy taken as it was stored.
+	 * The queue retains the copy until the update has been sent.  When <code>content</code> is null the content is read
+	 * from <code>store</code>.
+	 */
+	public void add(Object entity, ContentStore<Object, Serializable> store, SpooledContent content) {
+		Task task = new Task(Action.ADD, solrId(entity), entity.getClass().getName(), contentId(entity));
+		task.entity = entity;
+		task.store = store;
+		task.mimeType = mimeType(entity);
+		// the entity id is resolved again when the update is sent, as the entity may not have been saved yet; this one
+		// is journaled so that recovered updates, which no longer have the entity, still index it
+		task.entityId = entityId(entity);
+		if (content != null) {
+			task.content = content.retain();
+		}
+		offer(task);
+	}
+
+	/**
+	 * Returns the length in bytes of the longest content that should be copied as it is stored.
+	 */
+	public long getSpoolLimit() {
+		return properties.getSpoolLimit();
+	}
+
+	/**
+	 * Queues the removal of the content of <code>entity</code> from the index.
+	 */
+	public void delete(Object entity) {
+		offer(new Task(Action.DELETE, solrId(entity), entity.getClass().getName(), contentId(entity)));
+	}
+
+	/**
+	 * Waits until every queued update has been sent, or dropped, or the timeout elapses.
+	 *
+	 * @return true if the queue emptied within the timeout
+	 */
+	public boolean flush(long timeout, TimeUnit unit) throws InterruptedException {
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		while (pending.get() > 0 || recovering) {
+			if (System.nanoTime() > deadline) {
+				return false;
+			}
+			Thread.sleep(10);
+		}
+		return true;
+	}
+
+	/**
+	 * Queues the documents of <code>domainClass</code> indexed without the entity class and content id fields to be
+	 * indexed again, so that they are found by searches that filter on those fields.  Their content is read from the
+	 * store found through the {@link ContentStoreService}.  Waits for space in the queue as needed.
+	 *
+	 * @return the number of documents queued
+	 */
+	public long reindexLegacyDocuments(Class<?> domainClass) throws InterruptedException {
+		Assert.notNull(domainClass, "domainClass must not be null");
+
+		String prefix = domainClass.getCanonicalName() + ":";
+		SolrQuery query = new SolrQuery("id:" + ClientUtils.escapeQueryChars(prefix) + "*");
+		query.addFilterQuery("-" + properties.getEntityClassField() + ":[* TO *]");
+		query.setFields("id");
+		query.setRows(REINDEX_ROWS);
+		query.setSort(SolrQuery.SortClause.asc("id"));
+
+		long queued = 0;
+		String cursorMark = CursorMarkParams.CURSOR_MARK_START;
+		while (true) {
+			query.set(CursorMarkParams.CURSOR_MARK_PARAM, cursorMark);
+			QueryRequest request = new QueryRequest(query);
+			if (properties.getUser() != null) {
+				request.setBasicAuthCredentials(properties.getUser(), properties.getPassword());
+			}
+			NamedList<Object> response;
+			try {
+				response = solrClient.request(request, null);
+			} catch (SolrServerException | IOException e) {
+				throw new StoreAccessException(String.format("Unable to find documents of %s to reindex", domainClass.getName()), e);
+			}
+
+			for (SolrDocument document : (SolrDocumentList) response.get("response")) {
+				String solrId = document.getFieldValue("id").toString();
+				Task task = new Task(Action.ADD, solrId, domainClass.getName(), solrId.substring(prefix.length()));
+				Worker worker = workers[Math.floorMod(task.solrId.hashCode(), workers.length)];
+				journal(task);
+				pending.incrementAndGet();
+				worker.queue.put(task);
+				queued++;
+			}
+
+			String next = (String) response.get(CursorMarkParams.CURSOR_MARK_NEXT);
+			if (next == null || next.equals(cursorMark)) {
+				break;
+			}
+			cursorMark = next;
+		}
+		logger.info(String.format("Queued %d documents of %s to be reindexed", queued, domainClass.getName()));
+		return queued;
+	}
+
+	@ManagedAttribute(description = "Number of index updates waiting to be sent")
+	public int getQueueDepth() {
+		int depth = 0;
+		for (Worker worker : workers) {
+			depth += worker.queue.size();
+		}
+		return depth;
+	}
+
+	@ManagedAttribute(description = "Age in milliseconds of the oldest index update not yet sent")
+	public long getLag() {
+		long oldest = Long.MAX_VALUE;
+		for (Worker worker : workers) {
+			oldest = Math.min(oldest, worker.oldest());
+		}
+		return oldest == Long.MAX_VALUE ? 0 : System.currentTimeMillis() - oldest;
+	}
+
+	@ManagedAttribute(description = "Number of items indexed")
+	public long getIndexedCount() {
+		return indexed.get();
+	}
+
+	@ManagedAttribute(description = "Number of items removed from the index")
+	public long getDeletedCount() {
+		return deleted.get();
+	}
+
+	@ManagedAttribute(description = "Number of index updates dropped after exhausting their retries")
+	public long getFailedCount() {
+		return failed.get();
+	}
+
+	@ManagedAttribute(description = "Number of index update requests retried")
+	public long getRetryCount() {
+		return retried.get();
+	}
+
+	private void offer(Task task) {
+		if (recovering) {
+			synchronized (superseded) {
+				if (recovering) {
+					superseded.add(task.solrId);
+				}
+			}
+		}
+		Worker worker = workers[Math.floorMod(task.solrId.hashCode(), workers.length)];
+		journal(task);
+		pending.incrementAndGet();
+		try {
+			if (!worker.queue.offer(task, OFFER_TIMEOUT, TimeUnit.MILLISECONDS)) {
+				forget(task);
+				throw new StoreAccessException(String.format("Solr index queue full, unable to queue %s", task.solrId));
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			forget(task);
+			throw new StoreAccessException(String.format("Interrupted queuing %s", task.solrId), e);
+		}
+	}
+
+	private class Worker implements Runnable {
+
+		private BlockingQueue<Task> queue;
+		private volatile long inFlightSince = Long.MAX_VALUE;
+
+		Worker(BlockingQueue<Task> queue) {
+			this.queue = queue;
+		}
+
+		long oldest() {
+			Task head = queue.peek();
+			return Math.min(inFlightSince, head == null ? Long.MAX_VALUE : head.queuedAt);
+		}
+
+		@Override
+		public void run() {
+			while (running) {
+				List<Task> batch = new ArrayList<>();
+				try {
+					Task first = queue.poll(100, TimeUnit.MILLISECONDS);
+					if (first == null) {
+						continue;
+					}
+					inFlightSince = first.queuedAt;
+					batch.add(first);
+					queue.drainTo(batch, Math.max(0, properties.getBatchSize() - 1));
+					send(batch);
+				} catch (InterruptedException e) {
+					// the journal keeps the updates that were not sent, but not their copies of the content
+					for (Task task : batch) {
+						release(task);
+					}
+					return;
+				} finally {
+					inFlightSince = Long.MAX_VALUE;
+				}
+			}
+		}
+
+		// consecutive deletes share a request, as do consecutive adds of extracted text; updates are otherwise sent in
+		// the order they were queued
+		private void send(List<Task> batch) throws InterruptedException {
+			List<Task> deletes = new ArrayList<>();
+			List<Task> adds = new ArrayList<>();
+			for (Task task : batch) {
+				if (task.action == Action.DELETE) {
+					sendDocuments(adds);
+					adds = new ArrayList<>();
+					deletes.add(task);
+					continue;
+				}
+				sendDeletes(deletes);
+				deletes = new ArrayList<>();
+				if (extraction != null) {
+					adds.add(task);
+				} else {
+					sendAdd(task);
+				}
+			}
+			sendDocuments(adds);
+			sendDeletes(deletes);
+			if (properties.getCommitWithin() <= 0) {
+				UpdateRequest commit = new UpdateRequest();
+				commit.setAction(AbstractUpdateRequest.ACTION.COMMIT, false, false, properties.isSoftCommit());
+				execute(() -> post(credentials(commit)), "commit", new ArrayList<>());
+			}
+		}
+
+		private void sendDeletes(List<Task> deletes) throws InterruptedException {
+			if (deletes.isEmpty()) {
+				return;
+			}
+			if (execute(() -> {
+				UpdateRequest request = new UpdateRequest();
+				for (Task task : deletes) {
+					request.deleteById(task.solrId);
+				}
+				return post(credentials(commitWithin(request)));
+			}, "delete", deletes)) {
+				deleted.addAndGet(deletes.size());
+			}
+		}
+
+		// extracts the text of each item on the extraction pool and sends the results as one request
+		private void sendDocuments(List<Task> adds) throws InterruptedException {
+			if (adds.isEmpty()) {
+				return;
+			}
+			List<Future<SolrInputDocument>> extracted = new ArrayList<>();
+			for (Task task : adds) {
+				extracted.add(extraction.submit(() -> document(task)));
+			}
+
+			List<Task> tasks = new ArrayList<>();
+			List<SolrInputDocument> documents = new ArrayList<>();
+			for (int i = 0; i < adds.size(); i++) {
+				Task task = adds.get(i);
+				try {
+					SolrInputDocument document = extracted.get(i).get();
+					if (document == null) {
+						forget(task);
+						continue;
+					}
+					tasks.add(task);
+					documents.add(document);
+				} catch (ExecutionException e) {
+					logger.error(String.format("Unable to extract text from %s", task.solrId), e.getCause());
+					failed.incrementAndGet();
+					forget(task);
+				} catch (InterruptedException e) {
+					for (Future<SolrInputDocument> future : extracted) {
+						future.cancel(true);
+					}
+					throw e;
+				}
+			}
+			if (documents.isEmpty()) {
+				return;
+			}
+
+			if (execute(() -> {
+				UpdateRequest request = new UpdateRequest();
+				request.add(documents);
+				return post(credentials(commitWithin(request)));
+			}, "index", tasks)) {
+				indexed.addAndGet(tasks.size());
+			}
+		}
+
+		private SolrInputDocument document(Task task) throws IOException {
+			InputStream content = open(task);
+			if (content == null) {
+				return null;
+			}
+			String text;
+			try {
+				text = extractor.extract(content, task.mimeType, properties.getMaxTextLength());
+			} finally {
+				content.close();
+			}
+			if (text == null) {
+				logger.debug(String.format("No text extracted from %s (%s), not indexing it", task.solrId, task.mimeType));
+				return null;
+			}
+			SolrInputDocument document = new SolrInputDocument();
+			document.addField("id", task.solrId);
+			document.addField(properties.getEntityClassField(), entityClass(task));
+			document.addField(properties.getContentIdField(), task.contentId);
+			String entityId = entityId(task);
+			if (entityId != null) {
+				document.addField(properties.getEntityIdField(), entityId);
+			}
+			document.addField(properties.getTextField(), text.length() > properties.getMaxTextLength() ? text.substring(0, properties.getMaxTextLength()) : text);
+			return document;
+		}
+
+		// the content is opened afresh for each attempt and closed however the attempt ends
+		private void sendAdd(Task task) throws InterruptedException {
+			if (execute(() -> {
+				try (InputStream content = open(task)) {
+					if (content == null) {
+						return false;
+					}
+					ContentStreamUpdateRequest request = new ContentStreamUpdateRequest("/update/extract");
+					request.addContentStream(new ContentStreamBase() {
+						@Override
+						public InputStream getStream() throws IOException {
+							return content;
+						}
+					});
+					request.setParam("literal.id", task.solrId);
+					request.setParam("literal." + properties.getEntityClassField(), entityClass(task));
+					request.setParam("literal." + properties.getContentIdField(), task.contentId);
+					String entityId = entityId(task);
+					if (entityId != null) {
+						request.setParam("literal." + properties.getEntityIdField(), entityId);
+					}
+					return post(credentials(commitWithin(request)));
+				}
+			}, "index", Arrays.asList(task))) {
+				indexed.incrementAndGet();
+			}
+		}
+
+		/**
+		 * Makes an attempt to send a request with <code>attempt</code>, retrying with backoff.  The tasks are removed
+		 * from the journal once the request succeeds or is given up, but left there if the queue stops first.
+		 *
+		 * @return true if the request was sent, false if it was given up or there was nothing to send
+		 */
+		private boolean execute(Attempt attempt, String action, List<Task> tasks) throws InterruptedException {
+			long backoff = properties.getRetryBackoff();
+			for (int retries = 0; ; retries++) {
+				try {
+					boolean sent = attempt.send();
+					forget(tasks);
+					return sent;
+				} catch (Exception e) {
+					if (!running) {
+						throw new InterruptedException();
+					}
+					if (retries >= properties.getMaxRetries()) {
+						logger.error(String.format("Giving up on solr %s of %s", action, ids(tasks)), e);
+						failed.addAndGet(tasks.size());
+						forget(tasks);
+						return false;
+					}
+					logger.warn(String.format("Solr %s of %s failed, retrying in %dms", action, ids(tasks), backoff), e);
+					retried.incrementAndGet();
+					Thread.sleep(backoff);
+					backoff = Math.min(backoff * 2, MAX_BACKOFF);
+				}
+			}
+		}
+	}
+
+	// sends a single request, returning false if there was nothing to send
+	private interface Attempt {
+		boolean send() throws Exception;
+	}
+
+	private boolean post(AbstractUpdateRequest request) throws SolrServerException, IOException {
+		solrClient.request(request, null);
+		return true;
+	}
+
+	/**
+	 * Opens the content to be indexed: the copy taken when it was stored if there is one, otherwise the content in the
+	 * store.  Returns null if there is no content or no store to read it from.
+	 */
+	private InputStream open(Task task) throws IOException {
+		if (task.content != null) {
+			return task.content.getInputStream();
+		}
+		ContentStore<Object, Serializable> store = task.store;
+		Object entity = task.entity;
+		if (store == null || entity == null) {
+			ContentStoreInfo info = resolve(task.entityClass);
+			if (info == null) {
+				logger.warn(String.format("No store found for %s, not indexing it", task.solrId));
+				return null;
+			}
+			store = info.getImpementation();
+			entity = org.springframework.beans.BeanUtils.instantiate(info.getDomainObjectClass());
+			BeanUtils.setFieldWithAnnotation(entity, ContentId.class, task.contentId);
+		}
+		return store.getContent(entity);
+	}
+
+	private AbstractUpdateRequest commitWithin(AbstractUpdateRequest request) {
+		if (properties.getCommitWithin() > 0) {
+			request.setCommitWithin(properties.getCommitWithin());
+		}
+		return request;
+	}
+
+	private AbstractUpdateRequest credentials(AbstractUpdateRequest request) {
+		if (properties.getUser() != null) {
+			request.setBasicAuthCredentials(properties.getUser(), properties.getPassword());
+		}
+		return request;
+	}
+
+	private ContentStoreInfo resolve(String entityClass) {
+		if (stores == null) {
+			return null;
+		}
+		for (ContentStoreInfo info : stores.getContentStores()) {
+			if (info.getDomainObjectClass() != null && info.getDomainObjectClass().getName().equals(entityClass)) {
+				return info;
+			}
+		}
+		return null;
+	}
+
+	private void journal(Task task) {
+		if (directory == null) {
+			return;
+		}
+		File file = new File(directory, String.format("%019d%s", sequence.incrementAndGet(), TASK_SUFFIX));
+		File temp = new File(directory, file.getName() + ".tmp");
+		Properties entry = new Properties();
+		entry.setProperty("action", task.action.name());
+		entry.setProperty("solrId", task.solrId);
+		entry.setProperty("entityClass", task.entityClass);
+		entry.setProperty("contentId", task.contentId);
+		if (task.mimeType != null) {
+			entry.setProperty("mimeType", task.mimeType);
+		}
+		if (task.entityId != null) {
+			entry.setProperty("entityId", task.entityId);
+		}
+		try {
+			try (OutputStream out = new FileOutputStream(temp)) {
+				entry.store(out, null);
+			}
+			Files.move(temp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			throw new StoreAccessException(String.format("Unable to journal solr index update for %s", task.solrId), e);
+		}
+		task.file = file;
+	}
+
+	// the updates left over from a previous run, oldest first; new updates are journaled after them
+	private File[] journaled() {
+		File[] files = directory.listFiles((dir, name) -> name.endsWith(TASK_SUFFIX));
+		Arrays.sort(files);
+		for (File file : files) {
+			String name = file.getName();
+			sequence.set(Math.max(sequence.get(), Long.parseLong(name.substring(0, name.length() - TASK_SUFFIX.length()))));
+		}
+		return files;
+	}
+
+	private void recover(File[] files) {
+		int recovered = 0;
+		try {
+			for (File file : files) {
+				Properties entry = new Properties();
+				try (InputStream in = new FileInputStream(file)) {
+					entry.load(in);
+				}
+				Task task = new Task(Action.valueOf(entry.getProperty("action")), entry.getProperty("solrId"), entry.getProperty("entityClass"), entry.getProperty("contentId"));
+				task.file = file;
+				task.mimeType = entry.getProperty("mimeType");
+				task.entityId = entry.getProperty("entityId");
+
+				if (requeue(task)) {
+					recovered++;
+				}
+			}
+			logger.info(String.format("Recovered %d queued solr index updates from %s", recovered, directory));
+		} catch (InterruptedException e) {
+			logger.info(String.format("Stopped recovering queued solr index updates from %s after %d; the rest will be recovered at the next startup", directory, recovered));
+		} catch (IOException | RuntimeException e) {
+			logger.error(String.format("Unable to recover queued solr index updates from %s", directory), e);
+		} finally {
+			synchronized (superseded) {
+				recovering = false;
+				superseded.clear();
+			}
+		}
+	}
+
+	// queues a recovered update unless the item has been updated since startup, waiting for space in the queue
+	private boolean requeue(Task task) throws InterruptedException {
+		BlockingQueue<Task> queue = workers[Math.floorMod(task.solrId.hashCode(), workers.length)].queue;
+		while (true) {
+			// held while queuing so that a newer update for the same item cannot be queued ahead of this one, but only
+			// briefly so that newer updates are not held up while the queue is full
+			synchronized (superseded) {
+				pending.incrementAndGet();
+				if (superseded.contains(task.solrId)) {
+					forget(task);
+					return false;
+				}
+				boolean queued = false;
+				try {
+					queued = queue.offer(task, 100, TimeUnit.MILLISECONDS);
+				} finally {
+					if (!queued) {
+						pending.decrementAndGet();
+					}
+				}
+				if (queued) {
+					return true;
+				}
+			}
+		}
+	}
+
+	private void forget(List<Task> tasks) {
+		for (Task task : tasks) {
+			forget(task);
+		}
+	}
+
+	private void forget(Task task) {
+		pending.decrementAndGet();
+		release(task);
+		if (task.file != null && !task.file.delete() && task.file.exists()) {
+			logger.warn(String.format("Unable to remove solr queue entry %s", task.file));
+		}
+	}
+
+	private static void release(Task task) {
+		if (task.content != null) {
+			task.content.release();
+			task.content = null;
+		}
+	}
+
+	// the id of the entity as it is when the update is sent, falling back to the one it had when it was queued
+	private String entityId(Task task) {
+		if (task.entity != null) {
+			String entityId = entityId(task.entity);
+			if (entityId != null) {
+				return entityId;
+			}
+		}
+		return task.entityId;
+	}
+
+	// the id of the entity in its repository, if it has one
+	private String entityId(Object entity) {
+		if (repositories == null) {
+			return null;
+		}
+		Object id = repositories.getId(entity);
+		return id != null ? id.toString() : null;
+	}
+
+	// the canonical class name part of the solr id
+	private static String entityClass(Task task) {
+		return task.solrId.substring(0, task.solrId.indexOf(':'));
+	}
+
+	// the canonical class name and the content id
+	private static String solrId(Object entity) {
+		return entity.getClass().getCanonicalName() + ":" + contentId(entity);
+	}
+
+	private static String mimeType(Object entity) {
+		Object mimeType = BeanUtils.getFieldWithAnnotation(entity, MimeType.class);
+		return mimeType != null ? mimeType.toString() : null;
+	}
+
+	private static String contentId(Object entity) {
+		Object id = BeanUtils.getFieldWithAnnotation(entity, ContentId.class);
+		Assert.notNull(id, "content id must not be null");
+		return id.toString();
+	}
+
+	private static String ids(List<Task> tasks) {
+		List<String> ids = new ArrayList<>();
+		for (Task task : tasks) {
+			ids.add(task.solrId);
+		}
+		return ids.toString();
+	}
+
+	enum Action { ADD, DELETE }
+
+	static class Task {
+		private final Action action;
+		private final String solrId;
+		private final String entityClass;
+		private final String contentId;
+		private final long queuedAt = System.currentTimeMillis();
+		private File file;
+		private Object entity;
+		private ContentStore<Object, Serializable> store;
+		private SpooledContent content;
+		private String mimeType;
+		private String entityId;
+
+		Task(Action action, String solrId, String entityClass, String contentId) {
+			this.action = action;
+			this.solrId = solrId;
+			this.entityClass = entityClass;
+			this.contentId = contentId;
+		}
+	}
+}
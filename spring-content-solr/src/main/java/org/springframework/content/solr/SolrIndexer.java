@@ -3,34 +3,39 @@ package org.springframework.content.solr;
 import java.io.IOException;
 import java.io.InputStream;
 
-import org.apache.solr.client.solrj.SolrClient;
-import org.apache.solr.client.solrj.SolrServerException;
-import org.apache.solr.client.solrj.request.ContentStreamUpdateRequest;
-import org.apache.solr.client.solrj.request.UpdateRequest;
 import org.apache.solr.common.util.ContentStreamBase;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.content.commons.annotations.ContentId;
 import org.springframework.content.commons.annotations.StoreEventHandler;
-import org.springframework.content.commons.repository.StoreAccessException;
 import org.springframework.content.commons.repository.events.AbstractStoreEventListener;
 import org.springframework.content.commons.repository.events.AfterSetContentEvent;
+import org.springframework.content.commons.repository.events.BeforeSetContentEvent;
 import org.springframework.content.commons.repository.events.BeforeUnsetContentEvent;
 import org.springframework.content.commons.utils.BeanUtils;
 import org.springframework.util.Assert;
 
+/**
+ * Keeps the Solr index up to date as content is set and unset.  Updates are handed to a {@link SolrIndexQueue} and
+ * sent to Solr in the background.  Content is copied as it is stored, up to the queue's spool limit, so that it can be
+ * indexed without reading it back from the store.
+ */
 @StoreEventHandler
 public class SolrIndexer extends AbstractStoreEventListener<Object> {
 
-	private SolrClient solrClient;
-	private SolrProperties properties;
-	
+	private SolrIndexQueue queue;
+
     @Autowired
-    public SolrIndexer(SolrClient solrClient, SolrProperties properties) {
-        Assert.notNull(solrClient, "solrClient must not be null");
-        Assert.notNull(properties, "properties must not be null");
+    public SolrIndexer(SolrIndexQueue queue) {
+        Assert.notNull(queue, "queue must not be null");
 
-		this.solrClient = solrClient;
-        this.properties = properties;
+		this.queue = queue;
+	}
+
+	@Override
+	protected void onBeforeSetContent(BeforeSetContentEvent event) {
+		if (queue.getSpoolLimit() > 0 && BeanUtils.hasFieldWithAnnotation(event.getSource(), ContentId.class)) {
+			event.spoolContent(queue.getSpoolLimit());
+		}
 	}
 
 	@Override
@@ -44,21 +49,7 @@ public class SolrIndexer extends AbstractStoreEventListener<Object> {
 			return;
 		}
 
-	    ContentStreamUpdateRequest up = new ContentStreamUpdateRequest("/update/extract");
-		if (properties.getUser() != null) {
-			up.setBasicAuthCredentials(properties.getUser(), properties.getPassword());
-		}
-		up.addContentStream(new ContentEntityStream(event.getStore().getContent(contentEntity)));
-		String id = BeanUtils.getFieldWithAnnotation(contentEntity, ContentId.class).toString();
-	    up.setParam("literal.id", contentEntity.getClass().getCanonicalName() + ":" + id);
-	    up.setAction(org.apache.solr.client.solrj.request.AbstractUpdateRequest.ACTION.COMMIT, true, true);
-	    try {
-			/*NamedList<Object> request = */solrClient.request(up, null);
-		} catch (SolrServerException e) {
-			throw new StoreAccessException(String.format("Error updating entry in solr index %s", id), e);
-		} catch (IOException e) {
-			throw new StoreAccessException(String.format("Error updating entry in solr index %s", id), e);
-		}
+		queue.add(contentEntity, event.getStore(), event.getContent());
 	}
 	
 	@Override
@@ -73,19 +64,7 @@ public class SolrIndexer extends AbstractStoreEventListener<Object> {
 			return;
 		}
 
-		UpdateRequest up = new UpdateRequest();
-		up.setAction(org.apache.solr.client.solrj.request.AbstractUpdateRequest.ACTION.COMMIT, true, true);
-		up.deleteById(contentEntity.getClass().getCanonicalName() + ":" + id.toString());
-		if (properties.getUser() != null) {
-            up.setBasicAuthCredentials(properties.getUser(), properties.getPassword());
-        }
-		try {
-			solrClient.request(up, null);
-		} catch (SolrServerException e) {
-			throw new StoreAccessException(String.format("Error deleting entry from solr index %s", id.toString()), e);
-		} catch (IOException e) {
-			throw new StoreAccessException(String.format("Error deleting entry from solr index %s", id.toString()), e);
-		}
+		queue.delete(contentEntity);
 	}
 
 	public class ContentEntityStream extends ContentStreamBase {
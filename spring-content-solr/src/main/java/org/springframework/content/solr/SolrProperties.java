@@ -7,6 +7,31 @@ public class SolrProperties {
     private String user = null;
     private String password = null;
 
+    // indexing
+    private int commitWithin = 1000;
+    private boolean softCommit = false;
+    private int queueCapacity = 10000;
+    private String queueDirectory = null;
+    private int indexingThreads = 1;
+    private int batchSize = 100;
+    private int maxRetries = 5;
+    private long retryBackoff = 500;
+    private long spoolLimit = 100 * 1024 * 1024;
+    private boolean clientExtraction = false;
+    private int extractionThreads = Runtime.getRuntime().availableProcessors();
+    private int maxTextLength = 1000000;
+    private String textField = "_text_";
+    private String entityClassField = "entity_class_s";
+    private String contentIdField = "content_id_s";
+    private String entityIdField = "entity_id_s";
+    private boolean legacyTypeQuery = true;
+    private int searchCacheEntries = 0;
+    private long searchCacheMaxBytes = 16 * 1024 * 1024;
+    private long searchCacheStaleness = 10000;
+    private int reindexPageSize = 500;
+    private int reindexMaxQueueDepth = 5000;
+    private int reindexRate = 0;
+    private String reindexDirectory = null;
 
     public String getUrl() {
         return url;
@@ -30,4 +55,262 @@ public class SolrProperties {
     public void setPassword(String password) {
         this.password = password;
     }
+
+    /**
+     * Milliseconds within which Solr should make indexed content searchable.  Zero or less commits after every batch.
+     */
+    public int getCommitWithin() {
+        return commitWithin;
+    }
+
+    public void setCommitWithin(int commitWithin) {
+        this.commitWithin = commitWithin;
+    }
+
+    /**
+     * Whether commits made after every batch are soft commits.
+     */
+    public boolean isSoftCommit() {
+        return softCommit;
+    }
+
+    public void setSoftCommit(boolean softCommit) {
+        this.softCommit = softCommit;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Directory that queued index updates are journaled to so that they survive a restart.  When not set the queue
+     * is held in memory only.
+     */
+    public String getQueueDirectory() {
+        return queueDirectory;
+    }
+
+    public void setQueueDirectory(String queueDirectory) {
+        this.queueDirectory = queueDirectory;
+    }
+
+    public int getIndexingThreads() {
+        return indexingThreads;
+    }
+
+    public void setIndexingThreads(int indexingThreads) {
+        this.indexingThreads = indexingThreads;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public void setMaxRetries(int maxRetries) {
+        this.maxRetries = maxRetries;
+    }
+
+    /**
+     * Milliseconds to wait before the first retry of a failed update.  The wait doubles with every further retry.
+     */
+    public long getRetryBackoff() {
+        return retryBackoff;
+    }
+
+    public void setRetryBackoff(long retryBackoff) {
+        this.retryBackoff = retryBackoff;
+    }
+
+    /**
+     * Length in bytes of the longest content to copy as it is stored, so that it can be indexed without reading it
+     * back from the store.  Longer content is read back from the store.  0 always reads content back from the store.
+     */
+    public long getSpoolLimit() {
+        return spoolLimit;
+    }
+
+    public void setSpoolLimit(long spoolLimit) {
+        this.spoolLimit = spoolLimit;
+    }
+
+    /**
+     * Whether text is extracted from content by the application, and sent to Solr's <code>/update</code> handler,
+     * rather than by Solr's extracting request handler.
+     */
+    public boolean isClientExtraction() {
+        return clientExtraction;
+    }
+
+    public void setClientExtraction(boolean clientExtraction) {
+        this.clientExtraction = clientExtraction;
+    }
+
+    /**
+     * Number of threads extracting text when <code>clientExtraction</code> is enabled.
+     */
+    public int getExtractionThreads() {
+        return extractionThreads;
+    }
+
+    public void setExtractionThreads(int extractionThreads) {
+        this.extractionThreads = extractionThreads;
+    }
+
+    /**
+     * Maximum number of characters of extracted text indexed for each item.
+     */
+    public int getMaxTextLength() {
+        return maxTextLength;
+    }
+
+    public void setMaxTextLength(int maxTextLength) {
+        this.maxTextLength = maxTextLength;
+    }
+
+    /**
+     * Solr field that extracted text is indexed in.
+     */
+    public String getTextField() {
+        return textField;
+    }
+
+    public void setTextField(String textField) {
+        this.textField = textField;
+    }
+
+    /**
+     * Solr string field that the entity class of each item is indexed in.  Searches filter on this field.
+     */
+    public String getEntityClassField() {
+        return entityClassField;
+    }
+
+    public void setEntityClassField(String entityClassField) {
+        this.entityClassField = entityClassField;
+    }
+
+    /**
+     * Solr string field that the content id of each item is indexed in.
+     */
+    public String getContentIdField() {
+        return contentIdField;
+    }
+
+    public void setContentIdField(String contentIdField) {
+        this.contentIdField = contentIdField;
+    }
+
+    /**
+     * Solr string field that the id of each item's entity is indexed in, when a Spring Data repository manages the
+     * entity.  Searches that return entities load them by this id.
+     */
+    public String getEntityIdField() {
+        return entityIdField;
+    }
+
+    public void setEntityIdField(String entityIdField) {
+        this.entityIdField = entityIdField;
+    }
+
+    /**
+     * Whether searches also match the entity class against the prefix of the id, as they did before the entity class
+     * field was indexed, so that documents indexed before then are found until they have been reindexed.  Enabled by
+     * default; disable it once every document has the entity class field.
+     */
+    public boolean isLegacyTypeQuery() {
+        return legacyTypeQuery;
+    }
+
+    public void setLegacyTypeQuery(boolean legacyTypeQuery) {
+        this.legacyTypeQuery = legacyTypeQuery;
+    }
+
+    /**
+     * Maximum number of search results cached, 0 to disable the search cache.
+     */
+    public int getSearchCacheEntries() {
+        return searchCacheEntries;
+    }
+
+    public void setSearchCacheEntries(int searchCacheEntries) {
+        this.searchCacheEntries = searchCacheEntries;
+    }
+
+    /**
+     * Estimated size in bytes of the search results the cache may hold.
+     */
+    public long getSearchCacheMaxBytes() {
+        return searchCacheMaxBytes;
+    }
+
+    public void setSearchCacheMaxBytes(long searchCacheMaxBytes) {
+        this.searchCacheMaxBytes = searchCacheMaxBytes;
+    }
+
+    /**
+     * Milliseconds for which a cached search result is returned before Solr is searched again.
+     */
+    public long getSearchCacheStaleness() {
+        return searchCacheStaleness;
+    }
+
+    public void setSearchCacheStaleness(long searchCacheStaleness) {
+        this.searchCacheStaleness = searchCacheStaleness;
+    }
+
+    /**
+     * Number of entities read from the repository at a time when reindexing.
+     */
+    public int getReindexPageSize() {
+        return reindexPageSize;
+    }
+
+    public void setReindexPageSize(int reindexPageSize) {
+        this.reindexPageSize = reindexPageSize;
+    }
+
+    /**
+     * Queue depth above which reindexing waits, leaving the rest of the queue for updates made by the application.
+     */
+    public int getReindexMaxQueueDepth() {
+        return reindexMaxQueueDepth;
+    }
+
+    public void setReindexMaxQueueDepth(int reindexMaxQueueDepth) {
+        this.reindexMaxQueueDepth = reindexMaxQueueDepth;
+    }
+
+    /**
+     * Maximum number of entities queued per second when reindexing, 0 for no limit.
+     */
+    public int getReindexRate() {
+        return reindexRate;
+    }
+
+    public void setReindexRate(int reindexRate) {
+        this.reindexRate = reindexRate;
+    }
+
+    /**
+     * Directory in which reindexing records its progress so that an interrupted reindex can resume.
+     */
+    public String getReindexDirectory() {
+        return reindexDirectory;
+    }
+
+    public void setReindexDirectory(String reindexDirectory) {
+        this.reindexDirectory = reindexDirectory;
+    }
 }
@@ -0,0 +1,505 @@
+package org.springframework.content.solr;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.content.commons.annotations.ContentId;
+import org.springframework.content.commons.repository.ContentStore;
+import org.springframework.content.commons.storeservice.ContentStoreInfo;
+import org.springframework.content.commons.storeservice.ContentStoreService;
+import org.springframework.content.commons.utils.BeanUtils;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+import internal.org.springframework.content.solr.EntityRepositories;
+
+/**
+ * Rebuilds the Solr index for every entity of a domain class, for example after a schema change.
+ *
+ * Entities are read from the domain class's Spring Data repository <code>reindexPageSize</code> at a time, sorted by
+ * id, and handed to the {@link SolrIndexQueue}, whose workers read and send their content in parallel and in batches.
+ * Each page is found by key, as the entities after the last id read, when the repository declares a
+ * <code>findBy&lt;Id&gt;GreaterThan(id, Pageable)</code> query method, and by page number otherwise.
+ * Reindexing waits while the queue holds more than <code>reindexMaxQueueDepth</code> updates, so that updates made by
+ * the application are not held up behind it, and queues no more than <code>reindexRate</code> entities per second
+ * when a rate is set.
+ *
+ * When a <code>reindexDirectory</code> is configured the last id read, or the number of pages done when paging by
+ * page number, is recorded there after each page, and a reindex that was interrupted resumes from there.  If the queue does not journal its updates the queue is
+ * flushed before the progress is recorded.
+ *
+ * Each domain class is reindexed on its own thread and only one reindex of a domain class runs at a time.
+ */
+@ManagedResource(description = "Spring Content Solr reindexer")
+public class SolrReindexer implements BeanFactoryAware, DisposableBean {
+
+	private static Log logger = LogFactory.getLog(SolrReindexer.class);
+
+	private static final long THROTTLE_INTERVAL = 50;
+	private static final String CHECKPOINT_SUFFIX = ".reindex";
+
+	private SolrIndexQueue queue;
+	private SolrProperties properties;
+	private ContentStoreService stores;
+	private EntityRepositories repositories;
+
+	private final Map<Class<?>, Job> jobs = new ConcurrentHashMap<>();
+	private final ExecutorService executor;
+
+	public SolrReindexer(SolrIndexQueue queue, SolrProperties properties) {
+		Assert.notNull(queue, "queue must not be null");
+		Assert.notNull(properties, "properties must not be null");
+
+		this.queue = queue;
+		this.properties = properties;
+
+		AtomicInteger count = new AtomicInteger();
+		this.executor = Executors.newCachedThreadPool((runnable) -> {
+			Thread thread = new Thread(runnable, "solr-reindexer-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Sets the service used to find the store of each domain class.
+	 */
+	public void setContentStoreService(ContentStoreService stores) {
+		this.stores = stores;
+	}
+
+	@Override
+	public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
+		if (beanFactory instanceof ListableBeanFactory) {
+			this.repositories = new EntityRepositories((ListableBeanFactory) beanFactory);
+		}
+	}
+
+	/* package */ void setEntityRepositories(EntityRepositories repositories) {
+		this.repositories = repositories;
+	}
+
+	@Override
+	public void destroy() throws Exception {
+		for (Job job : jobs.values()) {
+			job.cancel();
+		}
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Starts reindexing <code>domainClass</code>, resuming from recorded progress if there is any.  Returns the running
+	 * job if the domain class is already being reindexed.
+	 */
+	public Job reindex(Class<?> domainClass) {
+		return reindex(domainClass, true);
+	}
+
+	/**
+	 * Starts reindexing <code>domainClass</code>, from the beginning unless <code>resume</code> is true and progress
+	 * was recorded.  Returns the running job if the domain class is already being reindexed.
+	 */
+	public synchronized Job reindex(Class<?> domainClass, boolean resume) {
+		Assert.notNull(domainClass, "domainClass must not be null");
+
+		Job job = jobs.get(domainClass);
+		if (job != null && job.isRunning()) {
+			return job;
+		}
+
+		ContentStore<Object, Serializable> store = store(domainClass);
+		if (store == null) {
+			throw new IllegalStateException(String.format("No content store found for %s", domainClass.getName()));
+		}
+		if (repositories == null || !repositories.hasRepositoryFor(domainClass)) {
+			throw new IllegalStateException(String.format("No repository found for %s", domainClass.getName()));
+		}
+
+		job = new Job(domainClass, store);
+		if (resume) {
+			job.restore();
+		} else {
+			job.discardCheckpoint();
+		}
+		jobs.put(domainClass, job);
+		executor.execute(job);
+		return job;
+	}
+
+	/**
+	 * Starts reindexing the domain class of every content store that has a repository.
+	 */
+	public List<Job> reindexAll() {
+		List<Job> started = new ArrayList<>();
+		if (stores == null || repositories == null) {
+			return started;
+		}
+		for (ContentStoreInfo info : stores.getContentStores()) {
+			Class<?> domainClass = info.getDomainObjectClass();
+			if (domainClass != null && info.getImpementation() instanceof ContentStore && repositories.hasRepositoryFor(domainClass)) {
+				started.add(reindex(domainClass));
+			}
+		}
+		return started;
+	}
+
+	/**
+	 * Starts reindexing the domain class with the given name.
+	 */
+	@ManagedOperation(description = "Reindexes every entity of a domain class, resuming from recorded progress")
+	public String reindex(String domainClassName) {
+		return reindex(findDomainClass(domainClassName)).toString();
+	}
+
+	@ManagedOperation(description = "Stops reindexing a domain class")
+	public boolean cancel(String domainClassName) {
+		Job job = jobs.get(findDomainClass(domainClassName));
+		if (job == null || !job.isRunning()) {
+			return false;
+		}
+		job.cancel();
+		return true;
+	}
+
+	public Job getJob(Class<?> domainClass) {
+		return jobs.get(domainClass);
+	}
+
+	public Collection<Job> getJobs() {
+		return new ArrayList<>(jobs.values());
+	}
+
+	@ManagedAttribute(description = "Progress of each reindex")
+	public List<String> getProgress() {
+		List<String> progress = new ArrayList<>();
+		for (Job job : jobs.values()) {
+			progress.add(job.toString());
+		}
+		return progress;
+	}
+
+	/**
+	 * Returns the domain class of the content store whose domain class has the given name.
+	 *
+	 * @throws IllegalArgumentException if there is no such store
+	 */
+	public Class<?> findDomainClass(String name) {
+		if (stores != null) {
+			for (ContentStoreInfo info : stores.getContentStores()) {
+				if (info.getDomainObjectClass() != null && info.getDomainObjectClass().getName().equals(name)) {
+					return info.getDomainObjectClass();
+				}
+			}
+		}
+		throw new IllegalArgumentException(String.format("No content store found for %s", name));
+	}
+
+	@SuppressWarnings("unchecked")
+	private ContentStore<Object, Serializable> store(Class<?> domainClass) {
+		if (stores == null) {
+			return null;
+		}
+		for (ContentStoreInfo info : stores.getContentStores()) {
+			if (domainClass.equals(info.getDomainObjectClass()) && info.getImpementation() instanceof ContentStore) {
+				return (ContentStore<Object, Serializable>) info.getImpementation();
+			}
+		}
+		return null;
+	}
+
+	public enum Status {
+		RUNNING, COMPLETED, CANCELLED, FAILED
+	}
+
+	/**
+	 * A reindex of one domain class.
+	 */
+	public class Job implements Runnable {
+
+		private final Class<?> domainClass;
+		private final ContentStore<Object, Serializable> store;
+		private final CountDownLatch done = new CountDownLatch(1);
+
+		private volatile Status status = Status.RUNNING;
+		private volatile boolean cancelled = false;
+		private volatile int page = 0;
+		private volatile Serializable lastId;
+		private boolean byKey;
+		private volatile long total = -1;
+		private volatile String error;
+		private AtomicLong queued = new AtomicLong();
+		private AtomicLong skipped = new AtomicLong();
+		private long resumedAt = 0;
+		private final long startedAt = System.currentTimeMillis();
+		private volatile long finishedAt = 0;
+
+		private Job(Class<?> domainClass, ContentStore<Object, Serializable> store) {
+			this.domainClass = domainClass;
+			this.store = store;
+			this.byKey = repositories.canFindAllAfter(domainClass);
+		}
+
+		@Override
+		public void run() {
+			try {
+				long nextAt = System.nanoTime();
+				int size = Math.max(1, properties.getReindexPageSize());
+				if (byKey && lastId != null) {
+					total = repositories.count(domainClass);
+				}
+				while (!cancelled) {
+					Slice<Object> entities = byKey ? repositories.findAllAfter(domainClass, lastId, size) : repositories.findAll(domainClass, page, size);
+					if (entities instanceof Page) {
+						total = ((Page<Object>) entities).getTotalElements();
+					}
+					Serializable pageLastId = lastId;
+					for (Object entity : entities) {
+						if (cancelled) {
+							break;
+						}
+						pageLastId = repositories.getId(entity);
+						if (BeanUtils.getFieldWithAnnotation(entity, ContentId.class) == null) {
+							skipped.incrementAndGet();
+							continue;
+						}
+						nextAt = throttle(nextAt);
+						queue.add(entity, store);
+						queued.incrementAndGet();
+					}
+					if (cancelled) {
+						break;
+					}
+					lastId = pageLastId;
+					page++;
+					checkpoint();
+					if (logger.isInfoEnabled()) {
+						logger.info(String.format("Reindexing %s", this));
+					}
+					if (!entities.hasNext()) {
+						break;
+					}
+				}
+				while (!cancelled && !queue.flush(1, TimeUnit.SECONDS)) {
+					// wait for the queue to send the last of the updates
+				}
+				if (cancelled) {
+					status = Status.CANCELLED;
+				} else {
+					discardCheckpoint();
+					status = Status.COMPLETED;
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				status = Status.CANCELLED;
+			} catch (Exception e) {
+				logger.error(String.format("Reindexing %s failed", domainClass.getName()), e);
+				error = e.getMessage();
+				status = Status.FAILED;
+			} finally {
+				finishedAt = System.currentTimeMillis();
+				done.countDown();
+				logger.info(String.format("Reindexing %s", this));
+			}
+		}
+
+		// waits while the queue is too full, and to keep within the configured rate
+		private long throttle(long nextAt) throws InterruptedException {
+			while (!cancelled && properties.getReindexMaxQueueDepth() > 0 && queue.getQueueDepth() >= properties.getReindexMaxQueueDepth()) {
+				Thread.sleep(THROTTLE_INTERVAL);
+			}
+			if (properties.getReindexRate() <= 0) {
+				return nextAt;
+			}
+			long now = System.nanoTime();
+			if (nextAt > now) {
+				TimeUnit.NANOSECONDS.sleep(nextAt - now);
+			}
+			return Math.max(nextAt, now) + TimeUnit.SECONDS.toNanos(1) / properties.getReindexRate();
+		}
+
+		private File checkpointFile() {
+			if (properties.getReindexDirectory() == null) {
+				return null;
+			}
+			return new File(properties.getReindexDirectory(), domainClass.getName() + CHECKPOINT_SUFFIX);
+		}
+
+		private void checkpoint() throws IOException, InterruptedException {
+			File file = checkpointFile();
+			if (file == null) {
+				return;
+			}
+			// without a journal queued updates are lost on a restart, so they must be sent before moving on
+			if (properties.getQueueDirectory() == null) {
+				while (!cancelled && !queue.flush(1, TimeUnit.SECONDS)) {
+					// wait for the page to be sent
+				}
+				if (cancelled) {
+					return;
+				}
+			}
+			Properties entry = new Properties();
+			if (byKey && lastId != null) {
+				entry.setProperty("lastId", lastId.toString());
+			}
+			entry.setProperty("page", Integer.toString(page));
+			entry.setProperty("pageSize", Integer.toString(properties.getReindexPageSize()));
+			entry.setProperty("queued", Long.toString(queued.get()));
+			entry.setProperty("skipped", Long.toString(skipped.get()));
+			file.getParentFile().mkdirs();
+			File temp = new File(file.getParentFile(), file.getName() + ".tmp");
+			try (OutputStream out = new FileOutputStream(temp)) {
+				entry.store(out, null);
+			}
+			Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+
+		private void restore() {
+			File file = checkpointFile();
+			if (file == null || !file.exists()) {
+				return;
+			}
+			Properties entry = new Properties();
+			try (InputStream in = new FileInputStream(file)) {
+				entry.load(in);
+			} catch (IOException e) {
+				logger.warn(String.format("Unable to read reindex progress %s, starting from the beginning", file), e);
+				return;
+			}
+			if (byKey != (entry.getProperty("lastId") != null)) {
+				logger.warn(String.format("Reindex paging has changed since %s was recorded, starting from the beginning", file));
+				return;
+			}
+			// progress recorded by page number with a different page size does not line up with the pages read now
+			if (!byKey && !Integer.toString(properties.getReindexPageSize()).equals(entry.getProperty("pageSize"))) {
+				logger.warn(String.format("Reindex page size has changed since %s was recorded, starting from the beginning", file));
+				return;
+			}
+			if (byKey) {
+				lastId = repositories.convertId(domainClass, entry.getProperty("lastId"));
+			}
+			page = Integer.parseInt(entry.getProperty("page", "0"));
+			queued.set(Long.parseLong(entry.getProperty("queued", "0")));
+			skipped.set(Long.parseLong(entry.getProperty("skipped", "0")));
+			resumedAt = queued.get();
+			logger.info(byKey ? String.format("Resuming reindex of %s after id %s", domainClass.getName(), lastId)
+					: String.format("Resuming reindex of %s from page %d", domainClass.getName(), page));
+		}
+
+		private void discardCheckpoint() {
+			File file = checkpointFile();
+			if (file != null && file.exists() && !file.delete()) {
+				logger.warn(String.format("Unable to remove reindex progress %s", file));
+			}
+		}
+
+		public void cancel() {
+			cancelled = true;
+		}
+
+		/**
+		 * Waits for the reindex to finish.
+		 *
+		 * @return true if it finished within the timeout
+		 */
+		public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+			return done.await(timeout, unit);
+		}
+
+		public boolean isRunning() {
+			return status == Status.RUNNING;
+		}
+
+		public String getDomainClass() {
+			return domainClass.getName();
+		}
+
+		public Status getStatus() {
+			return status;
+		}
+
+		/**
+		 * Number of entities queued to be indexed, including those queued before the reindex resumed.
+		 */
+		public long getQueued() {
+			return queued.get();
+		}
+
+		/**
+		 * Number of entities skipped as they have no content.
+		 */
+		public long getSkipped() {
+			return skipped.get();
+		}
+
+		/**
+		 * Number of entities of the domain class, or -1 before the first page has been read.
+		 */
+		public long getTotal() {
+			return total;
+		}
+
+		/**
+		 * Number of pages of entities done.
+		 */
+		public int getPage() {
+			return page;
+		}
+
+		public long getStartedAt() {
+			return startedAt;
+		}
+
+		public long getElapsed() {
+			return (finishedAt > 0 ? finishedAt : System.currentTimeMillis()) - startedAt;
+		}
+
+		/**
+		 * Entities queued per second since this reindex started.
+		 */
+		public double getThroughput() {
+			long elapsed = getElapsed();
+			return elapsed > 0 ? (queued.get() - resumedAt) * 1000.0 / elapsed : 0;
+		}
+
+		public String getError() {
+			return error;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%s %s: %d of %d queued, %d skipped, %.1f/s", ClassUtils.getShortName(domainClass), status, queued.get(), total, skipped.get(), getThroughput());
+		}
+	}
+}
@@ -0,0 +1,234 @@
+package org.springframework.content.solr;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.content.commons.repository.events.AbstractStoreEventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.util.Assert;
+
+/**
+ * Caches the results of searches so that repeating a search does not query Solr again.
+ *
+ * Results are kept for at most <code>searchCacheStaleness</code> milliseconds.  The cache holds at most
+ * <code>searchCacheEntries</code> results taking an estimated <code>searchCacheMaxBytes</code> bytes, evicting the
+ * least recently used results first.  The results for a domain class are removed when content is set or unset on an
+ * entity of that class.  As the index is updated in the background a search made just after content is set can still
+ * return, and cache, the previous results; those are kept no longer than the staleness window.
+ *
+ * The cache is disabled when <code>searchCacheEntries</code> is 0.
+ */
+@ManagedResource(description = "Spring Content Solr search cache")
+public class SolrSearchCache extends AbstractStoreEventListener<Object> {
+
+	private static final int ENTRY_OVERHEAD = 128;
+	private static final int ID_OVERHEAD = 48;
+
+	private final int maxEntries;
+	private final long maxBytes;
+	private final long staleness;
+
+	private final Map<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private final Map<Class<?>, AtomicLong> generations = new ConcurrentHashMap<>();
+	private long bytes = 0;
+
+	private AtomicLong hits = new AtomicLong();
+	private AtomicLong misses = new AtomicLong();
+	private AtomicLong evictions = new AtomicLong();
+
+	public SolrSearchCache(SolrProperties properties) {
+		Assert.notNull(properties, "properties must not be null");
+
+		this.maxEntries = properties.getSearchCacheEntries();
+		this.maxBytes = properties.getSearchCacheMaxBytes();
+		this.staleness = TimeUnit.MILLISECONDS.toNanos(properties.getSearchCacheStaleness());
+	}
+
+	public boolean isEnabled() {
+		return maxEntries > 0 && staleness > 0;
+	}
+
+	/**
+	 * Returns the cached result of searching <code>domainClass</code> with the given key, or runs the search and
+	 * caches its result.  The key identifies the search, for example the method and its arguments; array elements are
+	 * compared by value.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T get(Class<?> domainClass, Object[] key, Supplier<T> search) {
+		if (!isEnabled()) {
+			return search.get();
+		}
+
+		Key k = new Key(domainClass, key);
+		long generation = generation(domainClass).get();
+		synchronized (this) {
+			Entry entry = entries.get(k);
+			if (entry != null && entry.generation == generation && System.nanoTime() - entry.cachedAt < staleness) {
+				hits.incrementAndGet();
+				return (T) entry.result;
+			}
+		}
+
+		misses.incrementAndGet();
+		T result = search.get();
+		put(k, generation, result);
+		return result;
+	}
+
+	/**
+	 * Removes the cached results of searching <code>domainClass</code>, or any of its super classes.
+	 */
+	@ManagedOperation(description = "Removes the cached results for a domain class")
+	public void invalidate(Class<?> domainClass) {
+		for (Map.Entry<Class<?>, AtomicLong> generation : generations.entrySet()) {
+			if (generation.getKey().isAssignableFrom(domainClass)) {
+				generation.getValue().incrementAndGet();
+			}
+		}
+		synchronized (this) {
+			Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+			while (it.hasNext()) {
+				Map.Entry<Key, Entry> entry = it.next();
+				if (entry.getKey().domainClass.isAssignableFrom(domainClass)) {
+					bytes -= entry.getValue().bytes;
+					it.remove();
+				}
+			}
+		}
+	}
+
+	@ManagedOperation(description = "Removes every cached result")
+	public void clear() {
+		for (AtomicLong generation : generations.values()) {
+			generation.incrementAndGet();
+		}
+		synchronized (this) {
+			entries.clear();
+			bytes = 0;
+		}
+	}
+
+	@Override
+	protected void onAfterSetContent(Object entity) {
+		invalidate(entity.getClass());
+	}
+
+	@Override
+	protected void onAfterUnsetContent(Object entity) {
+		invalidate(entity.getClass());
+	}
+
+	@ManagedAttribute(description = "Number of cached search results")
+	public synchronized int getSize() {
+		return entries.size();
+	}
+
+	@ManagedAttribute(description = "Estimated size in bytes of the cached search results")
+	public synchronized long getEstimatedBytes() {
+		return bytes;
+	}
+
+	@ManagedAttribute(description = "Number of searches answered from the cache")
+	public long getHitCount() {
+		return hits.get();
+	}
+
+	@ManagedAttribute(description = "Number of searches sent to Solr")
+	public long getMissCount() {
+		return misses.get();
+	}
+
+	@ManagedAttribute(description = "Number of results evicted to stay within the cache's bounds")
+	public long getEvictionCount() {
+		return evictions.get();
+	}
+
+	private synchronized void put(Key key, long generation, Object result) {
+		// the class was invalidated while searching, so the result may predate the change
+		if (generation(key.domainClass).get() != generation) {
+			return;
+		}
+		long size = estimate(result);
+		if (size > maxBytes) {
+			return;
+		}
+
+		Entry previous = entries.put(key, new Entry(result, generation, size));
+		if (previous != null) {
+			bytes -= previous.bytes;
+		}
+		bytes += size;
+
+		Iterator<Entry> eldest = entries.values().iterator();
+		while ((entries.size() > maxEntries || bytes > maxBytes) && eldest.hasNext()) {
+			bytes -= eldest.next().bytes;
+			eldest.remove();
+			evictions.incrementAndGet();
+		}
+	}
+
+	private AtomicLong generation(Class<?> domainClass) {
+		return generations.computeIfAbsent(domainClass, (c) -> new AtomicLong());
+	}
+
+	// a rough estimate of the heap used by a result of ids
+	private static long estimate(Object result) {
+		Iterable<?> ids = result instanceof Page ? ((Page<?>) result).getContent() : (Iterable<?>) result;
+		long size = ENTRY_OVERHEAD;
+		if (ids != null) {
+			for (Object id : ids) {
+				size += ID_OVERHEAD + 2 * String.valueOf(id).length();
+			}
+		}
+		return size;
+	}
+
+	private static class Key {
+		private final Class<?> domainClass;
+		private final Object[] key;
+
+		Key(Class<?> domainClass, Object[] key) {
+			this.domainClass = domainClass;
+			this.key = key.clone();
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (o instanceof Key == false) {
+				return false;
+			}
+			Key other = (Key) o;
+			return domainClass.equals(other.domainClass) && Arrays.deepEquals(key, other.key);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * domainClass.hashCode() + Arrays.deepHashCode(key);
+		}
+	}
+
+	private static class Entry {
+		private final Object result;
+		private final long generation;
+		private final long bytes;
+		private final long cachedAt = System.nanoTime();
+
+		Entry(Object result, long generation, long bytes) {
+			this.result = result;
+			this.generation = generation;
+			this.bytes = bytes;
+		}
+	}
+}
@@ -1,24 +1,50 @@
 package org.springframework.content.solr;
 
+import internal.org.springframework.content.solr.EntityRepositories;
 import internal.org.springframework.content.solr.SolrSearchService;
 import org.aopalliance.intercept.MethodInvocation;
 import org.apache.solr.client.solrj.SolrClient;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.ListableBeanFactory;
 import org.springframework.content.commons.repository.StoreExtension;
 import org.springframework.content.commons.repository.StoreInvoker;
 import org.springframework.content.commons.search.Searchable;
 import org.springframework.content.commons.utils.ReflectionService;
+import org.springframework.core.ResolvableType;
 import org.springframework.core.convert.ConversionService;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 
 import java.io.Serializable;
 import java.lang.reflect.Method;
 import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-public class SolrSearchContentRepositoryExtension implements StoreExtension {
+/**
+ * Implements {@link Searchable} for content stores.
+ *
+ * A store declared as <code>Searchable</code> of its content id type gets the content ids of the matches.  A store
+ * declared as <code>Searchable</code> of its domain class gets the matching entities instead, loaded from the domain
+ * class's Spring Data repository with one <code>findAll</code> per page of matches, in relevance order.
+ *
+ * When a {@link SolrSearchCache} is set the ids returned by Solr are cached, except for streamed results.
+ */
+@SuppressWarnings("unchecked")
+public class SolrSearchContentRepositoryExtension implements StoreExtension, BeanFactoryAware {
+
+    // matches the number of ids solr returns for each cursor page
+    private static final int HYDRATION_BATCH_SIZE = 1000;
 
     private SolrClient solr;
     private ReflectionService reflectionService;
     private ConversionService conversionService;
     private SolrProperties solrProperties;
+    private EntityRepositories repositories;
+    private SolrSearchCache cache;
 
     public SolrSearchContentRepositoryExtension(SolrClient solr, ReflectionService reflectionService, ConversionService conversionService, SolrProperties solrProperties) {
         this.solr = solr;
@@ -27,6 +53,21 @@ public class SolrSearchContentRepositoryExtension implements StoreExtension {
         this.solrProperties = solrProperties;
     }
 
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
+        if (beanFactory instanceof ListableBeanFactory) {
+            this.repositories = new EntityRepositories((ListableBeanFactory) beanFactory);
+        }
+    }
+
+    public void setSearchCache(SolrSearchCache cache) {
+        this.cache = cache;
+    }
+
+    /* package */ void setEntityRepositories(EntityRepositories repositories) {
+        this.repositories = repositories;
+    }
+
     @Override
     public Set<Method> getMethods() {
         Set<Method> methods = new HashSet<>();
@@ -36,21 +77,88 @@ public class SolrSearchContentRepositoryExtension implements StoreExtension {
 
     @Override
     public Object invoke(MethodInvocation invocation, StoreInvoker invoker) {
-        List newList = new ArrayList();
         Class<? extends Serializable> clazz = invoker.getContentIdClass();
         Class<?> domainClass = invoker.getDomainClass();
 
-        Object tgt = new SolrSearchService(solr, solrProperties, domainClass);
-        List<String> list = (List) reflectionService.invokeMethod(invocation.getMethod(), tgt, invocation.getArguments());
-        for (String item : list) {
-            if (conversionService.canConvert(item.getClass(), clazz) == false) {
-                throw new IllegalStateException(String.format("Cannot convert item of type %s to %s", item.getClass().getName(), clazz.getName()));
-            }
-            newList.add(conversionService.convert(item, clazz));
+        if (returnsEntities(invoker)) {
+            return hydrate(invocation, domainClass);
+        }
+
+        Object result = search(invocation, domainClass, new SolrSearchService(solr, solrProperties, domainClass), "id");
+        if (result instanceof Page) {
+            return ((Page<Object>) result).map((item) -> convert(item, clazz));
+        } else if (result instanceof Stream) {
+            return ((Stream<Object>) result).map((item) -> convert(item, clazz));
+        }
+
+        List newList = new ArrayList();
+        for (Object item : (List<Object>) result) {
+            newList.add(convert(item, clazz));
         }
 
         return newList;
     }
+
+    private Object hydrate(MethodInvocation invocation, Class<?> domainClass) {
+        if (repositories == null || !repositories.hasRepositoryFor(domainClass)) {
+            throw new IllegalStateException(String.format("Searchable<%s> needs a Spring Data repository for %s", domainClass.getSimpleName(), domainClass.getName()));
+        }
+
+        String field = solrProperties.getEntityIdField();
+        Object result = search(invocation, domainClass, new SolrSearchService(solr, solrProperties, domainClass, field), field);
+        if (result instanceof Page) {
+            Page<Object> page = (Page<Object>) result;
+            List<Object> entities = repositories.findAll(domainClass, page.getContent());
+            return new PageImpl<>(entities, new PageRequest(page.getNumber(), Math.max(1, page.getSize()), page.getSort()), page.getTotalElements());
+        } else if (result instanceof Stream) {
+            Iterator<Object> ids = ((Stream<Object>) result).iterator();
+            Iterator<List<Object>> batches = new Iterator<List<Object>>() {
+                @Override
+                public boolean hasNext() {
+                    return ids.hasNext();
+                }
+
+                @Override
+                public List<Object> next() {
+                    List<Object> batch = new ArrayList<>(HYDRATION_BATCH_SIZE);
+                    while (ids.hasNext() && batch.size() < HYDRATION_BATCH_SIZE) {
+                        batch.add(ids.next());
+                    }
+                    return repositories.findAll(domainClass, batch);
+                }
+            };
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(batches, Spliterator.ORDERED), false)
+                    .flatMap(List::stream)
+                    .onClose(((Stream<Object>) result)::close);
+        }
+        return repositories.findAll(domainClass, (List<Object>) result);
+    }
+
+    private Object search(MethodInvocation invocation, Class<?> domainClass, SolrSearchService tgt, String field) {
+        Method method = invocation.getMethod();
+        if (cache == null || Stream.class.isAssignableFrom(method.getReturnType())) {
+            return reflectionService.invokeMethod(method, tgt, invocation.getArguments());
+        }
+
+        Object[] key = new Object[] {method, field, invocation.getArguments()};
+        return cache.get(domainClass, key, () -> reflectionService.invokeMethod(method, tgt, invocation.getArguments()));
+    }
+
+    // whether the store is declared Searchable of its domain class rather than of its content id
+    private boolean returnsEntities(StoreInvoker invoker) {
+        if (invoker.getStoreInterface() == null) {
+            return false;
+        }
+        Class<?> type = ResolvableType.forClass(invoker.getStoreInterface()).as(Searchable.class).resolveGeneric(0);
+        return type != null && type.equals(invoker.getDomainClass());
+    }
+
+    private Object convert(Object item, Class<? extends Serializable> clazz) {
+        if (conversionService.canConvert(item.getClass(), clazz) == false) {
+            throw new IllegalStateException(String.format("Cannot convert item of type %s to %s", item.getClass().getName(), clazz.getName()));
+        }
+        return conversionService.convert(item, clazz);
+    }
 }
 
 
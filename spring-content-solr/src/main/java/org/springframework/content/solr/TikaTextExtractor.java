@@ -0,0 +1,59 @@
+package org.springframework.content.solr;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Set;
+
+import org.apache.tika.Tika;
+import org.apache.tika.exception.TikaException;
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.mime.MediaType;
+import org.apache.tika.parser.DefaultParser;
+import org.apache.tika.parser.ParseContext;
+import org.springframework.content.commons.search.TextExtractor;
+import org.springframework.util.Assert;
+
+/**
+ * Extracts text with Apache Tika.  The formats understood depend on the Tika parsers on the classpath; tika-core has
+ * none of its own.  Content of a mime type no parser supports is not extracted.
+ */
+public class TikaTextExtractor implements TextExtractor {
+
+	private Tika tika;
+	private Set<MediaType> supported;
+
+	public TikaTextExtractor() {
+		this(new Tika());
+	}
+
+	public TikaTextExtractor(Tika tika) {
+		Assert.notNull(tika, "tika must not be null");
+
+		this.tika = tika;
+		this.supported = tika.getParser().getSupportedTypes(new ParseContext());
+	}
+
+	/**
+	 * Returns true if there are Tika parsers on the classpath, such as those of tika-parsers.
+	 */
+	public static boolean hasParsers() {
+		return !new DefaultParser().getSupportedTypes(new ParseContext()).isEmpty();
+	}
+
+	@Override
+	public String extract(InputStream content, String mimeType, int maxLength) throws IOException {
+		Metadata metadata = new Metadata();
+		if (mimeType != null) {
+			MediaType type = MediaType.parse(mimeType);
+			if (type != null && !supported.contains(type.getBaseType())) {
+				return null;
+			}
+			metadata.set(Metadata.CONTENT_TYPE, mimeType);
+		}
+		try {
+			return tika.parseToString(content, metadata, maxLength);
+		} catch (TikaException e) {
+			throw new IOException(String.format("Unable to extract text from %s content", mimeType), e);
+		}
+	}
+}
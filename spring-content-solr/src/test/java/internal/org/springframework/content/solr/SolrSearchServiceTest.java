@@ -10,15 +10,22 @@ import org.apache.solr.client.solrj.request.QueryRequest;
 import org.apache.solr.common.SolrDocument;
 import org.apache.solr.common.SolrDocumentList;
 import org.apache.solr.common.util.NamedList;
+import org.hamcrest.Matchers;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
 import org.springframework.content.commons.repository.StoreAccessException;
 import org.springframework.content.solr.SolrProperties;
 import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.*;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -38,6 +45,8 @@ public class SolrSearchServiceTest {
     private String operator, starts, ends;
     private int proximity;
     private List<Object> result;
+    private Page<Object> page;
+    private Stream<Object> stream;
     private Exception e;
     private SolrProperties solrProperties;
 
@@ -71,16 +80,28 @@ public class SolrSearchServiceTest {
                             this.e = e;
                         }
                     });
-                    It("should execute a query", () -> {
+                    It("should execute a query matching the entity class field or the legacy id prefix", () -> {
                         ArgumentCaptor<SolrRequest> argument = forClass(SolrRequest.class);
                         verify(solr).request(argument.capture(),anyObject());
-                        assertThat(argument.getValue().getParams().get("q"),is("(" + keyword + ") AND id:" + Document.class.getCanonicalName() + "\\:*"));
+                        assertThat(argument.getValue().getParams().get("q"),is(keyword));
+                        assertThat(argument.getValue().getParams().get("fq"), is("entity_class_s:" + Document.class.getCanonicalName() + " OR id:" + Document.class.getCanonicalName() + "\\:*"));
                         assertThat(argument.getValue().getParams().get("fl"),is("id"));
                     });
                     It("should remove the type segment of the ID form the result set", () -> {
                         assertThat(result.size(), is(1));
                         assertThat(result.get(0), is("12345"));
                     });
+                    Context("given legacy type queries are disabled", () -> {
+                        BeforeEach(() -> {
+                            solrProperties.setLegacyTypeQuery(false);
+                        });
+                        It("should filter on the entity class field only", () -> {
+                            ArgumentCaptor<SolrRequest> argument = forClass(SolrRequest.class);
+                            verify(solr).request(argument.capture(),anyObject());
+                            assertThat(argument.getValue().getParams().get("q"), is(keyword));
+                            assertThat(argument.getValue().getParams().get("fq"), is("entity_class_s:" + Document.class.getCanonicalName()));
+                        });
+                    });
                     Context("given a SolrServerException from solr", () -> {
                         BeforeEach(() -> {
                             when(solr.request(anyObject(), anyObject())).thenThrow(SolrServerException.class);
@@ -117,7 +138,7 @@ public class SolrSearchServiceTest {
                     It("should execute a query", () -> {
                         ArgumentCaptor<SolrRequest> argument = forClass(SolrRequest.class);
                         verify(solr).request(argument.capture(),anyObject());
-                        assertThat(argument.getValue().getParams().get("q"), is("(something AND else) AND id:" + Document.class.getCanonicalName() + "\\:*"));
+                        assertThat(argument.getValue().getParams().get("q"), is("something AND else"));
                         assertThat(argument.getValue().getParams().get("fl"), is("id"));
                     });
                     It("should map results to set of IDs", () -> {
@@ -160,7 +181,7 @@ public class SolrSearchServiceTest {
                     It("should execute a query", () -> {
                         ArgumentCaptor<SolrRequest> argument = forClass(SolrRequest.class);
                         verify(solr).request(argument.capture(),anyObject());
-                        assertThat(argument.getValue().getParams().get("q"), is("(something OR else OR bobbins) AND id:" + Document.class.getCanonicalName() + "\\:*"));
+                        assertThat(argument.getValue().getParams().get("q"), is("something OR else OR bobbins"));
                         assertThat(argument.getValue().getParams().get("fl"), is("id"));
                     });
                     It("should map results to set of IDs", () -> {
@@ -204,7 +225,7 @@ public class SolrSearchServiceTest {
                     It("should execute a query", () -> {
                         ArgumentCaptor<SolrRequest> argument = forClass(SolrRequest.class);
                         verify(solr).request(argument.capture(),anyObject());
-                        assertThat(argument.getValue().getParams().get("q"), is("(\"foo bar\"~4) AND id:" + Document.class.getCanonicalName() + "\\:*"));
+                        assertThat(argument.getValue().getParams().get("q"), is("\"foo bar\"~4"));
                         assertThat(argument.getValue().getParams().get("fl"), is("id"));
                     });
                     It("should map results to set of IDs", () -> {
@@ -247,7 +268,7 @@ public class SolrSearchServiceTest {
                     It("should execute a query", () -> {
                         ArgumentCaptor<SolrRequest> argument = forClass(SolrRequest.class);
                         verify(solr).request(argument.capture(),anyObject());
-                        assertThat(argument.getValue().getParams().get("q"), is("(something*) AND id:" + Document.class.getCanonicalName() + "\\:*"));
+                        assertThat(argument.getValue().getParams().get("q"), is("something*"));
                         assertThat(argument.getValue().getParams().get("fl"), is("id"));
                     });
                     It("should map results to set of IDs", () -> {
@@ -291,7 +312,7 @@ public class SolrSearchServiceTest {
                     It("should execute a query", () -> {
                         ArgumentCaptor<SolrRequest> argument = forClass(SolrRequest.class);
                         verify(solr).request(argument.capture(),anyObject());
-                        assertThat(argument.getValue().getParams().get("q"), is("(something*else) AND id:" + Document.class.getCanonicalName() + "\\:*"));
+                        assertThat(argument.getValue().getParams().get("q"), is("something*else"));
                         assertThat(argument.getValue().getParams().get("fl"), is("id"));
                     });
                     It("should map results to set of IDs", () -> {
@@ -335,7 +356,7 @@ public class SolrSearchServiceTest {
                     It("should execute a query", () -> {
                         ArgumentCaptor<SolrRequest> argument = forClass(SolrRequest.class);
                         verify(solr).request(argument.capture(),anyObject());
-                        assertThat(argument.getValue().getParams().get("q"), is("((foo)^1.59 AND (bar)^200.0) AND id:" + Document.class.getCanonicalName() + "\\:*"));
+                        assertThat(argument.getValue().getParams().get("q"), is("(foo)^1.59 AND (bar)^200.0"));
                         assertThat(argument.getValue().getParams().get("fl"), is("id"));
                     });
                     It("should map results to set of IDs", () -> {
@@ -363,6 +384,112 @@ public class SolrSearchServiceTest {
                 });
             });
 
+            Context("#findKeyword with a pageable", () -> {
+                BeforeEach(() -> {
+                    NamedList list = new NamedList();
+                    SolrDocumentList docs = new SolrDocumentList();
+                    docs.setNumFound(142);
+                    SolrDocument doc = new SolrDocument();
+                    doc.addField("id", Document.class.getCanonicalName() + ":12345");
+                    docs.add(doc);
+                    list.add("response", docs);
+                    when(solr.request(anyObject(), anyObject())).thenReturn(list);
+                });
+                JustBeforeEach(() -> {
+                    search = new SolrSearchService(solr, solrProperties, Document.class);
+                    page = search.findKeyword("something", new PageRequest(2, 20, new Sort(Sort.Direction.DESC, "score")));
+                });
+                It("should request only the page", () -> {
+                    ArgumentCaptor<SolrRequest> argument = forClass(SolrRequest.class);
+                    verify(solr).request(argument.capture(), anyObject());
+                    assertThat(argument.getValue().getParams().get("start"), is("40"));
+                    assertThat(argument.getValue().getParams().get("rows"), is("20"));
+                    assertThat(argument.getValue().getParams().get("sort"), is("score desc"));
+                    assertThat(argument.getValue().getParams().get("fl"), is("id"));
+                });
+                It("should return the page of IDs and the total number of matches", () -> {
+                    assertThat(page.getContent(), Matchers.<Object>contains("12345"));
+                    assertThat(page.getTotalElements(), is(142L));
+                    assertThat(page.getNumber(), is(2));
+                });
+            });
+
+            Context("#findAllKeywords with a pageable", () -> {
+                JustBeforeEach(() -> {
+                    search = new SolrSearchService(solr, solrProperties, Document.class);
+                    page = search.findAllKeywords(new PageRequest(0, 5), "something", "else");
+                });
+                It("should execute a paged query", () -> {
+                    ArgumentCaptor<SolrRequest> argument = forClass(SolrRequest.class);
+                    verify(solr).request(argument.capture(), anyObject());
+                    assertThat(argument.getValue().getParams().get("q"), is("something AND else"));
+                    assertThat(argument.getValue().getParams().get("rows"), is("5"));
+                    assertThat(page.getContent(), Matchers.<Object>contains("12345"));
+                });
+            });
+
+            Context("given a field to return", () -> {
+                BeforeEach(() -> {
+                    NamedList list = new NamedList();
+                    SolrDocumentList docs = new SolrDocumentList();
+                    SolrDocument doc = new SolrDocument();
+                    doc.addField("id", Document.class.getCanonicalName() + ":12345");
+                    doc.addField("entity_id_s", "42");
+                    docs.add(doc);
+                    SolrDocument legacy = new SolrDocument();
+                    legacy.addField("id", Document.class.getCanonicalName() + ":67890");
+                    docs.add(legacy);
+                    list.add("response", docs);
+                    when(solr.request(anyObject(), anyObject())).thenReturn(list);
+                });
+                JustBeforeEach(() -> {
+                    search = new SolrSearchService(solr, solrProperties, Document.class, "entity_id_s");
+                    result = search.findKeyword("something");
+                });
+                It("should return the field's values, leaving out matches without the field", () -> {
+                    ArgumentCaptor<SolrRequest> argument = forClass(SolrRequest.class);
+                    verify(solr, atLeastOnce()).request(argument.capture(), anyObject());
+                    assertThat(argument.getValue().getParams().get("fl"), is("entity_id_s"));
+                    assertThat(result, Matchers.<Object>contains("42"));
+                });
+                It("should filter out matches without the field so that they are not counted", () -> {
+                    ArgumentCaptor<SolrRequest> argument = forClass(SolrRequest.class);
+                    verify(solr, atLeastOnce()).request(argument.capture(), anyObject());
+                    assertThat(Arrays.asList(argument.getValue().getParams().getParams("fq")), hasItem("entity_id_s:[* TO *]"));
+                });
+            });
+
+            Context("#streamKeyword", () -> {
+                BeforeEach(() -> {
+                    when(solr.request(anyObject(), anyObject()))
+                            .thenReturn(cursorPage("AoE1", "1", "2"))
+                            .thenReturn(cursorPage("AoE2", "3"))
+                            .thenReturn(cursorPage("AoE2"));
+                });
+                JustBeforeEach(() -> {
+                    search = new SolrSearchService(solr, solrProperties, Document.class);
+                    stream = search.streamKeyword("something");
+                });
+                It("should not query solr until the stream is consumed", () -> {
+                    verify(solr, never()).request(anyObject(), anyObject());
+                });
+                It("should return every match, page by page and most relevant first", () -> {
+                    assertThat(stream.collect(Collectors.toList()), Matchers.<Object>contains("1", "2", "3"));
+
+                    ArgumentCaptor<SolrRequest> argument = forClass(SolrRequest.class);
+                    verify(solr, times(3)).request(argument.capture(), anyObject());
+                    assertThat(argument.getAllValues().get(0).getParams().get("cursorMark"), is("*"));
+                    assertThat(argument.getAllValues().get(1).getParams().get("cursorMark"), is("AoE1"));
+                    assertThat(argument.getAllValues().get(2).getParams().get("cursorMark"), is("AoE2"));
+                    assertThat(argument.getAllValues().get(0).getParams().get("sort"), is("score desc,id asc"));
+                    assertThat(argument.getAllValues().get(0).getParams().get("fl"), is("id"));
+                });
+                It("should only fetch the pages that are consumed", () -> {
+                    assertThat(stream.limit(2).collect(Collectors.toList()), Matchers.<Object>contains("1", "2"));
+                    verify(solr, times(1)).request(anyObject(), anyObject());
+                });
+            });
+
             Context("#parseTerms", () -> {
                Context("given multiple terms", () -> {
                    BeforeEach(() -> {
@@ -463,5 +590,18 @@ public class SolrSearchServiceTest {
         }
     }
 
+    private static NamedList cursorPage(String nextCursorMark, String... ids) {
+        NamedList list = new NamedList();
+        SolrDocumentList docs = new SolrDocumentList();
+        for (String id : ids) {
+            SolrDocument doc = new SolrDocument();
+            doc.addField("id", Document.class.getCanonicalName() + ":" + id);
+            docs.add(doc);
+        }
+        list.add("response", docs);
+        list.add("nextCursorMark", nextCursorMark);
+        return list;
+    }
+
     static class Document {}
 }
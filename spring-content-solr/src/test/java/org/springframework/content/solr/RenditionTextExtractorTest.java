@@ -0,0 +1,85 @@
+package org.springframework.content.solr;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.*;
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.content.commons.renditions.RenditionService;
+
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+@RunWith(Ginkgo4jRunner.class)
+public class RenditionTextExtractorTest {
+
+	private static final String DOCX = "application/vnd.openxmlformats-officedocument.wordprocessingml.document";
+
+	private RenditionTextExtractor extractor;
+
+	// mocks
+	private RenditionService renditions;
+
+	private InputStream content;
+	private String mimeType;
+	private String text;
+
+	{
+		Describe("RenditionTextExtractor", () -> {
+			BeforeEach(() -> {
+				renditions = mock(RenditionService.class);
+				extractor = new RenditionTextExtractor(renditions);
+				content = new ByteArrayInputStream("some content".getBytes());
+			});
+			JustBeforeEach(() -> {
+				text = extractor.extract(content, mimeType, 4);
+			});
+			Context("given content with a text rendition", () -> {
+				BeforeEach(() -> {
+					mimeType = DOCX;
+					when(renditions.canConvert(DOCX, "text/plain")).thenReturn(true);
+					when(renditions.convert(eq(DOCX), anyObject(), eq("text/plain"))).thenReturn(new ByteArrayInputStream("rendered text".getBytes()));
+				});
+				It("should return the rendition up to the maximum length", () -> {
+					assertThat(text, is("rend"));
+					verify(renditions).convert(DOCX, content, "text/plain");
+				});
+			});
+			Context("given plain text content", () -> {
+				BeforeEach(() -> {
+					mimeType = "text/plain; charset=utf-8";
+				});
+				It("should return the content up to the maximum length", () -> {
+					assertThat(text, is("some"));
+					verify(renditions, never()).convert(anyObject(), anyObject(), anyObject());
+				});
+			});
+			Context("given content without a text rendition", () -> {
+				BeforeEach(() -> {
+					mimeType = "image/png";
+				});
+				It("should return null", () -> {
+					assertThat(text, is(nullValue()));
+				});
+			});
+			Context("given content of unknown type", () -> {
+				BeforeEach(() -> {
+					mimeType = null;
+				});
+				It("should return null", () -> {
+					assertThat(text, is(nullValue()));
+				});
+			});
+		});
+	}
+
+	@Test
+	public void test() {
+	}
+}
@@ -0,0 +1,544 @@
+package org.springframework.content.solr;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.*;
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrRequest;
+import org.apache.solr.client.solrj.request.ContentStreamUpdateRequest;
+import org.apache.solr.client.solrj.request.QueryRequest;
+import org.apache.solr.client.solrj.request.UpdateRequest;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.util.NamedList;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.springframework.content.commons.annotations.ContentId;
+import org.springframework.content.commons.annotations.MimeType;
+import org.springframework.content.commons.renditions.RenditionService;
+import org.springframework.content.commons.repository.ContentStore;
+import org.springframework.content.commons.repository.events.SpooledContent;
+import org.springframework.content.commons.search.TextExtractor;
+import org.springframework.content.commons.storeservice.ContentStoreInfo;
+import org.springframework.content.commons.storeservice.ContentStoreService;
+
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+import internal.org.springframework.content.solr.EntityRepositories;
+
+@SuppressWarnings("unchecked")
+@RunWith(Ginkgo4jRunner.class)
+@Ginkgo4jConfiguration(threads = 1)
+public class SolrIndexQueueTest {
+
+	private SolrIndexQueue queue;
+
+	// mocks
+	private SolrClient solrClient;
+	private ContentStore<Object,Serializable> store;
+	private SolrProperties props;
+
+	private List<SolrRequest<?>> requests;
+	private CountDownLatch started;
+	private CountDownLatch blocked;
+	private File directory;
+	private SpooledContent spooled;
+	private TextExtractor extractor;
+	private RenditionService renditions;
+
+	{
+		Describe("SolrIndexQueue", () -> {
+			BeforeEach(() -> {
+				solrClient = mock(SolrClient.class);
+				store = mock(ContentStore.class);
+				when(store.getContent(anyObject())).thenAnswer((invocation) -> new ByteArrayInputStream("content".getBytes()));
+				props = new SolrProperties();
+				props.setRetryBackoff(1);
+				extractor = null;
+				renditions = null;
+				requests = new CopyOnWriteArrayList<>();
+				when(solrClient.request(any(SolrRequest.class), anyObject())).thenAnswer((invocation) -> {
+					requests.add((SolrRequest<?>) invocation.getArguments()[0]);
+					return null;
+				});
+			});
+			JustBeforeEach(() -> {
+				queue = new SolrIndexQueue(solrClient, props);
+				queue.setTextExtractor(extractor);
+				queue.setRenditionService(renditions);
+				queue.afterPropertiesSet();
+			});
+			AfterEach(() -> {
+				queue.destroy();
+			});
+
+			Context("#add", () -> {
+				It("should post the content to the extracting handler", () -> {
+					ContentEntity entity = new ContentEntity("12345");
+					queue.add(entity, store);
+					assertThat(queue.flush(5, TimeUnit.SECONDS), is(true));
+
+					assertThat(requests.size(), is(1));
+					ContentStreamUpdateRequest request = (ContentStreamUpdateRequest) requests.get(0);
+					assertThat(request.getPath(), is("/update/extract"));
+					assertThat(request.getParams().get("literal.id"), is(ContentEntity.class.getCanonicalName() + ":12345"));
+					assertThat(request.getParams().get("literal.entity_class_s"), is(ContentEntity.class.getCanonicalName()));
+					assertThat(request.getParams().get("literal.content_id_s"), is("12345"));
+					assertThat(queue.getIndexedCount(), is(1L));
+				});
+				It("should index the id of the entity in its repository", () -> {
+					EntityRepositories repositories = mock(EntityRepositories.class);
+					when(repositories.getId(anyObject())).thenReturn(42L);
+					queue.setEntityRepositories(repositories);
+					queue.add(new ContentEntity("12345"), store);
+					assertThat(queue.flush(5, TimeUnit.SECONDS), is(true));
+
+					assertThat(requests.get(0).getParams().get("literal.entity_id_s"), is("42"));
+				});
+				It("should index the id the entity has when the update is sent", () -> {
+					started = new CountDownLatch(1);
+					blocked = new CountDownLatch(1);
+					when(store.getContent(anyObject())).thenAnswer((invocation) -> {
+						started.countDown();
+						blocked.await();
+						return new ByteArrayInputStream("content".getBytes());
+					});
+					EntityRepositories repositories = mock(EntityRepositories.class);
+					when(repositories.getId(anyObject())).thenReturn(null);
+					queue.setEntityRepositories(repositories);
+					queue.add(new ContentEntity("12345"), store);
+					started.await();
+					when(repositories.getId(anyObject())).thenReturn(42L);
+					blocked.countDown();
+					assertThat(queue.flush(5, TimeUnit.SECONDS), is(true));
+
+					assertThat(requests.get(0).getParams().get("literal.entity_id_s"), is("42"));
+				});
+				It("should ask solr to commit within the configured time instead of committing", () -> {
+					queue.add(new ContentEntity("12345"), store);
+					assertThat(queue.flush(5, TimeUnit.SECONDS), is(true));
+
+					assertThat(((ContentStreamUpdateRequest) requests.get(0)).getCommitWithin(), is(1000));
+					assertThat(((ContentStreamUpdateRequest) requests.get(0)).getAction(), is(nullValue()));
+				});
+				Context("given a copy of the content", () -> {
+					BeforeEach(() -> {
+						spooled = new SpooledContent(1024);
+						IOUtils.toByteArray(spooled.tee(new ByteArrayInputStream("spooled".getBytes())));
+					});
+					It("should index the copy without reading from the store", () -> {
+						queue.add(new ContentEntity("12345"), store, spooled);
+						spooled.release();
+						assertThat(queue.flush(5, TimeUnit.SECONDS), is(true));
+
+						assertThat(requests.size(), is(1));
+						InputStream content = ((ContentStreamUpdateRequest) requests.get(0)).getContentStreams().iterator().next().getStream();
+						assertThat(IOUtils.toByteArray(content), is("spooled".getBytes()));
+						verify(store, never()).getContent(anyObject());
+					});
+					It("should release the copy once the update has been sent", () -> {
+						queue.add(new ContentEntity("12345"), store, spooled);
+						spooled.release();
+						assertThat(queue.flush(5, TimeUnit.SECONDS), is(true));
+
+						assertThat(spooled.isComplete(), is(false));
+					});
+				});
+				Context("given a username", () -> {
+					BeforeEach(() -> {
+						props.setUser("username");
+						props.setPassword("password");
+					});
+					It("should set basic credentials on the request", () -> {
+						queue.add(new ContentEntity("12345"), store);
+						assertThat(queue.flush(5, TimeUnit.SECONDS), is(true));
+
+						assertThat(requests.get(0).getBasicAuthUser(), is("username"));
+						assertThat(requests.get(0).getBasicAuthPassword(), is("password"));
+					});
+				});
+				Context("given commitWithin is disabled", () -> {
+					BeforeEach(() -> {
+						props.setCommitWithin(0);
+						props.setSoftCommit(true);
+					});
+					It("should soft commit after the batch", () -> {
+						queue.add(new ContentEntity("12345"), store);
+						assertThat(queue.flush(5, TimeUnit.SECONDS), is(true));
+
+						assertThat(requests.size(), is(2));
+						assertThat(requests.get(1).getParams().get("softCommit"), is("true"));
+					});
+				});
+				Context("given solr fails and then recovers", () -> {
+					BeforeEach(() -> {
+						when(solrClient.request(any(SolrRequest.class), anyObject()))
+							.thenThrow(IOException.class)
+							.thenThrow(IOException.class)
+							.thenReturn(null);
+					});
+					It("should retry the request with fresh content", () -> {
+						queue.add(new ContentEntity("12345"), store);
+						assertThat(queue.flush(5, TimeUnit.SECONDS), is(true));
+
+						assertThat(queue.getRetryCount(), is(2L));
+						assertThat(queue.getIndexedCount(), is(1L));
+						verify(store, times(3)).getContent(anyObject());
+					});
+					It("should close the content of every attempt", () -> {
+						List<InputStream> opened = new CopyOnWriteArrayList<>();
+						when(store.getContent(anyObject())).thenAnswer((invocation) -> {
+							InputStream content = spy(new ByteArrayInputStream("content".getBytes()));
+							opened.add(content);
+							return content;
+						});
+						queue.add(new ContentEntity("12345"), store);
+						assertThat(queue.flush(5, TimeUnit.SECONDS), is(true));
+
+						assertThat(opened.size(), is(3));
+						for (InputStream content : opened) {
+							verify(content).close();
+						}
+					});
+				});
+				Context("given solr keeps failing", () -> {
+					BeforeEach(() -> {
+						props.setMaxRetries(2);
+						when(solrClient.request(any(SolrRequest.class), anyObject())).thenThrow(IOException.class);
+					});
+					It("should give up after the configured retries", () -> {
+						queue.add(new ContentEntity("12345"), store);
+						assertThat(queue.flush(5, TimeUnit.SECONDS), is(true));
+
+						assertThat(queue.getFailedCount(), is(1L));
+						verify(solrClient, times(3)).request(any(SolrRequest.class), anyObject());
+					});
+				});
+			});
+
+			Context("given client side extraction", () -> {
+				BeforeEach(() -> {
+					props.setClientExtraction(true);
+					props.setMaxTextLength(5);
+					extractor = mock(TextExtractor.class);
+					when(extractor.extract(any(InputStream.class), anyObject(), anyInt())).thenReturn("some extracted text");
+				});
+				It("should send the extracted text to the update handler", () -> {
+					ContentEntity entity = new ContentEntity("12345");
+					entity.setMimeType("application/pdf");
+					queue.add(entity, store);
+					assertThat(queue.flush(5, TimeUnit.SECONDS), is(true));
+
+					verify(extractor).extract(any(InputStream.class), eq("application/pdf"), eq(5));
+					UpdateRequest request = (UpdateRequest) requests.get(0);
+					assertThat(request.getPath(), is("/update"));
+					assertThat(request.getDocuments().size(), is(1));
+					assertThat(request.getDocuments().get(0).getFieldValue("id"), is(ContentEntity.class.getCanonicalName() + ":12345"));
+					assertThat(request.getDocuments().get(0).getFieldValue("entity_class_s"), is(ContentEntity.class.getCanonicalName()));
+					assertThat(request.getDocuments().get(0).getFieldValue("content_id_s"), is("12345"));
+					assertThat(request.getCommitWithin(), is(1000));
+					assertThat(queue.getIndexedCount(), is(1L));
+				});
+				It("should index no more than the maximum text length", () -> {
+					queue.add(new ContentEntity("12345"), store);
+					assertThat(queue.flush(5, TimeUnit.SECONDS), is(true));
+
+					assertThat(((UpdateRequest) requests.get(0)).getDocuments().get(0).getFieldValue("_text_"), is("some "));
+				});
+				It("should send consecutive items in one request", () -> {
+					started = new CountDownLatch(1);
+					blocked = new CountDownLatch(1);
+					when(store.getContent(anyObject())).thenAnswer((invocation) -> {
+						started.countDown();
+						blocked.await();
+						return new ByteArrayInputStream("content".getBytes());
+					});
+
+					queue.add(new ContentEntity("1"), store);
+					started.await();
+					queue.add(new ContentEntity("2"), store);
+					queue.add(new ContentEntity("3"), store);
+					queue.add(new ContentEntity("4"), store);
+					blocked.countDown();
+					assertThat(queue.flush(5, TimeUnit.SECONDS), is(true));
+
+					assertThat(requests.size(), is(2));
+					assertThat(((UpdateRequest) requests.get(1)).getDocuments().size(), is(3));
+					assertThat(queue.getIndexedCount(), is(4L));
+				});
+				Context("given the extractor cannot extract text", () -> {
+					BeforeEach(() -> {
+						when(extractor.extract(any(InputStream.class), anyObject(), anyInt())).thenReturn(null);
+					});
+					It("should not send anything", () -> {
+						queue.add(new ContentEntity("12345"), store);
+						assertThat(queue.flush(5, TimeUnit.SECONDS), is(true));
+
+						assertThat(requests.size(), is(0));
+						assertThat(queue.getIndexedCount(), is(0L));
+					});
+				});
+				Context("given the extractor fails", () -> {
+					BeforeEach(() -> {
+						when(extractor.extract(any(InputStream.class), anyObject(), anyInt())).thenThrow(IOException.class);
+					});
+					It("should drop the update", () -> {
+						queue.add(new ContentEntity("12345"), store);
+						assertThat(queue.flush(5, TimeUnit.SECONDS), is(true));
+
+						assertThat(requests.size(), is(0));
+						assertThat(queue.getFailedCount(), is(1L));
+					});
+				});
+			});
+
+			Context("given client side extraction and no extractor", () -> {
+				BeforeEach(() -> {
+					props.setClientExtraction(true);
+					renditions = mock(RenditionService.class);
+					when(renditions.canConvert("application/msword", "text/plain")).thenReturn(true);
+					when(renditions.convert(eq("application/msword"), any(InputStream.class), eq("text/plain"))).thenAnswer((invocation) -> new ByteArrayInputStream("rendered text".getBytes()));
+				});
+				It("should extract text with the rendition service when there are no Tika parsers", () -> {
+					assertThat(TikaTextExtractor.hasParsers(), is(false));
+
+					ContentEntity entity = new ContentEntity("12345");
+					entity.setMimeType("application/msword");
+					queue.add(entity, store);
+					assertThat(queue.flush(5, TimeUnit.SECONDS), is(true));
+
+					assertThat(((UpdateRequest) requests.get(0)).getDocuments().get(0).getFieldValue("_text_"), is("rendered text"));
+				});
+			});
+
+			Context("#delete", () -> {
+				BeforeEach(() -> {
+					started = new CountDownLatch(1);
+					blocked = new CountDownLatch(1);
+					when(store.getContent(anyObject())).thenAnswer((invocation) -> {
+						started.countDown();
+						blocked.await();
+						return new ByteArrayInputStream("content".getBytes());
+					});
+				});
+				It("should send consecutive deletes in one request", () -> {
+					queue.add(new ContentEntity("1"), store);
+					started.await();
+					queue.delete(new ContentEntity("2"));
+					queue.delete(new ContentEntity("3"));
+					queue.delete(new ContentEntity("4"));
+
+					assertThat(queue.getQueueDepth(), is(3));
+					Thread.sleep(5);
+					assertThat(queue.getLag(), is(greaterThan(0L)));
+
+					blocked.countDown();
+					assertThat(queue.flush(5, TimeUnit.SECONDS), is(true));
+
+					UpdateRequest deletes = (UpdateRequest) requests.get(requests.size() - 1);
+					assertThat(deletes.getDeleteById().size(), is(3));
+					assertThat(queue.getDeletedCount(), is(3L));
+				});
+			});
+
+			Context("#reindexLegacyDocuments", () -> {
+				BeforeEach(() -> {
+					when(solrClient.request(any(SolrRequest.class), anyObject())).thenAnswer((invocation) -> {
+						SolrRequest<?> request = (SolrRequest<?>) invocation.getArguments()[0];
+						if (request instanceof QueryRequest == false) {
+							requests.add(request);
+							return null;
+						}
+						String cursorMark = request.getParams().get("cursorMark");
+						NamedList<Object> response = new NamedList<>();
+						SolrDocumentList documents = new SolrDocumentList();
+						if ("*".equals(cursorMark)) {
+							for (String id : new String[] {"1", "2"}) {
+								SolrDocument document = new SolrDocument();
+								document.addField("id", ContentEntity.class.getCanonicalName() + ":" + id);
+								documents.add(document);
+							}
+							response.add("nextCursorMark", "AoE2");
+						} else {
+							response.add("nextCursorMark", cursorMark);
+						}
+						response.add("response", documents);
+						return response;
+					});
+					requests.clear();
+				});
+				It("should reindex documents without the entity class field from their store", () -> {
+					ContentStoreInfo info = mock(ContentStoreInfo.class);
+					when(info.getDomainObjectClass()).thenReturn((Class) ContentEntity.class);
+					when(info.getImpementation()).thenReturn(store);
+					ContentStoreService stores = mock(ContentStoreService.class);
+					when(stores.getContentStores()).thenReturn(new ContentStoreInfo[] {info});
+					queue.setContentStoreService(stores);
+
+					assertThat(queue.reindexLegacyDocuments(ContentEntity.class), is(2L));
+					assertThat(queue.flush(5, TimeUnit.SECONDS), is(true));
+
+					ArgumentCaptor<SolrRequest> argument = ArgumentCaptor.forClass(SolrRequest.class);
+					verify(solrClient, atLeastOnce()).request(argument.capture(), anyObject());
+					SolrRequest<?> query = argument.getAllValues().get(0);
+					assertThat(query.getParams().get("fq"), is("-entity_class_s:[* TO *]"));
+					assertThat(requests.size(), is(2));
+					for (SolrRequest<?> request : requests) {
+						assertThat(request.getParams().get("literal.entity_class_s"), is(ContentEntity.class.getCanonicalName()));
+					}
+					assertThat(queue.getIndexedCount(), is(2L));
+				});
+			});
+
+			Context("given a queue directory", () -> {
+				BeforeEach(() -> {
+					directory = Files.createTempDirectory("solr-queue").toFile();
+					props.setQueueDirectory(directory.getAbsolutePath());
+				});
+				AfterEach(() -> {
+					FileUtils.deleteDirectory(directory);
+				});
+				It("should remove updates from the directory once sent", () -> {
+					queue.add(new ContentEntity("12345"), store);
+					assertThat(queue.flush(5, TimeUnit.SECONDS), is(true));
+
+					assertThat(directory.list().length, is(0));
+				});
+				It("should send updates left over from a previous run", () -> {
+					blocked = new CountDownLatch(1);
+					when(store.getContent(anyObject())).thenAnswer((invocation) -> {
+						blocked.await();
+						return new ByteArrayInputStream("content".getBytes());
+					});
+					queue.add(new ContentEntity("1"), store);
+					queue.add(new ContentEntity("2"), store);
+					queue.destroy();
+					assertThat(directory.list().length, is(2));
+
+					ContentStoreInfo info = mock(ContentStoreInfo.class);
+					when(info.getDomainObjectClass()).thenReturn((Class) ContentEntity.class);
+					when(info.getImpementation()).thenReturn(store);
+					ContentStoreService stores = mock(ContentStoreService.class);
+					when(stores.getContentStores()).thenReturn(new ContentStoreInfo[] {info});
+					blocked.countDown();
+
+					queue = new SolrIndexQueue(solrClient, props);
+					queue.setContentStoreService(stores);
+					queue.afterPropertiesSet();
+					assertThat(queue.flush(5, TimeUnit.SECONDS), is(true));
+
+					assertThat(queue.getIndexedCount(), is(2L));
+					assertThat(directory.list().length, is(0));
+				});
+				Context("given more updates left over than the queue holds", () -> {
+					JustBeforeEach(() -> {
+						blocked = new CountDownLatch(1);
+						when(store.getContent(anyObject())).thenAnswer((invocation) -> {
+							blocked.await();
+							return new ByteArrayInputStream("content".getBytes());
+						});
+						queue.add(new ContentEntity("1"), store);
+						queue.add(new ContentEntity("2"), store);
+						queue.add(new ContentEntity("3"), store);
+						queue.destroy();
+
+						ContentStoreInfo info = mock(ContentStoreInfo.class);
+						when(info.getDomainObjectClass()).thenReturn((Class) ContentEntity.class);
+						when(info.getImpementation()).thenReturn(store);
+						ContentStoreService stores = mock(ContentStoreService.class);
+						when(stores.getContentStores()).thenReturn(new ContentStoreInfo[] {info});
+
+						props.setIndexingThreads(1);
+						props.setQueueCapacity(1);
+						queue = new SolrIndexQueue(solrClient, props);
+						queue.setContentStoreService(stores);
+					});
+					It("should start without waiting for space in the queue", () -> {
+						long start = System.nanoTime();
+						queue.afterPropertiesSet();
+						assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000, is(true));
+						assertThat(queue.flush(100, TimeUnit.MILLISECONDS), is(false));
+
+						blocked.countDown();
+						assertThat(queue.flush(5, TimeUnit.SECONDS), is(true));
+						assertThat(queue.getIndexedCount(), is(3L));
+						assertThat(directory.list().length, is(0));
+					});
+					It("should drop a left over update once the same item is updated again", () -> {
+						queue.afterPropertiesSet();
+
+						// the first update is in flight and the second fills the queue, so the third is still waiting
+						Thread deleting = new Thread(() -> queue.delete(new ContentEntity("3")));
+						deleting.start();
+						File third = new File(directory, String.format("%019d.task", 3));
+						long deadline = System.currentTimeMillis() + 5000;
+						while (third.exists() && System.currentTimeMillis() < deadline) {
+							Thread.sleep(10);
+						}
+						assertThat(third.exists(), is(false));
+
+						blocked.countDown();
+						deleting.join(5000);
+						assertThat(queue.flush(5, TimeUnit.SECONDS), is(true));
+						assertThat(queue.getIndexedCount(), is(2L));
+						assertThat(queue.getDeletedCount(), is(1L));
+					});
+				});
+			});
+		});
+	}
+
+	@Test
+	public void test() {
+	}
+
+	public static class ContentEntity {
+		@ContentId private String contentId;
+		@MimeType private String mimeType;
+
+		public ContentEntity() {
+		}
+
+		public ContentEntity(String contentId) {
+			this.contentId = contentId;
+		}
+
+		public String getContentId() {
+			return contentId;
+		}
+
+		public void setContentId(String contentId) {
+			this.contentId = contentId;
+		}
+
+		public String getMimeType() {
+			return mimeType;
+		}
+
+		public void setMimeType(String mimeType) {
+			this.mimeType = mimeType;
+		}
+	}
+}
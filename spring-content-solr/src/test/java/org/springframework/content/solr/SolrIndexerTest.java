@@ -3,23 +3,15 @@ package org.springframework.content.solr;
 import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.*;
 import static org.hamcrest.CoreMatchers.*;
 import static org.hamcrest.MatcherAssert.assertThat;
-import static org.mockito.ArgumentCaptor.forClass;
 import static org.mockito.Matchers.anyObject;
-import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.*;
 
-import java.io.IOException;
 import java.io.Serializable;
 import java.util.UUID;
 
 import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
-import org.apache.solr.client.solrj.SolrClient;
-import org.apache.solr.client.solrj.SolrServerException;
-import org.apache.solr.client.solrj.request.ContentStreamUpdateRequest;
-import org.apache.solr.client.solrj.request.UpdateRequest;
 import org.junit.Test;
 import org.junit.runner.RunWith;
-import org.mockito.ArgumentCaptor;
 import org.springframework.content.commons.annotations.ContentId;
 import org.springframework.content.commons.annotations.ContentLength;
 import org.springframework.content.commons.annotations.MimeType;
@@ -28,7 +20,9 @@ import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
 import org.springframework.content.commons.repository.StoreAccessException;
 import org.springframework.content.commons.repository.ContentStore;
 import org.springframework.content.commons.repository.events.AfterSetContentEvent;
+import org.springframework.content.commons.repository.events.BeforeSetContentEvent;
 import org.springframework.content.commons.repository.events.BeforeUnsetContentEvent;
+import org.springframework.content.commons.repository.events.SpooledContent;
 
 @SuppressWarnings("unchecked")
 @RunWith(Ginkgo4jRunner.class)
@@ -38,28 +32,60 @@ public class SolrIndexerTest {
 	private SolrIndexer handler;
 	
 	// mocks
-	private SolrClient solrClient;
+	private SolrIndexQueue queue;
 	private ContentStore<Object,Serializable> store;
-	private SolrProperties props;
 	
 	// args 
 	private Object contentEntity;
+	private BeforeSetContentEvent beforeSetEvent;
 	private AfterSetContentEvent afterSetEvent;
+	private SpooledContent spooled;
 	private BeforeUnsetContentEvent beforeUnsetEvent;
 	private Throwable e;
 	
 	{
 		Describe("SolrUpdateEventHandler", () -> {
 			BeforeEach(() -> {
-				solrClient = mock(SolrClient.class);
+				queue = mock(SolrIndexQueue.class);
 				store = mock(ContentStore.class);
-				props = mock(SolrProperties.class);
-				handler = new SolrIndexer(solrClient, props);
+				handler = new SolrIndexer(queue);
+			});
+			Context("#onBeforeSetContent", () -> {
+				JustBeforeEach(() -> {
+					beforeSetEvent = new BeforeSetContentEvent(contentEntity, store);
+					handler.onBeforeSetContent(beforeSetEvent);
+				});
+				Context("given a content entity", () -> {
+					BeforeEach(() -> {
+						contentEntity = new ContentEntity();
+						when(queue.getSpoolLimit()).thenReturn(1024L);
+					});
+					It("should ask for a copy of the content", () -> {
+						assertThat(beforeSetEvent.getSpoolLimit(), is(1024L));
+					});
+					Context("given spooling is disabled", () -> {
+						BeforeEach(() -> {
+							when(queue.getSpoolLimit()).thenReturn(0L);
+						});
+						It("should not ask for a copy of the content", () -> {
+							assertThat(beforeSetEvent.getSpoolLimit(), is(-1L));
+						});
+					});
+				});
+				Context("given a bogus content entity", () -> {
+					BeforeEach(() -> {
+						contentEntity = new NotAContentEntity();
+						when(queue.getSpoolLimit()).thenReturn(1024L);
+					});
+					It("should not ask for a copy of the content", () -> {
+						assertThat(beforeSetEvent.getSpoolLimit(), is(-1L));
+					});
+				});
 			});
 			Context("#onAfterSetContent", () -> {
 				JustBeforeEach(() -> {
 					try {
-						afterSetEvent = new AfterSetContentEvent(contentEntity, store);
+						afterSetEvent = new AfterSetContentEvent(contentEntity, store, spooled);
 						handler.onAfterSetContent(afterSetEvent);
 					} catch (Throwable e) {
 						this.e = e;
@@ -72,38 +98,25 @@ public class SolrIndexerTest {
 						((ContentEntity)contentEntity).contentLen = 128L;
 						((ContentEntity)contentEntity).mimeType = "text/plain";
 					});
-					It("should call update", () -> {
+					It("should queue the content for indexing", () -> {
 						assertThat(e, is(nullValue()));
-						verify(solrClient).request(anyObject(), anyObject());
+						verify(queue).add(contentEntity, store, null);
 					});
-                    It("should store the content type", () -> {
-                        ArgumentCaptor<ContentStreamUpdateRequest> argument = forClass(ContentStreamUpdateRequest.class);
-                        verify(solrClient).request(argument.capture(), anyObject());
-                        assertThat(argument.getValue().getParams().get("literal.id"), is(((ContentEntity)contentEntity).getClass().getCanonicalName()  + ":" + ((ContentEntity)contentEntity).contentId ));
-                    });
-                    Context("given a username", () -> {
-                        BeforeEach(() -> {
-                            when(props.getUser()).thenReturn("username");
-                            when(props.getPassword()).thenReturn("password");
-                        });
-                        It("should set basic credentials on the request", () -> {
-                            ArgumentCaptor<ContentStreamUpdateRequest> argument = forClass(ContentStreamUpdateRequest.class);
-                            verify(solrClient).request(argument.capture(), anyObject());
-                            assertThat(argument.getValue().getBasicAuthUser(), is("username"));
-                            assertThat(argument.getValue().getBasicAuthPassword(), is("password"));
-                        });
-                    });
-                    Context("given a SolrServer Exception", () -> {
-                        BeforeEach(() -> {
-                            when(solrClient.request(anyObject(), anyObject())).thenThrow(SolrServerException.class);
-                        });
-                        It("should throw a ContextAccessException", () -> {
-                            assertThat(e, is(instanceOf(StoreAccessException.class)));
-                        });
-                    });
-                    Context("given a IOException", () -> {
+					Context("given the content was copied as it was stored", () -> {
+						BeforeEach(() -> {
+							spooled = new SpooledContent(1024);
+							spooled.complete();
+						});
+						AfterEach(() -> {
+							spooled = null;
+						});
+						It("should queue the copy for indexing", () -> {
+							verify(queue).add(contentEntity, store, spooled);
+						});
+					});
+                    Context("given the queue is full", () -> {
                         BeforeEach(() -> {
-                            when(solrClient.request(anyObject(), anyObject())).thenThrow(IOException.class);
+                            doThrow(StoreAccessException.class).when(queue).add(anyObject(), anyObject(), anyObject());
                         });
                         It("should throw a ContextAccessException", () -> {
                             assertThat(e, is(instanceOf(StoreAccessException.class)));
@@ -114,18 +127,18 @@ public class SolrIndexerTest {
 					BeforeEach(() -> {
 						contentEntity = new ContentEntity();
 					});
-					It("should call update", () -> {
+					It("should not queue anything", () -> {
 						assertThat(e, is(nullValue()));
-						verify(solrClient, never()).request(anyObject(), anyString());
+						verify(queue, never()).add(anyObject(), anyObject(), anyObject());
 					});
 				});
 				Context("given a bogus content entity", () -> {
 					BeforeEach(() -> {
 						contentEntity = new NotAContentEntity();
 					});
-					It("", ()->{
+					It("should not queue anything", ()->{
 						assertThat(e, is(nullValue()));
-						verify(solrClient, never()).request(anyObject(), anyString());
+						verify(queue, never()).add(anyObject(), anyObject(), anyObject());
 					});
 				});
 			});
@@ -145,48 +158,18 @@ public class SolrIndexerTest {
 						((ContentEntity)contentEntity).contentLen = 128L;
 						((ContentEntity)contentEntity).mimeType = "text/plain";
 					});
-                    It("should delete the correct id", () -> {
-                        ArgumentCaptor<UpdateRequest> argument = forClass(UpdateRequest.class);
-                        verify(solrClient).request(argument.capture(), anyObject());
-                        String expected = ((ContentEntity)contentEntity).getClass().getCanonicalName()  + ":" + ((ContentEntity)contentEntity).contentId;
-                        assertThat(argument.getValue().getDeleteById(), hasItem(expected));
-                    });
-                    Context("given a username", () -> {
-                        BeforeEach(() -> {
-                            when(props.getUser()).thenReturn("username");
-                            when(props.getPassword()).thenReturn("password");
-                        });
-                        It("should set basic credentials on the request", () -> {
-                            ArgumentCaptor<UpdateRequest> argument = forClass(UpdateRequest.class);
-                            verify(solrClient).request(argument.capture(), anyObject());
-                            assertThat(argument.getValue().getBasicAuthUser(), is("username"));
-                            assertThat(argument.getValue().getBasicAuthPassword(), is("password"));
-                        });
-                    });
-                    Context("given a SolrServer Exception", () -> {
-                        BeforeEach(() -> {
-                            when(solrClient.request(anyObject(), anyObject())).thenThrow(SolrServerException.class);
-                        });
-                        It("should throw a ContextAccessException", () -> {
-                            assertThat(e, is(instanceOf(StoreAccessException.class)));
-                        });
-                    });
-                    Context("given a IOException", () -> {
-                        BeforeEach(() -> {
-                            when(solrClient.request(anyObject(), anyObject())).thenThrow(IOException.class);
-                        });
-                        It("should throw a ContextAccessException", () -> {
-                            assertThat(e, is(instanceOf(StoreAccessException.class)));
-                        });
+                    It("should queue the deletion", () -> {
+                        assertThat(e, is(nullValue()));
+                        verify(queue).delete(contentEntity);
                     });
 				});
 				Context("given a content entity with a null contentId", () -> {
 					BeforeEach(() -> {
 						contentEntity = new ContentEntity();
 					});
-					It("should call update", () -> {
+					It("should not queue anything", () -> {
 						assertThat(e, is(nullValue()));
-						verify(solrClient, never()).deleteById(anyString());
+						verify(queue, never()).delete(anyObject());
 					});
 				});
 				Context("given a bogus content entity", () -> {
@@ -195,7 +178,7 @@ public class SolrIndexerTest {
 					});
 					It("should never attempt deletion", ()->{
 						assertThat(e, is(nullValue()));
-						verify(solrClient, never()).deleteById(anyString());
+						verify(queue, never()).delete(anyObject());
 					});
 				});
 			});
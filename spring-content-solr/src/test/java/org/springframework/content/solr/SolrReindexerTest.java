@@ -0,0 +1,318 @@
+package org.springframework.content.solr;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.*;
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.io.File;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.content.commons.annotations.ContentId;
+import org.springframework.content.commons.repository.ContentStore;
+import org.springframework.content.commons.storeservice.ContentStoreInfo;
+import org.springframework.content.commons.storeservice.ContentStoreService;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+import internal.org.springframework.content.solr.EntityRepositories;
+
+@RunWith(Ginkgo4jRunner.class)
+@Ginkgo4jConfiguration(threads = 1)
+public class SolrReindexerTest {
+
+	private SolrReindexer reindexer;
+	private SolrIndexQueue queue;
+	private SolrProperties props;
+	private EntityRepositories repositories;
+	private ContentStoreService stores;
+	private ContentStore<Object, Serializable> store;
+	private List<Object> entities;
+	private File directory;
+	private SolrReindexer.Job job;
+
+	{
+		Describe("SolrReindexer", () -> {
+			BeforeEach(() -> {
+				props = new SolrProperties();
+				props.setReindexPageSize(2);
+
+				queue = mock(SolrIndexQueue.class);
+				when(queue.flush(anyLong(), anyObject())).thenReturn(true);
+
+				store = mock(ContentStore.class);
+				ContentStoreInfo info = mock(ContentStoreInfo.class);
+				when(info.getDomainObjectClass()).thenReturn((Class) Document.class);
+				when(info.getImpementation()).thenReturn(store);
+				stores = mock(ContentStoreService.class);
+				when(stores.getContentStores()).thenReturn(new ContentStoreInfo[] {info});
+
+				entities = new ArrayList<>();
+				for (int i = 0; i < 5; i++) {
+					entities.add(new Document(Integer.toString(i)));
+				}
+				repositories = mock(EntityRepositories.class);
+				when(repositories.hasRepositoryFor(Document.class)).thenReturn(true);
+				when(repositories.findAll(eq(Document.class), anyInt(), anyInt())).thenAnswer((invocation) -> {
+					int page = (Integer) invocation.getArguments()[1];
+					int size = (Integer) invocation.getArguments()[2];
+					int from = Math.min(page * size, entities.size());
+					int to = Math.min(from + size, entities.size());
+					return new PageImpl<>(new ArrayList<>(entities.subList(from, to)), new PageRequest(page, size), entities.size());
+				});
+			});
+			JustBeforeEach(() -> {
+				reindexer = new SolrReindexer(queue, props);
+				reindexer.setContentStoreService(stores);
+				reindexer.setEntityRepositories(repositories);
+			});
+			AfterEach(() -> {
+				reindexer.destroy();
+			});
+
+			Context("#reindex", () -> {
+				It("should queue every entity of the domain class", () -> {
+					job = reindexer.reindex(Document.class);
+					assertThat(job.await(5, TimeUnit.SECONDS), is(true));
+
+					assertThat(job.getStatus(), is(SolrReindexer.Status.COMPLETED));
+					for (Object entity : entities) {
+						verify(queue).add(entity, store);
+					}
+					assertThat(job.getQueued(), is(5L));
+					assertThat(job.getTotal(), is(5L));
+					assertThat(job.getPage(), is(3));
+				});
+				It("should skip entities without content", () -> {
+					((Document) entities.get(2)).setContentId(null);
+					job = reindexer.reindex(Document.class);
+					assertThat(job.await(5, TimeUnit.SECONDS), is(true));
+
+					verify(queue, times(4)).add(anyObject(), any(ContentStore.class));
+					assertThat(job.getSkipped(), is(1L));
+				});
+				It("should return the running job rather than start another", () -> {
+					CountDownLatch blocked = new CountDownLatch(1);
+					doAnswer((invocation) -> {
+						blocked.await();
+						return null;
+					}).when(queue).add(anyObject(), any(ContentStore.class));
+
+					job = reindexer.reindex(Document.class);
+					assertThat(reindexer.reindex(Document.class), is(sameInstance(job)));
+					blocked.countDown();
+					assertThat(job.await(5, TimeUnit.SECONDS), is(true));
+				});
+				It("should stop when cancelled", () -> {
+					CountDownLatch started = new CountDownLatch(1);
+					CountDownLatch blocked = new CountDownLatch(1);
+					doAnswer((invocation) -> {
+						started.countDown();
+						blocked.await();
+						return null;
+					}).when(queue).add(anyObject(), any(ContentStore.class));
+
+					job = reindexer.reindex(Document.class);
+					assertThat(started.await(5, TimeUnit.SECONDS), is(true));
+					job.cancel();
+					blocked.countDown();
+					assertThat(job.await(5, TimeUnit.SECONDS), is(true));
+
+					assertThat(job.getStatus(), is(SolrReindexer.Status.CANCELLED));
+					verify(queue, times(1)).add(anyObject(), any(ContentStore.class));
+				});
+				Context("given the queue is above the maximum depth", () -> {
+					BeforeEach(() -> {
+						props.setReindexMaxQueueDepth(10);
+						when(queue.getQueueDepth()).thenReturn(10, 10, 0);
+					});
+					It("should wait for the queue to drain", () -> {
+						job = reindexer.reindex(Document.class);
+						assertThat(job.await(5, TimeUnit.SECONDS), is(true));
+
+						verify(queue, atLeast(3)).getQueueDepth();
+						assertThat(job.getQueued(), is(5L));
+					});
+				});
+				Context("given a repository that pages by key", () -> {
+					BeforeEach(() -> {
+						pageByKey();
+					});
+					It("should read each page after the last id without counting again", () -> {
+						job = reindexer.reindex(Document.class);
+						assertThat(job.await(5, TimeUnit.SECONDS), is(true));
+
+						assertThat(job.getStatus(), is(SolrReindexer.Status.COMPLETED));
+						for (Object entity : entities) {
+							verify(queue).add(entity, store);
+						}
+						verify(repositories).findAllAfter(Document.class, null, 2);
+						verify(repositories).findAllAfter(Document.class, 1L, 2);
+						verify(repositories).findAllAfter(Document.class, 3L, 2);
+						verify(repositories, never()).findAll(eq(Document.class), anyInt(), anyInt());
+						verify(repositories, never()).count(Document.class);
+						assertThat(job.getTotal(), is(5L));
+					});
+				});
+				Context("given a domain class without a repository", () -> {
+					BeforeEach(() -> {
+						when(repositories.hasRepositoryFor(Document.class)).thenReturn(false);
+					});
+					It("should fail", () -> {
+						Exception e = null;
+						try {
+							reindexer.reindex(Document.class);
+						} catch (IllegalStateException ise) {
+							e = ise;
+						}
+						assertThat(e, is(not(nullValue())));
+					});
+				});
+			});
+
+			Context("given a reindex directory", () -> {
+				BeforeEach(() -> {
+					directory = Files.createTempDirectory("solr-reindex").toFile();
+					props.setReindexDirectory(directory.getAbsolutePath());
+				});
+				AfterEach(() -> {
+					FileUtils.deleteDirectory(directory);
+				});
+				It("should remove its progress once complete", () -> {
+					job = reindexer.reindex(Document.class);
+					assertThat(job.await(5, TimeUnit.SECONDS), is(true));
+
+					assertThat(directory.list().length, is(0));
+				});
+				It("should resume from the recorded progress", () -> {
+					CountDownLatch started = new CountDownLatch(1);
+					CountDownLatch blocked = new CountDownLatch(1);
+					doAnswer((invocation) -> {
+						if (invocation.getArguments()[0] == entities.get(2)) {
+							started.countDown();
+							blocked.await();
+						}
+						return null;
+					}).when(queue).add(anyObject(), any(ContentStore.class));
+
+					job = reindexer.reindex(Document.class);
+					assertThat(started.await(5, TimeUnit.SECONDS), is(true));
+					job.cancel();
+					blocked.countDown();
+					assertThat(job.await(5, TimeUnit.SECONDS), is(true));
+					assertThat(directory.list().length, is(1));
+
+					reset(queue);
+					when(queue.flush(anyLong(), anyObject())).thenReturn(true);
+					job = reindexer.reindex(Document.class);
+					assertThat(job.await(5, TimeUnit.SECONDS), is(true));
+
+					verify(queue, never()).add(eq(entities.get(0)), any(ContentStore.class));
+					verify(queue, never()).add(eq(entities.get(1)), any(ContentStore.class));
+					verify(queue).add(eq(entities.get(2)), any(ContentStore.class));
+					verify(queue).add(eq(entities.get(4)), any(ContentStore.class));
+					assertThat(job.getQueued(), is(5L));
+				});
+				It("should resume after the recorded id when paging by key", () -> {
+					pageByKey();
+					CountDownLatch started = new CountDownLatch(1);
+					CountDownLatch blocked = new CountDownLatch(1);
+					doAnswer((invocation) -> {
+						if (invocation.getArguments()[0] == entities.get(2)) {
+							started.countDown();
+							blocked.await();
+						}
+						return null;
+					}).when(queue).add(anyObject(), any(ContentStore.class));
+
+					job = reindexer.reindex(Document.class);
+					assertThat(started.await(5, TimeUnit.SECONDS), is(true));
+					job.cancel();
+					blocked.countDown();
+					assertThat(job.await(5, TimeUnit.SECONDS), is(true));
+
+					reset(queue);
+					when(queue.flush(anyLong(), anyObject())).thenReturn(true);
+					job = reindexer.reindex(Document.class);
+					assertThat(job.await(5, TimeUnit.SECONDS), is(true));
+
+					verify(queue, never()).add(eq(entities.get(1)), any(ContentStore.class));
+					verify(queue).add(eq(entities.get(2)), any(ContentStore.class));
+					verify(queue).add(eq(entities.get(4)), any(ContentStore.class));
+					verify(repositories, times(2)).findAllAfter(Document.class, 1L, 2);
+					assertThat(job.getTotal(), is(5L));
+					assertThat(job.getQueued(), is(5L));
+				});
+				It("should start again when not resuming", () -> {
+					job = reindexer.reindex(Document.class);
+					assertThat(job.await(5, TimeUnit.SECONDS), is(true));
+					reset(queue);
+					when(queue.flush(anyLong(), anyObject())).thenReturn(true);
+
+					job = reindexer.reindex(Document.class, false);
+					assertThat(job.await(5, TimeUnit.SECONDS), is(true));
+					verify(queue).add(eq(entities.get(0)), any(ContentStore.class));
+				});
+			});
+		});
+	}
+
+	@Test
+	public void test() {
+	}
+
+	private void pageByKey() {
+		when(repositories.canFindAllAfter(Document.class)).thenReturn(true);
+		when(repositories.getId(anyObject())).thenAnswer((invocation) -> Long.valueOf(((Document) invocation.getArguments()[0]).getContentId()));
+		when(repositories.convertId(Document.class, "1")).thenReturn(1L);
+		when(repositories.count(Document.class)).thenReturn((long) entities.size());
+		when(repositories.findAllAfter(eq(Document.class), any(Serializable.class), anyInt())).thenAnswer((invocation) -> {
+			Long afterId = (Long) invocation.getArguments()[1];
+			int size = (Integer) invocation.getArguments()[2];
+			List<Object> page = new ArrayList<>();
+			for (Object entity : entities) {
+				if (page.size() < size && (afterId == null || Long.valueOf(((Document) entity).getContentId()) > afterId)) {
+					page.add(entity);
+				}
+			}
+			boolean more = page.size() == size && page.get(size - 1) != entities.get(entities.size() - 1);
+			if (afterId == null) {
+				return new PageImpl<>(page, new PageRequest(0, size), entities.size());
+			}
+			return new SliceImpl<>(page, new PageRequest(0, size), more);
+		});
+	}
+
+	public static class Document {
+		@ContentId private String contentId;
+
+		public Document(String contentId) {
+			this.contentId = contentId;
+		}
+
+		public String getContentId() {
+			return contentId;
+		}
+
+		public void setContentId(String contentId) {
+			this.contentId = contentId;
+		}
+	}
+}
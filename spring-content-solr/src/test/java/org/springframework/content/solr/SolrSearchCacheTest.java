@@ -0,0 +1,169 @@
+package org.springframework.content.solr;
+
+import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.*;
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.content.commons.repository.events.AfterSetContentEvent;
+import org.springframework.content.commons.repository.events.AfterUnsetContentEvent;
+
+import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+
+@RunWith(Ginkgo4jRunner.class)
+public class SolrSearchCacheTest {
+
+	private SolrSearchCache cache;
+	private SolrProperties props;
+	private AtomicInteger searches;
+	private Supplier<List<Object>> search;
+
+	{
+		Describe("SolrSearchCache", () -> {
+			BeforeEach(() -> {
+				props = new SolrProperties();
+				props.setSearchCacheEntries(10);
+				searches = new AtomicInteger();
+				search = () -> {
+					searches.incrementAndGet();
+					return Arrays.<Object>asList("1", "2");
+				};
+			});
+			JustBeforeEach(() -> {
+				cache = new SolrSearchCache(props);
+			});
+
+			Context("#get", () -> {
+				It("should search once for repeated searches", () -> {
+					assertThat(cache.get(Document.class, key("foo"), search), is(Arrays.<Object>asList("1", "2")));
+					assertThat(cache.get(Document.class, key("foo"), search), is(Arrays.<Object>asList("1", "2")));
+					assertThat(searches.get(), is(1));
+					assertThat(cache.getHitCount(), is(1L));
+					assertThat(cache.getMissCount(), is(1L));
+				});
+				It("should compare array arguments by value", () -> {
+					cache.get(Document.class, new Object[] {"findAllKeywords", new String[] {"a", "b"}}, search);
+					cache.get(Document.class, new Object[] {"findAllKeywords", new String[] {"a", "b"}}, search);
+					assertThat(searches.get(), is(1));
+				});
+				It("should search again for different arguments or domain classes", () -> {
+					cache.get(Document.class, key("foo"), search);
+					cache.get(Document.class, key("bar"), search);
+					cache.get(Other.class, key("foo"), search);
+					assertThat(searches.get(), is(3));
+				});
+				Context("given a result older than the staleness window", () -> {
+					BeforeEach(() -> {
+						props.setSearchCacheStaleness(50);
+					});
+					It("should search again", () -> {
+						cache.get(Document.class, key("foo"), search);
+						Thread.sleep(100);
+						cache.get(Document.class, key("foo"), search);
+						assertThat(searches.get(), is(2));
+					});
+				});
+				Context("given more results than the maximum number of entries", () -> {
+					BeforeEach(() -> {
+						props.setSearchCacheEntries(2);
+					});
+					It("should evict the least recently used result", () -> {
+						cache.get(Document.class, key("a"), search);
+						cache.get(Document.class, key("b"), search);
+						cache.get(Document.class, key("a"), search);
+						cache.get(Document.class, key("c"), search);
+						assertThat(cache.getSize(), is(2));
+						assertThat(cache.getEvictionCount(), is(1L));
+
+						cache.get(Document.class, key("a"), search);
+						assertThat(searches.get(), is(3));
+						cache.get(Document.class, key("b"), search);
+						assertThat(searches.get(), is(4));
+					});
+				});
+				Context("given results larger than the maximum size", () -> {
+					BeforeEach(() -> {
+						props.setSearchCacheMaxBytes(1024);
+					});
+					It("should keep the estimated size within the maximum", () -> {
+						for (int i = 0; i < 10; i++) {
+							cache.get(Document.class, key(Integer.toString(i)), search);
+						}
+						assertThat(cache.getEstimatedBytes() <= 1024, is(true));
+						assertThat(cache.getSize() < 10, is(true));
+					});
+					It("should not cache a result larger than the maximum", () -> {
+						Supplier<List<Object>> large = () -> {
+							searches.incrementAndGet();
+							return Collections.<Object>nCopies(100, "12345678");
+						};
+						cache.get(Document.class, key("foo"), large);
+						cache.get(Document.class, key("foo"), large);
+						assertThat(searches.get(), is(2));
+						assertThat(cache.getSize(), is(0));
+					});
+				});
+				Context("given the cache is disabled", () -> {
+					BeforeEach(() -> {
+						props.setSearchCacheEntries(0);
+					});
+					It("should always search", () -> {
+						cache.get(Document.class, key("foo"), search);
+						cache.get(Document.class, key("foo"), search);
+						assertThat(searches.get(), is(2));
+					});
+				});
+				Context("given the domain class is invalidated during the search", () -> {
+					It("should not cache the result", () -> {
+						cache.get(Document.class, key("foo"), () -> {
+							cache.invalidate(Document.class);
+							return search.get();
+						});
+						assertThat(cache.getSize(), is(0));
+					});
+				});
+			});
+
+			Context("when content is set", () -> {
+				It("should invalidate the results of the entity's class", () -> {
+					cache.get(Document.class, key("foo"), search);
+					cache.get(Other.class, key("foo"), search);
+					cache.onApplicationEvent(new AfterSetContentEvent(new Document(), null));
+
+					cache.get(Document.class, key("foo"), search);
+					cache.get(Other.class, key("foo"), search);
+					assertThat(searches.get(), is(3));
+				});
+			});
+
+			Context("when content is unset", () -> {
+				It("should invalidate the results of the entity's class", () -> {
+					cache.get(Document.class, key("foo"), search);
+					cache.onApplicationEvent(new AfterUnsetContentEvent(new Document(), null));
+
+					cache.get(Document.class, key("foo"), search);
+					assertThat(searches.get(), is(2));
+				});
+			});
+		});
+	}
+
+	@Test
+	public void test() {
+	}
+
+	private static Object[] key(String query) {
+		return new Object[] {"findKeyword", query};
+	}
+
+	static class Document {}
+
+	static class Other {}
+}
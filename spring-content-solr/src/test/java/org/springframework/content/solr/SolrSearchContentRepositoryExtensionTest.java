@@ -2,6 +2,7 @@ package org.springframework.content.solr;
 
 import com.github.paulcwarren.ginkgo4j.Ginkgo4jConfiguration;
 import com.github.paulcwarren.ginkgo4j.Ginkgo4jRunner;
+import internal.org.springframework.content.solr.EntityRepositories;
 import internal.org.springframework.content.solr.SolrSearchService;
 import org.aopalliance.intercept.MethodInvocation;
 import org.apache.solr.client.solrj.SolrClient;
@@ -9,24 +10,34 @@ import org.apache.solr.common.SolrDocument;
 import org.apache.solr.common.SolrDocumentList;
 import org.apache.solr.common.util.NamedList;
 import org.hamcrest.core.Every;
+import org.hamcrest.Matchers;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.springframework.content.commons.repository.ContentStore;
 import org.springframework.content.commons.repository.StoreInvoker;
 import org.springframework.content.commons.search.Searchable;
 import org.springframework.content.commons.utils.ReflectionService;
 import org.springframework.content.commons.utils.ReflectionServiceImpl;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.core.convert.support.GenericConversionService;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 
 import java.lang.reflect.Method;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static com.github.paulcwarren.ginkgo4j.Ginkgo4jDSL.*;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.mockito.Mockito.*;
 
+@SuppressWarnings("unchecked")
 @RunWith(Ginkgo4jRunner.class)
 @Ginkgo4jConfiguration(threads = 1)
 public class SolrSearchContentRepositoryExtensionTest {
@@ -38,6 +49,10 @@ public class SolrSearchContentRepositoryExtensionTest {
     private StoreInvoker invoker;
     private GenericConversionService conversionService;
     private SolrProperties solrProperties;
+    private EntityRepositories repositories;
+    private Document doc1 = new Document();
+    private Document doc2 = new Document();
+    private Exception e;
 
     // mock
     private SolrClient solr;
@@ -104,6 +119,100 @@ public class SolrSearchContentRepositoryExtensionTest {
                     Iterable<?> results = (Iterable<?>)search.invoke(invocation, invoker);
                     assertThat(results, Every.everyItem(instanceOf(Integer.class)));
                 });
+                It("should convert a returned page to the content id type", () -> {
+                    doReturn(Integer.class).when(invoker).getContentIdClass();
+                    doReturn(Document.class).when(invoker).getDomainClass();
+
+                    reflectionService = mock(ReflectionService.class);
+                    when(reflectionService.invokeMethod(anyObject(), anyObject(), anyVararg())).thenReturn(new PageImpl<>(Collections.singletonList("12345"), new PageRequest(0, 10), 11));
+
+                    search = new SolrSearchContentRepositoryExtension(null, reflectionService, conversionService, solrProperties);
+                    Page<Object> results = (Page<Object>)search.invoke(invocation, invoker);
+                    assertThat(results.getContent(), Matchers.<Object>contains(12345));
+                    assertThat(results.getTotalElements(), is(11L));
+                });
+                It("should convert a returned stream to the content id type", () -> {
+                    doReturn(Integer.class).when(invoker).getContentIdClass();
+                    doReturn(Document.class).when(invoker).getDomainClass();
+
+                    reflectionService = mock(ReflectionService.class);
+                    when(reflectionService.invokeMethod(anyObject(), anyObject(), anyVararg())).thenReturn(Stream.of("1", "2"));
+
+                    search = new SolrSearchContentRepositoryExtension(null, reflectionService, conversionService, solrProperties);
+                    Stream<Object> results = (Stream<Object>)search.invoke(invocation, invoker);
+                    assertThat(results.collect(Collectors.toList()), Matchers.<Object>contains(1, 2));
+                });
+                It("should answer repeated searches from the search cache", () -> {
+                    doReturn(Integer.class).when(invoker).getContentIdClass();
+                    doReturn(Document.class).when(invoker).getDomainClass();
+
+                    solrProperties = new SolrProperties();
+                    solrProperties.setSearchCacheEntries(10);
+                    reflectionService = mock(ReflectionService.class);
+                    when(reflectionService.invokeMethod(anyObject(), anyObject(), anyVararg())).thenReturn(Collections.singletonList("12345"));
+
+                    search = new SolrSearchContentRepositoryExtension(null, reflectionService, conversionService, solrProperties);
+                    search.setSearchCache(new SolrSearchCache(solrProperties));
+                    assertThat((List<Object>) search.invoke(invocation, invoker), Matchers.<Object>contains(12345));
+                    assertThat((List<Object>) search.invoke(invocation, invoker), Matchers.<Object>contains(12345));
+
+                    verify(reflectionService, times(1)).invokeMethod(anyObject(), anyObject(), anyVararg());
+                });
+                Context("given a store that is searchable by its domain class", () -> {
+                    BeforeEach(() -> {
+                        doReturn(DocumentStore.class).when(invoker).getStoreInterface();
+                        doReturn(String.class).when(invoker).getContentIdClass();
+                        doReturn(Document.class).when(invoker).getDomainClass();
+
+                        solrProperties = new SolrProperties();
+                        reflectionService = mock(ReflectionService.class);
+                        repositories = mock(EntityRepositories.class);
+                        when(repositories.hasRepositoryFor(Document.class)).thenReturn(true);
+                    });
+                    JustBeforeEach(() -> {
+                        search = new SolrSearchContentRepositoryExtension(null, reflectionService, conversionService, solrProperties);
+                        search.setEntityRepositories(repositories);
+                    });
+                    It("should load the matching entities in one batch", () -> {
+                        when(reflectionService.invokeMethod(anyObject(), anyObject(), anyVararg())).thenReturn(Arrays.asList("2", "1"));
+                        when(repositories.findAll(Document.class, Arrays.asList("2", "1"))).thenReturn(Arrays.asList(doc2, doc1));
+
+                        List<Object> results = (List<Object>) search.invoke(invocation, invoker);
+                        assertThat(results, Matchers.<Object>contains(doc2, doc1));
+                        verify(repositories, times(1)).findAll(anyObject(), anyObject());
+                    });
+                    It("should load the entities of a page", () -> {
+                        when(reflectionService.invokeMethod(anyObject(), anyObject(), anyVararg())).thenReturn(new PageImpl<>(Arrays.asList("2", "1"), new PageRequest(1, 2), 11));
+                        when(repositories.findAll(Document.class, Arrays.asList("2", "1"))).thenReturn(Arrays.asList(doc2, doc1));
+
+                        Page<Object> results = (Page<Object>) search.invoke(invocation, invoker);
+                        assertThat(results.getContent(), Matchers.<Object>contains(doc2, doc1));
+                        assertThat(results.getNumber(), is(1));
+                        assertThat(results.getTotalElements(), is(11L));
+                    });
+                    It("should load the entities of a stream as it is consumed", () -> {
+                        when(reflectionService.invokeMethod(anyObject(), anyObject(), anyVararg())).thenReturn(Stream.of("1", "2"));
+                        when(repositories.findAll(Document.class, Arrays.asList("1", "2"))).thenReturn(Arrays.asList(doc1, doc2));
+
+                        Stream<Object> results = (Stream<Object>) search.invoke(invocation, invoker);
+                        verify(repositories, never()).findAll(anyObject(), anyObject());
+                        assertThat(results.collect(Collectors.toList()), Matchers.<Object>contains(doc1, doc2));
+                        verify(repositories, times(1)).findAll(anyObject(), anyObject());
+                    });
+                    Context("given no repository for the domain class", () -> {
+                        BeforeEach(() -> {
+                            when(repositories.hasRepositoryFor(Document.class)).thenReturn(false);
+                        });
+                        It("should fail", () -> {
+                            try {
+                                search.invoke(invocation, invoker);
+                            } catch (IllegalStateException ise) {
+                                e = ise;
+                            }
+                            assertThat(e, is(instanceOf(IllegalStateException.class)));
+                        });
+                    });
+                });
             });
         });
     }
@@ -119,4 +228,6 @@ public class SolrSearchContentRepositoryExtensionTest {
     }
 
     static class Document {}
+
+    interface DocumentStore extends ContentStore<Document, String>, Searchable<Document> {}
 }